@@ -5,6 +5,7 @@ import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.Volt;
 import static edu.wpi.first.units.Units.Volts;
 
+import com.ctre.phoenix6.CANBus;
 import com.pathplanner.lib.path.PathConstraints;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -40,6 +41,43 @@ public class Constants {
     }
   }
 
+  public final class LoopConstants {
+    // Start each cycle shortly after a batch of odometry samples arrives rather than on a fixed
+    // timer, so the control loop runs against fresh samples. Only used on the real robot.
+    public static final boolean ODOMETRY_TRIGGERED = false;
+    // Time after a batch arrives to start the cycle, to let the other device signals land
+    public static final double TRIGGER_OFFSET_SECONDS = 0.001;
+    // How long past a cycle's due time to wait for a batch before falling back to the timer
+    public static final double TRIGGER_WATCHDOG_SECONDS = 0.005;
+    // Read subsystem inputs on a worker pool at the start of each loop, rather than one after
+    // another. Off reads them in order on the main thread.
+    public static final boolean PARALLEL_INPUT_READS = true;
+    public static final int INPUT_READ_WORKERS = 2;
+  }
+
+  public final class ThreadConstants {
+    // Real-time priorities (1-99, higher runs first, 0 for normal scheduling), cores (-1 for any)
+    // and how long each thread may stay busy before it's demoted. Only applied on the real robot.
+    public static final int MAIN_LOOP_PRIORITY = 10;
+    public static final int MAIN_LOOP_CPU = -1;
+    public static final double MAIN_LOOP_SPIN_TIMEOUT_SECONDS = 0.25;
+    public static final int ODOMETRY_PRIORITY = 20;
+    public static final int ODOMETRY_CPU = -1;
+    public static final double ODOMETRY_SPIN_TIMEOUT_SECONDS = 0.05;
+    public static final int HIGH_RATE_DRIVE_PRIORITY = 20;
+    public static final int HIGH_RATE_DRIVE_CPU = -1;
+    public static final double HIGH_RATE_DRIVE_SPIN_TIMEOUT_SECONDS = 0.05;
+    // Pathfinding runs for long stretches, so it stays at normal priority
+    public static final int PATHFINDING_CPU = -1;
+    // Above every managed thread, so it can run while one of them spins
+    public static final int WATCHDOG_PRIORITY = 40;
+    public static final double WATCHDOG_PERIOD_SECONDS = 0.01;
+    // A thread is demoted after this many spin timeouts in a row, counting each timeout a single
+    // unit of work runs past, and promoted again once its work has fit in the timeout for a while
+    public static final int DEMOTE_OVERRUNS = 3;
+    public static final double PROMOTE_RECOVERY_SECONDS = 5.0;
+  }
+
   public final class ControllerConstants {
     /**Placeholder value to signify that it should be changed later */
     public static final int PLACEHOLDER = 0;
@@ -147,6 +185,32 @@ public class Constants {
     public static final double WHEEL_RADIUS_RAMP_RATE = 0.05; // Rad/Sec^2
   }
 
+  public final class DriveControlConstants {
+    // Track paths and headings on a thread at the odometry rate, rather than at 50 Hz in commands.
+    // Only used on the real robot.
+    public static final boolean HIGH_RATE_ENABLED = false;
+    public static final double PATH_TRANSLATION_KP = 5.0;
+    public static final double PATH_ROTATION_KP = 5.0;
+    // How long a target is tracked after it was last published, around three loops
+    public static final double TARGET_TIMEOUT_SECONDS = 0.06;
+  }
+
+  public final class ScoringConstants {
+    // How close the robot's heading must be to the shot heading before feeding
+    public static final double AIM_HEADING_TOLERANCE_DEG = 3.0;
+  }
+
+  public final class JitWarmupConstants {
+    public static final double BUDGET_PER_LOOP_SECONDS = 0.005; // Leave most of the disabled loop
+    public static final double SETTLE_WINDOW_SECONDS = 1.0;
+    // Compilation is settled once a window adds less than this much JIT time
+    public static final double SETTLED_COMPILE_MS_PER_WINDOW = 5.0;
+    public static final double MIN_DURATION_SECONDS = 3.0;
+    public static final double MAX_DURATION_SECONDS = 30.0;
+    // Loop timing is summarized for this long after each enable
+    public static final double ENABLE_LOOP_WINDOW_SECONDS = 1.0;
+  }
+
   public final class OuttakeConstants {
     public static final int RIGHT_SHOOTER_MOTOR = -1;
     public static final int LEFT_SHOOTER_MOTOR = -1;
@@ -158,7 +222,6 @@ public class Constants {
     public static final double MIDDLE_WHEEL_TO_GROUND_VOLTS = -2;
     public static final double STAR_WHEEL_TO_GROUND_VOLTS = 2;
     public static final double STAR_WHEEL_TO_SHOOTER_VOLTS = 2;
-    public static final double FLYWHEEL_VOLTS = 12;
 
     public static final double MINIMUM_SHOT_ANGLE_DEG = 48.782882;
     public static final double MAXIMUM_SHOT_ANGLE_DEG = 74.552487;
@@ -169,10 +232,56 @@ public class Constants {
     public static final double MIDFIELD_LIMIT_FEET = 0.0;
     public static final double OPPOSITE_TEAM_LIMIT_FEET = 0.0;
 
-    public static final double ANGLE_CHANGER_GEAR_RATIO = 1 / 16;
-
-    public static final double HOOD_ANGLE_KP = 0.0;
-    public static final double HOOD_ANGLE_KD = 0.0;
+    /** Hood rotations per angle changer motor rotation */
+    public static final double ANGLE_CHANGER_GEAR_RATIO = 1.0 / 16.0;
+
+    // Hood Motion Magic, in volts per hood rotation (the TalonFX applies the gear ratio)
+    public static final double HOOD_kP = 0.0;
+    public static final double HOOD_kD = 0.0;
+    public static final double HOOD_kS = 0.0;
+    public static final double HOOD_kV = 0.0;
+    public static final double HOOD_CRUISE_VELOCITY_ROT_PER_SEC = 0.5;
+    public static final double HOOD_ACCELERATION_ROT_PER_SEC2 = 2.0;
+    public static final double HOOD_AT_TARGET_TOLERANCE_DEG = 0.5;
+
+    // Outtake physics sim, see OuttakeIOSim
+    public static final double SIM_FLYWHEEL_MOI_KG_M2 = 0.002;
+    public static final double SIM_FLYWHEEL_kP = 0.5;
+    public static final double SIM_HOOD_MOI_KG_M2 = 0.02;
+    public static final double SIM_HOOD_LENGTH_METERS = 0.2;
+    public static final double SIM_HOOD_kP = 80.0;
+    public static final double SIM_HOOD_kD = 1.0;
+    public static final double SIM_HOOD_kV = 1.9;
+    public static final double SIM_FEEDER_MOI_KG_M2 = 0.0005;
+    public static final double SIM_FEEDER_GEAR_RATIO = 3.0;
+    public static final double SIM_FEEDER_RADIUS_METERS = 0.0254;
+    /** Feeder travel between one ball reaching the flywheel and the next */
+    public static final double SIM_BALL_SPACING_METERS = 0.18;
+    /** Fraction of the energy the flywheel loses per shot that ends up in the ball */
+    public static final double SIM_SHOT_EFFICIENCY = 0.7;
+    public static final double SHOT_CYCLE_TEST_SECONDS = 5.0;
+
+    // Shot Monte Carlo, see ShotMonteCarlo. Standard deviations of the errors each shot sees.
+    public static final double MONTE_CARLO_EXIT_SPEED_STDDEV_FRACTION = 0.02;
+    public static final double MONTE_CARLO_ANGLE_STDDEV_DEG = 0.5;
+    public static final double MONTE_CARLO_RELEASE_HEIGHT_STDDEV_METERS = 0.02;
+    public static final double MONTE_CARLO_POSITION_STDDEV_METERS = 0.05;
+    public static final double MONTE_CARLO_HEADING_STDDEV_DEG = 1.0;
+    /** Usable radius of the hub opening, less the ball's radius */
+    public static final double MONTE_CARLO_HUB_OPENING_RADIUS_METERS = 0.45;
+    public static final double MONTE_CARLO_SPEED_STEP_MPS = 0.25;
+    public static final double MONTE_CARLO_CELL_METERS = 0.25;
+
+    // Flywheel velocity loop, in volts per rotation per second of the lead motor
+    public static final double FLYWHEEL_kS = 0.0;
+    public static final double FLYWHEEL_kV = 0.12;
+    public static final double FLYWHEEL_kP = 0.0;
+    /** Flywheel speed used before a shot has been looked up */
+    public static final double DEFAULT_FLYWHEEL_RPS = 90.0;
+    public static final double FLYWHEEL_AT_SPEED_TOLERANCE_RPS = 2.0;
+    public static final double FLYWHEEL_AT_SPEED_DEBOUNCE_SECONDS = 0.06;
+    /** How far below target the flywheel must drop for a ball passing through to count as a shot */
+    public static final double FLYWHEEL_SHOT_DIP_RPS = 3.0;
 
     public static final double ANGLE_CHANGER_STARTING_ANGLE_ROTATIONS = 0.2070902417;
 
@@ -182,31 +291,64 @@ public class Constants {
     public static final double GRAVITATIONAL_CONSTANT_MPS2 = 9.8;
     public static final double HUB_HEIGHT_FEET = 6.0;
     public static final double LAUNCH_HEIGHT_FEET = 2.5;
+
+    // Shot model, see ShotModel. Tune the coefficients against real shots.
+    public static final double BALL_MASS_KG = 0.215;
+    public static final double BALL_DIAMETER_METERS = 0.150;
+    public static final double BALL_DRAG_COEFFICIENT = 0.47;
+    public static final double BALL_LIFT_COEFFICIENT = 0.15;
+    public static final double AIR_DENSITY_KG_PER_M3 = 1.2;
+    public static final double MIN_EXIT_VELOCITY_MPS = 5.0;
+    public static final double MAX_EXIT_VELOCITY_MPS = 17.0;
+    public static final double FLYWHEEL_RADIUS_METERS = 0.0508;
+    /** Ball exit speed as a fraction of the flywheel surface speed (about half for a hood) */
+    public static final double BALL_EXIT_SPEED_RATIO = 0.5;
+
+    // Shot map, see ShotMap
+    public static final String SHOT_MAP_FILENAME = "shotmap.csv";
+    public static final double SHOT_MAP_MIN_DISTANCE_METERS = 1.0;
+    public static final double SHOT_MAP_MAX_DISTANCE_METERS = 8.0;
+    public static final double SHOT_MAP_STEP_METERS = 0.05;
+    /** How close a solved shot must land to the requested distance */
+    public static final double SHOT_SOLVE_TOLERANCE_METERS = 0.05;
+
+    // Shooting on the move, see MovingShotSolver
+    public static final int MOVING_SHOT_MAX_ITERATIONS = 5;
+    public static final double MOVING_SHOT_TOLERANCE_SECONDS = 0.005;
+    /** Time from committing to a shot to the ball leaving the shooter */
+    public static final double SHOT_RELEASE_LATENCY_SECONDS = 0.1;
+    /** Direction the shooter faces relative to the robot's front */
+    public static final Rotation2d SHOOTER_HEADING_OFFSET = Rotation2d.kZero;
   }
 
   public final class IntakeConstants {
     public static final int TALON_ID = 0;
 
     public static final double INTAKE_MOTOR_TO_FIRST_PULLEY_RATIO = 60;
-    public static final double INTAKE_FIRST_PULLEY_TO_SECOND_PULLEY_RATIO = 15 / 36;
+    public static final double INTAKE_FIRST_PULLEY_TO_SECOND_PULLEY_RATIO = 15.0 / 36.0;
     public static final double GEAR_ROTATIONS_TO_ARM_ROTATIONS =
         INTAKE_FIRST_PULLEY_TO_SECOND_PULLEY_RATIO / INTAKE_MOTOR_TO_FIRST_PULLEY_RATIO;
     public static final double FULL_RETRACTION_DEGREES = 0;
     public static final double FULL_EXTENSION_DEGREES = 120;
     public static final double MAX_WIGGLE_DEGREES = 75;
 
-    // feedback constants
-    public static final double INTAKE_kP = 0;
+    // feedback constants (starting points, tuned in sim), volts per motor rotation
+    public static final double INTAKE_kP = 2.0;
     public static final double INTAKE_kI = 0;
     public static final double INTAKE_kD = 0;
     // feedforward constants
     public static final double INTAKE_kS = 0;
-    public static final double INTAKE_kV = 0;
+    public static final double INTAKE_kV = 0.12;
     public static final double INTAKE_kA = 0;
-    // motion profiler constants
-    public static final double INTAKE_CRUISE_VELOCITY = 0;
-    public static final double INTAKE_MAX_ACCELERATION = 0;
+    // motion profiler constants, motor rotations per second (per second)
+    public static final double INTAKE_CRUISE_VELOCITY = 80;
+    public static final double INTAKE_MAX_ACCELERATION = 160;
     public static final double INTAKE_MAX_ALLOWED_PROFILER_ERROR = 0;
+
+    public static final double AT_TARGET_TOLERANCE_DEGREES = 2.0;
+
+    public static final double SIM_ARM_MOI_KG_M2 = 0.1;
+    public static final double SIM_ARM_LENGTH_METERS = 0.4;
   }
 
   public final class HopperConstants {
@@ -221,34 +363,103 @@ public class Constants {
     public final static double HOPPER_POSITION_TO_ANGLE_CONVERSION = HOPPER_WINCH_GEAR_RATIO / HOPPER_WINCH_CIRCUMFRENCE;
    
   
-    //feedback constants
-    public final static double HOPPER_kP = 0;
+    //feedback constants (starting points, tuned in sim), duty cycle per motor rotation
+    public final static double HOPPER_kP = 0.05;
     public final static double HOPPER_kI = 0;
     public final static double HOPPER_kD = 0;
     //feedforward constants
     public final static double HOPPER_kS = 0;
     public final static double HOPPER_kV = 0;
     public final static double HOPPER_kA = 0;
-    //motion profiler constants
-    public final static double HOPPER_CRUISE_VELOCITY = 0;
-    public final static double HOPPER_MAX_ACCELERATION = 0;
-    public final static double HOPPER_MAX_ALLOWED_PROFILER_ERROR = 0;
+    //motion profiler constants, motor RPM (per second) and motor rotations
+    public final static double HOPPER_CRUISE_VELOCITY = 5000;
+    public final static double HOPPER_MAX_ACCELERATION = 10000;
+    public final static double HOPPER_MAX_ALLOWED_PROFILER_ERROR = 0.5;
+
+    public final static double HOPPER_AT_TARGET_TOLERANCE_INCHES = 0.25;
+
+    public final static double SIM_HOPPER_MASS_KG = 2.0;
 
   }
 
   public final class IndexerConstants {
     public static final int MOTOR_ID = 1;
-    public static final double MOTOR_VOLTAGE = 3;
+    public static final double FEED_VELOCITY_RPS = 25.0;
+
+    // Velocity loop gains (Slot0), volts per rps for kV
+    public static final double kS = 0.0;
+    public static final double kV = 0.12;
+    public static final double kP = 0.1;
+
+    // A jam is a current spike while the velocity collapses, held past the debounce
+    public static final double JAM_CURRENT_AMPS = 40.0;
+    public static final double JAM_VELOCITY_FRACTION = 0.25;
+    public static final double JAM_DEBOUNCE_SECONDS = 0.1;
+    // Spin-up looks like a jam, so ignore this long after starting
+    public static final double JAM_STARTUP_IGNORE_SECONDS = 0.2;
+    public static final double JAM_REVERSE_RPS = 15.0;
+    public static final double JAM_REVERSE_SECONDS = 0.25;
+    // Give up after this many jams, each within the window of the last
+    public static final int JAM_MAX_RETRIES = 3;
+    public static final double JAM_RETRY_WINDOW_SECONDS = 2.0;
+
+    public static final double SIM_MOI_KG_M2 = 0.0005;
+    public static final double SIM_kP = 0.5;
+  }
+
+  public final class SuperstructureConstants {
+    // DIO channels of the optional beam breaks, -1 when not fitted
+    public static final int INDEXER_BEAM_BREAK_CHANNEL = -1;
+    public static final int FEEDER_BEAM_BREAK_CHANNEL = -1;
+
+    public static final int PRELOAD_BALLS = 3;
+    // Without beam breaks, a ball entering the indexer shows up as a current spike
+    public static final double INDEXER_BALL_CURRENT_AMPS = 15.0;
+    public static final double INDEXER_BALL_DEBOUNCE_SECONDS = 0.04;
+    // Without a feeder beam break, a ball is assumed staged this long after entering the indexer
+    public static final double INDEXER_TRANSIT_SECONDS = 0.3;
+    public static final double THROUGHPUT_WINDOW_SECONDS = 3.0;
+  }
+
+  public final class CanConstants {
+    // The roboRIO's bus, which every device not on the drivetrain's bus is wired to
+    public static final CANBus RIO_BUS = new CANBus();
+
+    // Fraction of a bus's time periodic frames may use before an alert is raised
+    public static final double BUS_LOAD_BUDGET = 0.7;
+    // Worst-case time on the wire of one frame with an 8 byte payload and bit stuffing, at 1 Mbit/s
+    // for CAN 2.0 and with an 8 Mbit/s data phase for CAN FD
+    public static final double CLASSIC_FRAME_MICROS = 135.0;
+    public static final double FD_FRAME_MICROS = 80.0;
+    public static final double MONITOR_PERIOD_SECONDS = 0.5;
+
+    // Rates of non-critical signals, see SignalRatePolicy
+    public static final double SIGNAL_IDLE_HZ = 10.0;
+    public static final double SIGNAL_ACTIVE_HZ = 50.0;
+    public static final double SIGNAL_BOOSTED_HZ = 100.0;
+  }
+
+  public final class DeviceConfigConstants {
+    // Devices are configured in parallel at startup, see DeviceConfigurator
+    public static final int THREADS = 8;
+    public static final double APPLY_TIMEOUT_SECONDS = 0.25;
+    public static final int MAX_ATTEMPTS = 5;
+    // Doubles after each failed attempt
+    public static final double RETRY_BACKOFF_SECONDS = 0.05;
+    public static final double AWAIT_TIMEOUT_SECONDS = 10.0;
+    // Relative, for settings read back from devices
+    public static final double READBACK_TOLERANCE = 1e-3;
   }
 
   public final class PathGenerationConstants {
 
     // Predefined locations of interest
     public enum Location {
-      SPEAKER_CENTER(new Pose2d(0.0, 5.5, Rotation2d.fromDegrees(0))), // Example coordinates
-      AMP(new Pose2d(1.8, 7.7, Rotation2d.fromDegrees(90))),
-      SOURCE_RIGHT(new Pose2d(15.5, 1.0, Rotation2d.fromDegrees(120))),
-      STAGE_CENTER(new Pose2d(4.5, 4.0, Rotation2d.fromDegrees(0))),
+      // Example coordinates on the blue side, in free space on the navgrid
+      HUB_FRONT(new Pose2d(2.85, 4.03, Rotation2d.fromDegrees(0))),
+      DEPOT(new Pose2d(1.2, 5.95, Rotation2d.fromDegrees(180))),
+      OUTPOST(new Pose2d(0.75, 0.75, Rotation2d.fromDegrees(180))),
+      TOWER(new Pose2d(2.0, 3.75, Rotation2d.fromDegrees(180))),
       TEST_POSE(new Pose2d(14.55, 1.0, new Rotation2d()));
 
       private final Pose2d pose;
@@ -276,5 +487,21 @@ public class Constants {
             MAX_ACCELERATION, // Max acceleration (m/s^2) (from PathPlanner)
             MAX_ANGULAR_VELOCITY, // Max angular velocity (rad/s)
             MAX_ANGULAR_ACCELERATION); // Max angular acceleration (rad/s^2) (from PathPlanner)
+
+    // Navgrid used by the local planners, relative to the deploy directory
+    public static final String NAVGRID_FILENAME = "pathplanner/navgrid.json";
+    // Binary quadtree of the navgrid, regenerate with ./gradlew convertNavGrid
+    public static final String QUADTREE_NAVGRID_FILENAME = "pathplanner/navgrid.qtree";
+    // Plan over the quadtree instead of the uniform grid, both on the fly and in the local planners
+    public static final boolean USE_QUADTREE_NAVGRID = false;
+
+    // Multi-goal planning
+    public static final int MULTI_GOAL_WORKER_THREADS = 2; // The roboRIO only has two cores
+    public static final double MULTI_GOAL_PLAN_TIMEOUT_SECONDS = 0.25;
+    public static final double MULTI_GOAL_ARRIVAL_TOLERANCE_METERS = 0.3;
+
+    // Auto route planning, cache is relative to the operating directory with one file per input key
+    public static final String TRAVEL_TIME_CACHE_DIRECTORY = "cache/travel_times";
+    public static final double AUTO_DURATION_SECONDS = 20.0;
   }
 }
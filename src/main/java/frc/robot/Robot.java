@@ -13,8 +13,26 @@
 
 package frc.robot;
 
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.DeviceConfigConstants;
+import frc.robot.Constants.JitWarmupConstants;
+import frc.robot.Constants.LoopConstants;
+import frc.robot.Constants.ThreadConstants;
+import frc.robot.subsystems.drive.PhoenixOdometryThread;
+import frc.robot.util.CanBusMonitor;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.InputReadGraph;
+import frc.robot.util.SignalRatePolicy;
+import frc.robot.util.ThreadManager;
+import frc.robot.util.ThreadManager.ManagedThread;
+import frc.robot.util.ThreadManager.ThreadSettings;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.LockSupport;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
@@ -31,6 +49,31 @@ import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 public class Robot extends LoggedRobot {
   private Command autonomousCommand;
   private RobotContainer robotContainer;
+  private CanBusMonitor canBusMonitor;
+  private ManagedThread mainThread;
+  private double lastLoopWake = Double.NaN;
+  private double lastLoopFinish = Double.NaN;
+
+  // Loop timing right after each enable, where code that hasn't been JIT compiled shows up
+  private boolean wasEnabled = false;
+  private double enabledTimestamp = 0.0;
+  private double lastLoopTimestamp = 0.0;
+  private double enabledWindowMaxMs = 0.0;
+  private double enabledWindowTotalMs = 0.0;
+  private int enabledWindowLoops = 0;
+  private int enabledWindowOverruns = 0;
+  private boolean enabledWindowOpen = false;
+
+  // Odometry triggered loop, see LoopConstants
+  private final boolean odometryTriggered =
+      LoopConstants.ODOMETRY_TRIGGERED
+          && Constants.RuntimeConstants.currentMode == Constants.RuntimeConstants.Mode.REAL;
+  private double lastCycleStart = Double.NaN;
+  private int triggerFallbacks = 0;
+  private final Alert triggerFallbackAlert =
+      new Alert(
+          "No odometry samples arrived in time to start the cycle, using the timer.",
+          AlertType.kWarning);
 
   public Robot() {
     // Record metadata
@@ -73,20 +116,45 @@ public class Robot extends LoggedRobot {
         break;
     }
 
+    // Cycles are started from loopFunc once odometry arrives, rather than by AdvantageKit's timer
+    if (odometryTriggered) {
+      setUseTiming(false);
+    }
+
     // Start AdvantageKit logger
     Logger.start();
 
+    // The constructor runs on the thread that runs the loop
+    mainThread =
+        ThreadManager.register(
+            "Main",
+            new ThreadSettings(
+                ThreadConstants.MAIN_LOOP_PRIORITY,
+                ThreadConstants.MAIN_LOOP_CPU,
+                ThreadConstants.MAIN_LOOP_SPIN_TIMEOUT_SECONDS));
+
     // Instantiate our RobotContainer. This will perform all our button bindings,
     // and put our autonomous chooser on the dashboard.
     robotContainer = new RobotContainer();
+
+    // The IOs submit device configs as they're constructed, so wait for them before running
+    DeviceConfigurator.awaitAll(DeviceConfigConstants.AWAIT_TIMEOUT_SECONDS);
+
+    // Every IO has registered its CAN signals by now
+    canBusMonitor = new CanBusMonitor();
+
+    // Time since the JVM started, so it includes loading classes before this constructor
+    Logger.recordOutput(
+        "Startup/Seconds", ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
   }
 
   /** This function is called periodically during all modes. */
   @Override
   public void robotPeriodic() {
-    // Optionally switch the thread to high priority to improve loop
-    // timing (see the template project documentation for details)
-    // Threads.setCurrentThreadPriority(true, 99);
+    trackEnabledLoopTiming();
+
+    // Read every subsystem's inputs, for their periodics to process in the scheduler
+    InputReadGraph.readAll();
 
     // Runs the Scheduler. This is responsible for polling buttons, adding
     // newly-scheduled commands, running already-scheduled commands, removing
@@ -95,8 +163,109 @@ public class Robot extends LoggedRobot {
     // the Command-based framework to work.
     CommandScheduler.getInstance().run();
 
-    // Return to non-RT thread priority (do not modify the first argument)
-    // Threads.setCurrentThreadPriority(false, 10);
+    // Send outputs staged by the commands that just ran together
+    robotContainer.flushOutputs();
+    SignalRatePolicy.periodic();
+    canBusMonitor.periodic();
+    ThreadManager.periodic();
+  }
+
+  /**
+   * Summarizes loop periods over the first moments of each enable and logs them once the window
+   * closes, so warm-up changes can be compared between matches.
+   */
+  private void trackEnabledLoopTiming() {
+    double now = Timer.getFPGATimestamp();
+    double periodMs = (now - lastLoopTimestamp) * 1000.0;
+    lastLoopTimestamp = now;
+
+    boolean enabled = DriverStation.isEnabled();
+    if (enabled && !wasEnabled) {
+      enabledTimestamp = now;
+      enabledWindowMaxMs = 0.0;
+      enabledWindowTotalMs = 0.0;
+      enabledWindowLoops = 0;
+      enabledWindowOverruns = 0;
+      enabledWindowOpen = true;
+    } else if (enabledWindowOpen) {
+      // The first enabled loop's period still belongs to disabled, so it starts on the next one
+      enabledWindowMaxMs = Math.max(enabledWindowMaxMs, periodMs);
+      enabledWindowTotalMs += periodMs;
+      enabledWindowLoops++;
+      if (periodMs > getPeriod() * 1000.0) {
+        enabledWindowOverruns++;
+      }
+      if (!enabled || now - enabledTimestamp >= JitWarmupConstants.ENABLE_LOOP_WINDOW_SECONDS) {
+        Logger.recordOutput("LoopTiming/FirstEnabledSecond/MaxMs", enabledWindowMaxMs);
+        Logger.recordOutput(
+            "LoopTiming/FirstEnabledSecond/MeanMs", enabledWindowTotalMs / enabledWindowLoops);
+        Logger.recordOutput("LoopTiming/FirstEnabledSecond/Overruns", enabledWindowOverruns);
+        enabledWindowOpen = false;
+      }
+    }
+    wasEnabled = enabled;
+  }
+
+  /**
+   * Runs a cycle, then in the odometry triggered loop waits to start the next one until shortly
+   * after the next batch of odometry samples. The wait comes after the cycle's user code and
+   * watchdog, and before AdvantageKit takes the next cycle's timestamp and inputs, so it doesn't
+   * change what's logged or replayed.
+   *
+   * <p>The wait is still inside the span LoggedRobot times, so in this mode its UserCodeMS
+   * includes it. LoopTiming/Trigger/UserCodeMs is the cycle without the wait.
+   */
+  @Override
+  protected void loopFunc() {
+    // The cycle's timestamp is taken as soon as the loop wakes. It's due a period after the last
+    // wake, or as soon as the last cycle finished if that overran.
+    double wake = Logger.getTimestamp() / 1e6;
+    double due = Math.max(lastLoopWake + getPeriod(), lastLoopFinish);
+    mainThread.startWork(due, wake);
+    lastLoopWake = wake;
+
+    super.loopFunc();
+
+    mainThread.finishWork();
+    lastLoopFinish = Logger.getRealTimestamp() / 1e6;
+    if (odometryTriggered) {
+      Logger.recordOutput("LoopTiming/Trigger/UserCodeMs", (lastLoopFinish - wake) * 1000.0);
+      waitForOdometryBatch();
+    }
+  }
+
+  private void waitForOdometryBatch() {
+    PhoenixOdometryThread odometryThread = PhoenixOdometryThread.getInstance();
+    double now = Logger.getRealTimestamp() / 1e6;
+    double due = Double.isNaN(lastCycleStart) ? now : lastCycleStart + getPeriod();
+
+    // Take the batch nearest the due time, so cycles stay a period apart on average
+    double notBefore =
+        due - LoopConstants.TRIGGER_OFFSET_SECONDS - odometryThread.getBatchPeriodSeconds() / 2.0;
+    double batchTimestamp;
+    try {
+      batchTimestamp =
+          odometryThread.waitForBatch(notBefore, due + LoopConstants.TRIGGER_WATCHDOG_SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    boolean fellBack = Double.isNaN(batchTimestamp);
+    if (fellBack) {
+      triggerFallbacks++;
+    } else {
+      double start = batchTimestamp + LoopConstants.TRIGGER_OFFSET_SECONDS;
+      long delayNanos = (long) ((start - Logger.getRealTimestamp() / 1e6) * 1e9);
+      if (delayNanos > 0) {
+        LockSupport.parkNanos(delayNanos);
+      }
+    }
+    lastCycleStart = Logger.getRealTimestamp() / 1e6;
+    triggerFallbackAlert.set(fellBack);
+    Logger.recordOutput("LoopTiming/Trigger/WaitMs", (lastCycleStart - now) * 1000.0);
+    Logger.recordOutput("LoopTiming/Trigger/FellBack", fellBack);
+    Logger.recordOutput("LoopTiming/Trigger/Fallbacks", triggerFallbacks);
   }
 
   /** This function is called once when the robot is disabled. */
@@ -30,6 +30,7 @@ import frc.robot.Constants.PathGenerationConstants.Location;
 import frc.robot.Constants.IndexerConstants;
 import frc.robot.Constants.RuntimeConstants;
 import frc.robot.commands.DriveCommands;
+import frc.robot.commands.ScoringCommands;
 import frc.robot.generated.TunerConstants;
 import frc.robot.subsystems.Indexer.Indexer;
 import frc.robot.subsystems.Indexer.IndexerIO;
@@ -41,13 +42,29 @@ import frc.robot.subsystems.drive.GyroIOPigeon2;
 import frc.robot.subsystems.drive.ModuleIO;
 import frc.robot.subsystems.drive.ModuleIOSim;
 import frc.robot.subsystems.drive.ModuleIOTalonFX;
+import frc.robot.subsystems.hopper.Hopper;
+import frc.robot.subsystems.hopper.HopperIO;
+import frc.robot.subsystems.hopper.HopperIOSim;
+import frc.robot.subsystems.intake.Intake;
+import frc.robot.subsystems.intake.IntakeIO;
+import frc.robot.subsystems.intake.IntakeIOSim;
+import frc.robot.subsystems.outtake.Outtake;
+import frc.robot.subsystems.outtake.OuttakeIO;
+import frc.robot.subsystems.outtake.OuttakeIOSim;
+import frc.robot.subsystems.superstructure.BeamBreakIO;
+import frc.robot.subsystems.superstructure.BeamBreakIODigital;
+import frc.robot.subsystems.superstructure.Superstructure;
 import frc.robot.subsystems.vision.Vision;
 import frc.robot.subsystems.vision.VisionIO;
 import frc.robot.subsystems.vision.VisionIOLimelight;
+import frc.robot.util.JitWarmup;
 import frc.robot.util.PathGeneration;
 
 import static edu.wpi.first.units.Units.Volt;
 
+import java.util.List;
+import java.util.Map;
+
 import org.littletonrobotics.junction.networktables.LoggedDashboardChooser;
 
 /**
@@ -60,7 +77,11 @@ public class RobotContainer {
   // -- Subsystems --
   private final Drive drive;
   private final Vision vision;
+  private final Intake intake;
+  private final Hopper hopper;
   private final Indexer indexer;
+  private final Outtake outtake;
+  private final Superstructure superstructure;
   private final PathGeneration pathGeneration;
 
   // -- Controllers --
@@ -76,6 +97,7 @@ public class RobotContainer {
 
   /** The container for the robot. Contains subsystems, OI devices, and commands. */
   public RobotContainer() {
+    BeamBreakIO beamBreakIO;
     switch (RuntimeConstants.currentMode) {
       case REAL:
         // Real robot, instantiate hardware IO implementations
@@ -88,7 +110,13 @@ public class RobotContainer {
                 new ModuleIOTalonFX(TunerConstants.FrontRight),
                 new ModuleIOTalonFX(TunerConstants.BackLeft),
                 new ModuleIOTalonFX(TunerConstants.BackRight));
+        // The intake and hopper device IDs are still placeholders, so they have no hardware yet
+        intake = new Intake(new IntakeIO() {});
+        hopper = new Hopper(new HopperIO() {});
         indexer = new Indexer(new IndexerIOTalonFX());
+        // The outtake's motor IDs are still placeholders, so it has no hardware yet
+        outtake = new Outtake(new OuttakeIO() {});
+        beamBreakIO = new BeamBreakIODigital();
         break;
 
       case SIM:
@@ -102,7 +130,11 @@ public class RobotContainer {
                 new ModuleIOSim(TunerConstants.FrontRight),
                 new ModuleIOSim(TunerConstants.BackLeft),
                 new ModuleIOSim(TunerConstants.BackRight));
+        intake = new Intake(new IntakeIOSim());
+        hopper = new Hopper(new HopperIOSim());
         indexer = new Indexer(new IndexerIOSim());
+        outtake = new Outtake(new OuttakeIOSim());
+        beamBreakIO = new BeamBreakIO() {};
         break;
 
       default:
@@ -116,14 +148,52 @@ public class RobotContainer {
                 new ModuleIO() {},
                 new ModuleIO() {},
                 new ModuleIO() {});
+        intake = new Intake(new IntakeIO() {});
+        hopper = new Hopper(new HopperIO() {});
         indexer = new Indexer(new IndexerIO() {});
+        outtake = new Outtake(new OuttakeIO() {});
+        beamBreakIO = new BeamBreakIO() {};
     }
+    // Created after the subsystems it coordinates so it runs after them each loop
+    superstructure = new Superstructure(indexer, outtake, beamBreakIO);
 
-    pathGeneration = new PathGeneration();
+    pathGeneration = new PathGeneration(drive);
 
     // Set up auto routines
     autoChooser = new LoggedDashboardChooser<>("Auto Choices", AutoBuilder.buildAutoChooser());
 
+    // Visits the listed locations in whichever order is fastest
+    autoChooser.addOption(
+        "Optimized Location Route",
+        pathGeneration.pathfindOptimizedRoute(
+            Location.HUB_FRONT.name(),
+            List.of(Location.DEPOT.name(), Location.OUTPOST.name(), Location.TOWER.name()),
+            Map.of()));
+
+    // Measures flywheel spin-up, hood settle and shot cycle times
+    autoChooser.addOption("Outtake Shot Cycle Test", outtake.shotCycleTest());
+
+    // Deploys and retracts the intake and hopper, so move times can be read from the log
+    autoChooser.addOption(
+        "Intake Hopper Deploy Test",
+        Commands.sequence(
+            Commands.runOnce(
+                () -> {
+                  intake.fullyExtend();
+                  hopper.full();
+                },
+                intake,
+                hopper),
+            Commands.waitSeconds(2.0),
+            Commands.runOnce(
+                () -> {
+                  intake.fullyRetract();
+                  hopper.retract();
+                },
+                intake,
+                hopper),
+            Commands.waitSeconds(2.0)));
+
     // Set up SysId routines
     autoChooser.addOption(
         "Drive Wheel Radius Characterization", DriveCommands.wheelRadiusCharacterization(drive));
@@ -154,6 +224,9 @@ public class RobotContainer {
     configureJoystickBindings();
 
     PathfindingCommand.warmupCommand().schedule();
+    if (RuntimeConstants.currentMode != RuntimeConstants.Mode.REPLAY) {
+      JitWarmup.warmupCommand().schedule();
+    }
   }
 
   /**
@@ -205,6 +278,18 @@ public class RobotContainer {
                     drive)
                 .ignoringDisable(true));
 
+    // Aim at the hub while driving and shoot whenever aligned, spin down on release
+    steerJoystick
+        .button(ControllerConstants.THUMB_BUTTON_BOTTOM)
+        .whileTrue(
+            ScoringCommands.aimAndShoot(
+                drive,
+                outtake,
+                superstructure,
+                () -> -driveJoystick.getY(),
+                () -> -driveJoystick.getX()))
+        .onFalse(outtake.stopFlywheel());
+
     // Should return the bot to its initial position
     driveJoystick
         .button(ControllerConstants.TRIGGER)
@@ -226,4 +311,9 @@ public class RobotContainer {
   public Command getAutonomousCommand() {
     return autoChooser.get();
   }
+
+  /** Sends the outputs staged this loop. Called by {@link Robot} after the scheduler runs. */
+  public void flushOutputs() {
+    drive.flushOutputs();
+  }
 }
@@ -70,37 +70,53 @@ public class DriveCommands {
       DoubleSupplier omegaSupplier) {
     return Commands.run(
         () -> {
-          // Get linear velocity
-          Translation2d linearVelocity =
-              getLinearVelocityFromJoysticks(xSupplier.getAsDouble(), ySupplier.getAsDouble());
-
-          // Apply rotation deadband
-          double omega =
-              MathUtil.applyDeadband(
-                  omegaSupplier.getAsDouble(), Constants.DriveCommandsConstants.DEADBAND);
-
-          // Square rotation value for more precise control
-          omega = Math.copySign(omega * omega, omega);
-
-          // Convert to field relative speeds & send command
-          ChassisSpeeds speeds =
-              new ChassisSpeeds(
-                  linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec(),
-                  linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec(),
-                  omega * drive.getMaxAngularSpeedRadPerSec());
           boolean isFlipped =
               DriverStation.getAlliance().isPresent()
                   && DriverStation.getAlliance().get() == Alliance.Red;
           drive.runVelocity(
-              ChassisSpeeds.fromFieldRelativeSpeeds(
-                  speeds,
-                  isFlipped
-                      ? drive.getRotation().plus(new Rotation2d(Math.PI))
-                      : drive.getRotation()));
+              getJoystickSpeeds(
+                  xSupplier.getAsDouble(),
+                  ySupplier.getAsDouble(),
+                  omegaSupplier.getAsDouble(),
+                  drive.getMaxLinearSpeedMetersPerSec(),
+                  drive.getMaxAngularSpeedRadPerSec(),
+                  drive.getRotation(),
+                  isFlipped));
         },
         drive);
   }
 
+  /**
+   * Converts joystick inputs to robot relative speeds for field relative driving. This is the math
+   * behind {@link #joystickDrive}, kept free of hardware so it can be warmed up while disabled.
+   */
+  public static ChassisSpeeds getJoystickSpeeds(
+      double x,
+      double y,
+      double omegaInput,
+      double maxLinearSpeedMetersPerSec,
+      double maxAngularSpeedRadPerSec,
+      Rotation2d robotRotation,
+      boolean isFlipped) {
+    // Get linear velocity
+    Translation2d linearVelocity = getLinearVelocityFromJoysticks(x, y);
+
+    // Apply rotation deadband
+    double omega = MathUtil.applyDeadband(omegaInput, Constants.DriveCommandsConstants.DEADBAND);
+
+    // Square rotation value for more precise control
+    omega = Math.copySign(omega * omega, omega);
+
+    // Convert to field relative speeds
+    ChassisSpeeds speeds =
+        new ChassisSpeeds(
+            linearVelocity.getX() * maxLinearSpeedMetersPerSec,
+            linearVelocity.getY() * maxLinearSpeedMetersPerSec,
+            omega * maxAngularSpeedRadPerSec);
+    return ChassisSpeeds.fromFieldRelativeSpeeds(
+        speeds, isFlipped ? robotRotation.plus(new Rotation2d(Math.PI)) : robotRotation);
+  }
+
   /**
    * Field relative drive command using joystick for linear control and PID for angular control.
    * Possible use cases include snapping to an angle, aiming at a vision target, or controlling
@@ -160,12 +176,18 @@ public class DriveCommands {
         boolean isFlipped =
             DriverStation.getAlliance().isPresent()
                 && DriverStation.getAlliance().get() == Alliance.Red;
-        drive.runVelocity(
+        drive.runVelocityAtHeading(
             ChassisSpeeds.fromFieldRelativeSpeeds(
                 speeds,
                 isFlipped
                     ? drive.getRotation().plus(new Rotation2d(Math.PI))
-                    : drive.getRotation()));
+                    : drive.getRotation()),
+            lastJoystickAngle);
+      }
+
+      @Override
+      public void end(boolean interrupted) {
+        drive.stopHighRateControl();
       }
     }
     // Reset PID controller when command starts
@@ -0,0 +1,106 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.ScoringConstants;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.subsystems.outtake.MovingShotSolver.ShotSolution;
+import frc.robot.subsystems.outtake.Outtake;
+import frc.robot.subsystems.superstructure.Superstructure;
+import java.util.function.DoubleSupplier;
+import org.littletonrobotics.junction.Logger;
+
+/** Commands that combine the drive and the outtake to score. */
+public class ScoringCommands {
+
+  private ScoringCommands() {}
+
+  /**
+   * @return Whether the robot's heading is within tolerance of the current moving shot's heading.
+   *     False when there is no shot.
+   */
+  public static boolean isAligned(Drive drive, Outtake outtake) {
+    return outtake
+        .getShotSolution()
+        .map(
+            solution ->
+                Math.abs(solution.robotHeading().minus(drive.getRotation()).getDegrees())
+                    < ScoringConstants.AIM_HEADING_TOLERANCE_DEG)
+        .orElse(false);
+  }
+
+  /** @return Whether the robot is aimed at the hub and the outtake is ready to fire. */
+  public static boolean isAlignedAndReady(Drive drive, Outtake outtake) {
+    return isAligned(drive, outtake) && outtake.isReadyToFire();
+  }
+
+  /**
+   * Field relative drive where the driver controls translation while the heading, hood and
+   * flywheel track the hub every loop from the robot's pose and velocity. Nothing is fed.
+   */
+  public static Command aimWhileDriving(
+      Drive drive, Outtake outtake, DoubleSupplier xSupplier, DoubleSupplier ySupplier) {
+    return Commands.parallel(
+            // Solves the shot and moves the hood and flywheel, without requiring the outtake
+            outtake.enterShootMode(drive::getPose, drive::getFieldRelativeSpeeds),
+
+            // Turn to the shot heading, or hold the current heading while out of range
+            DriveCommands.joystickDriveAtAngle(
+                drive,
+                xSupplier,
+                ySupplier,
+                () ->
+                    outtake
+                        .getShotSolution()
+                        .map(ShotSolution::robotHeading)
+                        .orElseGet(drive::getRotation)),
+            Commands.run(
+                () -> {
+                  Logger.recordOutput("Scoring/Aligned", isAligned(drive, outtake));
+                  Logger.recordOutput(
+                      "Scoring/AlignedAndReady", isAlignedAndReady(drive, outtake));
+                }))
+        .withName("AimWhileDriving");
+  }
+
+  /**
+   * {@link #aimWhileDriving} that also keeps the shooter fed and fires whenever the robot is aimed
+   * and the outtake is ready, and logs the time from starting the command to the first shot.
+   */
+  public static Command aimAndShoot(
+      Drive drive,
+      Outtake outtake,
+      Superstructure superstructure,
+      DoubleSupplier xSupplier,
+      DoubleSupplier ySupplier) {
+    PressToShotState state = new PressToShotState();
+
+    return Commands.parallel(
+            aimWhileDriving(drive, outtake, xSupplier, ySupplier),
+            superstructure.feedShooter(() -> isAlignedAndReady(drive, outtake)),
+
+            // Log the time to the first shot after the press
+            Commands.run(
+                () -> {
+                  if (!Double.isNaN(state.pressTimestamp)
+                      && outtake.getShotCount() != state.shotCount) {
+                    Logger.recordOutput(
+                        "Scoring/PressToShotSeconds",
+                        Timer.getFPGATimestamp() - state.pressTimestamp);
+                    state.pressTimestamp = Double.NaN;
+                  }
+                }))
+        .beforeStarting(
+            () -> {
+              state.pressTimestamp = Timer.getFPGATimestamp();
+              state.shotCount = outtake.getShotCount();
+            })
+        .withName("AimAndShoot");
+  }
+
+  private static class PressToShotState {
+    double pressTimestamp = Double.NaN;
+    int shotCount = 0;
+  }
+}
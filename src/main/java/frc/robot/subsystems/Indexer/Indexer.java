@@ -3,8 +3,11 @@ package frc.robot.subsystems.Indexer;
 import org.littletonrobotics.junction.Logger;
 
 import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.IndexerConstants;
+import frc.robot.util.InputReadGraph;
+import frc.robot.util.SignalRatePolicy;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
@@ -12,21 +15,109 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 public class Indexer extends SubsystemBase {
     private final IndexerIO io;
     private final IndexerIOInputsAutoLogged inputs;
+    private final IndexerJamDetector jamDetector = new IndexerJamDetector();
     private State state = State.OFF;
+    private double targetVelocityRps = 0;
+
+    // Jam clearing: reverse for a moment, then retry at the target velocity
+    private double clearStartTimestamp = 0;
+    private double lastJamTimestamp = Double.NEGATIVE_INFINITY;
+    private int jamsInRow = 0;
+    private int jamCount = 0;
 
     private enum State {
         ON,
-        OFF
+        OFF,
+        CLEARING_JAM
     }
     
     public Indexer(IndexerIO indexerIO) {
         io = indexerIO;
         inputs = new IndexerIOInputsAutoLogged();
+        InputReadGraph.register("Indexer", () -> io.updateInputs(inputs));
     }
 
     public void periodic() {
-        io.updateInputs(inputs);
+        // Read by InputReadGraph before the scheduler runs
         Logger.processInputs("Indexer", inputs);
+        updateJamClearing(Timer.getFPGATimestamp());
+        Logger.recordOutput("Indexer/State", state);
+        // Jam and ball detection need current and velocity while it runs
+        SignalRatePolicy.setActive("Indexer", state != State.OFF);
+    }
+
+    /** Watches for jams while running closed loop, and reverses and retries when one happens */
+    private void updateJamClearing(double now) {
+        if (state == State.ON
+            && targetVelocityRps != 0
+            && jamDetector.update(now, targetVelocityRps, inputs.velocityRps, inputs.currentAmps)) {
+            jamCount++;
+            boolean inWindow = now - lastJamTimestamp < IndexerConstants.JAM_RETRY_WINDOW_SECONDS;
+            jamsInRow = inWindow ? jamsInRow + 1 : 1;
+            lastJamTimestamp = now;
+            Logger.recordOutput("Indexer/JamCount", jamCount);
+            Logger.recordOutput("Indexer/JamsInRow", jamsInRow);
+
+            if (jamsInRow > IndexerConstants.JAM_MAX_RETRIES) {
+                // Retrying isn't clearing it, so stop rather than grind on it. Running again is
+                // refused until the retry window has passed.
+                Logger.recordOutput("Indexer/JamGaveUp", true);
+                stop();
+                return;
+            }
+            state = State.CLEARING_JAM;
+            clearStartTimestamp = now;
+            io.setVelocity(-Math.copySign(IndexerConstants.JAM_REVERSE_RPS, targetVelocityRps));
+        } else if (state == State.CLEARING_JAM
+            && now - clearStartTimestamp >= IndexerConstants.JAM_REVERSE_SECONDS) {
+            state = State.ON;
+            jamDetector.reset(now);
+            io.setVelocity(targetVelocityRps);
+        }
+    }
+
+    /**
+     * Runs the indexer closed loop at a velocity, clearing jams automatically. Commands that call
+     * this should require the indexer.
+     * @param rotationsPerSecond The target velocity in rotations per second
+     */
+    public void setVelocity(double rotationsPerSecond) {
+        if (rotationsPerSecond == 0) {
+            stop();
+            return;
+        }
+        double now = Timer.getFPGATimestamp();
+        if (state == State.OFF) {
+            if (jamsInRow > IndexerConstants.JAM_MAX_RETRIES
+                && now - lastJamTimestamp < IndexerConstants.JAM_RETRY_WINDOW_SECONDS) {
+                return;
+            }
+            jamDetector.reset(now);
+            Logger.recordOutput("Indexer/JamGaveUp", false);
+            state = State.ON;
+        }
+        // While clearing a jam, the new target is picked up on the retry
+        if (state == State.ON && rotationsPerSecond != targetVelocityRps) {
+            io.setVelocity(rotationsPerSecond);
+        }
+        targetVelocityRps = rotationsPerSecond;
+    }
+
+    /** Stops the indexer, abandoning any jam clearing. */
+    public void stop() {
+        io.setVoltage(0);
+        state = State.OFF;
+        targetVelocityRps = 0;
+    }
+
+    /**
+     * Runs the indexer open loop at a voltage. Jams aren't cleared in open loop.
+     * @param voltage The voltage at which to run the indexer in volts
+     */
+    public void setVoltage(double voltage) {
+        io.setVoltage(voltage);
+        state = voltage != 0 ? State.ON : State.OFF;
+        targetVelocityRps = 0;
     }
 
     /**
@@ -35,7 +126,7 @@ public class Indexer extends SubsystemBase {
      * @return The command
      */
     public Command runIndexer(double voltage) {
-        return new InstantCommand(() -> io.setVoltage(voltage), this);
+        return new InstantCommand(() -> setVoltage(voltage), this);
     }
 
     /**
@@ -44,8 +135,28 @@ public class Indexer extends SubsystemBase {
      */
     public Command toggle () {
         return Commands.either(
-            Commands.runOnce(() -> io.setVoltage(0)), // If on 
-            Commands.runOnce(() -> io.setVoltage(IndexerConstants.MOTOR_VOLTAGE)), // if off
-            () -> this.state == State.ON);
+            Commands.runOnce(this::stop, this), // If on 
+            Commands.runOnce(() -> setVelocity(IndexerConstants.FEED_VELOCITY_RPS), this), // if off
+            () -> this.state != State.OFF);
+    }
+
+    /** @return Whether the indexer is being driven forward (not stopped or clearing a jam) */
+    public boolean isRunning() {
+        return state == State.ON;
+    }
+
+    /** @return Jams detected since startup */
+    public int getJamCount() {
+        return jamCount;
+    }
+
+    /** @return Measured motor velocity in rotations per second */
+    public double getVelocityRps() {
+        return inputs.velocityRps;
+    }
+
+    /** @return Motor stator current in amps */
+    public double getCurrentAmps() {
+        return inputs.currentAmps;
     }
 }
@@ -11,6 +11,14 @@ public interface IndexerIO {
     @AutoLog
     public static class IndexerIOInputs {
         public double appliedVoltage = 0;
+        /** Velocity the closed loop is targeting in rotations per second, 0 in open loop */
+        public double targetVelocityRps = 0;
+        /** Measured motor velocity in rotations per second */
+        public double velocityRps = 0;
+        /** Motor stator current in amps; a ball passing through shows up as a spike */
+        public double currentAmps = 0;
+        /** Motor temperature in degrees Celsius */
+        public double temperatureCelsius = 0;
     }
     
     // Updates the logged inputs
@@ -18,4 +26,7 @@ public interface IndexerIO {
 
     // Runs the indexer at the specified voltage
     public default void setVoltage (double voltage) {}
-}
\ No newline at end of file
+
+    // Runs the indexer closed loop at the specified velocity in rotations per second
+    public default void setVelocity (double rotationsPerSecond) {}
+}
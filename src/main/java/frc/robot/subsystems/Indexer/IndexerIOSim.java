@@ -4,20 +4,75 @@ import static edu.wpi.first.units.Units.Volts;
 
 import org.littletonrobotics.junction.Logger;
 
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.BooleanEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
 import frc.robot.Constants.IndexerConstants;
 
+/**
+ * Physics sim of the indexer, with the TalonFX velocity loop reproduced on top. Setting
+ * /Indexer/SimJam stalls the motor like a jammed ball until it is run in reverse, for exercising
+ * jam clearing.
+ */
 public class IndexerIOSim implements IndexerIO {
+    private static final double LOOP_PERIOD_SECS = 0.02;
+    private static final DCMotor GEARBOX = DCMotor.getKrakenX60(1);
+
+    private final DCMotorSim motorSim =
+        new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(GEARBOX, IndexerConstants.SIM_MOI_KG_M2, 1.0),
+            GEARBOX);
+    private final BooleanEntry jamEntry =
+        NetworkTableInstance.getDefault().getBooleanTopic("/Indexer/SimJam").getEntry(false);
+    private boolean closedLoop = false;
+    private double targetVelocityRps = 0;
     private double appliedVoltage = 0;
 
     @Override
     public void updateInputs(IndexerIOInputs inputs) {
+        double velocityRps = Units.radiansToRotations(motorSim.getAngularVelocityRadPerSec());
+        if (closedLoop) {
+            appliedVoltage =
+                IndexerConstants.kV * targetVelocityRps
+                    + IndexerConstants.SIM_kP * (targetVelocityRps - velocityRps);
+        }
+        appliedVoltage = MathUtil.clamp(appliedVoltage, -12.0, 12.0);
+
+        // Running in reverse frees a jammed ball
+        if (appliedVoltage < 0) {
+            jamEntry.set(false);
+        }
+        double currentAmps;
+        if (jamEntry.get()) {
+            motorSim.setState(motorSim.getAngularPositionRad(), 0.0);
+            currentAmps = Math.abs(GEARBOX.getCurrent(0.0, appliedVoltage));
+        } else {
+            motorSim.setInputVoltage(appliedVoltage);
+            motorSim.update(LOOP_PERIOD_SECS);
+            currentAmps = Math.abs(motorSim.getCurrentDrawAmps());
+        }
+
         inputs.appliedVoltage = appliedVoltage;
+        inputs.targetVelocityRps = closedLoop ? targetVelocityRps : 0;
+        inputs.velocityRps = Units.radiansToRotations(motorSim.getAngularVelocityRadPerSec());
+        inputs.currentAmps = currentAmps;
     }
 
     @Override
     public void setVoltage(double voltage) {
         Logger.recordOutput("Indexer/Voltage", voltage);
+        closedLoop = false;
         appliedVoltage = voltage;
     }
+
+    @Override
+    public void setVelocity(double rotationsPerSecond) {
+        closedLoop = true;
+        targetVelocityRps = rotationsPerSecond;
+    }
 }
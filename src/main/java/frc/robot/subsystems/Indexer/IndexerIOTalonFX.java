@@ -4,29 +4,85 @@ import static edu.wpi.first.units.Units.Volts;
 
 import org.littletonrobotics.junction.Logger;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFX;
 
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Temperature;
 import edu.wpi.first.units.measure.Voltage;
+import frc.robot.Constants.CanConstants;
+import frc.robot.Constants.DeviceConfigConstants;
 import frc.robot.Constants.IndexerConstants;
+import frc.robot.util.CanSignalRegistry;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.PhoenixUtil;
+import frc.robot.util.SignalRatePolicy;
 
 public class IndexerIOTalonFX implements IndexerIO {
     private final TalonFX motor;
-    private double appliedVoltage = 0;
+    // Control requests are reused rather than allocated on every call
+    private final VoltageOut voltageRequest = new VoltageOut(0.0);
+    private final VelocityVoltage velocityRequest = new VelocityVoltage(0.0);
+    private double targetVelocityRps = 0;
+    private final StatusSignal<Voltage> appliedVoltage;
+    private final StatusSignal<AngularVelocity> velocity;
+    private final StatusSignal<Current> current;
+    private final StatusSignal<Temperature> temperature;
 
     public IndexerIOTalonFX() {
         motor = new TalonFX(IndexerConstants.MOTOR_ID);
+
+        var config = new TalonFXConfiguration();
+        config.Slot0.kS = IndexerConstants.kS;
+        config.Slot0.kV = IndexerConstants.kV;
+        config.Slot0.kP = IndexerConstants.kP;
+        DeviceConfigurator.submit(
+            "Indexer",
+            () ->
+                motor
+                    .getConfigurator()
+                    .apply(config, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                    .isOK(),
+            () -> PhoenixUtil.readBackMatches(motor, config));
+
+        appliedVoltage = motor.getMotorVoltage();
+        velocity = motor.getVelocity();
+        current = motor.getStatorCurrent();
+        temperature = motor.getDeviceTemp();
+
+        // Configure periodic frames; temperature changes slowly
+        SignalRatePolicy.register(
+            CanConstants.RIO_BUS, "Indexer", "Indexer", appliedVoltage, velocity, current);
+        CanSignalRegistry.register(CanConstants.RIO_BUS, "Indexer", 4.0, temperature);
+        ParentDevice.optimizeBusUtilizationForAll(motor);
     }
 
     @Override
     public void updateInputs(IndexerIOInputs inputs) {
-        inputs.appliedVoltage = appliedVoltage;
+        BaseStatusSignal.refreshAll(appliedVoltage, velocity, current, temperature);
+        inputs.appliedVoltage = appliedVoltage.getValueAsDouble();
+        inputs.targetVelocityRps = targetVelocityRps;
+        inputs.velocityRps = velocity.getValueAsDouble();
+        inputs.currentAmps = current.getValueAsDouble();
+        inputs.temperatureCelsius = temperature.getValueAsDouble();
     }
 
     @Override
     public void setVoltage(double voltage) {
         Logger.recordOutput("Indexer/Voltage", voltage);
-        appliedVoltage = voltage;
-        motor.setControl(new VoltageOut(voltage));
+        targetVelocityRps = 0;
+        motor.setControl(voltageRequest.withOutput(voltage));
+    }
+
+    @Override
+    public void setVelocity(double rotationsPerSecond) {
+        targetVelocityRps = rotationsPerSecond;
+        motor.setControl(velocityRequest.withVelocity(rotationsPerSecond));
     }
 }
@@ -0,0 +1,39 @@
+package frc.robot.subsystems.Indexer;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import frc.robot.Constants.IndexerConstants;
+
+/**
+ * Recognizes a jam as a current spike together with the velocity collapsing well below target,
+ * held for long enough to rule out a ball passing through. The current and speed of spin-up look
+ * the same, so the first moments after starting are ignored.
+ */
+class IndexerJamDetector {
+    private final Debouncer jamDebounce =
+        new Debouncer(IndexerConstants.JAM_DEBOUNCE_SECONDS, DebounceType.kRising);
+    private double startTimestamp = 0;
+
+    /** Starts watching again, e.g. after starting or retrying. */
+    public void reset(double timestamp) {
+        startTimestamp = timestamp;
+        jamDebounce.calculate(false);
+    }
+
+    /**
+     * @param timestamp The current time in seconds.
+     * @param targetRps The velocity the indexer is running at.
+     * @param velocityRps The measured velocity.
+     * @param currentAmps The measured stator current.
+     * @return Whether the indexer is jammed.
+     */
+    public boolean update(
+        double timestamp, double targetRps, double velocityRps, double currentAmps) {
+        double collapsedRps = Math.abs(targetRps) * IndexerConstants.JAM_VELOCITY_FRACTION;
+        boolean stalled =
+            timestamp - startTimestamp >= IndexerConstants.JAM_STARTUP_IGNORE_SECONDS
+                && currentAmps > IndexerConstants.JAM_CURRENT_AMPS
+                && Math.abs(velocityRps) < collapsedRps;
+        return jamDebounce.calculate(stalled);
+    }
+}
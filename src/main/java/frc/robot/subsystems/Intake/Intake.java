@@ -1,8 +1,11 @@
 package frc.robot.subsystems.intake;
 
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.IntakeConstants;
 import frc.robot.subsystems.intake.IntakeIOInputsAutoLogged;
+import frc.robot.util.InputReadGraph;
+import frc.robot.util.SignalRatePolicy;
 
 import org.littletonrobotics.junction.Logger;
 
@@ -11,21 +14,48 @@ public class Intake extends SubsystemBase {
   private IntakeIO io;
   private IntakeIOInputsAutoLogged inputs = new IntakeIOInputsAutoLogged();
 
+  // Move timing, so deploy and retract times can be read from the log
+  private double targetDegrees = IntakeConstants.FULL_RETRACTION_DEGREES;
+  private double moveStartTimestamp = Double.NaN;
+
+  public Intake(IntakeIO io) {
+    this.io = io;
+    InputReadGraph.register("Intake", () -> io.updateInputs(inputs));
+  }
+
   @Override
   public void periodic() {
-    io.updateInputs(inputs);
+    // Read by InputReadGraph before the scheduler runs
     Logger.processInputs("Intake", inputs);
+
+    double armDegrees = inputs.armRotations_Rotations * 360.0;
+    boolean atTarget =
+        Math.abs(armDegrees - targetDegrees) < IntakeConstants.AT_TARGET_TOLERANCE_DEGREES;
+    Logger.recordOutput("Intake/AtTarget", atTarget);
+    SignalRatePolicy.setActive("Intake", !atTarget);
+    if (!Double.isNaN(moveStartTimestamp) && atTarget) {
+      Logger.recordOutput("Intake/Timing/MoveSeconds", Timer.getFPGATimestamp() - moveStartTimestamp);
+      moveStartTimestamp = Double.NaN;
+    }
+  }
+
+  private void goToDegrees(double degrees) {
+    io.goToPosition(degrees); // position feedback loop
+    if (degrees != targetDegrees) {
+      targetDegrees = degrees;
+      moveStartTimestamp = Timer.getFPGATimestamp();
+    }
   }
 
   public void fullyExtend() {
-    io.goToPosition(IntakeConstants.FULL_EXTENSION_DEGREES); // position feedback loop
+    goToDegrees(IntakeConstants.FULL_EXTENSION_DEGREES);
   }
   public void fullyRetract(){
-    io.goToPosition(IntakeConstants.FULL_RETRACTION_DEGREES);
+    goToDegrees(IntakeConstants.FULL_RETRACTION_DEGREES);
   }
 
   public void wiggleUp() {
-    io.goToPosition(IntakeConstants.MAX_WIGGLE_DEGREES);
+    goToDegrees(IntakeConstants.MAX_WIGGLE_DEGREES);
      // velocity feedback loop
   }
 }
@@ -13,6 +13,7 @@ public interface IntakeIO {
         armMotorRotations_Rotations * IntakeConstants.GEAR_ROTATIONS_TO_ARM_ROTATIONS;
   }
 
-  public void updateInputs(IntakeIOInputs inputs);
-  public void goToPosition(double rotations);
+  public default void updateInputs(IntakeIOInputs inputs) {}
+
+  public default void goToPosition(double rotations) {}
 }
@@ -1,5 +1,46 @@
 package frc.robot.subsystems.intake;
 
-public class IntakeIOSim {
-    
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.robot.Constants.IntakeConstants;
+
+/**
+ * Physics sim of the intake arm. The TalonFX's own Motion Magic runs in Phoenix simulation and
+ * drives an arm model geared like the real one, so profiles and gains tuned here carry over. Arm
+ * angles are measured from fully retracted, so gravity is left out of the model.
+ */
+public class IntakeIOSim extends IntakeIOTalonFX {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+  private static final DCMotor GEARBOX = DCMotor.getKrakenX60(1);
+
+  private final SingleJointedArmSim armSim =
+      new SingleJointedArmSim(
+          GEARBOX,
+          1.0 / IntakeConstants.GEAR_ROTATIONS_TO_ARM_ROTATIONS,
+          IntakeConstants.SIM_ARM_MOI_KG_M2,
+          IntakeConstants.SIM_ARM_LENGTH_METERS,
+          Units.degreesToRadians(IntakeConstants.FULL_RETRACTION_DEGREES),
+          Units.degreesToRadians(IntakeConstants.FULL_EXTENSION_DEGREES),
+          false,
+          Units.degreesToRadians(IntakeConstants.FULL_RETRACTION_DEGREES));
+
+  @Override
+  public void updateInputs(IntakeIOInputs inputs) {
+    TalonFXSimState simState = armMotor.getSimState();
+    simState.setSupplyVoltage(RobotController.getBatteryVoltage());
+    armSim.setInputVoltage(simState.getMotorVoltage());
+    armSim.update(LOOP_PERIOD_SECS);
+
+    // Feed the arm back to the TalonFX as rotor motion
+    double armRotations = Units.radiansToRotations(armSim.getAngleRads());
+    double armRps = Units.radiansToRotations(armSim.getVelocityRadPerSec());
+    simState.setRawRotorPosition(armRotations / IntakeConstants.GEAR_ROTATIONS_TO_ARM_ROTATIONS);
+    simState.setRotorVelocity(armRps / IntakeConstants.GEAR_ROTATIONS_TO_ARM_ROTATIONS);
+
+    super.updateInputs(inputs);
+  }
 }
@@ -1,14 +1,30 @@
 package frc.robot.subsystems.intake;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFX;
 
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import frc.robot.Constants.CanConstants;
+import frc.robot.Constants.DeviceConfigConstants;
 import frc.robot.Constants.IntakeConstants;
+import frc.robot.util.CanSignalRegistry;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.PhoenixUtil;
+import frc.robot.util.SignalRatePolicy;
 
 public class IntakeIOTalonFX implements IntakeIO {
-  private final TalonFX armMotor = new TalonFX(IntakeConstants.TALON_ID);
+  protected final TalonFX armMotor = new TalonFX(IntakeConstants.TALON_ID);
+  private final MotionMagicVoltage m_request = new MotionMagicVoltage(0);
+  private final StatusSignal<Voltage> armVoltage;
+  private final StatusSignal<Current> armCurrent;
+  private final StatusSignal<Angle> armPosition;
 
 
   public IntakeIOTalonFX(){
@@ -19,28 +35,44 @@ public class IntakeIOTalonFX implements IntakeIO {
     slot0Configs.kD = IntakeConstants.INTAKE_kD;
     slot0Configs.kS = IntakeConstants.INTAKE_kS;
     slot0Configs.kV = IntakeConstants.INTAKE_kV;
+    slot0Configs.kA = IntakeConstants.INTAKE_kA;
     
+    // Motor rotations per second (and per second^2)
     var motionMagicConfigs = talonFXConfigs.MotionMagic;
-    motionMagicConfigs.MotionMagicCruiseVelocity = 0;
-    motionMagicConfigs.MotionMagicAcceleration = 0;
+    motionMagicConfigs.MotionMagicCruiseVelocity = IntakeConstants.INTAKE_CRUISE_VELOCITY;
+    motionMagicConfigs.MotionMagicAcceleration = IntakeConstants.INTAKE_MAX_ACCELERATION;
     motionMagicConfigs.MotionMagicJerk = 0;
     
-    armMotor.getConfigurator().apply(talonFXConfigs);
+    DeviceConfigurator.submit(
+        "Intake/Arm",
+        () ->
+            armMotor
+                .getConfigurator()
+                .apply(talonFXConfigs, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> PhoenixUtil.readBackMatches(armMotor, talonFXConfigs));
+
+    armVoltage = armMotor.getMotorVoltage();
+    armCurrent = armMotor.getTorqueCurrent();
+    armPosition = armMotor.getPosition();
+    CanSignalRegistry.register(CanConstants.RIO_BUS, "Intake/Arm", 50.0, armPosition);
+    SignalRatePolicy.register(CanConstants.RIO_BUS, "Intake", "Intake/Arm", armVoltage, armCurrent);
+    ParentDevice.optimizeBusUtilizationForAll(armMotor);
   }
 
   /** Update the set of loggable inputs */
   @Override
   public void updateInputs(IntakeIOInputs inputs) {
-    inputs.armMotor_Voltage_Volts = (armMotor.getMotorVoltage().getValueAsDouble());
-    inputs.armMotor_Current_Amps = armMotor.getTorqueCurrent().getValueAsDouble();
-    inputs.armMotorRotations_Rotations = armMotor.getPosition().getValueAsDouble();
+    BaseStatusSignal.refreshAll(armVoltage, armCurrent, armPosition);
+    inputs.armMotor_Voltage_Volts = armVoltage.getValueAsDouble();
+    inputs.armMotor_Current_Amps = armCurrent.getValueAsDouble();
+    inputs.armMotorRotations_Rotations = armPosition.getValueAsDouble();
     inputs.armRotations_Rotations = 
         inputs.armMotorRotations_Rotations * IntakeConstants.GEAR_ROTATIONS_TO_ARM_ROTATIONS;
   }
 
   @Override
   public void goToPosition(double armRotations_Degrees) {
-    final MotionMagicVoltage m_request = new MotionMagicVoltage(0);
     armMotor.setControl(m_request.withPosition(Units.degreesToRotations(armRotations_Degrees)  / IntakeConstants.GEAR_ROTATIONS_TO_ARM_ROTATIONS));
   }
 
@@ -49,11 +49,16 @@ import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.robot.Constants.DriveControlConstants;
 import frc.robot.Constants.DrivetrainConstants;
+import frc.robot.Constants.PathGenerationConstants;
 import frc.robot.Constants.RuntimeConstants;
 import frc.robot.generated.TunerConstants;
 import frc.robot.subsystems.vision.Vision;
+import frc.robot.util.InputReadGraph;
 import frc.robot.util.LocalADStarAK;
+import frc.robot.util.QuadTreePathfinder;
+import frc.robot.util.SignalRatePolicy;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.littletonrobotics.junction.AutoLogOutput;
@@ -73,7 +78,7 @@ public class Drive extends SubsystemBase {
               Math.hypot(TunerConstants.BackRight.LocationX, TunerConstants.BackRight.LocationY)));
 
   // PathPlanner config constants
-  private static final RobotConfig PP_CONFIG =
+  public static final RobotConfig PP_CONFIG =
       new RobotConfig(
           DrivetrainConstants.ROBOT_MASS_KG,
           DrivetrainConstants.ROBOT_MOI,
@@ -92,6 +97,14 @@ public class Drive extends SubsystemBase {
   private final GyroIO gyroIO;
   private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
   private final Module[] modules = new Module[4]; // FL, FR, BL, BR
+  private final HighRateDriveController highRateController;
+  private final boolean highRateEnabled =
+      DriveControlConstants.HIGH_RATE_ENABLED
+          && RuntimeConstants.currentMode == RuntimeConstants.Mode.REAL;
+  // Held while setting or sending module outputs, which the high rate controller does off the loop
+  final Object outputLock = new Object();
+  // Whether the staged outputs were last set by the high rate controller, guarded by outputLock
+  private boolean highRateOutputsStaged = false;
   private final SysIdRoutine sysIdDrive;
   private final SysIdRoutine sysIdRotate;
   private final Alert gyroDisconnectedAlert =
@@ -106,6 +119,7 @@ public class Drive extends SubsystemBase {
         new SwerveModulePosition(),
         new SwerveModulePosition()
       };
+  private double lastOdometrySampleTimestamp = Double.NaN;
   private SwerveDrivePoseEstimator poseEstimator =
       new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, lastModulePositions, new Pose2d());
   private final Field2d field = new Field2d();
@@ -118,11 +132,14 @@ public class Drive extends SubsystemBase {
       ModuleIO blModuleIO,
       ModuleIO brModuleIO) {
     this.vision = vision;
+    // The drive is always in use while enabled, so its signals only drop while disabled
+    SignalRatePolicy.setActive("Drive", true);
     this.gyroIO = gyroIO;
     modules[0] = new Module(flModuleIO, 0, TunerConstants.FrontLeft);
     modules[1] = new Module(frModuleIO, 1, TunerConstants.FrontRight);
     modules[2] = new Module(blModuleIO, 2, TunerConstants.BackLeft);
     modules[3] = new Module(brModuleIO, 3, TunerConstants.BackRight);
+    InputReadGraph.register("Drive", this::updateInputs);
 
     // Usage reporting for swerve template
     HAL.report(tResourceType.kResourceType_RobotDrive, tInstances.kRobotDriveSwerve_AdvantageKit);
@@ -130,22 +147,45 @@ public class Drive extends SubsystemBase {
     // Start odometry thread
     PhoenixOdometryThread.getInstance().start();
 
+    // Start high rate control, which reads the devices directly so can't run in replay
+    highRateController = new HighRateDriveController(this, modules, gyroIO);
+    if (highRateEnabled) {
+      highRateController.start();
+    }
+
     // Configure AutoBuilder for PathPlanner
     AutoBuilder.configure(
         this::getPose,
         this::setPose,
         this::getChassisSpeeds,
-        this::runVelocity,
-        new PPHolonomicDriveController(
-            new PIDConstants(5.0, 0.0, 0.0), new PIDConstants(5.0, 0.0, 0.0)),
+        (speeds) -> {
+          // The high rate controller drives once it's tracking the path. The stop at the end of a
+          // path is staged when the path ends, below.
+          if (!highRateController.isTracking()) {
+            runSetpoints(speeds);
+          }
+        },
+        highRateEnabled
+            ? highRateController.wrapPathController(createPathFollowingController())
+            : createPathFollowingController(),
         PP_CONFIG,
         () -> DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red,
         this);
-    Pathfinding.setPathfinder(new LocalADStarAK());
+    Pathfinding.setPathfinder(
+        PathGenerationConstants.USE_QUADTREE_NAVGRID
+            ? new LocalADStarAK(new QuadTreePathfinder())
+            : new LocalADStarAK());
     PathPlannerLogging.setLogActivePathCallback(
         (activePath) -> {
           Logger.recordOutput(
               "Odometry/Trajectory", activePath.toArray(new Pose2d[activePath.size()]));
+          // Path commands clear the active path as they end, whether finished or interrupted, so
+          // stop rather than leave the high rate controller's last velocity staged. A command
+          // taking over stages its own speeds after this.
+          if (activePath.isEmpty() && highRateEnabled) {
+            highRateController.clearTarget();
+            runSetpoints(new ChassisSpeeds());
+          }
         });
     PathPlannerLogging.setLogTargetPoseCallback(
         (targetPose) -> {
@@ -180,13 +220,11 @@ public class Drive extends SubsystemBase {
 
   @Override
   public void periodic() {
-    odometryLock.lock(); // Prevents odometry updates while reading data
-    gyroIO.updateInputs(gyroInputs);
+    // Read by InputReadGraph before the scheduler runs
     Logger.processInputs("Drive/Gyro", gyroInputs);
     for (var module : modules) {
       module.periodic();
     }
-    odometryLock.unlock();
 
     // Stop moving when disabled
     if (DriverStation.isDisabled()) {
@@ -232,6 +270,9 @@ public class Drive extends SubsystemBase {
       // Apply update
       poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, modulePositions);
     }
+    if (sampleCount > 0) {
+      lastOdometrySampleTimestamp = sampleTimestamps[sampleCount - 1];
+    }
 
     // Update vision
     vision.setRobotOrientation(getRotation(), gyroInputs.yawVelocityRadPerSec);
@@ -249,6 +290,17 @@ public class Drive extends SubsystemBase {
       field.getObject("Vision").setPose(new Pose2d(-100, -100, new Rotation2d()));
     }
 
+    // Give the high rate controller the pose and the odometry it came from
+    highRateController.setAnchor(
+        getPose(), lastModulePositions, rawGyroRotation, gyroInputs.connected);
+    if (highRateEnabled) {
+      Logger.recordOutput("Drive/HighRate/Tracking", highRateController.isTracking());
+      Logger.recordOutput("Drive/HighRate/Ticks", highRateController.takeTicks());
+      Logger.recordOutput(
+          "Drive/HighRate/MaxTrackingErrorMeters",
+          highRateController.takeMaxTrackingErrorMeters());
+    }
+
     // Update Field2d
     field.setRobotPose(getPose());
     Logger.recordOutput("Odometry/Robot", Pose2d.struct, getPose());
@@ -260,30 +312,107 @@ public class Drive extends SubsystemBase {
         !gyroInputs.connected && RuntimeConstants.currentMode != RuntimeConstants.Mode.SIM);
   }
 
+  private void updateInputs() {
+    odometryLock.lock(); // Prevents odometry updates while reading data
+    try {
+      gyroIO.updateInputs(gyroInputs);
+      for (var module : modules) {
+        module.updateInputs();
+      }
+    } finally {
+      odometryLock.unlock();
+    }
+  }
+
   /**
    * Runs the drive at the desired velocity.
    *
    * @param speeds Speeds in meters/sec
    */
   public void runVelocity(ChassisSpeeds speeds) {
+    // Take the drive back from the high rate controller
+    highRateController.clearTarget();
+    runSetpoints(speeds);
+  }
+
+  private void runSetpoints(ChassisSpeeds speeds) {
     // Calculate module setpoints
     ChassisSpeeds discreteSpeeds = ChassisSpeeds.discretize(speeds, 0.02);
-    SwerveModuleState[] setpointStates = kinematics.toSwerveModuleStates(discreteSpeeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(setpointStates, TunerConstants.kSpeedAt12Volts);
+    SwerveModuleState[] setpointStates = calculateSetpointStates(kinematics, discreteSpeeds);
 
     // Log unoptimized setpoints and setpoint speeds
     Logger.recordOutput("SwerveStates/Setpoints", setpointStates);
     Logger.recordOutput("SwerveChassisSpeeds/Setpoints", discreteSpeeds);
 
     // Send setpoints to modules
-    for (int i = 0; i < 4; i++) {
-      modules[i].runSetpoint(setpointStates[i]);
+    synchronized (outputLock) {
+      for (int i = 0; i < 4; i++) {
+        modules[i].runSetpoint(setpointStates[i]);
+      }
+      highRateOutputsStaged = false;
     }
 
     // Log optimized setpoints (runSetpoint mutates each state)
     Logger.recordOutput("SwerveStates/SetpointsOptimized", setpointStates);
   }
 
+  /**
+   * Runs and sends setpoints from the high rate controller's thread. Must be called holding {@link
+   * #outputLock}, and doesn't log, since it runs off the main loop. The setpoints come from the
+   * controller's own kinematics, and are optimized against the turn angles it read, so nothing the
+   * main loop writes is read here.
+   */
+  void runSetpointsFromController(SwerveModuleState[] setpointStates, Rotation2d[] moduleAngles) {
+    for (int i = 0; i < 4; i++) {
+      modules[i].runSetpoint(setpointStates[i], moduleAngles[i]);
+      modules[i].flushOutputs();
+    }
+    highRateOutputsStaged = true;
+  }
+
+  /**
+   * Runs the drive at the desired velocity while turning to a heading. If the high rate controller
+   * is running, it tracks the heading at the odometry rate, and the speeds are only run until it
+   * takes over. Should be called every loop while it applies.
+   *
+   * @param speeds Speeds in meters/sec, with the rotation from the caller's heading controller.
+   * @param heading The field relative heading being turned to.
+   */
+  public void runVelocityAtHeading(ChassisSpeeds speeds, Rotation2d heading) {
+    if (!highRateEnabled) {
+      runVelocity(speeds);
+      return;
+    }
+    ChassisSpeeds fieldSpeeds = ChassisSpeeds.fromRobotRelativeSpeeds(speeds, getRotation());
+    highRateController.setHeadingTarget(
+        fieldSpeeds.vxMetersPerSecond, fieldSpeeds.vyMetersPerSecond, heading);
+    if (!highRateController.isTracking()) {
+      runSetpoints(speeds);
+    }
+  }
+
+  /** Stops the high rate controller tracking its target, e.g. when a command using it ends. */
+  public void stopHighRateControl() {
+    highRateController.clearTarget();
+  }
+
+  /**
+   * Converts discretized chassis speeds to desaturated module states. Pure apart from the heading
+   * memory in the kinematics object, so it can be exercised without commanding the modules.
+   */
+  public static SwerveModuleState[] calculateSetpointStates(
+      SwerveDriveKinematics kinematics, ChassisSpeeds discreteSpeeds) {
+    SwerveModuleState[] setpointStates = kinematics.toSwerveModuleStates(discreteSpeeds);
+    SwerveDriveKinematics.desaturateWheelSpeeds(setpointStates, TunerConstants.kSpeedAt12Volts);
+    return setpointStates;
+  }
+
+  /** Creates the controller PathPlanner uses to follow paths. */
+  public static PPHolonomicDriveController createPathFollowingController() {
+    return new PPHolonomicDriveController(
+        new PIDConstants(5.0, 0.0, 0.0), new PIDConstants(5.0, 0.0, 0.0));
+  }
+
   /** Runs the drive in a straight line with the specified drive output. */
   public void runDriveCharacterization(double output) {
     for (int i = 0; i < 4; i++) {
@@ -334,6 +463,32 @@ public class Drive extends SubsystemBase {
     runVelocity(new ChassisSpeeds());
   }
 
+  /**
+   * Sends the module outputs set this loop together. Should be called once a loop after the
+   * scheduler, so commands have run against the newest odometry. Logs the time from the newest
+   * odometry sample to the outputs being sent.
+   */
+  public void flushOutputs() {
+    synchronized (outputLock) {
+      // The high rate controller sends its own outputs while it's tracking. Once it stops, its
+      // last outputs are never sent again from here, so stop unless a command has set new ones.
+      if (!highRateController.isTracking()) {
+        if (highRateOutputsStaged) {
+          runSetpoints(new ChassisSpeeds());
+        }
+        for (var module : modules) {
+          module.flushOutputs();
+        }
+      }
+    }
+    // The real time rather than the cycle's timestamp, since the outputs go out late in the cycle
+    if (!Double.isNaN(lastOdometrySampleTimestamp)) {
+      Logger.recordOutput(
+          "Drive/SampleToCommandMs",
+          Logger.getRealTimestamp() / 1000.0 - lastOdometrySampleTimestamp * 1000.0);
+    }
+  }
+
   /**
    * Stops the drive and turns the modules to an X arrangement to resist movement. The modules will
    * return to their normal orientations the next time a nonzero velocity is requested.
@@ -349,30 +504,38 @@ public class Drive extends SubsystemBase {
 
   /** Returns a command to run a quasistatic drive test in the specified direction. */
   public Command sysIdQuasistaticDrive(SysIdRoutine.Direction direction) {
-    return run(() -> runDriveCharacterization(0.0))
-        .withTimeout(1.0)
-        .andThen(sysIdDrive.quasistatic(direction));
+    return SignalRatePolicy.boostWhile(
+        "Drive",
+        run(() -> runDriveCharacterization(0.0))
+            .withTimeout(1.0)
+            .andThen(sysIdDrive.quasistatic(direction)));
   }
 
   /** Returns a command to run a dynamic drive test in the specified direction. */
   public Command sysIdDynamicDrive(SysIdRoutine.Direction direction) {
-    return run(() -> runDriveCharacterization(0.0))
-        .withTimeout(1.0)
-        .andThen(sysIdDrive.dynamic(direction));
+    return SignalRatePolicy.boostWhile(
+        "Drive",
+        run(() -> runDriveCharacterization(0.0))
+            .withTimeout(1.0)
+            .andThen(sysIdDrive.dynamic(direction)));
   }
 
   /** Returns a command to run a quasistatic rotate test in the specified direction. */
   public Command sysIdQuasistaticRotate(SysIdRoutine.Direction direction) {
-    return run(() -> runRotateCharacterization(0.0))
-        .withTimeout(1.0)
-        .andThen(sysIdRotate.quasistatic(direction));
+    return SignalRatePolicy.boostWhile(
+        "Drive",
+        run(() -> runRotateCharacterization(0.0))
+            .withTimeout(1.0)
+            .andThen(sysIdRotate.quasistatic(direction)));
   }
 
   /** Returns a command to run a quasistatic rotate test in the specified direction. */
   public Command sysIdDynamicRotate(SysIdRoutine.Direction direction) {
-    return run(() -> runRotateCharacterization(0.0))
-        .withTimeout(1.0)
-        .andThen(sysIdRotate.dynamic(direction));
+    return SignalRatePolicy.boostWhile(
+        "Drive",
+        run(() -> runRotateCharacterization(0.0))
+            .withTimeout(1.0)
+            .andThen(sysIdRotate.dynamic(direction)));
   }
 
   /** Returns the module states (turn angles and drive velocities) for all of the modules. */
@@ -400,6 +563,11 @@ public class Drive extends SubsystemBase {
     return kinematics.toChassisSpeeds(getModuleStates());
   }
 
+  /** Returns the measured chassis speeds of the robot relative to the field. */
+  public ChassisSpeeds getFieldRelativeSpeeds() {
+    return ChassisSpeeds.fromRobotRelativeSpeeds(getChassisSpeeds(), getRotation());
+  }
+
   /** Returns the position of each module in radians. */
   public double[] getWheelRadiusCharacterizationPositions() {
     double[] values = new double[4];
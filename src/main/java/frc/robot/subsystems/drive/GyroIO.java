@@ -27,4 +27,14 @@ public interface GyroIO {
   }
 
   public default void updateInputs(GyroIOInputs inputs) {}
+
+  /**
+   * Reads the newest odometry yaw directly, for control running faster than the main loop. It isn't
+   * logged, so it must only be used by that control and never by the main loop's logic.
+   *
+   * @return The yaw, or null if not supported.
+   */
+  public default Rotation2d getLatestOdometryYaw() {
+    return null;
+  }
 }
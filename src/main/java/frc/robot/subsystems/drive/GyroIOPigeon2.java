@@ -22,7 +22,12 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
+import frc.robot.Constants.DeviceConfigConstants;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.CanSignalRegistry;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.PhoenixUtil;
+import frc.robot.util.SignalRatePolicy;
 import java.util.Queue;
 
 /** IO implementation for Pigeon 2. */
@@ -30,18 +35,27 @@ public class GyroIOPigeon2 implements GyroIO {
   private final Pigeon2 pigeon =
       new Pigeon2(TunerConstants.DrivetrainConstants.Pigeon2Id, TunerConstants.kCANBus);
   private final StatusSignal<Angle> yaw = pigeon.getYaw();
+  private final StatusSignal<Angle> yawOdometry = pigeon.getYaw();
   private final Queue<Double> yawPositionQueue;
   private final Queue<Double> yawTimestampQueue;
   private final StatusSignal<AngularVelocity> yawVelocity = pigeon.getAngularVelocityZWorld();
 
   public GyroIOPigeon2() {
-    pigeon.getConfigurator().apply(new Pigeon2Configuration());
-    pigeon.getConfigurator().setYaw(0.0);
-    yaw.setUpdateFrequency(Drive.ODOMETRY_FREQUENCY);
-    yawVelocity.setUpdateFrequency(50.0);
+    var config = new Pigeon2Configuration();
+    DeviceConfigurator.submit(
+        "Drive/Gyro",
+        () ->
+            pigeon
+                .getConfigurator()
+                .apply(config, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> PhoenixUtil.readBackMatches(pigeon, config),
+        () -> pigeon.getConfigurator().setYaw(0.0));
+    CanSignalRegistry.register(TunerConstants.kCANBus, "Drive/Gyro", Drive.ODOMETRY_FREQUENCY, yaw);
+    SignalRatePolicy.register(TunerConstants.kCANBus, "Drive", "Drive/Gyro", yawVelocity);
     pigeon.optimizeBusUtilization();
     yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
-    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(pigeon.getYaw());
+    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(yawOdometry);
   }
 
   @Override
@@ -59,4 +73,10 @@ public class GyroIOPigeon2 implements GyroIO {
     yawTimestampQueue.clear();
     yawPositionQueue.clear();
   }
+
+  @Override
+  public Rotation2d getLatestOdometryYaw() {
+    // Refreshed by the odometry thread
+    return Rotation2d.fromDegrees(yawOdometry.getValueAsDouble());
+  }
 }
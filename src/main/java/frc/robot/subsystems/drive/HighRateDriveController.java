@@ -0,0 +1,313 @@
+package frc.robot.subsystems.drive;
+
+import com.pathplanner.lib.controllers.PathFollowingController;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.DriveCommandsConstants;
+import frc.robot.Constants.DriveControlConstants;
+import frc.robot.Constants.ThreadConstants;
+import frc.robot.util.ThreadManager;
+import frc.robot.util.ThreadManager.ManagedThread;
+import frc.robot.util.ThreadManager.ThreadSettings;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Runs path following and heading control on its own thread at the odometry rate, rather than at
+ * the main loop's 50 Hz. Commands publish a target each loop, either the path's current state or a
+ * field relative velocity and heading, and this thread tracks it against a pose kept fresh from
+ * each odometry batch until the target stops being published.
+ *
+ * <p>The pose is the main loop's estimate moved on by the odometry since, read from the devices
+ * outside the logged inputs. None of this runs in replay, where the main loop's commands drive
+ * instead.
+ */
+public class HighRateDriveController extends Thread {
+  private static record Anchor(
+      Pose2d pose,
+      SwerveModulePosition[] modulePositions,
+      Rotation2d gyroRotation,
+      boolean gyroConnected) {}
+
+  private static record Target(
+      boolean path, Pose2d pose, ChassisSpeeds fieldSpeeds, double timestamp) {}
+
+  private final Drive drive;
+  private final Module[] modules;
+  private final GyroIO gyroIO;
+  private final SwerveDriveKinematics kinematics =
+      new SwerveDriveKinematics(Drive.getModuleTranslations());
+  private final double period = 1.0 / Drive.ODOMETRY_FREQUENCY;
+
+  private final PIDController xController =
+      new PIDController(DriveControlConstants.PATH_TRANSLATION_KP, 0.0, 0.0, period);
+  private final PIDController yController =
+      new PIDController(DriveControlConstants.PATH_TRANSLATION_KP, 0.0, 0.0, period);
+  private final PIDController pathRotationController =
+      new PIDController(DriveControlConstants.PATH_ROTATION_KP, 0.0, 0.0, period);
+  private final ProfiledPIDController headingController =
+      new ProfiledPIDController(
+          DriveCommandsConstants.ANGLE_KP,
+          0.0,
+          DriveCommandsConstants.ANGLE_KD,
+          new TrapezoidProfile.Constraints(
+              DriveCommandsConstants.ANGLE_MAX_VELOCITY,
+              DriveCommandsConstants.ANGLE_MAX_ACCELERATION),
+          period);
+
+  private volatile Anchor anchor = null;
+  private volatile Target target = null;
+  private volatile boolean tracking = false;
+  // Only used on this thread
+  private boolean trackingPath = false;
+
+  // Read and reset by the main loop for logging
+  private final Object statsLock = new Object();
+  private int ticks = 0;
+  private double maxTrackingErrorMeters = 0.0;
+
+  HighRateDriveController(Drive drive, Module[] modules, GyroIO gyroIO) {
+    this.drive = drive;
+    this.modules = modules;
+    this.gyroIO = gyroIO;
+    pathRotationController.enableContinuousInput(-Math.PI, Math.PI);
+    headingController.enableContinuousInput(-Math.PI, Math.PI);
+    setName("HighRateDriveController");
+    setDaemon(true);
+  }
+
+  /** Whether this thread is driving, in which case the main loop shouldn't send drive outputs. */
+  public boolean isTracking() {
+    return tracking;
+  }
+
+  /**
+   * Sets the pose to move on from, with the odometry it was estimated from. Called by the main loop
+   * after each pose update.
+   */
+  void setAnchor(
+      Pose2d pose,
+      SwerveModulePosition[] modulePositions,
+      Rotation2d gyroRotation,
+      boolean gyroConnected) {
+    anchor = new Anchor(pose, modulePositions.clone(), gyroRotation, gyroConnected);
+  }
+
+  /**
+   * Drives at a field relative velocity while turning to a heading. Should be called every loop
+   * while the target applies.
+   */
+  void setHeadingTarget(double vxMetersPerSec, double vyMetersPerSec, Rotation2d heading) {
+    target =
+        new Target(
+            false,
+            new Pose2d(Translation2d.kZero, heading),
+            new ChassisSpeeds(vxMetersPerSec, vyMetersPerSec, 0.0),
+            Timer.getFPGATimestamp());
+  }
+
+  /** Stops tracking the current target. */
+  void clearTarget() {
+    synchronized (drive.outputLock) {
+      target = null;
+      tracking = false;
+    }
+  }
+
+  /**
+   * Wraps a path following controller so the path's target state is also published here. The
+   * wrapped controller's speeds are still returned, for the main loop to use until this thread
+   * takes over.
+   */
+  PathFollowingController wrapPathController(PathFollowingController controller) {
+    return new PathFollowingController() {
+      @Override
+      public ChassisSpeeds calculateRobotRelativeSpeeds(
+          Pose2d currentPose, PathPlannerTrajectoryState targetState) {
+        target =
+            new Target(
+                true, targetState.pose, targetState.fieldSpeeds, Timer.getFPGATimestamp());
+        return controller.calculateRobotRelativeSpeeds(currentPose, targetState);
+      }
+
+      @Override
+      public void reset(Pose2d currentPose, ChassisSpeeds currentSpeeds) {
+        controller.reset(currentPose, currentSpeeds);
+      }
+
+      @Override
+      public boolean isHolonomic() {
+        return controller.isHolonomic();
+      }
+    };
+  }
+
+  /** @return Control steps run since the last call. */
+  int takeTicks() {
+    synchronized (statsLock) {
+      int result = ticks;
+      ticks = 0;
+      return result;
+    }
+  }
+
+  /** @return The largest path tracking error since the last call, in meters. */
+  double takeMaxTrackingErrorMeters() {
+    synchronized (statsLock) {
+      double result = maxTrackingErrorMeters;
+      maxTrackingErrorMeters = 0.0;
+      return result;
+    }
+  }
+
+  @Override
+  public void run() {
+    ManagedThread managedThread =
+        ThreadManager.register(
+            "HighRateDrive",
+            new ThreadSettings(
+                ThreadConstants.HIGH_RATE_DRIVE_PRIORITY,
+                ThreadConstants.HIGH_RATE_DRIVE_CPU,
+                ThreadConstants.HIGH_RATE_DRIVE_SPIN_TIMEOUT_SECONDS));
+    PhoenixOdometryThread odometryThread = PhoenixOdometryThread.getInstance();
+    double lastBatchTimestamp = 0.0;
+    while (true) {
+      double now = Logger.getRealTimestamp() / 1e6;
+      double batchTimestamp;
+      try {
+        batchTimestamp =
+            odometryThread.waitForBatch(Math.nextUp(lastBatchTimestamp), now + 2.0 * period);
+      } catch (InterruptedException e) {
+        tracking = false;
+        return;
+      }
+      if (Double.isNaN(batchTimestamp)) {
+        tracking = false;
+        continue;
+      }
+      lastBatchTimestamp = batchTimestamp;
+      // Each batch should wake this thread as soon as it's queued
+      managedThread.startWork(batchTimestamp);
+      step(batchTimestamp);
+      managedThread.finishWork();
+    }
+  }
+
+  private void step(double timestamp) {
+    Target currentTarget = target;
+    Anchor currentAnchor = anchor;
+    if (currentTarget == null
+        || currentAnchor == null
+        || timestamp - currentTarget.timestamp() > DriveControlConstants.TARGET_TIMEOUT_SECONDS
+        || !DriverStation.isEnabled()) {
+      tracking = false;
+      return;
+    }
+
+    SwerveModulePosition[] latestPositions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      latestPositions[i] = modules[i].getLatestOdometryPosition();
+      if (latestPositions[i] == null) {
+        tracking = false;
+        return;
+      }
+    }
+    Pose2d pose = estimatePose(currentAnchor, latestPositions);
+
+    // Start the controllers fresh when tracking starts or switches target kind
+    if (!tracking || trackingPath != currentTarget.path()) {
+      xController.reset();
+      yController.reset();
+      pathRotationController.reset();
+      headingController.reset(pose.getRotation().getRadians());
+      trackingPath = currentTarget.path();
+    }
+
+    ChassisSpeeds fieldSpeeds;
+    double trackingError = 0.0;
+    if (currentTarget.path()) {
+      // Move the path's state on from when it was published, at its own velocity
+      double dt = timestamp - currentTarget.timestamp();
+      ChassisSpeeds feedforward = currentTarget.fieldSpeeds();
+      Pose2d targetPose =
+          new Pose2d(
+              currentTarget.pose().getX() + feedforward.vxMetersPerSecond * dt,
+              currentTarget.pose().getY() + feedforward.vyMetersPerSecond * dt,
+              currentTarget
+                  .pose()
+                  .getRotation()
+                  .plus(Rotation2d.fromRadians(feedforward.omegaRadiansPerSecond * dt)));
+      trackingError = pose.getTranslation().getDistance(targetPose.getTranslation());
+      fieldSpeeds =
+          new ChassisSpeeds(
+              feedforward.vxMetersPerSecond + xController.calculate(pose.getX(), targetPose.getX()),
+              feedforward.vyMetersPerSecond + yController.calculate(pose.getY(), targetPose.getY()),
+              feedforward.omegaRadiansPerSecond
+                  + pathRotationController.calculate(
+                      pose.getRotation().getRadians(), targetPose.getRotation().getRadians()));
+    } else {
+      fieldSpeeds =
+          new ChassisSpeeds(
+              currentTarget.fieldSpeeds().vxMetersPerSecond,
+              currentTarget.fieldSpeeds().vyMetersPerSecond,
+              headingController.calculate(
+                  pose.getRotation().getRadians(),
+                  currentTarget.pose().getRotation().getRadians()));
+    }
+
+    // This thread's own kinematics, since the heading memory isn't safe to share with the loop
+    SwerveModuleState[] setpointStates =
+        Drive.calculateSetpointStates(
+            kinematics,
+            ChassisSpeeds.discretize(
+                ChassisSpeeds.fromFieldRelativeSpeeds(fieldSpeeds, pose.getRotation()), period));
+    Rotation2d[] moduleAngles = new Rotation2d[4];
+    for (int i = 0; i < 4; i++) {
+      moduleAngles[i] = latestPositions[i].angle;
+    }
+
+    synchronized (drive.outputLock) {
+      // A command may have taken the drive back while this step ran
+      if (target == null) {
+        tracking = false;
+        return;
+      }
+      drive.runSetpointsFromController(setpointStates, moduleAngles);
+      tracking = true;
+    }
+    synchronized (statsLock) {
+      ticks++;
+      maxTrackingErrorMeters = Math.max(maxTrackingErrorMeters, trackingError);
+    }
+  }
+
+  /** @return The anchor pose moved on by the newest odometry. */
+  private Pose2d estimatePose(Anchor currentAnchor, SwerveModulePosition[] latestPositions) {
+    SwerveModulePosition[] deltas = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      deltas[i] =
+          new SwerveModulePosition(
+              latestPositions[i].distanceMeters
+                  - currentAnchor.modulePositions()[i].distanceMeters,
+              latestPositions[i].angle);
+    }
+
+    Twist2d twist = kinematics.toTwist2d(deltas);
+    Rotation2d yaw = gyroIO.getLatestOdometryYaw();
+    if (currentAnchor.gyroConnected() && yaw != null) {
+      twist.dtheta = yaw.minus(currentAnchor.gyroRotation()).getRadians();
+    }
+    return currentAnchor.pose().exp(twist);
+  }
+}
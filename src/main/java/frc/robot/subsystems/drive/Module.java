@@ -58,8 +58,12 @@ public class Module {
             AlertType.kError);
   }
 
-  public void periodic() {
+  /** Updates the inputs from the IO, without processing them. */
+  public void updateInputs() {
     io.updateInputs(inputs);
+  }
+
+  public void periodic() {
     Logger.processInputs("Drive/Module" + Integer.toString(index), inputs);
 
     // Calculate positions for odometry
@@ -79,9 +83,17 @@ public class Module {
 
   /** Runs the module with the specified setpoint state. Mutates the state to optimize it. */
   public void runSetpoint(SwerveModuleState state) {
+    runSetpoint(state, getAngle());
+  }
+
+  /**
+   * Runs the module with the specified setpoint state, optimized against a turn angle read
+   * elsewhere rather than the inputs, e.g. off the main loop. Mutates the state to optimize it.
+   */
+  public void runSetpoint(SwerveModuleState state, Rotation2d currentAngle) {
     // Optimize velocity setpoint
-    state.optimize(getAngle());
-    state.cosineScale(inputs.turnPosition);
+    state.optimize(currentAngle);
+    state.cosineScale(currentAngle);
 
     // Apply setpoints
     io.setDriveVelocity(state.speedMetersPerSecond / constants.WheelRadius);
@@ -100,6 +112,11 @@ public class Module {
     io.setTurnOpenLoop(0.0);
   }
 
+  /** Sends the outputs set this loop to the motors. */
+  public void flushOutputs() {
+    io.flushOutputs();
+  }
+
   /** Returns the current turn angle of the module. */
   public Rotation2d getAngle() {
     return inputs.turnPosition;
@@ -135,6 +152,18 @@ public class Module {
     return inputs.odometryTimestamps;
   }
 
+  /**
+   * Returns the newest module position from the odometry thread, or null if the IO can't provide
+   * it. Not logged, so only for use off the main loop.
+   */
+  public SwerveModulePosition getLatestOdometryPosition() {
+    double[] sample = io.getLatestOdometrySample();
+    if (sample == null) {
+      return null;
+    }
+    return new SwerveModulePosition(sample[0] * constants.WheelRadius, new Rotation2d(sample[1]));
+  }
+
   /** Returns the module position in radians. */
   public double getWheelRadiusCharacterizationPosition() {
     return inputs.drivePositionRad;
@@ -52,4 +52,20 @@ public interface ModuleIO {
 
   /** Run the turn motor to the specified rotation. */
   public default void setTurnPosition(Rotation2d rotation) {}
+
+  /**
+   * Sends the outputs set since the last call to the motors together. Implementations that apply
+   * outputs as soon as they're set don't need this.
+   */
+  public default void flushOutputs() {}
+
+  /**
+   * Reads the newest odometry sample directly, for control running faster than the main loop. It
+   * isn't logged, so it must only be used by that control and never by the main loop's logic.
+   *
+   * @return The drive position in radians and turn position in radians, or null if not supported.
+   */
+  public default double[] getLatestOdometrySample() {
+    return null;
+  }
 }
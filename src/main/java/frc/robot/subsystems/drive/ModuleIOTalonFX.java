@@ -19,6 +19,7 @@ import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.ControlRequest;
 import com.ctre.phoenix6.controls.PositionTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.PositionVoltage;
 import com.ctre.phoenix6.controls.TorqueCurrentFOC;
@@ -40,7 +41,11 @@ import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Voltage;
+import frc.robot.Constants.DeviceConfigConstants;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.CanSignalRegistry;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.SignalRatePolicy;
 import java.util.Queue;
 
 /**
@@ -59,23 +64,37 @@ public class ModuleIOTalonFX implements ModuleIO {
   private final TalonFX turnTalon;
   private final CANcoder cancoder;
 
+  // Control requests are staged and sent once a loop by flushOutputs, so they're set to send only
+  // when setControl is called rather than repeating on their own
+
   // Voltage control requests
-  private final VoltageOut voltageRequest = new VoltageOut(0);
-  private final PositionVoltage positionVoltageRequest = new PositionVoltage(0.0);
-  private final VelocityVoltage velocityVoltageRequest = new VelocityVoltage(0.0);
+  private final VoltageOut driveVoltageRequest = new VoltageOut(0).withUpdateFreqHz(0);
+  private final VoltageOut turnVoltageRequest = new VoltageOut(0).withUpdateFreqHz(0);
+  private final PositionVoltage positionVoltageRequest =
+      new PositionVoltage(0.0).withUpdateFreqHz(0);
+  private final VelocityVoltage velocityVoltageRequest =
+      new VelocityVoltage(0.0).withUpdateFreqHz(0);
 
   // Torque-current control requests
-  private final TorqueCurrentFOC torqueCurrentRequest = new TorqueCurrentFOC(0);
+  private final TorqueCurrentFOC driveTorqueCurrentRequest =
+      new TorqueCurrentFOC(0).withUpdateFreqHz(0);
+  private final TorqueCurrentFOC turnTorqueCurrentRequest =
+      new TorqueCurrentFOC(0).withUpdateFreqHz(0);
   private final PositionTorqueCurrentFOC positionTorqueCurrentRequest =
-      new PositionTorqueCurrentFOC(0.0);
+      new PositionTorqueCurrentFOC(0.0).withUpdateFreqHz(0);
   private final VelocityTorqueCurrentFOC velocityTorqueCurrentRequest =
-      new VelocityTorqueCurrentFOC(0.0);
+      new VelocityTorqueCurrentFOC(0.0).withUpdateFreqHz(0);
+
+  // Requests for the next flush, null until the first is set
+  private ControlRequest stagedDriveRequest = null;
+  private ControlRequest stagedTurnRequest = null;
 
   // Timestamp inputs from Phoenix thread
   private final Queue<Double> timestampQueue;
 
   // Inputs from drive motor
   private final StatusSignal<Angle> drivePosition;
+  private final StatusSignal<Angle> driveOdometryPosition;
   private final Queue<Double> drivePositionQueue;
   private final StatusSignal<AngularVelocity> driveVelocity;
   private final StatusSignal<Voltage> driveAppliedVolts;
@@ -84,6 +103,7 @@ public class ModuleIOTalonFX implements ModuleIO {
   // Inputs from turn motor
   private final StatusSignal<Angle> turnAbsolutePosition;
   private final StatusSignal<Angle> turnPosition;
+  private final StatusSignal<Angle> turnOdometryPosition;
   private final Queue<Double> turnPositionQueue;
   private final StatusSignal<AngularVelocity> turnVelocity;
   private final StatusSignal<Voltage> turnAppliedVolts;
@@ -102,8 +122,11 @@ public class ModuleIOTalonFX implements ModuleIO {
     turnTalon = new TalonFX(constants.SteerMotorId, TunerConstants.kCANBus);
     cancoder = new CANcoder(constants.EncoderId, TunerConstants.kCANBus);
 
-    // Configure drive motor
-    var driveConfig = constants.DriveMotorInitialConfigs;
+    // Configure drive motor. The initial configs are shared between modules, and configs are
+    // applied on another thread, so each module gets a copy.
+    String owner = "Drive/Module" + constants.DriveMotorId;
+    var driveConfig = new TalonFXConfiguration();
+    driveConfig.deserialize(constants.DriveMotorInitialConfigs.serialize());
     driveConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
     driveConfig.Slot0 = constants.DriveMotorGains;
     driveConfig.Feedback.SensorToMechanismRatio = constants.DriveMotorGearRatio;
@@ -115,8 +138,15 @@ public class ModuleIOTalonFX implements ModuleIO {
         constants.DriveMotorInverted
             ? InvertedValue.Clockwise_Positive
             : InvertedValue.CounterClockwise_Positive;
-    tryUntilOk(5, () -> driveTalon.getConfigurator().apply(driveConfig, 0.25));
-    tryUntilOk(5, () -> driveTalon.setPosition(0.0, 0.25));
+    DeviceConfigurator.submit(
+        owner + "/Drive",
+        () ->
+            driveTalon
+                .getConfigurator()
+                .apply(driveConfig, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> readBackMatches(driveTalon, driveConfig),
+        () -> tryUntilOk(5, () -> driveTalon.setPosition(0.0, 0.25)));
 
     // Configure turn motor
     var turnConfig = new TalonFXConfiguration();
@@ -142,24 +172,39 @@ public class ModuleIOTalonFX implements ModuleIO {
         constants.SteerMotorInverted
             ? InvertedValue.Clockwise_Positive
             : InvertedValue.CounterClockwise_Positive;
-    tryUntilOk(5, () -> turnTalon.getConfigurator().apply(turnConfig, 0.25));
+    DeviceConfigurator.submit(
+        owner + "/Turn",
+        () ->
+            turnTalon
+                .getConfigurator()
+                .apply(turnConfig, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> readBackMatches(turnTalon, turnConfig));
 
     // Configure CANCoder
-    CANcoderConfiguration cancoderConfig = constants.EncoderInitialConfigs;
+    var cancoderConfig = new CANcoderConfiguration();
+    cancoderConfig.deserialize(constants.EncoderInitialConfigs.serialize());
     cancoderConfig.MagnetSensor.MagnetOffset = constants.EncoderOffset;
     cancoderConfig.MagnetSensor.SensorDirection =
         constants.EncoderInverted
             ? SensorDirectionValue.Clockwise_Positive
             : SensorDirectionValue.CounterClockwise_Positive;
-    cancoder.getConfigurator().apply(cancoderConfig);
+    DeviceConfigurator.submit(
+        owner + "/Encoder",
+        () ->
+            cancoder
+                .getConfigurator()
+                .apply(cancoderConfig, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> readBackMatches(cancoder, cancoderConfig));
 
     // Create timestamp queue
     timestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
 
     // Create drive status signals
     drivePosition = driveTalon.getPosition();
-    drivePositionQueue =
-        PhoenixOdometryThread.getInstance().registerSignal(driveTalon.getPosition());
+    driveOdometryPosition = driveTalon.getPosition();
+    drivePositionQueue = PhoenixOdometryThread.getInstance().registerSignal(driveOdometryPosition);
     driveVelocity = driveTalon.getVelocity();
     driveAppliedVolts = driveTalon.getMotorVoltage();
     driveCurrent = driveTalon.getStatorCurrent();
@@ -167,23 +212,33 @@ public class ModuleIOTalonFX implements ModuleIO {
     // Create turn status signals
     turnAbsolutePosition = cancoder.getAbsolutePosition();
     turnPosition = turnTalon.getPosition();
-    turnPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(turnTalon.getPosition());
+    turnOdometryPosition = turnTalon.getPosition();
+    turnPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(turnOdometryPosition);
     turnVelocity = turnTalon.getVelocity();
     turnAppliedVolts = turnTalon.getMotorVoltage();
     turnCurrent = turnTalon.getStatorCurrent();
 
     // Configure periodic frames
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        Drive.ODOMETRY_FREQUENCY, drivePosition, turnPosition);
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0,
+    CanSignalRegistry.register(
+        TunerConstants.kCANBus, owner + "/Drive", Drive.ODOMETRY_FREQUENCY, drivePosition);
+    CanSignalRegistry.register(
+        TunerConstants.kCANBus, owner + "/Turn", Drive.ODOMETRY_FREQUENCY, turnPosition);
+    SignalRatePolicy.register(
+        TunerConstants.kCANBus,
+        "Drive",
+        owner + "/Drive",
         driveVelocity,
         driveAppliedVolts,
-        driveCurrent,
-        turnAbsolutePosition,
+        driveCurrent);
+    SignalRatePolicy.register(
+        TunerConstants.kCANBus,
+        "Drive",
+        owner + "/Turn",
         turnVelocity,
         turnAppliedVolts,
         turnCurrent);
+    SignalRatePolicy.register(
+        TunerConstants.kCANBus, "Drive", owner + "/Encoder", turnAbsolutePosition);
     ParentDevice.optimizeBusUtilizationForAll(driveTalon, turnTalon);
   }
 
@@ -230,39 +285,60 @@ public class ModuleIOTalonFX implements ModuleIO {
 
   @Override
   public void setDriveOpenLoop(double output) {
-    driveTalon.setControl(
+    stagedDriveRequest =
         switch (constants.DriveMotorClosedLoopOutput) {
-          case Voltage -> voltageRequest.withOutput(output);
-          case TorqueCurrentFOC -> torqueCurrentRequest.withOutput(output);
-        });
+          case Voltage -> driveVoltageRequest.withOutput(output);
+          case TorqueCurrentFOC -> driveTorqueCurrentRequest.withOutput(output);
+        };
   }
 
   @Override
   public void setTurnOpenLoop(double output) {
-    turnTalon.setControl(
+    stagedTurnRequest =
         switch (constants.SteerMotorClosedLoopOutput) {
-          case Voltage -> voltageRequest.withOutput(output);
-          case TorqueCurrentFOC -> torqueCurrentRequest.withOutput(output);
-        });
+          case Voltage -> turnVoltageRequest.withOutput(output);
+          case TorqueCurrentFOC -> turnTorqueCurrentRequest.withOutput(output);
+        };
   }
 
   @Override
   public void setDriveVelocity(double velocityRadPerSec) {
     double velocityRotPerSec = Units.radiansToRotations(velocityRadPerSec);
-    driveTalon.setControl(
+    stagedDriveRequest =
         switch (constants.DriveMotorClosedLoopOutput) {
           case Voltage -> velocityVoltageRequest.withVelocity(velocityRotPerSec);
           case TorqueCurrentFOC -> velocityTorqueCurrentRequest.withVelocity(velocityRotPerSec);
-        });
+        };
   }
 
   @Override
   public void setTurnPosition(Rotation2d rotation) {
-    turnTalon.setControl(
+    stagedTurnRequest =
         switch (constants.SteerMotorClosedLoopOutput) {
           case Voltage -> positionVoltageRequest.withPosition(rotation.getRotations());
           case TorqueCurrentFOC -> positionTorqueCurrentRequest.withPosition(
               rotation.getRotations());
-        });
+        };
+  }
+
+  @Override
+  public double[] getLatestOdometrySample() {
+    // Refreshed by the odometry thread
+    return new double[] {
+      Units.rotationsToRadians(driveOdometryPosition.getValueAsDouble()),
+      Units.rotationsToRadians(turnOdometryPosition.getValueAsDouble())
+    };
+  }
+
+  @Override
+  public void flushOutputs() {
+    // The staged requests are sent again each loop even if unchanged, which keeps the devices from
+    // timing out now that the requests don't repeat on their own
+    if (stagedDriveRequest != null) {
+      driveTalon.setControl(stagedDriveRequest);
+    }
+    if (stagedTurnRequest != null) {
+      turnTalon.setControl(stagedTurnRequest);
+    }
   }
 }
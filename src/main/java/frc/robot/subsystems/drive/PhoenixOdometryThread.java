@@ -18,7 +18,11 @@ import com.ctre.phoenix6.CANBus;
 import com.ctre.phoenix6.StatusSignal;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.ThreadConstants;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.ThreadManager;
+import frc.robot.util.ThreadManager.ManagedThread;
+import frc.robot.util.ThreadManager.ThreadSettings;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
@@ -26,6 +30,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.DoubleSupplier;
+import org.littletonrobotics.junction.Logger;
 
 /**
  * Provides an interface for asynchronously reading high-frequency measurements to a set of queues.
@@ -44,6 +49,10 @@ public class PhoenixOdometryThread extends Thread {
   private final List<Queue<Double>> genericQueues = new ArrayList<>();
   private final List<Queue<Double>> timestampQueues = new ArrayList<>();
 
+  // Real FPGA time the latest batch of samples was queued, for the odometry triggered loop
+  private final Object batchMonitor = new Object();
+  private double lastBatchTimestamp = Double.NaN;
+
   private static boolean isCANFD =
       new CANBus(TunerConstants.DrivetrainConstants.CANBusName).isNetworkFD();
   private static PhoenixOdometryThread instance = null;
@@ -112,9 +121,48 @@ public class PhoenixOdometryThread extends Thread {
     return queue;
   }
 
+  /** Returns the time between batches of samples, in seconds. */
+  public double getBatchPeriodSeconds() {
+    return 1.0 / Drive.ODOMETRY_FREQUENCY;
+  }
+
+  /**
+   * Waits for a batch of samples to be queued at or after a time. Times are real FPGA timestamps
+   * in seconds, as from {@link Logger#getRealTimestamp()}, not the cycle's.
+   *
+   * @param notBeforeSeconds The earliest batch to accept.
+   * @param deadlineSeconds When to stop waiting.
+   * @return When the batch was queued, or NaN if none was by the deadline.
+   */
+  public double waitForBatch(double notBeforeSeconds, double deadlineSeconds)
+      throws InterruptedException {
+    synchronized (batchMonitor) {
+      while (!(lastBatchTimestamp >= notBeforeSeconds)) {
+        long remainingNanos = (long) ((deadlineSeconds - Logger.getRealTimestamp() / 1e6) * 1e9);
+        if (remainingNanos <= 0) {
+          return Double.NaN;
+        }
+        batchMonitor.wait(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+      }
+      return lastBatchTimestamp;
+    }
+  }
+
   @Override
   public void run() {
+    ManagedThread managedThread =
+        ThreadManager.register(
+            "Odometry",
+            new ThreadSettings(
+                ThreadConstants.ODOMETRY_PRIORITY,
+                ThreadConstants.ODOMETRY_CPU,
+                ThreadConstants.ODOMETRY_SPIN_TIMEOUT_SECONDS));
+    double lastWake = Double.NaN;
     while (true) {
+      // Samples are due a period after the last ones, whether waited for or slept for
+      double due =
+          (isCANFD ? lastWake : RobotController.getFPGATime() / 1e6) + getBatchPeriodSeconds();
+
       // Wait for updates from all signals
       signalsLock.lock();
       try {
@@ -132,6 +180,8 @@ public class PhoenixOdometryThread extends Thread {
       } finally {
         signalsLock.unlock();
       }
+      lastWake = RobotController.getFPGATime() / 1e6;
+      managedThread.startWork(due, lastWake);
 
       // Save new data to queues
       Drive.odometryLock.lock();
@@ -161,6 +211,12 @@ public class PhoenixOdometryThread extends Thread {
       } finally {
         Drive.odometryLock.unlock();
       }
+
+      synchronized (batchMonitor) {
+        lastBatchTimestamp = Logger.getRealTimestamp() / 1e6;
+        batchMonitor.notifyAll();
+      }
+      managedThread.finishWork();
     }
   }
 }
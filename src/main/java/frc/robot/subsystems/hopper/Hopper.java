@@ -1,7 +1,9 @@
 package frc.robot.subsystems.hopper;
 
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.HopperConstants;
+import frc.robot.util.InputReadGraph;
 
 import org.littletonrobotics.junction.Logger;
 
@@ -10,30 +12,56 @@ public class Hopper extends SubsystemBase {
     private HopperIO io;
     private HopperIOInputsAutoLogged inputs = new HopperIOInputsAutoLogged();
 
+    // Move timing, so extend and retract times can be read from the log
+    private double targetInches = HopperConstants.HOPPER_RETRACTED;
+    private double moveStartTimestamp = Double.NaN;
+
+    public Hopper(HopperIO io) {
+        this.io = io;
+        InputReadGraph.register("Hopper", () -> io.updateInputs(inputs));
+    }
+
     @Override
     public void periodic() {
-        io.updateInputs(inputs);
+        // Read by InputReadGraph before the scheduler runs
         Logger.processInputs("Hopper", inputs);
+
+        boolean atTarget =
+            Math.abs(inputs.hopperExtension_Inches - targetInches) < HopperConstants.HOPPER_AT_TARGET_TOLERANCE_INCHES;
+        Logger.recordOutput("Hopper/AtTarget", atTarget);
+        if (!Double.isNaN(moveStartTimestamp) && atTarget) {
+            Logger.recordOutput("Hopper/Timing/MoveSeconds", Timer.getFPGATimestamp() - moveStartTimestamp);
+            moveStartTimestamp = Double.NaN;
+        }
+    }
+
+    /** Moves the hopper to an extension in inches; the IO converts to winch rotations */
+    private void goToInches(double inches) {
+        io.goToPosition(inches);
+        if (inches != targetInches) {
+            targetInches = inches;
+            moveStartTimestamp = Timer.getFPGATimestamp();
+        }
     }
 
     /**
      * Retracts the hopper to fully retracted
      */
     public void retract() {
-        io.goToPosition(HopperConstants.HOPPER_RETRACTED * HopperConstants.HOPPER_POSITION_TO_ANGLE_CONVERSION);
+        goToInches(HopperConstants.HOPPER_RETRACTED);
     }
 
     /**
      * Moves the hopper to {@value HopperConstants#HOPPER_PARTIAL} inches
      */
     public void partial() {
-        io.goToPosition(HopperConstants.HOPPER_PARTIAL * HopperConstants.HOPPER_POSITION_TO_ANGLE_CONVERSION);
+        goToInches(HopperConstants.HOPPER_PARTIAL);
     }
     /**
      * Moves the hopper to max extension of {@value HopperConstants#HOPPER_FULL}
      */
     public void full() {
-        io.goToPosition(HopperConstants.HOPPER_FULL * HopperConstants.HOPPER_POSITION_TO_ANGLE_CONVERSION);
+        goToInches(HopperConstants.HOPPER_FULL);
     }
 
 }
@@ -16,12 +16,12 @@ public interface HopperIO {
         
     }
     /** Update the set of loggable inputs */
-    public void updateInputs(HopperIOInputs inputs);
+    public default void updateInputs(HopperIOInputs inputs) {}
     /**
      * Goes the hopper to position 
      * @param position in inches
      */
-    public void goToPosition(double position);
+    public default void goToPosition(double position) {}
     
 
     
@@ -1,39 +1,50 @@
 package frc.robot.subsystems.hopper;
 
-import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.sim.SparkMaxSim;
 
 import edu.wpi.first.math.system.plant.DCMotor;
-
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.sim.SparkMaxSim;
-import com.revrobotics.spark.SparkBase;
-import com.revrobotics.spark.SparkClosedLoopController;
-import com.revrobotics.spark.SparkMax;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import frc.robot.Constants.HopperConstants;
 
-// TODO fully implement class
-public class HopperIOSim implements HopperIO {
-    SparkMax motor = new SparkMax(HopperConstants.SPARK_ID, MotorType.kBrushless);
-    DCMotor m = DCMotor.getNeo550(1);
-    //motor.getClosedLoo
-    
-    private final SparkMaxSim hopperMotor = new SparkMaxSim(motor, m);
-    private final SparkClosedLoopController pidController = motor.getClosedLoopController();
+/**
+ * Physics sim of the hopper winch. The Spark MAX's own MAXMotion runs in REV's simulation and
+ * drives a linear model of the winch with the real gear ratio and drum, so profiles and gains tuned
+ * here carry over. The hopper extends horizontally, so gravity is left out.
+ */
+public class HopperIOSim extends HopperIOSparkMax {
+    private static final double LOOP_PERIOD_SECS = 0.02;
+    private static final DCMotor GEARBOX = DCMotor.getNeo550(1);
+    private static final double DRUM_CIRCUMFERENCE_METERS =
+        Units.inchesToMeters(HopperConstants.HOPPER_WINCH_CIRCUMFRENCE);
+
+    private final SparkMaxSim hopperMotorSim = new SparkMaxSim(hopperMotor, GEARBOX);
+    private final ElevatorSim winchSim =
+        new ElevatorSim(
+            GEARBOX,
+            HopperConstants.HOPPER_WINCH_GEAR_RATIO,
+            HopperConstants.SIM_HOPPER_MASS_KG,
+            DRUM_CIRCUMFERENCE_METERS / (2.0 * Math.PI),
+            Units.inchesToMeters(HopperConstants.HOPPER_RETRACTED),
+            Units.inchesToMeters(HopperConstants.HOPPER_FULL),
+            false,
+            Units.inchesToMeters(HopperConstants.HOPPER_RETRACTED));
 
-    
-    
     /** Update the set of loggable inputs */
+    @Override
     public void updateInputs(HopperIOInputs inputs) {
-        inputs.hopperMotor_Volts =  hopperMotor.getBusVoltage();
-        //hopperMotor.
-        
-    }
-    public double positionToRotations(double position){
-       return ((position * HopperConstants.HOPPER_WINCH_GEAR_RATIO) / HopperConstants.HOPPER_WINCH_CIRCUMFRENCE);
+        double busVoltage = RobotController.getBatteryVoltage();
+        winchSim.setInputVoltage(hopperMotorSim.getAppliedOutput() * busVoltage);
+        winchSim.update(LOOP_PERIOD_SECS);
 
+        // Step the Spark with the winch's motor speed in RPM, which also integrates its position
+        double motorRpm =
+            winchSim.getVelocityMetersPerSecond() / DRUM_CIRCUMFERENCE_METERS
+                * HopperConstants.HOPPER_WINCH_GEAR_RATIO
+                * 60.0;
+        hopperMotorSim.iterate(motorRpm, busVoltage, LOOP_PERIOD_SECS);
+
+        super.updateInputs(inputs);
     }
-    public void goToPosition(double position_inches){
-        pidController.setSetpoint(positionToRotations(position_inches), SparkBase.ControlType.kMAXMotionPositionControl);
-    }
-   
 }
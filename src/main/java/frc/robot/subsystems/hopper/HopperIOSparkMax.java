@@ -1,18 +1,55 @@
 package frc.robot.subsystems.hopper;
 
+import com.revrobotics.PersistMode;
+import com.revrobotics.REVLibError;
+import com.revrobotics.ResetMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.spark.SparkBase;
 import com.revrobotics.spark.SparkClosedLoopController;
 import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.config.SparkMaxConfig;
+import frc.robot.Constants.CanConstants;
+import frc.robot.Constants.DeviceConfigConstants;
 import frc.robot.Constants.HopperConstants;
+import frc.robot.util.CanSignalRegistry;
+import frc.robot.util.DeviceConfigurator;
 
 
 public class HopperIOSparkMax implements HopperIO {
-    private final SparkMax hopperMotor = new SparkMax(HopperConstants.SPARK_ID, MotorType.kBrushless);
+    protected final SparkMax hopperMotor = new SparkMax(HopperConstants.SPARK_ID, MotorType.kBrushless);
     private final SparkClosedLoopController pidController = hopperMotor.getClosedLoopController();
     private final RelativeEncoder hopperEncoder = hopperMotor.getEncoder();
-    
+
+    public HopperIOSparkMax() {
+        // Positions are motor rotations and velocities motor RPM, the Spark's default units
+        var config = new SparkMaxConfig();
+        config.closedLoop.pid(HopperConstants.HOPPER_kP, HopperConstants.HOPPER_kI, HopperConstants.HOPPER_kD);
+        config.closedLoop.maxMotion
+            .cruiseVelocity(HopperConstants.HOPPER_CRUISE_VELOCITY)
+            .maxAcceleration(HopperConstants.HOPPER_MAX_ACCELERATION)
+            .allowedProfileError(HopperConstants.HOPPER_MAX_ALLOWED_PROFILER_ERROR);
+        // Send the signals read here every loop
+        config.signals
+            .primaryEncoderPositionPeriodMs(20)
+            .primaryEncoderVelocityPeriodMs(20)
+            .appliedOutputPeriodMs(20)
+            .outputCurrentPeriodMs(20);
+        DeviceConfigurator.submit(
+            "Hopper",
+            () -> hopperMotor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters)
+                == REVLibError.kOk,
+            () -> {
+                var closedLoop = hopperMotor.configAccessor.closedLoop;
+                // Gains are stored as floats on the Spark
+                double tolerance = DeviceConfigConstants.READBACK_TOLERANCE;
+                return Math.abs(closedLoop.getP() - HopperConstants.HOPPER_kP) <= tolerance
+                    && Math.abs(closedLoop.getI() - HopperConstants.HOPPER_kI) <= tolerance
+                    && Math.abs(closedLoop.getD() - HopperConstants.HOPPER_kD) <= tolerance;
+            });
+        // The four signals above are packed into two status frames
+        CanSignalRegistry.registerFrames(CanConstants.RIO_BUS, "Hopper", "Status frames", 50.0, 2);
+    }
     
     /** Update the set of loggable inputs */
     @Override
@@ -21,6 +58,8 @@ public class HopperIOSparkMax implements HopperIO {
         inputs.hopperMotor_Amps = hopperMotor.getOutputCurrent();
         inputs.hopperExtension_Rotations = hopperEncoder.getPosition();
         inputs.hopperExtension_Inches = hopperEncoder.getPosition() / HopperConstants.HOPPER_POSITION_TO_ANGLE_CONVERSION;
+        // RPM to inches per second
+        inputs.hopperExtensionVelocity_inchesPerSecond = hopperEncoder.getVelocity() / 60.0 / HopperConstants.HOPPER_POSITION_TO_ANGLE_CONVERSION;
     }
    
     @Override
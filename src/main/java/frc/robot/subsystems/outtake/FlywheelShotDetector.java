@@ -0,0 +1,57 @@
+package frc.robot.subsystems.outtake;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import frc.robot.Constants.OuttakeConstants;
+
+/**
+ * Works out from flywheel speed whether the flywheel is ready to fire, and counts the speed dips
+ * of balls passing through. Shared by the real and simulated IO so both report the same way.
+ */
+class FlywheelShotDetector {
+  // Rises only after the flywheel has held speed for a moment, falls as soon as it drops out
+  private final Debouncer atSpeedDebounce =
+      new Debouncer(OuttakeConstants.FLYWHEEL_AT_SPEED_DEBOUNCE_SECONDS, DebounceType.kRising);
+  // A shot is counted the first time the speed dips after the flywheel was at speed
+  private boolean armed = false;
+  private boolean atSpeed = false;
+  // The target the flywheel last had to reach, to tell when it's given a new one
+  private double armTargetRps = 0.0;
+  private int shotCount = 0;
+
+  /**
+   * @param running Whether the flywheel is being driven.
+   * @param targetRps The target speed in rotations per second.
+   * @param velocityRps The measured speed in rotations per second.
+   */
+  public void update(boolean running, double targetRps, double velocityRps) {
+    // Moving to a new target would look like a dip, so the new speed has to be reached first
+    if (Math.abs(targetRps - armTargetRps) > OuttakeConstants.FLYWHEEL_AT_SPEED_TOLERANCE_RPS) {
+      armTargetRps = targetRps;
+      armed = false;
+      atSpeedDebounce.calculate(false);
+    }
+    boolean withinTolerance =
+        Math.abs(targetRps - velocityRps) < OuttakeConstants.FLYWHEEL_AT_SPEED_TOLERANCE_RPS;
+    atSpeed = atSpeedDebounce.calculate(running && withinTolerance);
+    if (atSpeed) {
+      armed = true;
+    } else if (armed
+        && running
+        && velocityRps < targetRps - OuttakeConstants.FLYWHEEL_SHOT_DIP_RPS) {
+      armed = false;
+      shotCount++;
+    }
+    if (!running) {
+      armed = false;
+    }
+  }
+
+  public boolean isAtSpeed() {
+    return atSpeed;
+  }
+
+  public int getShotCount() {
+    return shotCount;
+  }
+}
@@ -0,0 +1,97 @@
+package frc.robot.subsystems.outtake;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.Constants.OuttakeConstants;
+import java.util.Optional;
+
+/**
+ * Aims shots taken while the robot is moving. The ball keeps the robot's velocity after it leaves
+ * the shooter, so instead of the real target the shooter aims at a virtual target shifted back
+ * along the robot's velocity by the time of flight. Time of flight depends on distance to the
+ * virtual target, so the two are iterated until they agree.
+ *
+ * <p>Each iteration is one {@link ShotMap} lookup, so solving every loop is cheap.
+ */
+public class MovingShotSolver {
+  private final ShotMap shotMap;
+
+  /** A shot that accounts for the robot's motion. */
+  public static record ShotSolution(
+      /** Hood angle ccw+ from horizontal (degrees). */
+      double hoodAngleDegrees,
+      /** Flywheel speed (rotations per second). */
+      double flywheelRps,
+      /** Field-relative heading the robot should face to take the shot. */
+      Rotation2d robotHeading,
+      /** Time of flight to the target (seconds). */
+      double timeOfFlightSeconds,
+      /** The point the shooter aims at so the ball drifts into the real target. */
+      Translation2d virtualTarget,
+      /** Distance from the launch point to the virtual target (meters). */
+      double distanceMeters,
+      /** Whether the time of flight settled within the iteration limit. */
+      boolean converged) {}
+
+  public MovingShotSolver(ShotMap shotMap) {
+    this.shotMap = shotMap;
+  }
+
+  /**
+   * Solves the shot from the robot's current state.
+   *
+   * @param robotPose The robot's field pose.
+   * @param fieldRelativeSpeeds The robot's field-relative velocity.
+   * @param target The field position of the target.
+   * @return The shot, or empty if the (virtual) target is out of the shot map's range.
+   */
+  public Optional<ShotSolution> solve(
+      Pose2d robotPose, ChassisSpeeds fieldRelativeSpeeds, Translation2d target) {
+    double vx = fieldRelativeSpeeds.vxMetersPerSecond;
+    double vy = fieldRelativeSpeeds.vyMetersPerSecond;
+    // The robot keeps moving between deciding to shoot and the ball leaving
+    double latency = OuttakeConstants.SHOT_RELEASE_LATENCY_SECONDS;
+    Translation2d launch =
+        new Translation2d(robotPose.getX() + vx * latency, robotPose.getY() + vy * latency);
+
+    Translation2d virtualTarget = target;
+    boolean converged = false;
+    double timeOfFlight = 0.0;
+    for (int i = 0; i < OuttakeConstants.MOVING_SHOT_MAX_ITERATIONS; i++) {
+      Optional<ShotMap.Shot> next = shotMap.get(launch.getDistance(virtualTarget));
+      if (next.isEmpty()) {
+        return Optional.empty();
+      }
+      double change = Math.abs(next.get().timeOfFlightSeconds() - timeOfFlight);
+      timeOfFlight = next.get().timeOfFlightSeconds();
+      virtualTarget =
+          new Translation2d(target.getX() - vx * timeOfFlight, target.getY() - vy * timeOfFlight);
+      if (change < OuttakeConstants.MOVING_SHOT_TOLERANCE_SECONDS) {
+        converged = true;
+        break;
+      }
+    }
+
+    // The last lookup was for the previous virtual target, so look up the final one
+    double distance = launch.getDistance(virtualTarget);
+    Optional<ShotMap.Shot> finalShot = shotMap.get(distance);
+    if (finalShot.isEmpty()) {
+      return Optional.empty();
+    }
+    ShotMap.Shot shot = finalShot.get();
+    // The robot faces the target turned back by the shooter's offset from its front
+    Rotation2d heading =
+        virtualTarget.minus(launch).getAngle().minus(OuttakeConstants.SHOOTER_HEADING_OFFSET);
+    return Optional.of(
+        new ShotSolution(
+            shot.hoodAngleDegrees(),
+            shot.flywheelRps(),
+            heading,
+            shot.timeOfFlightSeconds(),
+            virtualTarget,
+            distance,
+            converged));
+  }
+}
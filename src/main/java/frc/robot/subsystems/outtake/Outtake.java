@@ -1,25 +1,122 @@
 package frc.robot.subsystems.outtake;
 
+import static edu.wpi.first.units.Units.Feet;
+
+import com.pathplanner.lib.util.FlippingUtil;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.StartEndCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.OuttakeConstants;
+import frc.robot.subsystems.outtake.MovingShotSolver.ShotSolution;
+import frc.robot.util.InputReadGraph;
+import frc.robot.util.SignalRatePolicy;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 import org.littletonrobotics.junction.Logger;
 
 public class Outtake extends SubsystemBase {
   private final OuttakeIO io;
   private final OuttakeIOInputsAutoLogged inputs;
+  private final ShotMap shotMap;
+  private final MovingShotSolver movingShotSolver;
+
+  private Optional<ShotSolution> shotSolution = Optional.empty();
+
+  // Cycle timing, measured from the inputs so it reads the same on the robot, in sim and in replay
+  private double flywheelStartTimestamp = Double.NaN;
+  private double hoodTargetDeg = Double.NaN;
+  private double hoodMoveTimestamp = Double.NaN;
+  private int lastShotCount = 0;
+  private double lastShotTimestamp = Double.NaN;
 
-  public Outtake() {
-    io = new OuttakeIOTalonFX();
+  // A scoring attempt lasts as long as a feed command runs
+  private final ScoringTimeline timeline = new ScoringTimeline();
+  private boolean scoringActive = false;
+  private boolean feeding = false;
+
+  public Outtake(OuttakeIO io) {
+    this.io = io;
     inputs = new OuttakeIOInputsAutoLogged();
+    InputReadGraph.register("Outtake", () -> io.updateInputs(inputs));
+    // Solving the map from the model takes a moment, so do it at startup rather than on first shot
+    shotMap = ShotMap.getDefault();
+    movingShotSolver = new MovingShotSolver(shotMap);
   }
 
   public void periodic() {
-    io.updateInputs(inputs);
+    // Read by InputReadGraph before the scheduler runs
     Logger.processInputs("Outtake", inputs);
+    updateCycleTiming();
+    timeline.update(
+        Timer.getFPGATimestamp(),
+        scoringActive,
+        inputs.flywheelAtSpeed,
+        inputs.hoodAtTarget,
+        feeding,
+        inputs.shotCount);
+    SignalRatePolicy.setActive("Outtake", scoringActive || !inputs.hoodAtTarget);
+  }
+
+  /** Logs flywheel spin-up, hood settle and shot-to-shot times as each one completes */
+  private void updateCycleTiming() {
+    double now = Timer.getFPGATimestamp();
+    if (!Double.isNaN(flywheelStartTimestamp) && inputs.flywheelAtSpeed) {
+      Logger.recordOutput("Outtake/Timing/SpinUpSeconds", now - flywheelStartTimestamp);
+      flywheelStartTimestamp = Double.NaN;
+    }
+
+    if (inputs.targetShotAngleDegrees != hoodTargetDeg) {
+      hoodTargetDeg = inputs.targetShotAngleDegrees;
+      hoodMoveTimestamp = now;
+    } else if (!Double.isNaN(hoodMoveTimestamp) && inputs.hoodAtTarget) {
+      Logger.recordOutput("Outtake/Timing/HoodSettleSeconds", now - hoodMoveTimestamp);
+      hoodMoveTimestamp = Double.NaN;
+    }
+
+    if (inputs.shotCount != lastShotCount) {
+      if (!Double.isNaN(lastShotTimestamp)) {
+        Logger.recordOutput("Outtake/Timing/ShotCycleSeconds", now - lastShotTimestamp);
+      }
+      lastShotCount = inputs.shotCount;
+      lastShotTimestamp = now;
+    }
+  }
+
+  private void startFlywheel() {
+    io.startFlywheel();
+    if (!inputs.flywheelAtSpeed) {
+      flywheelStartTimestamp = Timer.getFPGATimestamp();
+    }
+  }
+
+  /** Sends a hood target to the IO. Logged here so it's the same with every IO and in replay. */
+  private void setAngle(double angleDegrees) {
+    Logger.recordOutput("Outtake/RequestedAngleDegrees", angleDegrees);
+    io.setAngle(angleDegrees);
+  }
+
+  /** Runs the feeder wheels. Logged here so it's the same with every IO and in replay. */
+  private void setFeederVoltages(double middleWheelVolts, double starWheelVolts) {
+    Logger.recordOutput("Outtake/MiddleWheelVoltage", middleWheelVolts);
+    Logger.recordOutput("Outtake/StarWheelVoltage", starWheelVolts);
+    io.setMiddleWheelVoltage(middleWheelVolts);
+    io.setStarWheelVoltage(starWheelVolts);
+  }
+
+  private void stopFlywheelNow() {
+    io.stopFlywheel();
+    flywheelStartTimestamp = Double.NaN;
+    // The next burst's first shot has no previous shot to time against
+    lastShotTimestamp = Double.NaN;
   }
 
   /**
@@ -27,7 +124,77 @@ public class Outtake extends SubsystemBase {
    * @param currentPosition The current position of the robot center on the field
    */
   public Command enterShootMode(Translation2d currentPosition) {
-    return new InstantCommand(io::startFlywheel).andThen(new InstantCommand(() -> io.setAngleAtTarget(currentPosition)));
+    return new InstantCommand(this::startFlywheel).andThen(new InstantCommand(() -> setAngleAtTarget(currentPosition)));
+  }
+
+  /** Points the hood and flywheel at the hub from a standing position */
+  private void setAngleAtTarget(Translation2d currentPosition) {
+    if (currentPosition.getMeasureX().in(Feet) > OuttakeConstants.OPPOSITE_TEAM_LIMIT_FEET) {
+      setAngle(OuttakeConstants.OPPOSITE_TEAM_SHOT_ANGLE_DEG);
+      return;
+    }
+    if (currentPosition.getMeasureX().in(Feet) > OuttakeConstants.MIDFIELD_LIMIT_FEET) {
+      setAngle(OuttakeConstants.MIDFIELD_SHOT_ANGLE_DEG);
+      return;
+    }
+
+    // TODO: check in with drive team if we should try shot next update/tick if there is no shot
+    double distanceMeters = currentPosition.getDistance(getHubPosition());
+    var shot = shotMap.get(distanceMeters);
+    Logger.recordOutput("Outtake/Shot/DistanceMeters", distanceMeters);
+    Logger.recordOutput("Outtake/Shot/HasShot", shot.isPresent());
+    shot.ifPresent(s -> {
+      setAngle(s.hoodAngleDegrees());
+      io.setFlywheelVelocity(s.flywheelRps());
+      Logger.recordOutput("Outtake/Shot/TimeOfFlightSeconds", s.timeOfFlightSeconds());
+    });
+  }
+
+  /**
+   * Starts the flywheel, then re-solves the shot every loop from the robot's pose and velocity so
+   * the hood and flywheel stay on target while driving. Pair with a drive command that turns to
+   * {@link #getShotSolution()}'s heading.
+   *
+   * @param poseSupplier The robot's field pose
+   * @param fieldRelativeSpeedsSupplier The robot's field-relative velocity
+   * @return The command, which runs until interrupted
+   */
+  public Command enterShootMode(
+      Supplier<Pose2d> poseSupplier, Supplier<ChassisSpeeds> fieldRelativeSpeedsSupplier) {
+    // Doesn't require the outtake, so the feed commands can run alongside it
+    return Commands.runOnce(this::startFlywheel)
+        .andThen(
+            Commands.run(
+                () -> updateShotSolution(poseSupplier.get(), fieldRelativeSpeedsSupplier.get())))
+        .finallyDo(() -> shotSolution = Optional.empty());
+  }
+
+  /** Solves the moving shot and points the hood and flywheel at it */
+  private void updateShotSolution(Pose2d pose, ChassisSpeeds fieldRelativeSpeeds) {
+    shotSolution = movingShotSolver.solve(pose, fieldRelativeSpeeds, getHubPosition());
+    Logger.recordOutput("Outtake/MovingShot/HasSolution", shotSolution.isPresent());
+    shotSolution.ifPresent(solution -> {
+      setAngle(solution.hoodAngleDegrees());
+      io.setFlywheelVelocity(solution.flywheelRps());
+      Logger.recordOutput("Outtake/MovingShot/VirtualTarget", solution.virtualTarget());
+      Logger.recordOutput("Outtake/MovingShot/RobotHeading", solution.robotHeading());
+      Logger.recordOutput("Outtake/MovingShot/DistanceMeters", solution.distanceMeters());
+      Logger.recordOutput("Outtake/MovingShot/TimeOfFlightSeconds", solution.timeOfFlightSeconds());
+      Logger.recordOutput("Outtake/MovingShot/Converged", solution.converged());
+    });
+  }
+
+  /** @return The latest moving shot, empty when not in moving shoot mode or out of range */
+  public Optional<ShotSolution> getShotSolution() {
+    return shotSolution;
+  }
+
+  /** @return The position of our alliance's hub */
+  public static Translation2d getHubPosition() {
+    boolean isRed = DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red;
+    return isRed
+        ? FlippingUtil.flipFieldPosition(OuttakeConstants.HUB_POSITION)
+        : OuttakeConstants.HUB_POSITION;
   }
 
   /**
@@ -36,39 +203,96 @@ public class Outtake extends SubsystemBase {
    * @return The command
    */
   public Command enterShootMode(double shotAngleDeg) {
-    return new InstantCommand(io::startFlywheel).andThen(new InstantCommand(() -> io.setAngle(shotAngleDeg)));
+    return new InstantCommand(this::startFlywheel).andThen(new InstantCommand(() -> setAngle(shotAngleDeg)));
   }
 
   public Command lowerHood() {
-    return new InstantCommand(() -> io.setAngle(OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG));
+    return new InstantCommand(() -> setAngle(OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG));
   }
 
   public Command stopFlywheel() {
-    return new InstantCommand(io::stopFlywheel);
+    return new InstantCommand(this::stopFlywheelNow);
   }
 
   public Command sendBallsToShooter() {
     return new StartEndCommand(
         () -> {
-          io.setMiddleWheelVoltage(OuttakeConstants.MIDDLE_WHEEL_TO_SHOOTER_VOLTS);
-          io.setStarWheelVoltage(OuttakeConstants.STAR_WHEEL_TO_SHOOTER_VOLTS);
+          setFeederVoltages(
+              OuttakeConstants.MIDDLE_WHEEL_TO_SHOOTER_VOLTS,
+              OuttakeConstants.STAR_WHEEL_TO_SHOOTER_VOLTS);
+          scoringActive = true;
+          feeding = true;
         },
         () -> {
-          io.setMiddleWheelVoltage(0);
-          io.setStarWheelVoltage(0);
+          setFeederVoltages(0, 0);
+          scoringActive = false;
+          feeding = false;
         },
         this);
   }
 
+  /** @return Whether the flywheel is at speed and the hood has settled, so a ball can be fed */
+  public boolean isReadyToFire() {
+    return inputs.flywheelAtSpeed && inputs.hoodAtTarget;
+  }
+
+  /** @return Number of shots detected since startup */
+  public int getShotCount() {
+    return inputs.shotCount;
+  }
+
+  /**
+   * Feeds balls into the shooter only while the flywheel is at speed and the hood is on target. A
+   * ball passing through drops the flywheel out of tolerance, which holds the next ball until the
+   * speed has recovered.
+   */
+  public Command feedWhenReady() {
+    return feedWhen(this::isReadyToFire);
+  }
+
+  /**
+   * Feeds balls into the shooter only while a condition holds, such as {@link #isReadyToFire()}
+   * combined with the robot being aimed.
+   *
+   * @param ready Whether a ball can be fed this loop
+   */
+  public Command feedWhen(BooleanSupplier ready) {
+    return run(() -> {
+          boolean canFeed = ready.getAsBoolean();
+          scoringActive = true;
+          feeding = canFeed;
+          setFeederVoltages(
+              canFeed ? OuttakeConstants.MIDDLE_WHEEL_TO_SHOOTER_VOLTS : 0,
+              canFeed ? OuttakeConstants.STAR_WHEEL_TO_SHOOTER_VOLTS : 0);
+          Logger.recordOutput("Outtake/ReadyToFire", canFeed);
+        })
+        .finallyDo(() -> {
+          setFeederVoltages(0, 0);
+          scoringActive = false;
+          feeding = false;
+        });
+  }
+
+  /**
+   * Spins up, moves the hood across its range and fires for a few seconds, so spin-up, hood settle
+   * and shot cycle times can be read from the log (headlessly in sim).
+   */
+  public Command shotCycleTest() {
+    return enterShootMode(OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG)
+        .andThen(feedWhenReady().withTimeout(OuttakeConstants.SHOT_CYCLE_TEST_SECONDS))
+        .finallyDo(this::stopFlywheelNow)
+        .withName("OuttakeShotCycleTest");
+  }
+
   public Command groundOuttake() {
     return new StartEndCommand(
         () -> {
-            io.setMiddleWheelVoltage(OuttakeConstants.MIDDLE_WHEEL_TO_GROUND_VOLTS);
-            io.setStarWheelVoltage(OuttakeConstants.STAR_WHEEL_TO_GROUND_VOLTS);
+            setFeederVoltages(
+                OuttakeConstants.MIDDLE_WHEEL_TO_GROUND_VOLTS,
+                OuttakeConstants.STAR_WHEEL_TO_GROUND_VOLTS);
         },
         () -> {
-            io.setMiddleWheelVoltage(0);
-            io.setStarWheelVoltage(0);
+            setFeederVoltages(0, 0);
         },
         this);
   }
@@ -1,10 +1,8 @@
 package frc.robot.subsystems.outtake;
 
-import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.wpilibj2.command.Subsystem;
 import org.littletonrobotics.junction.AutoLog;
 
-public interface OuttakeIO extends Subsystem {
+public interface OuttakeIO {
   @AutoLog
   public static class OuttakeIOInputs {
     /** The actual angle of the hood, in degrees, representing launch angle compared to horizontal with ccw+ */
@@ -13,33 +11,47 @@ public interface OuttakeIO extends Subsystem {
     public double targetShotAngleDegrees = 0.0;
     /** The current angular velocity of the hood in degrees per second */
     public double currentAngularVelocityDegPerSecond = 0.0;
-    /** Distance to the target in feet */
-    public double targetDistanceFeet = 0.0;
+    /** Whether the hood is within tolerance of its target angle */
+    public boolean hoodAtTarget = false;
+    /** Flywheel speed the velocity loop is targeting, in rotations per second */
+    public double targetFlywheelRps = 0.0;
+    /** Measured flywheel speed in rotations per second */
+    public double flywheelVelocityRps = 0.0;
+    /** Voltage applied to the lead flywheel motor */
+    public double flywheelAppliedVolts = 0.0;
+    /** Whether the flywheel has held its target speed long enough to fire */
+    public boolean flywheelAtSpeed = false;
+    /** Number of shots detected from flywheel speed dips since startup */
+    public int shotCount = 0;
+    /** Balls the simulated feeder has launched since startup, always 0 on the real robot */
+    public int simBallsLaunched = 0;
+    /** Exit speed of the last simulated ball in meters per second, always 0 on the real robot */
+    public double simLastExitSpeedMps = 0.0;
   }
 
   /** Updates logs; util for AdvantageScope
    * @param inputs inputs from previous iteration
    */
-  public void updateInputs(OuttakeIOInputs inputs);
+  public default void updateInputs(OuttakeIOInputs inputs) {}
 
   /** Causes the flywheel to start spinning up */
-  public void startFlywheel();
+  public default void startFlywheel() {}
+
+  /** Sets the speed the flywheel runs at, in rotations per second, applied immediately if it is spinning */
+  public default void setFlywheelVelocity(double rotationsPerSecond) {}
 
   /** Causes the flywheel to coast */
-  public void stopFlywheel();
+  public default void stopFlywheel() {}
 
   /** Causes the "middle" wheel to spin using specified voltage */
-  public void setMiddleWheelVoltage(double voltage);
+  public default void setMiddleWheelVoltage(double voltage) {}
 
   /** Causes the star wheel to spin using specified voltage */
-  public void setStarWheelVoltage(double voltage);
-
-  /** Sets the target shot angle, which the hood will constantly move towards, to be targeting the target */
-  public void setAngleAtTarget(Translation2d currentPosition);
+  public default void setStarWheelVoltage(double voltage) {}
 
   /** Sets the target shot angle, which the hood will constantly move towards, measured ccw+ from horiontal */
-  public void setAngle(double angleDegrees);
+  public default void setAngle(double angleDegrees) {}
 
   /** Sets the target angle based on the current network table value at /Outtake/HoodAngleDeg */
-  public void setAngleFromNT ();
+  public default void setAngleFromNT () {}
 }
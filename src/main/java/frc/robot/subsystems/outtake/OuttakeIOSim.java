@@ -1,53 +1,208 @@
 package frc.robot.subsystems.outtake;
 
-import org.littletonrobotics.junction.Logger;
-
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.robot.Constants.OuttakeConstants;
 
+/**
+ * Physics sim implementation of outtake IO. The flywheel, hood and both feeder wheels are motor
+ * models driven by voltage, with the TalonFX closed loops (velocity for the flywheel, Motion Magic
+ * for the hood) reproduced on top. Each ball the feeder pushes through takes its launch energy out
+ * of the flywheel, so spin-up, recovery and shot cycle times come out of the physics.
+ */
 public class OuttakeIOSim implements OuttakeIO {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+  private static final DCMotor FLYWHEEL_GEARBOX = DCMotor.getKrakenX60(2);
+  private static final DCMotor HOOD_GEARBOX = DCMotor.getKrakenX60(1);
+  private static final DCMotor FEEDER_GEARBOX = DCMotor.getKrakenX60(1);
 
-    @Override
-    public void updateInputs(OuttakeIOInputs inputs) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'updateInputs'");
-    }
+  private final FlywheelSim flywheelSim =
+      new FlywheelSim(
+          LinearSystemId.createFlywheelSystem(
+              FLYWHEEL_GEARBOX, OuttakeConstants.SIM_FLYWHEEL_MOI_KG_M2, 1.0),
+          FLYWHEEL_GEARBOX);
+  private final SingleJointedArmSim hoodSim =
+      new SingleJointedArmSim(
+          HOOD_GEARBOX,
+          1.0 / OuttakeConstants.ANGLE_CHANGER_GEAR_RATIO,
+          OuttakeConstants.SIM_HOOD_MOI_KG_M2,
+          OuttakeConstants.SIM_HOOD_LENGTH_METERS,
+          Units.degreesToRadians(OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG),
+          Units.degreesToRadians(OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG),
+          false,
+          Units.degreesToRadians(OuttakeConstants.STARTING_SHOT_ANGLE_DEG));
+  private final DCMotorSim middleWheelSim = createFeederSim();
+  private final DCMotorSim starWheelSim = createFeederSim();
 
-    @Override
-    public void startFlywheel() {
-        Logger.recordOutput("Outtake/FlywheelVoltage", 12);
-    }
+  private final TrapezoidProfile hoodProfile =
+      new TrapezoidProfile(
+          new TrapezoidProfile.Constraints(
+              OuttakeConstants.HOOD_CRUISE_VELOCITY_ROT_PER_SEC,
+              OuttakeConstants.HOOD_ACCELERATION_ROT_PER_SEC2));
+  private TrapezoidProfile.State hoodSetpoint =
+      new TrapezoidProfile.State(
+          Units.degreesToRotations(OuttakeConstants.STARTING_SHOT_ANGLE_DEG), 0.0);
+  private double targetShotAngleDeg = OuttakeConstants.STARTING_SHOT_ANGLE_DEG;
 
-    @Override
-    public void stopFlywheel() {
-        Logger.recordOutput("Outtake/FlywheelVoltage", 0);
-    }
+  private final FlywheelShotDetector shotDetector = new FlywheelShotDetector();
+  private boolean flywheelRunning = false;
+  private double targetFlywheelRps = OuttakeConstants.DEFAULT_FLYWHEEL_RPS;
+  private double flywheelAppliedVolts = 0.0;
+  private double middleWheelVolts = 0.0;
+  private double starWheelVolts = 0.0;
+  // How far the current ball has been pushed toward the flywheel
+  private double feedDistanceMeters = 0.0;
+  private int ballsLaunched = 0;
+  private double lastExitSpeedMps = 0.0;
+  private final Alert invalidAngleAlert =
+      new Alert("Hood angle requested out of range, clamped to the limits.", AlertType.kWarning);
 
-    @Override
-    public void setMiddleWheelVoltage(double voltage) {
-        Logger.recordOutput("Outtake/MiddleWheelVoltage", voltage);
-    }
+  private final DoubleEntry hoodAngleDegEntry =
+      NetworkTableInstance.getDefault()
+          .getDoubleTopic("/Outtake/HoodAngleDeg")
+          .getEntry(OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG);
 
-    @Override
-    public void setStarWheelVoltage(double voltage) {
-        Logger.recordOutput("Outtake/StarWheelVoltage", voltage);
-    }
+  private static DCMotorSim createFeederSim() {
+    return new DCMotorSim(
+        LinearSystemId.createDCMotorSystem(
+            FEEDER_GEARBOX,
+            OuttakeConstants.SIM_FEEDER_MOI_KG_M2,
+            OuttakeConstants.SIM_FEEDER_GEAR_RATIO),
+        FEEDER_GEARBOX);
+  }
 
-    @Override
-    public void setAngleAtTarget(Translation2d currentPosition) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'setAngleAtTarget'");
-    }
+  @Override
+  public void updateInputs(OuttakeIOInputs inputs) {
+    // Flywheel velocity loop, as the TalonFX runs it
+    double flywheelRps = Units.radiansToRotations(flywheelSim.getAngularVelocityRadPerSec());
+    flywheelAppliedVolts =
+        flywheelRunning
+            ? OuttakeConstants.FLYWHEEL_kV * targetFlywheelRps
+                + OuttakeConstants.SIM_FLYWHEEL_kP * (targetFlywheelRps - flywheelRps)
+            : 0.0;
+    flywheelAppliedVolts = MathUtil.clamp(flywheelAppliedVolts, -12.0, 12.0);
 
-    @Override
-    public void setAngle(double angleDegrees) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'setAngle'");
-    }
+    // Hood Motion Magic: follow a trapezoid profile with PD and velocity feedforward
+    double hoodRotations = Units.radiansToRotations(hoodSim.getAngleRads());
+    double hoodVelocityRps = Units.radiansToRotations(hoodSim.getVelocityRadPerSec());
+    hoodSetpoint =
+        hoodProfile.calculate(
+            LOOP_PERIOD_SECS,
+            hoodSetpoint,
+            new TrapezoidProfile.State(Units.degreesToRotations(targetShotAngleDeg), 0.0));
+    double hoodVolts =
+        OuttakeConstants.SIM_HOOD_kP * (hoodSetpoint.position - hoodRotations)
+            + OuttakeConstants.SIM_HOOD_kD * (hoodSetpoint.velocity - hoodVelocityRps)
+            + OuttakeConstants.SIM_HOOD_kV * hoodSetpoint.velocity;
+
+    // Step the physics
+    flywheelSim.setInputVoltage(flywheelAppliedVolts);
+    hoodSim.setInputVoltage(MathUtil.clamp(hoodVolts, -12.0, 12.0));
+    middleWheelSim.setInputVoltage(MathUtil.clamp(middleWheelVolts, -12.0, 12.0));
+    starWheelSim.setInputVoltage(MathUtil.clamp(starWheelVolts, -12.0, 12.0));
+    flywheelSim.update(LOOP_PERIOD_SECS);
+    hoodSim.update(LOOP_PERIOD_SECS);
+    middleWheelSim.update(LOOP_PERIOD_SECS);
+    starWheelSim.update(LOOP_PERIOD_SECS);
+    updateFeed();
+
+    flywheelRps = Units.radiansToRotations(flywheelSim.getAngularVelocityRadPerSec());
+    shotDetector.update(flywheelRunning, targetFlywheelRps, flywheelRps);
 
-    @Override
-    public void setAngleFromNT() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'setAngleFromNT'");
+    double currentAngleDeg = Units.radiansToDegrees(hoodSim.getAngleRads());
+    inputs.currentShotAngleDegrees = currentAngleDeg;
+    inputs.targetShotAngleDegrees = targetShotAngleDeg;
+    inputs.currentAngularVelocityDegPerSecond =
+        Units.radiansToDegrees(hoodSim.getVelocityRadPerSec());
+    inputs.hoodAtTarget =
+        Math.abs(targetShotAngleDeg - currentAngleDeg)
+            < OuttakeConstants.HOOD_AT_TARGET_TOLERANCE_DEG;
+    inputs.targetFlywheelRps = targetFlywheelRps;
+    inputs.flywheelVelocityRps = flywheelRps;
+    inputs.flywheelAppliedVolts = flywheelAppliedVolts;
+    inputs.flywheelAtSpeed = shotDetector.isAtSpeed();
+    inputs.shotCount = shotDetector.getShotCount();
+    inputs.simBallsLaunched = ballsLaunched;
+    inputs.simLastExitSpeedMps = lastExitSpeedMps;
+  }
+
+  /**
+   * Advances the ball in the feeder by the star wheel's surface travel, and launches it once it
+   * reaches the flywheel. The ball leaves at the flywheel's exit speed and its kinetic energy comes
+   * out of the flywheel.
+   */
+  private void updateFeed() {
+    double surfaceSpeed =
+        starWheelSim.getAngularVelocityRadPerSec() * OuttakeConstants.SIM_FEEDER_RADIUS_METERS;
+    feedDistanceMeters = Math.max(0.0, feedDistanceMeters + surfaceSpeed * LOOP_PERIOD_SECS);
+    if (feedDistanceMeters < OuttakeConstants.SIM_BALL_SPACING_METERS) {
+      return;
     }
-    
+    feedDistanceMeters -= OuttakeConstants.SIM_BALL_SPACING_METERS;
+
+    double omega = flywheelSim.getAngularVelocityRadPerSec();
+    double exitSpeed =
+        omega * OuttakeConstants.FLYWHEEL_RADIUS_METERS * OuttakeConstants.BALL_EXIT_SPEED_RATIO;
+    double ballEnergy = 0.5 * OuttakeConstants.BALL_MASS_KG * exitSpeed * exitSpeed;
+    double flywheelEnergy = 0.5 * OuttakeConstants.SIM_FLYWHEEL_MOI_KG_M2 * omega * omega;
+    double remaining =
+        Math.max(0.0, flywheelEnergy - ballEnergy / OuttakeConstants.SIM_SHOT_EFFICIENCY);
+    flywheelSim.setAngularVelocity(
+        Math.sqrt(2.0 * remaining / OuttakeConstants.SIM_FLYWHEEL_MOI_KG_M2));
+
+    ballsLaunched++;
+    lastExitSpeedMps = exitSpeed;
+  }
+
+  @Override
+  public void startFlywheel() {
+    flywheelRunning = true;
+  }
+
+  @Override
+  public void setFlywheelVelocity(double rotationsPerSecond) {
+    targetFlywheelRps = rotationsPerSecond;
+  }
+
+  @Override
+  public void stopFlywheel() {
+    flywheelRunning = false;
+  }
+
+  @Override
+  public void setMiddleWheelVoltage(double voltage) {
+    middleWheelVolts = voltage;
+  }
+
+  @Override
+  public void setStarWheelVoltage(double voltage) {
+    starWheelVolts = voltage;
+  }
+
+  @Override
+  public void setAngle(double angleDegrees) {
+    double clampedDegrees =
+        MathUtil.clamp(
+            angleDegrees,
+            OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG,
+            OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG);
+    invalidAngleAlert.set(clampedDegrees != angleDegrees);
+    hoodAngleDegEntry.set(clampedDegrees);
+    targetShotAngleDeg = clampedDegrees;
+  }
+
+  @Override
+  public void setAngleFromNT() {
+    setAngle(hoodAngleDegEntry.get());
+  }
 }
@@ -1,43 +1,63 @@
 package frc.robot.subsystems.outtake;
 
-import static edu.wpi.first.units.Units.Degrees;
-import static edu.wpi.first.units.Units.DegreesPerSecond;
-import static edu.wpi.first.units.Units.Feet;
 
-import java.util.OptionalDouble;
-
-import org.littletonrobotics.junction.Logger;
-
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.MotorAlignmentValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.DoubleEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import frc.robot.Constants.CanConstants;
+import frc.robot.Constants.DeviceConfigConstants;
 import frc.robot.Constants.OuttakeConstants;
+import frc.robot.util.CanSignalRegistry;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.PhoenixUtil;
+import frc.robot.util.SignalRatePolicy;
 
-public class OuttakeIOTalonFX extends SubsystemBase implements OuttakeIO {
+public class OuttakeIOTalonFX implements OuttakeIO {
   private final TalonFX leadShooter, followShooter, middleWheel, starWheel, angleChanger;
   private final OuttakeIOInputs logs;
 
   private double targetShotAngleDeg = OuttakeConstants.STARTING_SHOT_ANGLE_DEG;
-
-  private double currentAngleDeg = 0.0;
-  private double currentAngularVelocityDegPerSecond = 0.0;
-  private double targetHeightOffsetMeters = 0.0;
-  private double targetDistanceMeters = 0.0;
+  // The hood runs Motion Magic on the TalonFX; positions are hood rotations, so 1 rotation = 360 deg
+  private final MotionMagicVoltage hoodRequest = new MotionMagicVoltage(0.0);
+  // Set once the hood's config and starting position are applied. Requests sent before then would
+  // be in motor rotations from an unknown position. Guarded by hoodRequest.
+  private boolean hoodReady = false;
+  private final StatusSignal<Angle> hoodPosition;
+  private final StatusSignal<AngularVelocity> hoodVelocity;
+
+  private boolean flywheelRunning = false;
+  private double targetFlywheelRps = OuttakeConstants.DEFAULT_FLYWHEEL_RPS;
+  private final VelocityVoltage flywheelRequest = new VelocityVoltage(0.0);
+  private final StatusSignal<AngularVelocity> flywheelVelocity;
+  private final StatusSignal<Voltage> flywheelAppliedVolts;
+  private final FlywheelShotDetector shotDetector = new FlywheelShotDetector();
+
+  private final VoltageOut middleWheelRequest = new VoltageOut(0.0);
+  private final VoltageOut starWheelRequest = new VoltageOut(0.0);
 
   private DoubleEntry hoodAngleDegEntry;
+  private final Alert invalidAngleAlert =
+      new Alert("Hood angle requested out of range, clamped to the limits.", AlertType.kWarning);
 
   public OuttakeIOTalonFX() {
-    super();
-
     hoodAngleDegEntry = NetworkTableInstance.getDefault().getDoubleTopic("/Outtake/HoodAngleDeg").getEntry(OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG);
 
     logs = new OuttakeIOInputs();
@@ -47,138 +67,151 @@ public class OuttakeIOTalonFX extends SubsystemBase implements OuttakeIO {
     followShooter.setControl(
         new Follower(OuttakeConstants.RIGHT_SHOOTER_MOTOR, MotorAlignmentValue.Opposed));
     
-    leadShooter.getConfigurator().apply(new MotorOutputConfigs().withNeutralMode(NeutralModeValue.Coast)); // To make re-spinning up faster
+    var flywheelConfig = new TalonFXConfiguration();
+    flywheelConfig.MotorOutput.NeutralMode = NeutralModeValue.Coast; // To make re-spinning up faster
+    flywheelConfig.Slot0.kS = OuttakeConstants.FLYWHEEL_kS;
+    flywheelConfig.Slot0.kV = OuttakeConstants.FLYWHEEL_kV;
+    flywheelConfig.Slot0.kP = OuttakeConstants.FLYWHEEL_kP;
+    DeviceConfigurator.submit(
+        "Outtake/LeadShooter",
+        () ->
+            leadShooter
+                .getConfigurator()
+                .apply(flywheelConfig, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> PhoenixUtil.readBackMatches(leadShooter, flywheelConfig));
+    flywheelVelocity = leadShooter.getVelocity();
+    flywheelAppliedVolts = leadShooter.getMotorVoltage();
     middleWheel = new TalonFX(OuttakeConstants.MIDDLE_WHEEL_MOTOR);
     starWheel = new TalonFX(OuttakeConstants.STAR_WHEEL_MOTOR);
     angleChanger = new TalonFX(OuttakeConstants.ANGLE_CHANGER_MOTOR);
 
-    // Represents the starting position of the hood
-    angleChanger.setPosition(OuttakeConstants.ANGLE_CHANGER_STARTING_ANGLE_ROTATIONS / OuttakeConstants.ANGLE_CHANGER_GEAR_RATIO);
-    currentAngleDeg = OuttakeConstants.ANGLE_CHANGER_STARTING_ANGLE_ROTATIONS * 360;
-  }
-
-  public void periodic() {
-    // Update the current angle by getting the motor position and multiplying by gear ratio
-    currentAngleDeg = angleChanger.getPosition().getValue().in(Degrees) * OuttakeConstants.ANGLE_CHANGER_GEAR_RATIO;
-    // Update the current angular velocity by getting the motor velocity and multiplying by gear ratio
-    currentAngularVelocityDegPerSecond = angleChanger.getVelocity().getValue().in(DegreesPerSecond) * OuttakeConstants.ANGLE_CHANGER_GEAR_RATIO;
-
-    // Calculate the angle error from target position to actual position
-    double angleError = targetShotAngleDeg - currentAngleDeg;
-    double angularVelocityError = 0 - currentAngularVelocityDegPerSecond;
-
-    // PID logic
-    double appliedVoltage = (angleError * OuttakeConstants.HOOD_ANGLE_KP) + (angularVelocityError * OuttakeConstants.HOOD_ANGLE_KD);
-    Logger.recordOutput("Outtake/AngleVoltage", appliedVoltage);
-
-    angleChanger.setControl(new VoltageOut(appliedVoltage));
-  }
-
-  /**
-   * Calculates how to aim the shooter to hit a target.
-   *
-   * @param currentPosition the position to aim from
-   * @param targetPosition the position to aim at
-   * @return the angle in degrees required to shoot into the hub from its location as an optional double
-   */
-  public OptionalDouble calculateAngle(Translation2d currentPosition, Translation2d targetPosition) {
-    // The height offset from the robot hood to the target in meters because metric is better
-    targetHeightOffsetMeters = Units.feetToMeters(OuttakeConstants.HUB_HEIGHT_FEET - OuttakeConstants.LAUNCH_HEIGHT_FEET);
-    // The outtake velocity it meters per second
-    double velocity = OuttakeConstants.OUTTAKE_VELOCITY_MPS;
-    // The gravitational constant of 9.8 m/s^2
-    double gravity = OuttakeConstants.GRAVITATIONAL_CONSTANT_MPS2;
-    // The horizontal part of the distance between the robot and the target
-    targetDistanceMeters = currentPosition.getDistance(targetPosition);
-    
-    // These are renamed to make the math look smaller
-    double height = targetHeightOffsetMeters;
-    double distance = targetDistanceMeters;
-    
-    // If distance is zero there will (might?) be a division by zero
-    if (distance == 0) return OptionalDouble.empty();
-    
-    // ~Math~
-
-    // This code is unreadable right now so use this   V V V
-    // a_{ngle}=\arctan\left(\frac{\left(v^{2}+\sqrt{v^{4}-g\left(gd^{2}+2hv^{2}\right)}\right)}{gd}\right)
-    // PASTE INTO DESMOS TO VIEW                       ^ ^ ^
-
-    // The discriminant is useful for telling how many solutions there are
-    double discriminant = 
-      Math.pow(velocity, 4) 
-      - ((Math.pow(gravity, 2) * Math.pow(distance, 2))
-      + (2 * gravity * height * Math.pow(velocity, 2))
-    );
-    
-    // If discriminant isn't squareroot-able, then there are no solutions,
-    // meaning no shot is possible. 
-    if (discriminant < 0) return OptionalDouble.empty(); 
-
-    // The rest of the math
-    double angle = Math.atan(
-      (Math.pow(velocity, 2) + Math.sqrt(discriminant)) 
-      / (gravity * distance)
-    );
-
-    return OptionalDouble.of(angle / (2*Math.PI) * 360);
+    var hoodConfig = new TalonFXConfiguration();
+    hoodConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+    // Report position and velocity in hood rotations rather than motor rotations
+    hoodConfig.Feedback.SensorToMechanismRatio = 1.0 / OuttakeConstants.ANGLE_CHANGER_GEAR_RATIO;
+    hoodConfig.Slot0.kP = OuttakeConstants.HOOD_kP;
+    hoodConfig.Slot0.kD = OuttakeConstants.HOOD_kD;
+    hoodConfig.Slot0.kS = OuttakeConstants.HOOD_kS;
+    hoodConfig.Slot0.kV = OuttakeConstants.HOOD_kV;
+    hoodConfig.MotionMagic.MotionMagicCruiseVelocity = OuttakeConstants.HOOD_CRUISE_VELOCITY_ROT_PER_SEC;
+    hoodConfig.MotionMagic.MotionMagicAcceleration = OuttakeConstants.HOOD_ACCELERATION_ROT_PER_SEC2;
+    // The starting position is in hood rotations, so it's set once the ratio is applied, and only
+    // then is the hood sent to its target
+    DeviceConfigurator.submit(
+        "Outtake/Hood",
+        () ->
+            angleChanger
+                .getConfigurator()
+                .apply(hoodConfig, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+                .isOK(),
+        () -> PhoenixUtil.readBackMatches(angleChanger, hoodConfig),
+        () -> {
+          angleChanger.setPosition(OuttakeConstants.ANGLE_CHANGER_STARTING_ANGLE_ROTATIONS);
+          synchronized (hoodRequest) {
+            hoodReady = true;
+            sendHoodRequest();
+          }
+        });
+    hoodPosition = angleChanger.getPosition();
+    hoodVelocity = angleChanger.getVelocity();
+
+    // Configure periodic frames. Only the signals read here are sent, plus the lead flywheel
+    // motor's outputs, which the follower tracks. Shots are detected from the flywheel speed, so it
+    // stays at a fixed rate while the rest drop when the outtake isn't in use.
+    CanSignalRegistry.register(CanConstants.RIO_BUS, "Outtake/Hood", 50.0, hoodPosition);
+    CanSignalRegistry.register(CanConstants.RIO_BUS, "Outtake/LeadShooter", 50.0, flywheelVelocity);
+    SignalRatePolicy.register(CanConstants.RIO_BUS, "Outtake", "Outtake/Hood", hoodVelocity);
+    SignalRatePolicy.register(
+        CanConstants.RIO_BUS, "Outtake", "Outtake/LeadShooter", flywheelAppliedVolts);
+    CanSignalRegistry.register(
+        CanConstants.RIO_BUS,
+        "Outtake/LeadShooter",
+        100.0,
+        leadShooter.getDutyCycle(),
+        leadShooter.getTorqueCurrent());
+    ParentDevice.optimizeBusUtilizationForAll(
+        leadShooter, followShooter, middleWheel, starWheel, angleChanger);
   }
 
   @Override
   public void updateInputs(OuttakeIOInputs inputs) {
-    // Inputs for IO logging
+    // Refresh all signals in one batch
+    BaseStatusSignal.refreshAll(hoodPosition, hoodVelocity, flywheelVelocity, flywheelAppliedVolts);
+    double currentAngleDeg = Units.rotationsToDegrees(hoodPosition.getValueAsDouble());
     inputs.currentShotAngleDegrees = currentAngleDeg;
-    inputs.currentAngularVelocityDegPerSecond = currentAngularVelocityDegPerSecond;
+    inputs.currentAngularVelocityDegPerSecond = Units.rotationsToDegrees(hoodVelocity.getValueAsDouble());
     inputs.targetShotAngleDegrees = targetShotAngleDeg;
-    inputs.targetDistanceFeet = Units.metersToFeet(targetDistanceMeters);
+    inputs.hoodAtTarget =
+        Math.abs(targetShotAngleDeg - currentAngleDeg) < OuttakeConstants.HOOD_AT_TARGET_TOLERANCE_DEG;
+    inputs.targetFlywheelRps = targetFlywheelRps;
+
+    double velocityRps = flywheelVelocity.getValueAsDouble();
+    shotDetector.update(flywheelRunning, targetFlywheelRps, velocityRps);
+    inputs.flywheelVelocityRps = velocityRps;
+    inputs.flywheelAppliedVolts = flywheelAppliedVolts.getValueAsDouble();
+    inputs.flywheelAtSpeed = shotDetector.isAtSpeed();
+    inputs.shotCount = shotDetector.getShotCount();
   }
 
   public void startFlywheel() {
-    leadShooter.setControl(new VoltageOut(OuttakeConstants.FLYWHEEL_VOLTS));
-    Logger.recordOutput("Outtake/FlywheelVoltage", leadShooter.getMotorVoltage().getValue());
+    flywheelRunning = true;
+    applyFlywheel();
+  }
+
+  public void setFlywheelVelocity(double rotationsPerSecond) {
+    targetFlywheelRps = rotationsPerSecond;
+    if (flywheelRunning) {
+      applyFlywheel();
+    }
+  }
+
+  /** Closes the loop on the current target speed, with kS/kV feedforward on the TalonFX */
+  private void applyFlywheel() {
+    leadShooter.setControl(flywheelRequest.withVelocity(targetFlywheelRps));
   }
 
   public void stopFlywheel() {
+    flywheelRunning = false;
     leadShooter.set(0.0);
-    Logger.recordOutput("Outtake/FlywheelVoltage", 0.0);
   }
 
   public void setMiddleWheelVoltage(double voltage) {
-    middleWheel.setControl(new VoltageOut(voltage));
-    Logger.recordOutput("Outtake/MiddleWheelVoltage", voltage);
+    middleWheel.setControl(middleWheelRequest.withOutput(voltage));
   }
 
   public void setStarWheelVoltage(double voltage) {
-    starWheel.setControl(new VoltageOut(voltage));
-    Logger.recordOutput("Outtake/StarWheelVoltage", voltage);
+    starWheel.setControl(starWheelRequest.withOutput(voltage));
   }
 
-  public void setAngleAtTarget(Translation2d currentPosition) {
-    if (currentPosition.getMeasureX().in(Feet) > OuttakeConstants.OPPOSITE_TEAM_LIMIT_FEET) {
-      targetShotAngleDeg = OuttakeConstants.OPPOSITE_TEAM_SHOT_ANGLE_DEG;
-      return;
-    } 
-    if (currentPosition.getMeasureX().in(Feet) > OuttakeConstants.MIDFIELD_LIMIT_FEET) {
-      targetShotAngleDeg = OuttakeConstants.MIDFIELD_SHOT_ANGLE_DEG;
-      return;
-    }
-    
-    // TODO: check in with drive team if we should try shot next update/tick if angle is empty
-    // TODO: figure out how to account for blueside/redside when integrating this with pose estimation
-    calculateAngle(currentPosition, OuttakeConstants.HUB_POSITION)
-      .ifPresent(this::setAngle);
+  public void setAngle(double angleDegrees) {
+    double clampedDegrees =
+        MathUtil.clamp(
+            angleDegrees,
+            OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG,
+            OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG);
+    invalidAngleAlert.set(clampedDegrees != angleDegrees);
+
+    hoodAngleDegEntry.set(clampedDegrees);
+
+    setHoodTarget(clampedDegrees);
   }
 
-  public void setAngle(double angleDegrees) {
-    if (OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG > angleDegrees 
-     || OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG < angleDegrees) {
-      System.out.println("setAngle was passed an invalid angle");
-      return;
+  /** Hands a new target to the onboard Motion Magic, only sending a request when it changes */
+  private void setHoodTarget(double angleDegrees) {
+    synchronized (hoodRequest) {
+      if (angleDegrees == targetShotAngleDeg) {
+        return;
+      }
+      targetShotAngleDeg = angleDegrees;
+      if (hoodReady) {
+        sendHoodRequest();
+      }
     }
-    
-    hoodAngleDegEntry.set(angleDegrees);
+  }
 
-    targetShotAngleDeg = angleDegrees;
+  private void sendHoodRequest() {
+    angleChanger.setControl(hoodRequest.withPosition(Units.degreesToRotations(targetShotAngleDeg)));
   }
 
   @Override
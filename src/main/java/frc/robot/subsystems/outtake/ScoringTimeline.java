@@ -0,0 +1,124 @@
+package frc.robot.subsystems.outtake;
+
+import frc.robot.util.LatencyStats;
+import java.util.EnumMap;
+import java.util.Map;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Traces each scoring attempt through its phases, so it's clear where cycle time goes. The phase
+ * is worked out every loop from the outtake's inputs and logged, which puts a timestamped
+ * transition in the log whenever it changes. Each completed phase is added to a per-phase
+ * distribution that is logged as it updates over the match.
+ *
+ * <p>A phase only counts as completed when the attempt moves on to another phase. The phase an
+ * attempt ends in was cut short, so it isn't counted. {@link ScoringTimelineReport} rebuilds the
+ * same numbers from the logged phases offline.
+ */
+public class ScoringTimeline {
+  public static final String PHASE_KEY = "Scoring/Timeline/Phase";
+
+  public enum Phase {
+    /** No scoring attempt */
+    IDLE,
+    /** Flywheel spinning up for the attempt's first shot */
+    SPIN_UP,
+    /** Flywheel at speed, hood still moving */
+    HOOD_SETTLE,
+    /** Flywheel and hood ready, feeding held back (e.g. the robot is still turning) */
+    AIM,
+    /** Feeding until the ball hits the flywheel */
+    FEED,
+    /** Flywheel recovering speed after a shot */
+    RECOVERY
+  }
+
+  private final Map<Phase, LatencyStats> stats = new EnumMap<>(Phase.class);
+  private final LatencyStats attemptStats = new LatencyStats();
+
+  private Phase phase = Phase.IDLE;
+  private double phaseStartTimestamp = 0.0;
+  private int attempt = 0;
+  private double attemptStartTimestamp = 0.0;
+  private int attemptStartShotCount = 0;
+
+  public ScoringTimeline() {
+    for (Phase each : Phase.values()) {
+      stats.put(each, new LatencyStats());
+    }
+  }
+
+  /**
+   * Works out the current phase and logs it, along with any phase or attempt that just completed.
+   *
+   * @param timestamp The current time in seconds.
+   * @param active Whether a scoring attempt is in progress.
+   * @param flywheelAtSpeed Whether the flywheel is at speed.
+   * @param hoodAtTarget Whether the hood is on target.
+   * @param feeding Whether balls are being fed to the flywheel.
+   * @param shotCount Shots detected since startup.
+   */
+  public void update(
+      double timestamp,
+      boolean active,
+      boolean flywheelAtSpeed,
+      boolean hoodAtTarget,
+      boolean feeding,
+      int shotCount) {
+    if (active && phase == Phase.IDLE) {
+      attempt++;
+      attemptStartTimestamp = timestamp;
+      attemptStartShotCount = shotCount;
+    }
+
+    Phase next;
+    if (!active) {
+      next = Phase.IDLE;
+    } else if (!flywheelAtSpeed) {
+      next = shotCount != attemptStartShotCount ? Phase.RECOVERY : Phase.SPIN_UP;
+    } else if (!hoodAtTarget) {
+      next = Phase.HOOD_SETTLE;
+    } else if (!feeding) {
+      next = Phase.AIM;
+    } else {
+      next = Phase.FEED;
+    }
+
+    if (next != phase) {
+      if (phase != Phase.IDLE && next != Phase.IDLE) {
+        recordPhase(phase, timestamp - phaseStartTimestamp);
+      }
+      if (next == Phase.IDLE) {
+        recordAttempt(timestamp - attemptStartTimestamp, shotCount - attemptStartShotCount);
+      }
+      phase = next;
+      phaseStartTimestamp = timestamp;
+    }
+
+    Logger.recordOutput(PHASE_KEY, phase.name());
+    Logger.recordOutput("Scoring/Timeline/AttemptNumber", attempt);
+  }
+
+  private void recordPhase(Phase completed, double seconds) {
+    LatencyStats phaseStats = stats.get(completed);
+    phaseStats.add(seconds);
+    String prefix = "Scoring/Timeline/" + completed.name() + "/";
+    Logger.recordOutput(prefix + "LastSeconds", seconds);
+    logStats(prefix, phaseStats);
+  }
+
+  private void recordAttempt(double seconds, int shots) {
+    attemptStats.add(seconds);
+    Logger.recordOutput("Scoring/Timeline/Attempt/LastSeconds", seconds);
+    Logger.recordOutput("Scoring/Timeline/Attempt/LastShots", shots);
+    logStats("Scoring/Timeline/Attempt/", attemptStats);
+  }
+
+  private static void logStats(String prefix, LatencyStats stats) {
+    Logger.recordOutput(prefix + "Count", stats.getCount());
+    Logger.recordOutput(prefix + "MeanSeconds", stats.getMean());
+    Logger.recordOutput(prefix + "P50Seconds", stats.getPercentile(0.5));
+    Logger.recordOutput(prefix + "P90Seconds", stats.getPercentile(0.9));
+    Logger.recordOutput(prefix + "MaxSeconds", stats.getMax());
+  }
+}
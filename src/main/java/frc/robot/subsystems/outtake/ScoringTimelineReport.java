@@ -0,0 +1,108 @@
+package frc.robot.subsystems.outtake;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.subsystems.outtake.ScoringTimeline.Phase;
+import frc.robot.util.LatencyStats;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline report of scoring cycle time from robot logs. Rebuilds the per-phase and per-attempt
+ * durations from the phases {@link ScoringTimeline} logged, and prints their distributions across
+ * all the logs given, so several matches can be summarized together.
+ *
+ * <p>Run with {@code ./gradlew scoringReport -Plogs=<a.wpilog>,<b.wpilog>}.
+ */
+public class ScoringTimelineReport {
+  private final Map<Phase, LatencyStats> stats = new EnumMap<>(Phase.class);
+  private final LatencyStats attemptStats = new LatencyStats();
+
+  private Phase phase = Phase.IDLE;
+  private long phaseStartMicros = 0;
+  private long attemptStartMicros = 0;
+
+  public ScoringTimelineReport() {
+    for (Phase each : Phase.values()) {
+      stats.put(each, new LatencyStats());
+    }
+  }
+
+  /**
+   * Adds the scoring attempts in a log to the report.
+   *
+   * @param path The .wpilog file.
+   */
+  public void read(String path) throws IOException {
+    DataLogReader reader = new DataLogReader(path);
+    if (!reader.isValid()) {
+      throw new IOException(path + " is not a valid WPILOG file");
+    }
+    // Matches real and replayed outputs alike
+    Set<Integer> phaseEntries = new HashSet<>();
+    phase = Phase.IDLE;
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (start.name.endsWith(ScoringTimeline.PHASE_KEY)) {
+          phaseEntries.add(start.entry);
+        }
+      } else if (!record.isControl() && phaseEntries.contains(record.getEntry())) {
+        update(record.getTimestamp(), Phase.valueOf(record.getString()));
+      }
+    }
+  }
+
+  /** Applies the same rules as {@link ScoringTimeline} to a logged phase. */
+  private void update(long timestampMicros, Phase next) {
+    if (next == phase) {
+      return;
+    }
+    if (phase == Phase.IDLE) {
+      attemptStartMicros = timestampMicros;
+    } else if (next != Phase.IDLE) {
+      stats.get(phase).add((timestampMicros - phaseStartMicros) / 1e6);
+    } else {
+      attemptStats.add((timestampMicros - attemptStartMicros) / 1e6);
+    }
+    phase = next;
+    phaseStartMicros = timestampMicros;
+  }
+
+  public void print() {
+    System.out.printf(
+        "%-12s %6s %9s %9s %9s %9s%n", "phase", "count", "mean_s", "p50_s", "p90_s", "max_s");
+    for (Phase each : Phase.values()) {
+      if (each != Phase.IDLE) {
+        printRow(each.name(), stats.get(each));
+      }
+    }
+    printRow("ATTEMPT", attemptStats);
+  }
+
+  private static void printRow(String name, LatencyStats stats) {
+    System.out.printf(
+        "%-12s %6d %9.3f %9.3f %9.3f %9.3f%n",
+        name,
+        stats.getCount(),
+        stats.getMean(),
+        stats.getPercentile(0.5),
+        stats.getPercentile(0.9),
+        stats.getMax());
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: ScoringTimelineReport <log.wpilog> [more logs...]");
+      System.exit(1);
+    }
+    ScoringTimelineReport report = new ScoringTimelineReport();
+    for (String path : args) {
+      report.read(path);
+    }
+    report.print();
+  }
+}
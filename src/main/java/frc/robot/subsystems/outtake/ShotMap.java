@@ -0,0 +1,229 @@
+package frc.robot.subsystems.outtake;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants.OuttakeConstants;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shot parameters as a function of distance to the target, stored on a uniform distance grid so a
+ * lookup is one index calculation and a linear interpolation.
+ *
+ * <p>The deployed map is tuned points from {@link OuttakeConstants#SHOT_MAP_FILENAME} when that
+ * file exists, and otherwise is solved from {@link ShotModel} at startup. Tuned points can be
+ * spaced however is convenient; they are resampled onto the grid when loaded.
+ *
+ * <p>The CSV format is one shot per line: {@code distance_m,hood_deg,flywheel_rps,tof_s}. Blank
+ * lines and lines starting with {@code #} are ignored, as is a header line.
+ */
+public class ShotMap {
+  private static final String HEADER = "distance_m,hood_deg,flywheel_rps,tof_s";
+
+  private final double minDistanceMeters;
+  private final double stepMeters;
+  private final double[] hoodAngleDegrees;
+  private final double[] flywheelRps;
+  private final double[] timeOfFlightSeconds;
+
+  /** The settings for one shot. */
+  public static record Shot(
+      /** Hood angle ccw+ from horizontal (degrees). */
+      double hoodAngleDegrees,
+      /** Flywheel speed (rotations per second). */
+      double flywheelRps,
+      /** Time from leaving the shooter to reaching the target (seconds). */
+      double timeOfFlightSeconds) {}
+
+  /**
+   * @param minDistanceMeters Distance of the first grid entry.
+   * @param stepMeters Distance between grid entries.
+   * @param hoodAngleDegrees Hood angle per entry. NaN marks a distance with no shot.
+   * @param flywheelRps Flywheel speed per entry.
+   * @param timeOfFlightSeconds Time of flight per entry.
+   */
+  public ShotMap(
+      double minDistanceMeters,
+      double stepMeters,
+      double[] hoodAngleDegrees,
+      double[] flywheelRps,
+      double[] timeOfFlightSeconds) {
+    this.minDistanceMeters = minDistanceMeters;
+    this.stepMeters = stepMeters;
+    this.hoodAngleDegrees = hoodAngleDegrees;
+    this.flywheelRps = flywheelRps;
+    this.timeOfFlightSeconds = timeOfFlightSeconds;
+  }
+
+  private static class DefaultHolder {
+    private static final ShotMap INSTANCE = loadDefault();
+  }
+
+  /** Returns the deployed shot map, loading or solving it on first use. */
+  public static ShotMap getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  private static ShotMap loadDefault() {
+    File file = new File(Filesystem.getDeployDirectory(), OuttakeConstants.SHOT_MAP_FILENAME);
+    if (file.isFile()) {
+      try {
+        return read(file);
+      } catch (IOException | RuntimeException e) {
+        DriverStation.reportWarning(
+            "Failed to load shot map, solving it from the model instead: " + e.getMessage(),
+            false);
+      }
+    }
+    return fromModel(
+        new ShotModel(),
+        OuttakeConstants.SHOT_MAP_MIN_DISTANCE_METERS,
+        OuttakeConstants.SHOT_MAP_MAX_DISTANCE_METERS,
+        OuttakeConstants.SHOT_MAP_STEP_METERS);
+  }
+
+  /**
+   * Solves a shot at every grid distance.
+   *
+   * @param model The flight model.
+   * @param minDistanceMeters The closest distance in the map.
+   * @param maxDistanceMeters The furthest distance in the map.
+   * @param stepMeters Distance between grid entries.
+   * @return The map.
+   */
+  public static ShotMap fromModel(
+      ShotModel model, double minDistanceMeters, double maxDistanceMeters, double stepMeters) {
+    int count = (int) Math.round((maxDistanceMeters - minDistanceMeters) / stepMeters) + 1;
+    double[] hood = new double[count];
+    double[] flywheel = new double[count];
+    double[] timeOfFlight = new double[count];
+    for (int i = 0; i < count; i++) {
+      Optional<Shot> shot = model.solve(minDistanceMeters + i * stepMeters);
+      hood[i] = shot.map(Shot::hoodAngleDegrees).orElse(Double.NaN);
+      flywheel[i] = shot.map(Shot::flywheelRps).orElse(Double.NaN);
+      timeOfFlight[i] = shot.map(Shot::timeOfFlightSeconds).orElse(Double.NaN);
+    }
+    return new ShotMap(minDistanceMeters, stepMeters, hood, flywheel, timeOfFlight);
+  }
+
+  /**
+   * Looks up the shot for a distance, interpolating between the neighboring grid entries.
+   *
+   * @param distanceMeters Horizontal distance to the target.
+   * @return The shot, or empty if the distance is off the map or has no shot.
+   */
+  public Optional<Shot> get(double distanceMeters) {
+    double position = (distanceMeters - minDistanceMeters) / stepMeters;
+    if (position < 0.0 || position > hoodAngleDegrees.length - 1) {
+      return Optional.empty();
+    }
+    int index = (int) position;
+    int next = Math.min(index + 1, hoodAngleDegrees.length - 1);
+    double t = position - index;
+    double hood = interpolate(hoodAngleDegrees, index, next, t);
+    if (Double.isNaN(hood)) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new Shot(
+            hood,
+            interpolate(flywheelRps, index, next, t),
+            interpolate(timeOfFlightSeconds, index, next, t)));
+  }
+
+  public double getMinDistanceMeters() {
+    return minDistanceMeters;
+  }
+
+  public double getMaxDistanceMeters() {
+    return minDistanceMeters + (hoodAngleDegrees.length - 1) * stepMeters;
+  }
+
+  private static double interpolate(double[] values, int index, int next, double t) {
+    return values[index] + (values[next] - values[index]) * t;
+  }
+
+  /** Writes the map's grid entries as CSV, skipping distances with no shot. */
+  public void write(File file) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+      writer.println(HEADER);
+      for (int i = 0; i < hoodAngleDegrees.length; i++) {
+        if (Double.isNaN(hoodAngleDegrees[i])) {
+          continue;
+        }
+        writer.printf(
+            "%.3f,%.3f,%.3f,%.4f%n",
+            minDistanceMeters + i * stepMeters,
+            hoodAngleDegrees[i],
+            flywheelRps[i],
+            timeOfFlightSeconds[i]);
+      }
+    }
+  }
+
+  /**
+   * Reads tuned shots from a CSV file and resamples them onto a uniform grid. The grid spans the
+   * first to the last point at {@link OuttakeConstants#SHOT_MAP_STEP_METERS}.
+   *
+   * @param file The CSV file.
+   * @return The map.
+   * @throws IOException If the file can't be read or has fewer than two points.
+   */
+  public static ShotMap read(File file) throws IOException {
+    List<double[]> points = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        line = line.strip();
+        if (line.isEmpty() || line.startsWith("#") || line.equals(HEADER)) {
+          continue;
+        }
+        String[] values = line.split(",");
+        if (values.length != 4) {
+          throw new IOException("Expected 4 values per shot, got: " + line);
+        }
+        double[] point = new double[4];
+        for (int i = 0; i < 4; i++) {
+          point[i] = Double.parseDouble(values[i].strip());
+        }
+        points.add(point);
+      }
+    }
+    if (points.size() < 2) {
+      throw new IOException("Shot map needs at least two points, got " + points.size());
+    }
+    points.sort((a, b) -> Double.compare(a[0], b[0]));
+
+    double min = points.get(0)[0];
+    double max = points.get(points.size() - 1)[0];
+    double step = OuttakeConstants.SHOT_MAP_STEP_METERS;
+    int count = (int) Math.floor((max - min) / step + 1e-9) + 1;
+    double[] hood = new double[count];
+    double[] flywheel = new double[count];
+    double[] timeOfFlight = new double[count];
+    int segment = 0;
+    for (int i = 0; i < count; i++) {
+      double distance = min + i * step;
+      while (segment < points.size() - 2 && points.get(segment + 1)[0] < distance) {
+        segment++;
+      }
+      double[] a = points.get(segment);
+      double[] b = points.get(segment + 1);
+      double t = b[0] > a[0] ? (distance - a[0]) / (b[0] - a[0]) : 0.0;
+      hood[i] = a[1] + (b[1] - a[1]) * t;
+      flywheel[i] = a[2] + (b[2] - a[2]) * t;
+      timeOfFlight[i] = a[3] + (b[3] - a[3]) * t;
+    }
+    return new ShotMap(min, step, hood, flywheel, timeOfFlight);
+  }
+}
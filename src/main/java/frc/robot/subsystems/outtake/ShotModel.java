@@ -0,0 +1,215 @@
+package frc.robot.subsystems.outtake;
+
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants.OuttakeConstants;
+import java.util.Optional;
+
+/**
+ * Point-mass flight model for a ball leaving the shooter, with quadratic drag and Magnus lift from
+ * the backspin the hood puts on it. Used to precompute the {@link ShotMap}; it is far too slow to
+ * solve every loop.
+ *
+ * <p>Distances are horizontal, measured from the launch point to the center of the target.
+ */
+public class ShotModel {
+  private static final double TIME_STEP_SECONDS = 0.005;
+  private static final double MAX_FLIGHT_SECONDS = 5.0;
+  private static final int SOLVER_ITERATIONS = 16;
+
+  private final double dragPerMeter;
+  private final double liftPerMeter;
+  private final double heightOffsetMeters;
+
+  /** Creates a model from the constants in {@link OuttakeConstants}. */
+  public ShotModel() {
+    this(
+        OuttakeConstants.BALL_MASS_KG,
+        OuttakeConstants.BALL_DIAMETER_METERS,
+        OuttakeConstants.BALL_DRAG_COEFFICIENT,
+        OuttakeConstants.BALL_LIFT_COEFFICIENT,
+        Units.feetToMeters(OuttakeConstants.HUB_HEIGHT_FEET - OuttakeConstants.LAUNCH_HEIGHT_FEET));
+  }
+
+  /**
+   * @param massKg Mass of the ball.
+   * @param diameterMeters Diameter of the ball.
+   * @param dragCoefficient Drag coefficient of the ball.
+   * @param liftCoefficient Magnus lift coefficient at the spin the shooter imparts, positive for
+   *     backspin.
+   * @param heightOffsetMeters Height of the target above the launch point.
+   */
+  public ShotModel(
+      double massKg,
+      double diameterMeters,
+      double dragCoefficient,
+      double liftCoefficient,
+      double heightOffsetMeters) {
+    double area = Math.PI * diameterMeters * diameterMeters / 4.0;
+    double forcePerSpeedSquared = 0.5 * OuttakeConstants.AIR_DENSITY_KG_PER_M3 * area / massKg;
+    this.dragPerMeter = forcePerSpeedSquared * dragCoefficient;
+    this.liftPerMeter = forcePerSpeedSquared * liftCoefficient;
+    this.heightOffsetMeters = heightOffsetMeters;
+  }
+
+  /** Where a shot comes back down through the target height. */
+  public static record Landing(double distanceMeters, double timeOfFlightSeconds) {}
+
+  /**
+   * Simulates one shot until it falls back through the target height.
+   *
+   * @param exitSpeedMps Speed of the ball leaving the shooter.
+   * @param angleDegrees Launch angle ccw+ from horizontal.
+   * @return Where the ball crosses the target height on the way down, or empty if it never gets
+   *     that high.
+   */
+  public Optional<Landing> simulate(double exitSpeedMps, double angleDegrees) {
+    return simulate(exitSpeedMps, angleDegrees, heightOffsetMeters);
+  }
+
+  /**
+   * Simulates one shot until it falls back through a given height.
+   *
+   * @param exitSpeedMps Speed of the ball leaving the shooter.
+   * @param angleDegrees Launch angle ccw+ from horizontal.
+   * @param heightOffsetMeters Height of the target above the launch point.
+   * @return Where the ball crosses the target height on the way down, or empty if it never gets
+   *     that high.
+   */
+  public Optional<Landing> simulate(
+      double exitSpeedMps, double angleDegrees, double heightOffsetMeters) {
+    double angle = Math.toRadians(angleDegrees);
+    double x = 0.0;
+    double y = 0.0;
+    double vx = exitSpeedMps * Math.cos(angle);
+    double vy = exitSpeedMps * Math.sin(angle);
+    double gravity = OuttakeConstants.GRAVITATIONAL_CONSTANT_MPS2;
+
+    for (double t = 0.0; t < MAX_FLIGHT_SECONDS; t += TIME_STEP_SECONDS) {
+      // Midpoint step: drag opposes the velocity, lift is perpendicular to it
+      double speed = Math.sqrt(vx * vx + vy * vy);
+      double ax = -dragPerMeter * speed * vx - liftPerMeter * speed * vy;
+      double ay = -dragPerMeter * speed * vy + liftPerMeter * speed * vx - gravity;
+      double midVx = vx + ax * TIME_STEP_SECONDS / 2.0;
+      double midVy = vy + ay * TIME_STEP_SECONDS / 2.0;
+      double midSpeed = Math.sqrt(midVx * midVx + midVy * midVy);
+      ax = -dragPerMeter * midSpeed * midVx - liftPerMeter * midSpeed * midVy;
+      ay = -dragPerMeter * midSpeed * midVy + liftPerMeter * midSpeed * midVx - gravity;
+
+      double nextX = x + midVx * TIME_STEP_SECONDS;
+      double nextY = y + midVy * TIME_STEP_SECONDS;
+      vx += ax * TIME_STEP_SECONDS;
+      vy += ay * TIME_STEP_SECONDS;
+
+      if (midVy < 0.0 && nextY <= heightOffsetMeters) {
+        if (y < heightOffsetMeters) {
+          // Already below the target at the top of the arc
+          return Optional.empty();
+        }
+        double fraction = (y - heightOffsetMeters) / (y - nextY);
+        return Optional.of(
+            new Landing(x + (nextX - x) * fraction, t + TIME_STEP_SECONDS * fraction));
+      }
+      x = nextX;
+      y = nextY;
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Finds a shot that lands at the given distance. Keeps the nominal exit speed and solves for the
+   * hood angle where it can; otherwise speeds up (far shots) or slows down (close shots) just
+   * enough for an angle inside the hood's range to reach.
+   *
+   * @param distanceMeters Horizontal distance to the target.
+   * @return The shot, or empty if no speed and angle in range reach the target.
+   */
+  public Optional<ShotMap.Shot> solve(double distanceMeters) {
+    double minAngle = OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG;
+    double maxAngle = OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG;
+    double speed = OuttakeConstants.OUTTAKE_VELOCITY_MPS;
+
+    if (range(speed, minAngle) < distanceMeters) {
+      // Too far at the nominal speed, so find the slowest speed that reaches at the flattest angle
+      double maxSpeed = OuttakeConstants.MAX_EXIT_VELOCITY_MPS;
+      if (range(maxSpeed, minAngle) < distanceMeters) {
+        return Optional.empty();
+      }
+      double low = speed;
+      double high = maxSpeed;
+      for (int i = 0; i < SOLVER_ITERATIONS; i++) {
+        double mid = (low + high) / 2.0;
+        if (range(mid, minAngle) < distanceMeters) {
+          low = mid;
+        } else {
+          high = mid;
+        }
+      }
+      speed = high;
+    } else if (range(speed, maxAngle) > distanceMeters) {
+      // Too close, so find the fastest speed that still comes down short enough at the steepest
+      double minSpeed = OuttakeConstants.MIN_EXIT_VELOCITY_MPS;
+      if (range(minSpeed, maxAngle) > distanceMeters) {
+        return Optional.empty();
+      }
+      double low = minSpeed;
+      double high = speed;
+      for (int i = 0; i < SOLVER_ITERATIONS; i++) {
+        double mid = (low + high) / 2.0;
+        if (range(mid, maxAngle) > distanceMeters) {
+          high = mid;
+        } else {
+          low = mid;
+        }
+      }
+      speed = low;
+    }
+
+    return solveAtSpeed(speed, distanceMeters);
+  }
+
+  /**
+   * Finds the hood angle that lands a shot at the given distance with a fixed exit speed.
+   *
+   * @param exitSpeedMps Speed of the ball leaving the shooter.
+   * @param distanceMeters Horizontal distance to the target.
+   * @return The shot, or empty if no angle in the hood's range comes close to the distance.
+   */
+  public Optional<ShotMap.Shot> solveAtSpeed(double exitSpeedMps, double distanceMeters) {
+    // Above the maximum-range angle, range falls as the hood steepens
+    double low = OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG;
+    double high = OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG;
+    for (int i = 0; i < SOLVER_ITERATIONS; i++) {
+      double mid = (low + high) / 2.0;
+      if (range(exitSpeedMps, mid) > distanceMeters) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    double angle = (low + high) / 2.0;
+    double flywheelRps = exitSpeedToFlywheelRps(exitSpeedMps);
+    return simulate(exitSpeedMps, angle)
+        .filter(
+            landing ->
+                Math.abs(landing.distanceMeters() - distanceMeters)
+                    < OuttakeConstants.SHOT_SOLVE_TOLERANCE_METERS)
+        .map(landing -> new ShotMap.Shot(angle, flywheelRps, landing.timeOfFlightSeconds()));
+  }
+
+  /** Converts a flywheel speed into the ball exit speed it produces. */
+  public static double flywheelRpsToExitSpeed(double flywheelRps) {
+    double surfaceSpeed = flywheelRps * 2.0 * Math.PI * OuttakeConstants.FLYWHEEL_RADIUS_METERS;
+    return surfaceSpeed * OuttakeConstants.BALL_EXIT_SPEED_RATIO;
+  }
+
+  /** Converts a ball exit speed into the flywheel speed that produces it. */
+  public static double exitSpeedToFlywheelRps(double exitSpeedMps) {
+    double surfaceSpeed = exitSpeedMps / OuttakeConstants.BALL_EXIT_SPEED_RATIO;
+    return surfaceSpeed / (2.0 * Math.PI * OuttakeConstants.FLYWHEEL_RADIUS_METERS);
+  }
+
+  /** Range of a shot, or zero if it never gets as high as the target. */
+  private double range(double exitSpeedMps, double angleDegrees) {
+    return simulate(exitSpeedMps, angleDegrees).map(Landing::distanceMeters).orElse(0.0);
+  }
+}
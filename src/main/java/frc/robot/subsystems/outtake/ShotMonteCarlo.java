@@ -0,0 +1,288 @@
+package frc.robot.subsystems.outtake;
+
+import com.pathplanner.lib.util.FlippingUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants.OuttakeConstants;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Offline Monte Carlo check of the aiming model. Every shot is flown through {@link ShotModel}
+ * thousands of times with the exit speed, hood angle, release height, robot position and heading
+ * perturbed by their expected errors, and scored as a hit if it comes down through the hub
+ * opening.
+ *
+ * <p>Produces two files: a hit-probability heatmap over the field for the shots the robot would
+ * actually take (interpolated from the shot map), and a shot map that picks, at each distance, the
+ * exit speed whose shot is most likely to hit. The shot map is in {@link ShotMap}'s CSV format, so
+ * writing it to the deploy directory makes the robot use it. Work is spread across every core
+ * with fork/join, and every sample is seeded by its index so runs are reproducible.
+ *
+ * <p>Run with {@code ./gradlew shotMonteCarlo}.
+ */
+public class ShotMonteCarlo {
+  private static final int DEFAULT_SAMPLES = 2000;
+  private static final long SEED = 6328;
+  // Candidate speeds are screened with a fraction of the samples, and only the best few get all
+  private static final int SCREENING_DIVISOR = 8;
+  private static final int FINALISTS = 3;
+  // The heatmap only depends on distance to the hub, so cells share results at this resolution
+  private static final double HEATMAP_DISTANCE_RESOLUTION_METERS = 0.05;
+
+  private final ShotModel model;
+  private final int samples;
+
+  public ShotMonteCarlo(ShotModel model, int samples) {
+    this.model = model;
+    this.samples = samples;
+  }
+
+  /**
+   * Estimates how often a shot hits when taken from a given distance with the expected errors.
+   *
+   * @param distanceMeters Distance from the robot to the hub center as the robot believes it.
+   * @param shot The shot the robot takes.
+   * @param random Source of the perturbations.
+   * @return The fraction of samples that hit.
+   */
+  public double hitProbability(double distanceMeters, ShotMap.Shot shot, SplittableRandom random) {
+    return hitProbability(distanceMeters, shot, random, samples);
+  }
+
+  private double hitProbability(
+      double distanceMeters, ShotMap.Shot shot, SplittableRandom random, int samples) {
+    double exitSpeed = ShotModel.flywheelRpsToExitSpeed(shot.flywheelRps());
+    double heightOffset =
+        Units.feetToMeters(OuttakeConstants.HUB_HEIGHT_FEET - OuttakeConstants.LAUNCH_HEIGHT_FEET);
+    double radius = OuttakeConstants.MONTE_CARLO_HUB_OPENING_RADIUS_METERS;
+    int hits = 0;
+    for (int i = 0; i < samples; i++) {
+      // Work relative to the hub: the robot sits on the -x axis aiming along +x
+      double x =
+          -distanceMeters
+              + random.nextGaussian() * OuttakeConstants.MONTE_CARLO_POSITION_STDDEV_METERS;
+      double y = random.nextGaussian() * OuttakeConstants.MONTE_CARLO_POSITION_STDDEV_METERS;
+      double heading =
+          Math.toRadians(random.nextGaussian() * OuttakeConstants.MONTE_CARLO_HEADING_STDDEV_DEG);
+      double speedError =
+          random.nextGaussian() * OuttakeConstants.MONTE_CARLO_EXIT_SPEED_STDDEV_FRACTION;
+      double speed = exitSpeed * (1.0 + speedError);
+      double angle =
+          shot.hoodAngleDegrees()
+              + random.nextGaussian() * OuttakeConstants.MONTE_CARLO_ANGLE_STDDEV_DEG;
+      double height =
+          heightOffset
+              - random.nextGaussian() * OuttakeConstants.MONTE_CARLO_RELEASE_HEIGHT_STDDEV_METERS;
+
+      Optional<ShotModel.Landing> landing = model.simulate(speed, angle, height);
+      if (landing.isEmpty()) {
+        continue;
+      }
+      double range = landing.get().distanceMeters();
+      double landingX = x + range * Math.cos(heading);
+      double landingY = y + range * Math.sin(heading);
+      if (landingX * landingX + landingY * landingY < radius * radius) {
+        hits++;
+      }
+    }
+    return (double) hits / samples;
+  }
+
+  /**
+   * Computes the hit probability of the shot map's shots over a grid of field positions.
+   *
+   * @param shotMap The shot map the robot uses.
+   * @param hub The hub position.
+   * @param cellMeters Size of each heatmap cell.
+   * @return Hit probability per cell, indexed [row][col] from the field origin. Cells out of the
+   *     map's range are 0.
+   */
+  public double[][] heatmap(ShotMap shotMap, Translation2d hub, double cellMeters) {
+    double resolution = HEATMAP_DISTANCE_RESOLUTION_METERS;
+    double[] byDistance = new double[(int) (shotMap.getMaxDistanceMeters() / resolution) + 2];
+    parallelFor(
+        byDistance.length,
+        bin -> {
+          double distance = bin * resolution;
+          byDistance[bin] =
+              shotMap
+                  .get(distance)
+                  .map(shot -> hitProbability(distance, shot, new SplittableRandom(SEED + bin)))
+                  .orElse(0.0);
+        });
+
+    int cols = (int) Math.ceil(FlippingUtil.fieldSizeX / cellMeters);
+    int rows = (int) Math.ceil(FlippingUtil.fieldSizeY / cellMeters);
+    double[][] probability = new double[rows][cols];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        double x = (col + 0.5) * cellMeters;
+        double y = (row + 0.5) * cellMeters;
+        int bin = (int) Math.round(Math.hypot(x - hub.getX(), y - hub.getY()) / resolution);
+        probability[row][col] = bin < byDistance.length ? byDistance[bin] : 0.0;
+      }
+    }
+    return probability;
+  }
+
+  /**
+   * Builds a shot map that takes, at each distance, the exit speed whose shot is most likely to
+   * hit. Ties go to the slower speed, which spins up and recovers faster.
+   *
+   * @param minDistanceMeters The closest distance in the map.
+   * @param maxDistanceMeters The furthest distance in the map.
+   * @param stepMeters Distance between grid entries.
+   * @param probability Filled with the chosen shot's hit probability per entry.
+   * @return The map.
+   */
+  public ShotMap optimize(
+      double minDistanceMeters, double maxDistanceMeters, double stepMeters, double[] probability) {
+    int count = (int) Math.round((maxDistanceMeters - minDistanceMeters) / stepMeters) + 1;
+    double[] hood = new double[count];
+    double[] flywheel = new double[count];
+    double[] timeOfFlight = new double[count];
+    parallelFor(
+        count,
+        index -> {
+          double distance = minDistanceMeters + index * stepMeters;
+          // Screen every candidate speed with a fraction of the samples
+          List<ShotMap.Shot> candidates = new ArrayList<>();
+          List<Double> screened = new ArrayList<>();
+          int screeningSamples = Math.max(1, samples / SCREENING_DIVISOR);
+          for (double speed = OuttakeConstants.MIN_EXIT_VELOCITY_MPS;
+              speed <= OuttakeConstants.MAX_EXIT_VELOCITY_MPS + 1e-9;
+              speed += OuttakeConstants.MONTE_CARLO_SPEED_STEP_MPS) {
+            Optional<ShotMap.Shot> shot = model.solveAtSpeed(speed, distance);
+            if (shot.isPresent()) {
+              candidates.add(shot.get());
+              // Same seed for every candidate, so they're compared on the same errors
+              screened.add(
+                  hitProbability(
+                      distance, shot.get(), new SplittableRandom(SEED + index), screeningSamples));
+            }
+          }
+
+          // Then settle the best few with every sample. Ties go to the slower speed.
+          List<Integer> finalists = new ArrayList<>();
+          for (int i = 0; i < candidates.size(); i++) {
+            finalists.add(i);
+          }
+          finalists.sort((a, b) -> Double.compare(screened.get(b), screened.get(a)));
+          ShotMap.Shot best = null;
+          double bestProbability = -1.0;
+          for (int i : finalists.subList(0, Math.min(FINALISTS, finalists.size()))) {
+            double p =
+                hitProbability(distance, candidates.get(i), new SplittableRandom(SEED + index));
+            if (p > bestProbability
+                || (p == bestProbability && candidates.get(i).flywheelRps() < best.flywheelRps())) {
+              best = candidates.get(i);
+              bestProbability = p;
+            }
+          }
+          hood[index] = best != null ? best.hoodAngleDegrees() : Double.NaN;
+          flywheel[index] = best != null ? best.flywheelRps() : Double.NaN;
+          timeOfFlight[index] = best != null ? best.timeOfFlightSeconds() : Double.NaN;
+          probability[index] = Math.max(0.0, bestProbability);
+        });
+    return new ShotMap(minDistanceMeters, stepMeters, hood, flywheel, timeOfFlight);
+  }
+
+  /** Writes a heatmap as CSV, one cell center per line. */
+  public static void writeHeatmap(double[][] probability, double cellMeters, File file)
+      throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+      writer.println("x_m,y_m,hit_probability");
+      for (int row = 0; row < probability.length; row++) {
+        for (int col = 0; col < probability[row].length; col++) {
+          writer.printf(
+              "%.3f,%.3f,%.4f%n",
+              (col + 0.5) * cellMeters, (row + 0.5) * cellMeters, probability[row][col]);
+        }
+      }
+    }
+  }
+
+  /** Runs body for every index in [0, count) on the fork/join pool. */
+  private static void parallelFor(int count, IntConsumer body) {
+    ForkJoinPool.commonPool().invoke(new IndexRangeTask(0, count, body));
+  }
+
+  private static class IndexRangeTask extends RecursiveAction {
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+
+    private final int start;
+    private final int end;
+    private final IntConsumer body;
+
+    IndexRangeTask(int start, int end, IntConsumer body) {
+      this.start = start;
+      this.end = end;
+      this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= SEQUENTIAL_THRESHOLD) {
+        for (int i = start; i < end; i++) {
+          body.accept(i);
+        }
+        return;
+      }
+      int mid = (start + end) >>> 1;
+      invokeAll(new IndexRangeTask(start, mid, body), new IndexRangeTask(mid, end, body));
+    }
+  }
+
+  /**
+   * Sweeps the field and writes the heatmap and optimized shot map.
+   *
+   * @param args [samples per shot] [heatmap CSV] [shot map CSV]
+   */
+  public static void main(String[] args) throws IOException {
+    int samples = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SAMPLES;
+    File heatmapFile = new File(args.length > 1 ? args[1] : "build/shot-heatmap.csv");
+    File shotMapFile = new File(args.length > 2 ? args[2] : "src/main/deploy/shotmap.csv");
+
+    ShotModel model = new ShotModel();
+    ShotMonteCarlo monteCarlo = new ShotMonteCarlo(model, samples);
+    double min = OuttakeConstants.SHOT_MAP_MIN_DISTANCE_METERS;
+    double max = OuttakeConstants.SHOT_MAP_MAX_DISTANCE_METERS;
+    double step = OuttakeConstants.SHOT_MAP_STEP_METERS;
+
+    long start = System.nanoTime();
+    double[] probability = new double[(int) Math.round((max - min) / step) + 1];
+    ShotMap optimized = monteCarlo.optimize(min, max, step, probability);
+    double optimizeSeconds = (System.nanoTime() - start) / 1e9;
+
+    start = System.nanoTime();
+    double cell = OuttakeConstants.MONTE_CARLO_CELL_METERS;
+    double[][] heatmap = monteCarlo.heatmap(optimized, OuttakeConstants.HUB_POSITION, cell);
+    double heatmapSeconds = (System.nanoTime() - start) / 1e9;
+
+    optimized.write(shotMapFile);
+    writeHeatmap(heatmap, cell, heatmapFile);
+
+    System.out.printf(
+        "%d samples per shot on %d threads: shot map %.1f s, heatmap %.1f s%n",
+        samples, ForkJoinPool.commonPool().getParallelism(), optimizeSeconds, heatmapSeconds);
+    System.out.println("distance_m  hit_probability");
+    for (int i = 0; i < probability.length; i += Math.max(1, (int) Math.round(0.5 / step))) {
+      System.out.printf("%10.2f  %15.3f%n", min + i * step, probability[i]);
+    }
+    System.out.println("Wrote " + shotMapFile + " and " + heatmapFile);
+  }
+}
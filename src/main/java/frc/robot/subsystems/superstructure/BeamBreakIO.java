@@ -0,0 +1,20 @@
+package frc.robot.subsystems.superstructure;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/** Optional beam breaks along the ball path. Robots without them use the default no-op IO. */
+public interface BeamBreakIO {
+  @AutoLog
+  public static class BeamBreakIOInputs {
+    /** Whether a beam break is fitted where balls enter the indexer */
+    public boolean hasIndexerSensor = false;
+    /** Whether a ball is blocking the indexer beam break */
+    public boolean indexerBlocked = false;
+    /** Whether a beam break is fitted where balls wait at the outtake feeder */
+    public boolean hasFeederSensor = false;
+    /** Whether a ball is blocking the feeder beam break */
+    public boolean feederBlocked = false;
+  }
+
+  public default void updateInputs(BeamBreakIOInputs inputs) {}
+}
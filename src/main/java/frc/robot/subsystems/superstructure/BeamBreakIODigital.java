@@ -0,0 +1,25 @@
+package frc.robot.subsystems.superstructure;
+
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.Constants.SuperstructureConstants;
+
+/** Beam breaks on DIO channels. Channels set to -1 in the constants are treated as not fitted. */
+public class BeamBreakIODigital implements BeamBreakIO {
+  private final DigitalInput indexerSensor =
+      create(SuperstructureConstants.INDEXER_BEAM_BREAK_CHANNEL);
+  private final DigitalInput feederSensor =
+      create(SuperstructureConstants.FEEDER_BEAM_BREAK_CHANNEL);
+
+  private static DigitalInput create(int channel) {
+    return channel >= 0 ? new DigitalInput(channel) : null;
+  }
+
+  @Override
+  public void updateInputs(BeamBreakIOInputs inputs) {
+    // Beam breaks read false while the beam is blocked
+    inputs.hasIndexerSensor = indexerSensor != null;
+    inputs.indexerBlocked = indexerSensor != null && !indexerSensor.get();
+    inputs.hasFeederSensor = feederSensor != null;
+    inputs.feederBlocked = feederSensor != null && !feederSensor.get();
+  }
+}
@@ -0,0 +1,150 @@
+package frc.robot.subsystems.superstructure;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import frc.robot.Constants.IndexerConstants;
+import frc.robot.Constants.SuperstructureConstants;
+
+/**
+ * Estimates where the balls in the robot are, stage by stage: stored in the hopper, moving through
+ * the indexer, and staged at the outtake feeder. Beam breaks are used where they're fitted.
+ * Otherwise a ball entering the indexer is recognized by its current spike, and reaching the
+ * feeder by the indexer's transit time. The indexer draws the same current spinning up, so it's
+ * ignored for the jam detector's startup window each time the indexer starts. A ball leaves when
+ * the flywheel detects a shot.
+ *
+ * <p>Everything is worked out from logged inputs, so it replays the same.
+ */
+class GamePieceTracker {
+  private final Debouncer ballCurrentDebounce =
+      new Debouncer(SuperstructureConstants.INDEXER_BALL_DEBOUNCE_SECONDS, DebounceType.kRising);
+
+  private int hopperCount = SuperstructureConstants.PRELOAD_BALLS;
+  private boolean indexerOccupied = false;
+  private boolean feederOccupied = false;
+  private double indexerEntryTimestamp = 0.0;
+  private double indexerStartTimestamp = 0.0;
+
+  private boolean lastIndexerRunning = false;
+  private boolean lastIndexerBall = false;
+  private boolean lastFeederBlocked = false;
+  private int lastShotCount = -1;
+
+  // Timestamps of recent shots, oldest first, for throughput
+  private final double[] shotTimestamps = new double[32];
+  private int shotHead = 0;
+  private int shotSize = 0;
+
+  /**
+   * @param timestamp The current time in seconds.
+   * @param indexerRunning Whether the indexer is being driven forward.
+   * @param indexerCurrentAmps The indexer motor current.
+   * @param beamBreaks The beam break inputs.
+   * @param shotCount Shots the flywheel has detected since startup.
+   */
+  public void update(
+      double timestamp,
+      boolean indexerRunning,
+      double indexerCurrentAmps,
+      BeamBreakIOInputsAutoLogged beamBreaks,
+      int shotCount) {
+    if (indexerRunning && !lastIndexerRunning) {
+      indexerStartTimestamp = timestamp;
+    }
+    lastIndexerRunning = indexerRunning;
+
+    // A ball entering the indexer from the hopper
+    boolean indexerBall =
+        beamBreaks.hasIndexerSensor
+            ? beamBreaks.indexerBlocked
+            : ballCurrentDebounce.calculate(
+                indexerRunning
+                    && timestamp - indexerStartTimestamp
+                        >= IndexerConstants.JAM_STARTUP_IGNORE_SECONDS
+                    && indexerCurrentAmps > SuperstructureConstants.INDEXER_BALL_CURRENT_AMPS);
+    if (indexerBall && !lastIndexerBall) {
+      hopperCount = Math.max(0, hopperCount - 1);
+      indexerOccupied = true;
+      indexerEntryTimestamp = timestamp;
+    }
+    lastIndexerBall = indexerBall;
+
+    // The ball reaching the feeder
+    if (beamBreaks.hasFeederSensor) {
+      if (beamBreaks.feederBlocked && !lastFeederBlocked) {
+        indexerOccupied = false;
+      }
+      feederOccupied = beamBreaks.feederBlocked;
+      lastFeederBlocked = beamBreaks.feederBlocked;
+    } else if (indexerOccupied
+        && !feederOccupied
+        && indexerRunning
+        && timestamp - indexerEntryTimestamp >= SuperstructureConstants.INDEXER_TRANSIT_SECONDS) {
+      indexerOccupied = false;
+      feederOccupied = true;
+    }
+
+    // Balls leaving through the flywheel, taken from the furthest stage along
+    if (lastShotCount < 0) {
+      lastShotCount = shotCount;
+    }
+    for (; lastShotCount < shotCount; lastShotCount++) {
+      if (beamBreaks.hasFeederSensor) {
+        // The feeder beam break clears on its own as the ball leaves
+      } else if (feederOccupied) {
+        feederOccupied = false;
+      } else if (indexerOccupied) {
+        indexerOccupied = false;
+      } else {
+        hopperCount = Math.max(0, hopperCount - 1);
+      }
+      recordShot(timestamp);
+    }
+  }
+
+  private void recordShot(double timestamp) {
+    shotTimestamps[(shotHead + shotSize) % shotTimestamps.length] = timestamp;
+    if (shotSize < shotTimestamps.length) {
+      shotSize++;
+    } else {
+      shotHead = (shotHead + 1) % shotTimestamps.length;
+    }
+  }
+
+  /** Sets how many balls are in the hopper, e.g. after loading preloads. */
+  public void setHopperCount(int count) {
+    hopperCount = Math.max(0, count);
+  }
+
+  public int getHopperCount() {
+    return hopperCount;
+  }
+
+  public boolean isIndexerOccupied() {
+    return indexerOccupied;
+  }
+
+  public boolean isFeederOccupied() {
+    return feederOccupied;
+  }
+
+  /** @return The estimated number of balls in the robot. */
+  public int getBallCount() {
+    return hopperCount + (indexerOccupied ? 1 : 0) + (feederOccupied ? 1 : 0);
+  }
+
+  /**
+   * @param timestamp The current time in seconds.
+   * @return Balls shot per second over the recent throughput window.
+   */
+  public double getThroughput(double timestamp) {
+    double window = SuperstructureConstants.THROUGHPUT_WINDOW_SECONDS;
+    int shots = 0;
+    for (int i = 0; i < shotSize; i++) {
+      if (timestamp - shotTimestamps[(shotHead + i) % shotTimestamps.length] <= window) {
+        shots++;
+      }
+    }
+    return shots / window;
+  }
+}
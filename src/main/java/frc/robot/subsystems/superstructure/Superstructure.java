@@ -0,0 +1,95 @@
+package frc.robot.subsystems.superstructure;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.IndexerConstants;
+import frc.robot.subsystems.Indexer.Indexer;
+import frc.robot.subsystems.outtake.Outtake;
+import frc.robot.util.InputReadGraph;
+import java.util.function.BooleanSupplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Coordinates the mechanisms balls pass through on the way to the flywheel. It keeps track of
+ * where the balls are (see {@link GamePieceTracker}) and sequences the indexer and outtake feeder
+ * so the next ball is staged while the previous shot recovers, rather than relying on operator
+ * timing.
+ *
+ * <p>Stage occupancy, ball count and throughput are logged under Superstructure.
+ */
+public class Superstructure extends SubsystemBase {
+  private final Indexer indexer;
+  private final Outtake outtake;
+  private final BeamBreakIO beamBreakIO;
+  private final BeamBreakIOInputsAutoLogged beamBreakInputs = new BeamBreakIOInputsAutoLogged();
+  private final GamePieceTracker tracker = new GamePieceTracker();
+
+  /**
+   * Should be created after the subsystems it coordinates, so its periodic sees their inputs from
+   * the same loop.
+   */
+  public Superstructure(Indexer indexer, Outtake outtake, BeamBreakIO beamBreakIO) {
+    this.indexer = indexer;
+    this.outtake = outtake;
+    this.beamBreakIO = beamBreakIO;
+    InputReadGraph.register("Superstructure", () -> beamBreakIO.updateInputs(beamBreakInputs));
+  }
+
+  @Override
+  public void periodic() {
+    // Read by InputReadGraph before the scheduler runs
+    Logger.processInputs("Superstructure/BeamBreaks", beamBreakInputs);
+
+    double now = Timer.getFPGATimestamp();
+    tracker.update(
+        now,
+        indexer.isRunning(),
+        indexer.getCurrentAmps(),
+        beamBreakInputs,
+        outtake.getShotCount());
+    Logger.recordOutput("Superstructure/HopperCount", tracker.getHopperCount());
+    Logger.recordOutput("Superstructure/IndexerOccupied", tracker.isIndexerOccupied());
+    Logger.recordOutput("Superstructure/FeederOccupied", tracker.isFeederOccupied());
+    Logger.recordOutput("Superstructure/BallCount", tracker.getBallCount());
+    Logger.recordOutput("Superstructure/ThroughputBallsPerSecond", tracker.getThroughput(now));
+  }
+
+  /**
+   * Keeps the shooter fed. The outtake feeds whenever {@code ready} holds, and the indexer runs
+   * whenever the feeder has room for the next ball or is firing, so a ball is already staged by the
+   * time the flywheel recovers. The indexer holds while a staged ball waits on a shot, so balls
+   * don't pile up against a stopped feeder.
+   *
+   * @param ready Whether a ball can be fired this loop, e.g. aligned and at speed
+   * @return The command, which runs until interrupted
+   */
+  public Command feedShooter(BooleanSupplier ready) {
+    return Commands.parallel(
+            outtake.feedWhen(ready),
+            Commands.run(
+                    () -> {
+                      boolean runIndexer = !tracker.isFeederOccupied() || ready.getAsBoolean();
+                      indexer.setVelocity(runIndexer ? IndexerConstants.FEED_VELOCITY_RPS : 0);
+                    },
+                    indexer)
+                .finallyDo(indexer::stop))
+        .withName("FeedShooter");
+  }
+
+  /** @return The command that sets the number of balls in the hopper, e.g. after loading */
+  public Command setHopperCount(int count) {
+    return Commands.runOnce(() -> tracker.setHopperCount(count)).ignoringDisable(true);
+  }
+
+  /** @return The estimated number of balls in the robot */
+  public int getBallCount() {
+    return tracker.getBallCount();
+  }
+
+  /** @return Balls shot per second over the recent throughput window */
+  public double getThroughput() {
+    return tracker.getThroughput(Timer.getFPGATimestamp());
+  }
+}
@@ -7,6 +7,7 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.util.InputReadGraph;
 import java.util.Optional;
 import org.littletonrobotics.junction.Logger;
 
@@ -42,11 +43,12 @@ public class Vision extends SubsystemBase {
   /** Creates the vision subsystem backed by the supplied IO implementation. */
   public Vision(VisionIO io) {
     this.io = io;
+    InputReadGraph.register("Vision", () -> io.updateInputs(inputs));
   }
 
   @Override
   public void periodic() {
-    io.updateInputs(inputs);
+    // Read by InputReadGraph before the scheduler runs
     Logger.processInputs("Vision", inputs);
 
     if (inputs.hasEstimate && isEstimateUsable(inputs)) {
@@ -40,6 +40,17 @@ public class VisionIOLimelight implements VisionIO {
       return;
     }
 
+    applyEstimate(estimate, inputs);
+  }
+
+  /**
+   * Fills the inputs from a Limelight pose estimate. Split out from {@link #updateInputs} so the
+   * parsing can be exercised with synthetic estimates, e.g. during JIT warm-up.
+   *
+   * @param estimate Pose estimate with a non-null pose.
+   * @param inputs The inputs to fill.
+   */
+  public static void applyEstimate(PoseEstimate estimate, VisionIOInputs inputs) {
     inputs.hasEstimate = true;
     inputs.pose = estimate.pose;
     inputs.timestamp = estimate.timestampSeconds;
@@ -120,7 +131,7 @@ public class VisionIOLimelight implements VisionIO {
    *
    * @param estimate Raw pose estimate returned by the Limelight API.
    */
-  private double computeAverageAmbiguity(PoseEstimate estimate) {
+  private static double computeAverageAmbiguity(PoseEstimate estimate) {
     RawFiducial[] fiducials = estimate.rawFiducials;
     if (fiducials == null || fiducials.length == 0) {
       return 0.0;
@@ -137,7 +148,7 @@ public class VisionIOLimelight implements VisionIO {
    *
    * @param estimate Pose estimate returned by the Limelight library.
    */
-  private MeasurementNoise estimateNoise(PoseEstimate estimate) {
+  private static MeasurementNoise estimateNoise(PoseEstimate estimate) {
     double tagCountFactor = Math.max(1.0, estimate.tagCount);
     double distanceFactor =
         estimate.avgTagDist <= 0.0
@@ -0,0 +1,364 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.PathConstraints;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.PathGenerationConstants;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Orders a set of field locations into the fastest route that fits in a time budget.
+ *
+ * <p>Travel times come from the navgrid planner under the given constraints and are cached to disk,
+ * one file per set of inputs, so after the first boot the route can be solved without planning
+ * again. The matrix is built on the shared worker pool so callers can start it early, e.g. at
+ * startup, and solve once it's ready. The route itself is solved exactly with a subset dynamic
+ * program, which is practical for the handful of targets an auto visits.
+ */
+public class AutoSequencePlanner {
+  /** Subset DP memory grows as 2^n * n, so keep auto routines to a sane number of stops. */
+  public static final int MAX_TARGETS = 15;
+
+  private final FieldPathPlanner planner;
+  private final PathConstraints constraints;
+  private final File cacheDirectory;
+
+  /** A solved route. */
+  public static record Route(
+      /** Location names in visiting order, starting with the start location. */
+      List<String> order,
+      /** Poses in visiting order, starting with the start pose. */
+      List<Pose2d> poses,
+      /** Estimated time to drive the route and perform every stop (seconds), NaN if unknown. */
+      double estimatedSeconds) {}
+
+  public AutoSequencePlanner(FieldPathPlanner planner, PathConstraints constraints) {
+    this(
+        planner,
+        constraints,
+        new File(
+            Filesystem.getOperatingDirectory(),
+            PathGenerationConstants.TRAVEL_TIME_CACHE_DIRECTORY));
+  }
+
+  public AutoSequencePlanner(
+      FieldPathPlanner planner, PathConstraints constraints, File cacheDirectory) {
+    this.planner = planner;
+    this.constraints = constraints;
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * Starts building the pairwise travel-time matrix between the locations on the shared worker
+   * pool. It's loaded from the cache if it was computed from the same inputs, and otherwise every
+   * pair is planned and the result cached.
+   *
+   * @param locations Named poses, in the order the matrix should use.
+   * @return The travel-time matrix, once it's ready.
+   */
+  public CompletableFuture<TravelTimeMatrix> getMatrixAsync(Map<String, Pose2d> locations) {
+    List<String> names = List.copyOf(locations.keySet());
+    List<Pose2d> poses = List.copyOf(locations.values());
+    String key = cacheKey(names, poses);
+    File cacheFile = new File(cacheDirectory, key + ".csv");
+
+    return CompletableFuture.supplyAsync(
+            () -> TravelTimeMatrix.load(cacheFile, key), MultiGoalPlanner.getWorkers())
+        .thenCompose(
+            cached ->
+                cached.isPresent()
+                    ? CompletableFuture.completedFuture(cached.get())
+                    : planMatrix(key, names, poses, cacheFile));
+  }
+
+  /**
+   * Returns the pairwise travel-time matrix between the locations, blocking until it's built.
+   *
+   * @param locations Named poses, in the order the matrix should use.
+   * @return The travel-time matrix.
+   * @see #getMatrixAsync(Map)
+   */
+  public TravelTimeMatrix getMatrix(Map<String, Pose2d> locations) {
+    return getMatrixAsync(locations).join();
+  }
+
+  private CompletableFuture<TravelTimeMatrix> planMatrix(
+      String key, List<String> names, List<Pose2d> poses, File cacheFile) {
+    MultiGoalPlanner multiGoalPlanner = new MultiGoalPlanner(planner);
+    int n = poses.size();
+    double[][] seconds = new double[n][n];
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (i == j) {
+          continue;
+        }
+        final int from = i;
+        final int to = j;
+        futures.add(
+            CompletableFuture.runAsync(
+                () ->
+                    seconds[from][to] =
+                        multiGoalPlanner
+                            .plan(to, poses.get(from), poses.get(to), constraints)
+                            .estimatedSeconds(),
+                MultiGoalPlanner.getWorkers()));
+      }
+    }
+
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+        .thenApply(
+            v -> {
+              TravelTimeMatrix matrix = new TravelTimeMatrix(key, names, seconds);
+              try {
+                matrix.save(cacheFile);
+              } catch (IOException e) {
+                DriverStation.reportWarning(
+                    "Failed to cache travel times: " + e.getMessage(), false);
+              }
+              return matrix;
+            });
+  }
+
+  /**
+   * Picks out the start and targets of a route, checking that it's well formed.
+   *
+   * @param locations Named poses. Must contain the start and every target.
+   * @param start Name of the location the robot starts at.
+   * @param targets Names of the locations to visit, in any order.
+   * @return The start followed by the targets in the given order, keyed by name.
+   * @throws IllegalArgumentException If there are too many targets, a name is unknown, a target is
+   *     listed twice, or the start is also a target.
+   */
+  public static Map<String, Pose2d> routeLocations(
+      Map<String, Pose2d> locations, String start, List<String> targets) {
+    if (targets.size() > MAX_TARGETS) {
+      throw new IllegalArgumentException(
+          "Cannot order more than " + MAX_TARGETS + " targets, got " + targets.size());
+    }
+
+    // Index 0 is the start, 1..n are the targets
+    Map<String, Pose2d> ordered = new LinkedHashMap<>();
+    ordered.put(start, requireLocation(locations, start));
+    for (String target : targets) {
+      if (target.equals(start)) {
+        throw new IllegalArgumentException("Route target \"" + target + "\" is also its start");
+      }
+      if (ordered.put(target, requireLocation(locations, target)) != null) {
+        throw new IllegalArgumentException("Route target \"" + target + "\" is listed twice");
+      }
+    }
+    return ordered;
+  }
+
+  private static Pose2d requireLocation(Map<String, Pose2d> locations, String name) {
+    Pose2d pose = locations.get(name);
+    if (pose == null) {
+      throw new IllegalArgumentException("Unknown route location \"" + name + "\"");
+    }
+    return pose;
+  }
+
+  /**
+   * Finds the visiting order that reaches as many targets as possible within the time budget,
+   * breaking ties by total time, blocking until the travel times are ready.
+   *
+   * @param locations Named poses. Must contain the start and every target.
+   * @param start Name of the location the robot starts at.
+   * @param targets Names of the locations to visit, in any order.
+   * @param stopSeconds Time spent at each target (e.g. scoring), keyed by name. Missing names stop
+   *     for zero seconds.
+   * @param budgetSeconds The time available for the whole route.
+   * @return The best route found. Contains only the start if no target fits in the budget.
+   * @see #solve(Map, TravelTimeMatrix, Map, double)
+   */
+  public Route solve(
+      Map<String, Pose2d> locations,
+      String start,
+      List<String> targets,
+      Map<String, Double> stopSeconds,
+      double budgetSeconds) {
+    Map<String, Pose2d> ordered = routeLocations(locations, start, targets);
+    return solve(ordered, getMatrix(ordered), stopSeconds, budgetSeconds);
+  }
+
+  /**
+   * Finds the visiting order that reaches as many targets as possible within the time budget,
+   * breaking ties by total time. With a large enough budget this is the minimum-time tour through
+   * every target.
+   *
+   * @param routeLocations The start followed by the targets, from {@link #routeLocations}.
+   * @param matrix Travel times between the route locations, in the same order.
+   * @param stopSeconds Time spent at each target (e.g. scoring), keyed by name. Missing names stop
+   *     for zero seconds.
+   * @param budgetSeconds The time available for the whole route.
+   * @return The best route found. Contains only the start if no target fits in the budget.
+   */
+  public static Route solve(
+      Map<String, Pose2d> routeLocations,
+      TravelTimeMatrix matrix,
+      Map<String, Double> stopSeconds,
+      double budgetSeconds) {
+    List<String> names = List.copyOf(routeLocations.keySet());
+    if (!matrix.getNames().equals(names)) {
+      throw new IllegalArgumentException("Travel times are for " + matrix.getNames());
+    }
+    String start = names.get(0);
+    List<String> targets = names.subList(1, names.size());
+    int n = targets.size();
+    double[] stops = new double[n];
+    for (int i = 0; i < n; i++) {
+      stops[i] = stopSeconds.getOrDefault(targets.get(i), 0.0);
+    }
+
+    // best[mask][last]: fastest time to visit exactly the targets in mask, ending at last
+    int subsets = 1 << n;
+    double[][] best = new double[subsets][n];
+    int[][] previous = new int[subsets][n];
+    for (double[] row : best) {
+      Arrays.fill(row, Double.POSITIVE_INFINITY);
+    }
+    for (int i = 0; i < n; i++) {
+      best[1 << i][i] = matrix.get(0, i + 1) + stops[i];
+      previous[1 << i][i] = -1;
+    }
+    for (int mask = 1; mask < subsets; mask++) {
+      for (int last = 0; last < n; last++) {
+        double time = best[mask][last];
+        if ((mask & (1 << last)) == 0 || time > budgetSeconds) {
+          continue;
+        }
+        for (int next = 0; next < n; next++) {
+          if ((mask & (1 << next)) != 0) {
+            continue;
+          }
+          int nextMask = mask | (1 << next);
+          double nextTime = time + matrix.get(last + 1, next + 1) + stops[next];
+          if (nextTime < best[nextMask][next]) {
+            best[nextMask][next] = nextTime;
+            previous[nextMask][next] = last;
+          }
+        }
+      }
+    }
+
+    // Most targets within budget wins, then least time
+    int bestMask = 0;
+    int bestLast = -1;
+    double bestTime = 0.0;
+    for (int mask = 1; mask < subsets; mask++) {
+      for (int last = 0; last < n; last++) {
+        double time = best[mask][last];
+        if (time > budgetSeconds) {
+          continue;
+        }
+        int count = Integer.bitCount(mask);
+        int bestCount = Integer.bitCount(bestMask);
+        if (count > bestCount || (count == bestCount && time < bestTime)) {
+          bestMask = mask;
+          bestLast = last;
+          bestTime = time;
+        }
+      }
+    }
+
+    List<String> order = new ArrayList<>();
+    for (int mask = bestMask, last = bestLast; last >= 0; ) {
+      order.add(targets.get(last));
+      int before = previous[mask][last];
+      mask &= ~(1 << last);
+      last = before;
+    }
+    order.add(start);
+    Collections.reverse(order);
+
+    List<Pose2d> poses = order.stream().map(routeLocations::get).toList();
+    return new Route(order, poses, bestTime);
+  }
+
+  /**
+   * Visits every target in the order given, for when the travel times aren't ready yet.
+   *
+   * @param routeLocations The start followed by the targets, from {@link #routeLocations}.
+   * @return The route, with no time estimate.
+   */
+  public static Route givenOrder(Map<String, Pose2d> routeLocations) {
+    return new Route(
+        List.copyOf(routeLocations.keySet()), List.copyOf(routeLocations.values()), Double.NaN);
+  }
+
+  /**
+   * Builds a command that drives the route through {@link PathGeneration}, running the matching
+   * action at each stop.
+   *
+   * @param route The solved route.
+   * @param pathGeneration Used to build each leg.
+   * @param actions Commands to run on arrival, keyed by location name. May be empty.
+   * @return The command sequence.
+   */
+  public Command buildCommand(
+      Route route, PathGeneration pathGeneration, Map<String, Command> actions) {
+    List<Command> steps = new ArrayList<>();
+    // The first entry is the start, which the robot is already at
+    for (int i = 1; i < route.order().size(); i++) {
+      steps.add(pathGeneration.pathfindTo(route.poses().get(i), constraints));
+      Command action = actions.get(route.order().get(i));
+      if (action != null) {
+        steps.add(action);
+      }
+    }
+    return Commands.sequence(steps.toArray(Command[]::new));
+  }
+
+  /** Identifies everything the matrix depends on, so cache hits are always valid. */
+  private String cacheKey(List<String> names, List<Pose2d> poses) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < names.size(); i++) {
+      Pose2d pose = poses.get(i);
+      builder
+          .append(names.get(i))
+          .append(':')
+          .append(pose.getX())
+          .append(',')
+          .append(pose.getY())
+          .append(',')
+          .append(pose.getRotation().getRadians())
+          .append(';');
+    }
+    builder
+        .append(planner.contentHash())
+        .append(';')
+        .append(constraints.maxVelocityMPS())
+        .append(',')
+        .append(constraints.maxAccelerationMPSSq())
+        .append(',')
+        .append(constraints.maxAngularVelocityRadPerSec())
+        .append(',')
+        .append(constraints.maxAngularAccelerationRadPerSecSq());
+    try {
+      // Names the cache file, so it needs to be wide enough not to collide
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256")
+              .digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      // Every JVM has SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
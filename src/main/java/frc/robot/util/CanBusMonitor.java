@@ -0,0 +1,151 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.CANBus.CANBusStatus;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import frc.robot.Constants.CanConstants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.littletonrobotics.junction.AutoLog;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Logs the estimated and measured load of every CAN bus in {@link CanSignalRegistry}, along with
+ * Phoenix's error counters, and raises alerts when a bus goes over its budget.
+ *
+ * <p>Reading the bus status blocks, so it's polled a few times a second on a background thread and
+ * the latest status is logged as inputs each loop. The alerts only use the inputs, so they replay.
+ */
+public class CanBusMonitor {
+  @AutoLog
+  public static class CanBusInputs {
+    /** Status reads so far, so a new read can be told apart from the same one again */
+    public int reads = 0;
+    /** Whether the last status read succeeded */
+    public boolean statusOK = false;
+    /** Fraction of the bus bandwidth in use */
+    public double utilization = 0.0;
+    /** Times the transmit buffer was full, since power on */
+    public int txFullCount = 0;
+    /** Times the bus went bus-off, since power on */
+    public int busOffCount = 0;
+    public int receiveErrorCount = 0;
+    public int transmitErrorCount = 0;
+  }
+
+  /** One status read, published from the polling thread. */
+  private static record Status(
+      int read, boolean ok, double utilization, int txFull, int busOff, int rec, int tec) {}
+
+  private final List<BusMonitor> buses = new ArrayList<>();
+
+  /** Should be created once every IO has registered its signals. */
+  public CanBusMonitor() {
+    for (String name : CanSignalRegistry.getBusNames()) {
+      buses.add(new BusMonitor(name));
+    }
+    // In replay the status comes from the log
+    if (!Logger.hasReplaySource()) {
+      ScheduledExecutorService poller =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "CanBusMonitor");
+                thread.setDaemon(true);
+                return thread;
+              });
+      long periodMicros = (long) (CanConstants.MONITOR_PERIOD_SECONDS * 1e6);
+      poller.scheduleAtFixedRate(
+          () -> buses.forEach(BusMonitor::poll), 0, periodMicros, TimeUnit.MICROSECONDS);
+    }
+  }
+
+  public void periodic() {
+    for (BusMonitor bus : buses) {
+      bus.update();
+    }
+  }
+
+  private static class BusMonitor {
+    private final String name;
+    private final CANBus bus;
+    private final String prefix;
+    private final CanBusInputsAutoLogged inputs = new CanBusInputsAutoLogged();
+    private volatile Status latest = null;
+    private final Alert estimateAlert;
+    private final Alert utilizationAlert;
+    private final Alert txFullAlert;
+    private final Alert busOffAlert;
+    private int lastReads = 0;
+    private int lastTxFullCount = -1;
+    private int lastBusOffCount = -1;
+
+    BusMonitor(String name) {
+      this.name = name;
+      bus = new CANBus(name.equals("rio") ? "" : name);
+      prefix = "CAN/" + name + "/";
+      estimateAlert =
+          new Alert(
+              "Registered CAN signals on " + name + " are estimated over the load budget.",
+              AlertType.kWarning);
+      utilizationAlert =
+          new Alert(
+              "CAN bus " + name + " utilization is over the load budget.", AlertType.kWarning);
+      txFullAlert =
+          new Alert("CAN bus " + name + " transmit buffer is filling up.", AlertType.kWarning);
+      busOffAlert = new Alert("CAN bus " + name + " went bus-off.", AlertType.kError);
+    }
+
+    /** Reads the bus status. Runs on the polling thread. */
+    void poll() {
+      CANBusStatus status = bus.getStatus();
+      Status previous = latest;
+      latest =
+          new Status(
+              previous == null ? 1 : previous.read() + 1,
+              status.Status.isOK(),
+              status.BusUtilization,
+              status.TxFullCount,
+              status.BusOffCount,
+              status.REC,
+              status.TEC);
+    }
+
+    void update() {
+      Status status = latest;
+      if (status != null) {
+        inputs.reads = status.read();
+        inputs.statusOK = status.ok();
+        inputs.utilization = status.utilization();
+        inputs.txFullCount = status.txFull();
+        inputs.busOffCount = status.busOff();
+        inputs.receiveErrorCount = status.rec();
+        inputs.transmitErrorCount = status.tec();
+      }
+      Logger.processInputs(prefix + "Status", inputs);
+
+      double estimatedLoad = CanSignalRegistry.getEstimatedLoad(name);
+      Logger.recordOutput(
+          prefix + "EstimatedFramesPerSecond", CanSignalRegistry.getEstimatedFramesPerSecond(name));
+      Logger.recordOutput(prefix + "EstimatedLoad", estimatedLoad);
+      estimateAlert.set(estimatedLoad > CanConstants.BUS_LOAD_BUDGET);
+
+      if (inputs.reads == lastReads || !inputs.statusOK) {
+        return;
+      }
+      lastReads = inputs.reads;
+
+      utilizationAlert.set(inputs.utilization > CanConstants.BUS_LOAD_BUDGET);
+      // Counters only raise alerts when they grow, since they count from power on
+      txFullAlert.set(lastTxFullCount >= 0 && inputs.txFullCount > lastTxFullCount);
+      if (lastBusOffCount >= 0 && inputs.busOffCount > lastBusOffCount) {
+        busOffAlert.set(true);
+      }
+      lastTxFullCount = inputs.txFullCount;
+      lastBusOffCount = inputs.busOffCount;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+import frc.robot.Constants.CanConstants;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every periodic CAN signal on the robot and the rate it's sent at, so the load on each bus can be
+ * estimated before it's measured. IO layers set signal rates through {@link #register} rather than
+ * on the signals directly, and devices without status signals (e.g. Spark MAXes) declare their
+ * frames with {@link #registerFrames}.
+ *
+ * <p>The estimate counts one frame per signal per update, which is how Phoenix 6 sends most of
+ * them, and prices each frame at its worst-case length on the wire. Signals nobody registered
+ * aren't counted, so devices should have unused signals turned off with optimizeBusUtilization.
+ */
+public class CanSignalRegistry {
+  /** Periodic frames from one device signal. */
+  public static record Registration(
+      String busName, String owner, String signal, double frequencyHz, int frames) {}
+
+  private static final Map<String, Registration> registrations = new LinkedHashMap<>();
+  private static final Map<String, Boolean> busIsFd = new LinkedHashMap<>();
+
+  private CanSignalRegistry() {}
+
+  /**
+   * Sets the update frequency of signals and records them.
+   *
+   * @param bus The bus the device is on.
+   * @param owner A name for the device, unique on the robot, e.g. "Outtake/Hood".
+   * @param frequencyHz The update frequency.
+   * @param signals The device's signals.
+   * @return The status of setting the frequencies.
+   */
+  public static synchronized StatusCode register(
+      CANBus bus, String owner, double frequencyHz, BaseStatusSignal... signals) {
+    for (BaseStatusSignal signal : signals) {
+      record(bus, new Registration(getBusName(bus), owner, signal.getName(), frequencyHz, 1));
+    }
+    return BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, signals);
+  }
+
+  /**
+   * Sets the update frequency of signals, without waiting longer than a timeout for the device to
+   * acknowledge, and records them. Suitable for changing rates while running.
+   *
+   * @param bus The bus the device is on.
+   * @param owner A name for the device, unique on the robot.
+   * @param frequencyHz The update frequency.
+   * @param timeoutSeconds How long to wait on each signal, or 0 to not wait.
+   * @param signals The device's signals.
+   * @return The last error setting a frequency, or OK.
+   */
+  public static synchronized StatusCode register(
+      CANBus bus,
+      String owner,
+      double frequencyHz,
+      double timeoutSeconds,
+      BaseStatusSignal... signals) {
+    StatusCode status = StatusCode.OK;
+    for (BaseStatusSignal signal : signals) {
+      record(bus, new Registration(getBusName(bus), owner, signal.getName(), frequencyHz, 1));
+      StatusCode signalStatus = signal.setUpdateFrequency(frequencyHz, timeoutSeconds);
+      if (!signalStatus.isOK()) {
+        status = signalStatus;
+      }
+    }
+    return status;
+  }
+
+  /**
+   * Records periodic frames from a device without Phoenix status signals.
+   *
+   * @param bus The bus the device is on.
+   * @param owner A name for the device, unique on the robot.
+   * @param description What the frames carry.
+   * @param frequencyHz How often each frame is sent.
+   * @param frames How many frames are sent at that rate.
+   */
+  public static synchronized void registerFrames(
+      CANBus bus, String owner, String description, double frequencyHz, int frames) {
+    record(bus, new Registration(getBusName(bus), owner, description, frequencyHz, frames));
+  }
+
+  private static void record(CANBus bus, Registration registration) {
+    busIsFd.computeIfAbsent(registration.busName(), name -> bus.isNetworkFD());
+    // Registering the same signal again replaces its rate
+    registrations.put(
+        registration.busName() + "/" + registration.owner() + "/" + registration.signal(),
+        registration);
+  }
+
+  /** @return The bus name as logged, with the roboRIO's unnamed bus called "rio". */
+  public static String getBusName(CANBus bus) {
+    return bus.getName().isEmpty() ? "rio" : bus.getName();
+  }
+
+  /** @return The names of every bus with a registered signal. */
+  public static synchronized List<String> getBusNames() {
+    return new ArrayList<>(busIsFd.keySet());
+  }
+
+  /** @return A snapshot of the registered signals. */
+  public static synchronized List<Registration> getRegistrations() {
+    return new ArrayList<>(registrations.values());
+  }
+
+  /** @return The estimated periodic frames per second on a bus. */
+  public static synchronized double getEstimatedFramesPerSecond(String busName) {
+    double framesPerSecond = 0.0;
+    for (Registration registration : registrations.values()) {
+      if (registration.busName().equals(busName)) {
+        framesPerSecond += registration.frequencyHz() * registration.frames();
+      }
+    }
+    return framesPerSecond;
+  }
+
+  /** @return The estimated fraction of a bus's time taken by periodic frames. */
+  public static synchronized double getEstimatedLoad(String busName) {
+    double frameMicros =
+        busIsFd.getOrDefault(busName, false)
+            ? CanConstants.FD_FRAME_MICROS
+            : CanConstants.CLASSIC_FRAME_MICROS;
+    return getEstimatedFramesPerSecond(busName) * frameMicros / 1e6;
+  }
+}
@@ -0,0 +1,138 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import frc.robot.Constants.DeviceConfigConstants;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Applies device configs concurrently at startup, since applying them one after another waits on
+ * each device in turn. IO constructors submit each device's config instead of applying it, and
+ * {@link #awaitAll} waits for them all once the robot is constructed.
+ *
+ * <p>Each config is retried with backoff until it applies and reads back as applied, up to a
+ * limit. Timing, attempts and failures are logged per device under DeviceConfig.
+ *
+ * <p>Steps for one device run in order on one thread, but devices run in any order, so a config
+ * object must not be changed or shared with another device after it's submitted.
+ */
+public class DeviceConfigurator {
+  /** How configuring one device went. */
+  public static record Result(String device, boolean verified, int attempts, double seconds) {}
+
+  private static final ExecutorService executor =
+      Executors.newFixedThreadPool(
+          DeviceConfigConstants.THREADS,
+          runnable -> {
+            Thread thread = new Thread(runnable, "DeviceConfigurator");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final Map<String, CompletableFuture<Result>> pending = new LinkedHashMap<>();
+  private static final Alert failedAlert = new Alert("", AlertType.kError);
+
+  private DeviceConfigurator() {}
+
+  /**
+   * Applies a config on another thread.
+   *
+   * @param device A name for the device, e.g. "Outtake/Hood".
+   * @param apply Applies the config, returning whether the device accepted it.
+   * @param verify Reads the config back, returning whether it matches what was applied.
+   */
+  public static void submit(String device, BooleanSupplier apply, BooleanSupplier verify) {
+    submit(device, apply, verify, () -> {});
+  }
+
+  /**
+   * Applies a config on another thread, then runs steps that depend on it, e.g. setting a position
+   * in mechanism units. The steps run even if the config couldn't be verified.
+   *
+   * @param device A name for the device, e.g. "Outtake/Hood".
+   * @param apply Applies the config, returning whether the device accepted it.
+   * @param verify Reads the config back, returning whether it matches what was applied.
+   * @param afterApply Steps to run once the config is applied.
+   */
+  public static synchronized void submit(
+      String device, BooleanSupplier apply, BooleanSupplier verify, Runnable afterApply) {
+    pending.put(
+        device,
+        CompletableFuture.supplyAsync(
+            () -> {
+              Result result = configure(device, apply, verify);
+              afterApply.run();
+              return result;
+            },
+            executor));
+  }
+
+  private static Result configure(String device, BooleanSupplier apply, BooleanSupplier verify) {
+    long start = System.nanoTime();
+    double backoff = DeviceConfigConstants.RETRY_BACKOFF_SECONDS;
+    int attempts = 0;
+    boolean verified = false;
+    while (!verified && attempts < DeviceConfigConstants.MAX_ATTEMPTS) {
+      if (attempts > 0) {
+        try {
+          Thread.sleep((long) (backoff * 1000));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        backoff *= 2;
+      }
+      attempts++;
+      verified = apply.getAsBoolean() && verify.getAsBoolean();
+    }
+    return new Result(device, verified, attempts, (System.nanoTime() - start) / 1e9);
+  }
+
+  /**
+   * Waits for every submitted config to finish and logs the results.
+   *
+   * @param timeoutSeconds How long to wait before giving up on the rest.
+   * @return Whether every config was applied and verified in time.
+   */
+  public static synchronized boolean awaitAll(double timeoutSeconds) {
+    long start = System.nanoTime();
+    long deadline = start + (long) (timeoutSeconds * 1e9);
+    List<String> failed = new ArrayList<>();
+    for (Map.Entry<String, CompletableFuture<Result>> entry : pending.entrySet()) {
+      Result result;
+      try {
+        result =
+            entry
+                .getValue()
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (Exception e) {
+        // Timed out, or threw while configuring
+        Logger.recordOutput("DeviceConfig/" + entry.getKey() + "/Verified", false);
+        failed.add(entry.getKey());
+        continue;
+      }
+      String prefix = "DeviceConfig/" + result.device() + "/";
+      Logger.recordOutput(prefix + "Verified", result.verified());
+      Logger.recordOutput(prefix + "Attempts", result.attempts());
+      Logger.recordOutput(prefix + "Seconds", result.seconds());
+      if (!result.verified()) {
+        failed.add(result.device());
+      }
+    }
+    pending.clear();
+
+    Logger.recordOutput("DeviceConfig/WaitSeconds", (System.nanoTime() - start) / 1e9);
+    Logger.recordOutput("DeviceConfig/Failed", failed.toArray(new String[0]));
+    failedAlert.setText("Device configs failed to apply: " + String.join(", ", failed));
+    failedAlert.set(!failed.isEmpty());
+    return failed.isEmpty();
+  }
+}
@@ -0,0 +1,20 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.List;
+import java.util.Optional;
+
+/** A stateless planner that finds obstacle-free paths across the field. */
+public interface FieldPathPlanner {
+  /**
+   * Plans a path between two field positions.
+   *
+   * @param start The start position on the field.
+   * @param goal The goal position on the field.
+   * @return The waypoints from start to goal, or empty if the goal cannot be reached.
+   */
+  public Optional<List<Translation2d>> plan(Translation2d start, Translation2d goal);
+
+  /** Returns a hash of the obstacle map, for keying caches derived from planned paths. */
+  public int contentHash();
+}
@@ -0,0 +1,143 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Synchronous A* planner over a {@link NavGrid}. Unlike PathPlanner's LocalADStar, this holds no
+ * state between calls, so any number of plans can run at once on different threads.
+ */
+public class GridPathPlanner implements FieldPathPlanner {
+  private static final double SQRT_2 = Math.sqrt(2.0);
+  private static final int[] NEIGHBOR_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+  private static final int[] NEIGHBOR_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+  private final NavGrid grid;
+
+  public GridPathPlanner(NavGrid grid) {
+    this.grid = grid;
+  }
+
+  public NavGrid getGrid() {
+    return grid;
+  }
+
+  @Override
+  public int contentHash() {
+    return grid.contentHash();
+  }
+
+  /**
+   * Plans a path between two field positions. Endpoints inside obstacles are moved to the nearest
+   * free cell, and the result is shortened by removing waypoints that have line of sight to each
+   * other.
+   *
+   * @param start The start position on the field.
+   * @param goal The goal position on the field.
+   * @return The waypoints from start to goal, or empty if the goal cannot be reached.
+   */
+  @Override
+  public Optional<List<Translation2d>> plan(Translation2d start, Translation2d goal) {
+    int cols = grid.getCols();
+    int startCell = grid.nearestFreeCell(grid.rowOf(start.getY()), grid.colOf(start.getX()));
+    int goalCell = grid.nearestFreeCell(grid.rowOf(goal.getY()), grid.colOf(goal.getX()));
+    if (startCell < 0 || goalCell < 0) {
+      return Optional.empty();
+    }
+
+    int cellCount = grid.getRows() * cols;
+    double[] gScore = new double[cellCount];
+    int[] parent = new int[cellCount];
+    boolean[] closed = new boolean[cellCount];
+    Arrays.fill(gScore, Double.POSITIVE_INFINITY);
+    Arrays.fill(parent, -1);
+
+    int goalRow = goalCell / cols;
+    int goalCol = goalCell % cols;
+    IndexMinHeap open = new IndexMinHeap(cellCount);
+    gScore[startCell] = 0.0;
+    open.push(startCell, heuristic(startCell / cols, startCell % cols, goalRow, goalCol));
+
+    boolean found = false;
+    while (!open.isEmpty()) {
+      int current = open.pop();
+      if (closed[current]) {
+        continue;
+      }
+      if (current == goalCell) {
+        found = true;
+        break;
+      }
+      closed[current] = true;
+
+      int row = current / cols;
+      int col = current % cols;
+      for (int i = 0; i < NEIGHBOR_ROW.length; i++) {
+        int nRow = row + NEIGHBOR_ROW[i];
+        int nCol = col + NEIGHBOR_COL[i];
+        if (grid.isObstacle(nRow, nCol)) {
+          continue;
+        }
+        boolean diagonal = NEIGHBOR_ROW[i] != 0 && NEIGHBOR_COL[i] != 0;
+        // Don't cut corners past obstacles
+        if (diagonal && (grid.isObstacle(row, nCol) || grid.isObstacle(nRow, col))) {
+          continue;
+        }
+        int neighbor = nRow * cols + nCol;
+        if (closed[neighbor]) {
+          continue;
+        }
+        double tentative = gScore[current] + (diagonal ? SQRT_2 : 1.0);
+        if (tentative < gScore[neighbor]) {
+          gScore[neighbor] = tentative;
+          parent[neighbor] = current;
+          open.push(neighbor, tentative + heuristic(nRow, nCol, goalRow, goalCol));
+        }
+      }
+    }
+
+    if (!found) {
+      return Optional.empty();
+    }
+
+    // Walk back from the goal, swapping the cell centers at each end for the real endpoints
+    List<Translation2d> cells = new ArrayList<>();
+    for (int cell = goalCell; cell != -1; cell = parent[cell]) {
+      cells.add(grid.cellCenter(cell / cols, cell % cols));
+    }
+    Collections.reverse(cells);
+    cells.set(0, grid.isObstacle(start) ? cells.get(0) : start);
+    cells.set(cells.size() - 1, grid.isObstacle(goal) ? cells.get(cells.size() - 1) : goal);
+
+    return Optional.of(smooth(cells));
+  }
+
+  /** Removes intermediate waypoints that can be skipped without entering an obstacle. */
+  private List<Translation2d> smooth(List<Translation2d> points) {
+    if (points.size() <= 2) {
+      return points;
+    }
+    List<Translation2d> smoothed = new ArrayList<>();
+    smoothed.add(points.get(0));
+    int anchor = 0;
+    for (int i = 2; i < points.size(); i++) {
+      if (!grid.hasLineOfSight(points.get(anchor), points.get(i))) {
+        anchor = i - 1;
+        smoothed.add(points.get(anchor));
+      }
+    }
+    smoothed.add(points.get(points.size() - 1));
+    return smoothed;
+  }
+
+  /** Octile distance, admissible for 8-connected grids. */
+  private static double heuristic(int row, int col, int goalRow, int goalCol) {
+    int dRow = Math.abs(row - goalRow);
+    int dCol = Math.abs(col - goalCol);
+    return Math.max(dRow, dCol) + (SQRT_2 - 1.0) * Math.min(dRow, dCol);
+  }
+}
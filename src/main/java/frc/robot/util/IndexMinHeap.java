@@ -0,0 +1,67 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node indices keyed by a priority, used by the grid planners' open sets. There
+ * is no decrease-key; planners push duplicates and skip stale entries when they pop them.
+ */
+class IndexMinHeap {
+  private int[] nodes;
+  private double[] keys;
+  private int size = 0;
+
+  IndexMinHeap(int initialCapacity) {
+    nodes = new int[Math.max(16, initialCapacity)];
+    keys = new double[nodes.length];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void push(int node, double key) {
+    if (size == nodes.length) {
+      nodes = Arrays.copyOf(nodes, size * 2);
+      keys = Arrays.copyOf(keys, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parentIndex = (i - 1) / 2;
+      if (keys[parentIndex] <= key) {
+        break;
+      }
+      nodes[i] = nodes[parentIndex];
+      keys[i] = keys[parentIndex];
+      i = parentIndex;
+    }
+    nodes[i] = node;
+    keys[i] = key;
+  }
+
+  int pop() {
+    int result = nodes[0];
+    size--;
+    int lastNode = nodes[size];
+    double lastKey = keys[size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        child++;
+      }
+      if (keys[child] >= lastKey) {
+        break;
+      }
+      nodes[i] = nodes[child];
+      keys[i] = keys[child];
+      i = child;
+    }
+    nodes[i] = lastNode;
+    keys[i] = lastKey;
+    return result;
+  }
+}
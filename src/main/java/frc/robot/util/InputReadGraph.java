@@ -0,0 +1,156 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.LoopConstants;
+import frc.robot.Constants.ThreadConstants;
+import frc.robot.util.ThreadManager.ManagedThread;
+import frc.robot.util.ThreadManager.ThreadSettings;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Reads every subsystem's IO inputs at the start of the loop, in parallel on a small worker pool,
+ * so the loop isn't waiting on one device read after another. Subsystems register their read in
+ * their constructor and only process the inputs in periodic, which still runs on the main thread in
+ * the scheduler's order, so what AdvantageKit logs and replays doesn't depend on which read
+ * finished first. The Logger isn't thread safe, so a read must not record outputs itself; anything
+ * worth logging goes on the inputs.
+ *
+ * <p>A read may depend on others, e.g. if it uses inputs they read, and waits for them to finish.
+ * Dependencies must be registered first, so the graph can't have cycles. The time each read takes
+ * is logged under InputReads.
+ */
+public class InputReadGraph {
+  private static record Node(String name, Runnable read, List<Node> dependencies) {}
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+  // Each worker's handle, for reporting its reads
+  private static final ThreadLocal<ManagedThread> currentWorker = new ThreadLocal<>();
+  private static final ExecutorService workers =
+      Executors.newFixedThreadPool(
+          LoopConstants.INPUT_READ_WORKERS,
+          runnable -> {
+            String name = "InputReader-" + threadCount.getAndIncrement();
+            Thread thread =
+                new Thread(
+                    () -> {
+                      // The loop waits on these, so they run like it
+                      currentWorker.set(
+                          ThreadManager.register(
+                              name,
+                              new ThreadSettings(
+                                  ThreadConstants.MAIN_LOOP_PRIORITY,
+                                  ThreadConstants.MAIN_LOOP_CPU,
+                                  ThreadConstants.MAIN_LOOP_SPIN_TIMEOUT_SECONDS)));
+                      runnable.run();
+                    },
+                    name);
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final Map<String, Node> nodes = new LinkedHashMap<>();
+
+  private InputReadGraph() {}
+
+  /**
+   * Adds a subsystem's input read to the graph. Should be called from the subsystem's constructor.
+   *
+   * @param name The subsystem's name, unique in the graph.
+   * @param read Updates the subsystem's inputs from its IO, without processing or logging them.
+   * @param dependsOn Names of reads that must finish first, already registered.
+   */
+  public static synchronized void register(String name, Runnable read, String... dependsOn) {
+    if (nodes.containsKey(name)) {
+      throw new IllegalArgumentException("Input read \"" + name + "\" is already registered");
+    }
+    List<Node> dependencies = new ArrayList<>();
+    for (String dependency : dependsOn) {
+      Node node = nodes.get(dependency);
+      if (node == null) {
+        throw new IllegalArgumentException(
+            "Input read \""
+                + name
+                + "\" depends on \""
+                + dependency
+                + "\", which isn't registered");
+      }
+      dependencies.add(node);
+    }
+    nodes.put(name, new Node(name, read, dependencies));
+  }
+
+  /** Removes every read, since tests share the graph. */
+  static synchronized void clear() {
+    nodes.clear();
+  }
+
+  /** Runs every read and waits for them. Call once a loop, before the scheduler. */
+  public static synchronized void readAll() {
+    long start = System.nanoTime();
+    double startSeconds = RobotController.getFPGATime() / 1e6;
+    Map<Node, CompletableFuture<Double>> reads = new LinkedHashMap<>();
+    if (LoopConstants.PARALLEL_INPUT_READS) {
+      // Nodes are in registration order, so each one's dependencies are already started
+      for (Node node : nodes.values()) {
+        CompletableFuture<?>[] dependencies =
+            node.dependencies().stream().map(reads::get).toArray(CompletableFuture<?>[]::new);
+        reads.put(
+            node,
+            CompletableFuture.allOf(dependencies)
+                .thenApplyAsync(v -> timeRead(node, startSeconds), workers));
+      }
+      try {
+        CompletableFuture.allOf(reads.values().toArray(new CompletableFuture<?>[0])).join();
+      } catch (CompletionException e) {
+        // Fail the same way a read on the main thread would
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    } else {
+      for (Node node : nodes.values()) {
+        reads.put(node, CompletableFuture.completedFuture(timeRead(node, startSeconds)));
+      }
+    }
+
+    double serialSeconds = 0.0;
+    for (Map.Entry<Node, CompletableFuture<Double>> entry : reads.entrySet()) {
+      double seconds = entry.getValue().join();
+      serialSeconds += seconds;
+      Logger.recordOutput("InputReads/" + entry.getKey().name() + "Ms", seconds * 1000.0);
+    }
+    Logger.recordOutput("InputReads/TotalMs", (System.nanoTime() - start) / 1e6);
+    // What the reads would have taken one after another
+    Logger.recordOutput("InputReads/SerialMs", serialSeconds * 1000.0);
+  }
+
+  /**
+   * @param submittedSeconds When the reads were started, in real FPGA seconds.
+   * @return How long the read took, in seconds.
+   */
+  private static double timeRead(Node node, double submittedSeconds) {
+    // Only reads with no dependencies are due as soon as they're submitted
+    ManagedThread worker = currentWorker.get();
+    if (worker != null) {
+      worker.startWork(node.dependencies().isEmpty() ? submittedSeconds : Double.NaN);
+    }
+    long start = System.nanoTime();
+    try {
+      node.read().run();
+    } finally {
+      if (worker != null) {
+        worker.finishWork();
+      }
+    }
+    return (System.nanoTime() - start) / 1e9;
+  }
+}
@@ -0,0 +1,215 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.JitWarmupConstants;
+import frc.robot.Constants.PathGenerationConstants;
+import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.LimelightHelpers.RawFiducial;
+import frc.robot.commands.DriveCommands;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.subsystems.vision.VisionIOInputsAutoLogged;
+import frc.robot.subsystems.vision.VisionIOLimelight;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Runs the drive, pose estimation, vision and path following math against synthetic inputs while
+ * the robot is disabled, so the JIT has compiled them before the first enabled loop. Everything
+ * runs on private copies (kinematics, estimator, controller), so nothing reaches the hardware or
+ * the real robot state.
+ *
+ * <p>Warm-up stops once JIT compilation has settled, or as soon as the robot is enabled.
+ */
+public class JitWarmup {
+  private static final int MODULE_COUNT = 4;
+  private static final int VISION_EVERY_ITERATIONS = 5;
+  private static final int TRAJECTORY_EVERY_ITERATIONS = 100;
+
+  private final CompilationMXBean compilationBean = ManagementFactory.getCompilationMXBean();
+
+  private SwerveDriveKinematics kinematics;
+  private SwerveDrivePoseEstimator poseEstimator;
+  private SwerveModulePosition[] modulePositions;
+  private PPHolonomicDriveController controller;
+  private PathPlannerPath path;
+  private PathPlannerTrajectory trajectory;
+  private VisionIOInputsAutoLogged visionInputs;
+
+  private long iterations = 0;
+  private double startTimestamp = 0.0;
+  private double windowStartTimestamp = 0.0;
+  private long windowStartCompileMs = 0;
+  private long startCompileMs = 0;
+  private boolean settled = false;
+
+  private JitWarmup() {}
+
+  /**
+   * Creates a command that warms up the hot paths while disabled. Schedule it at startup alongside
+   * PathPlanner's own pathfinding warm-up.
+   */
+  public static Command warmupCommand() {
+    JitWarmup warmup = new JitWarmup();
+    return Commands.run(warmup::step)
+        .beforeStarting(warmup::start)
+        .until(() -> warmup.isFinished() || DriverStation.isEnabled())
+        .finallyDo(warmup::report)
+        .ignoringDisable(true)
+        .withName("JitWarmup");
+  }
+
+  private void start() {
+    kinematics = new SwerveDriveKinematics(Drive.getModuleTranslations());
+    modulePositions = new SwerveModulePosition[MODULE_COUNT];
+    for (int i = 0; i < MODULE_COUNT; i++) {
+      modulePositions[i] = new SwerveModulePosition();
+    }
+    poseEstimator =
+        new SwerveDrivePoseEstimator(kinematics, new Rotation2d(), modulePositions, new Pose2d());
+    controller = Drive.createPathFollowingController();
+    path =
+        new PathPlannerPath(
+            PathPlannerPath.waypointsFromPoses(
+                new Pose2d(2.0, 2.0, Rotation2d.kZero),
+                new Pose2d(5.0, 3.0, Rotation2d.fromDegrees(45.0)),
+                new Pose2d(7.0, 5.0, Rotation2d.kCCW_Pi_2)),
+            PathGenerationConstants.DEFAULT_CONSTRAINTS,
+            null,
+            new GoalEndState(0.0, Rotation2d.kPi));
+    visionInputs = new VisionIOInputsAutoLogged();
+
+    startTimestamp = Timer.getFPGATimestamp();
+    windowStartTimestamp = startTimestamp;
+    startCompileMs = getCompileMs();
+    windowStartCompileMs = startCompileMs;
+  }
+
+  /** Runs warm-up iterations until this loop's time budget is spent. */
+  private void step() {
+    long deadline =
+        System.nanoTime() + (long) (JitWarmupConstants.BUDGET_PER_LOOP_SECONDS * 1e9);
+    while (System.nanoTime() < deadline) {
+      runIteration();
+    }
+    updateSettled();
+    Logger.recordOutput("JitWarmup/Iterations", iterations);
+    Logger.recordOutput("JitWarmup/CompilationMs", getCompileMs() - startCompileMs);
+  }
+
+  private void runIteration() {
+    iterations++;
+    // Vary every input so nothing gets specialized to a constant
+    double phase = iterations * 0.001;
+    double time = startTimestamp + iterations * 0.02;
+    Rotation2d heading = new Rotation2d(phase);
+
+    // Teleop drive: joystick shaping, discretization, kinematics and module optimization
+    ChassisSpeeds speeds =
+        DriveCommands.getJoystickSpeeds(
+            Math.sin(phase),
+            Math.cos(phase * 0.7),
+            Math.sin(phase * 1.3),
+            PathGenerationConstants.MAX_VELOCITY,
+            PathGenerationConstants.MAX_ANGULAR_VELOCITY,
+            heading,
+            (iterations & 1) == 0);
+    SwerveModuleState[] states =
+        Drive.calculateSetpointStates(kinematics, ChassisSpeeds.discretize(speeds, 0.02));
+    for (int i = 0; i < MODULE_COUNT; i++) {
+      states[i].optimize(heading);
+      states[i].cosineScale(heading);
+      modulePositions[i] =
+          new SwerveModulePosition(
+              modulePositions[i].distanceMeters + states[i].speedMetersPerSecond * 0.02,
+              states[i].angle);
+    }
+
+    // Odometry and vision fusion
+    poseEstimator.updateWithTime(time, heading, modulePositions);
+    if (iterations % VISION_EVERY_ITERATIONS == 0) {
+      Pose2d visionPose = new Pose2d(4.0 + Math.sin(phase), 4.0 + Math.cos(phase), heading);
+      VisionIOLimelight.applyEstimate(
+          new PoseEstimate(
+              visionPose,
+              time,
+              0.03,
+              2,
+              0.5,
+              2.0 + Math.sin(phase),
+              0.4,
+              new RawFiducial[] {
+                new RawFiducial(1, 0.1, 0.2, 0.4, 2.0, 2.1, 0.1),
+                new RawFiducial(2, -0.1, 0.1, 0.3, 2.5, 2.6, 0.2)
+              },
+              false),
+          visionInputs);
+      poseEstimator.addVisionMeasurement(
+          visionInputs.pose,
+          visionInputs.timestamp,
+          VecBuilder.fill(visionInputs.xyStdDev, visionInputs.xyStdDev, visionInputs.thetaStdDev));
+    }
+
+    // Path following: trajectory generation, sampling and the holonomic controller
+    if (trajectory == null || iterations % TRAJECTORY_EVERY_ITERATIONS == 0) {
+      trajectory = path.generateTrajectory(new ChassisSpeeds(), heading, Drive.PP_CONFIG);
+      controller.reset(poseEstimator.getEstimatedPosition(), new ChassisSpeeds());
+    }
+    double sampleTime = (iterations * 0.02) % trajectory.getTotalTimeSeconds();
+    PathPlannerTrajectoryState target = trajectory.sample(sampleTime);
+    controller.calculateRobotRelativeSpeeds(poseEstimator.getEstimatedPosition(), target);
+  }
+
+  /** Compilation has settled once a whole window adds almost no JIT time. */
+  private void updateSettled() {
+    double now = Timer.getFPGATimestamp();
+    if (now - windowStartTimestamp < JitWarmupConstants.SETTLE_WINDOW_SECONDS) {
+      return;
+    }
+    long compileMs = getCompileMs();
+    boolean quietWindow =
+        compileMs >= 0
+            && compileMs - windowStartCompileMs < JitWarmupConstants.SETTLED_COMPILE_MS_PER_WINDOW;
+    if (quietWindow && now - startTimestamp >= JitWarmupConstants.MIN_DURATION_SECONDS) {
+      settled = true;
+    }
+    windowStartTimestamp = now;
+    windowStartCompileMs = compileMs;
+  }
+
+  private boolean isFinished() {
+    return settled
+        || Timer.getFPGATimestamp() - startTimestamp >= JitWarmupConstants.MAX_DURATION_SECONDS;
+  }
+
+  private void report() {
+    Logger.recordOutput("JitWarmup/Settled", settled);
+    Logger.recordOutput("JitWarmup/ElapsedSeconds", Timer.getFPGATimestamp() - startTimestamp);
+    Logger.recordOutput("JitWarmup/Iterations", iterations);
+    Logger.recordOutput("JitWarmup/CompilationMs", getCompileMs() - startCompileMs);
+  }
+
+  /** Returns the total JIT compilation time in milliseconds, or -1 if the JVM doesn't track it. */
+  private long getCompileMs() {
+    if (compilationBean == null || !compilationBean.isCompilationTimeMonitoringSupported()) {
+      return -1;
+    }
+    return compilationBean.getTotalCompilationTime();
+  }
+}
@@ -0,0 +1,52 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Collects durations and summarizes their distribution. Samples are kept in a growing primitive
+ * array, so adding one doesn't box or allocate in the common case.
+ */
+public class LatencyStats {
+  private double[] samples = new double[64];
+  private int count = 0;
+  private double sum = 0.0;
+  private double max = 0.0;
+
+  /** Adds a duration in seconds. */
+  public void add(double seconds) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, samples.length * 2);
+    }
+    samples[count++] = seconds;
+    sum += seconds;
+    max = Math.max(max, seconds);
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /** @return The mean duration in seconds, or 0 with no samples. */
+  public double getMean() {
+    return count > 0 ? sum / count : 0.0;
+  }
+
+  /** @return The longest duration in seconds, or 0 with no samples. */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * @param fraction The percentile as a fraction, e.g. 0.9 for the 90th percentile.
+   * @return The nearest-rank percentile in seconds, or 0 with no samples.
+   */
+  public double getPercentile(double fraction) {
+    if (count == 0) {
+      return 0.0;
+    }
+    double[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(fraction * count) - 1;
+    return sorted[Math.max(0, Math.min(count - 1, rank))];
+  }
+}
@@ -3,7 +3,7 @@ package frc.robot.util;
 import com.pathplanner.lib.path.GoalEndState;
 import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.path.PathPlannerPath;
-import com.pathplanner.lib.path.PathPoint;
+import com.pathplanner.lib.path.Waypoint;
 import com.pathplanner.lib.pathfinding.LocalADStar;
 import com.pathplanner.lib.pathfinding.Pathfinder;
 import edu.wpi.first.math.Pair;
@@ -19,7 +19,20 @@ import org.littletonrobotics.junction.inputs.LoggableInputs;
 // https://gist.github.com/mjansen4857/a8024b55eb427184dbd10ae8923bd57d
 
 public class LocalADStarAK implements Pathfinder {
-  private final ADStarIO io = new ADStarIO();
+  private final ADStarIO io;
+
+  public LocalADStarAK() {
+    this(new LocalADStar());
+  }
+
+  /**
+   * Logs another pathfinder's output the same way, so it can be swapped in without losing replay.
+   *
+   * @param pathfinder The pathfinder to wrap.
+   */
+  public LocalADStarAK(Pathfinder pathfinder) {
+    io = new ADStarIO(pathfinder);
+  }
 
   /**
    * Get if a new path has been calculated since the last time a path was retrieved
@@ -42,21 +55,21 @@ public class LocalADStarAK implements Pathfinder {
    *
    * @param constraints The path constraints to use when creating the path
    * @param goalEndState The goal end state to use when creating the path
-   * @return The PathPlannerPath created from the points calculated by the pathfinder
+   * @return The PathPlannerPath created from the waypoints calculated by the pathfinder
    */
   @Override
   public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
     if (!Logger.hasReplaySource()) {
-      io.updateCurrentPathPoints(constraints, goalEndState);
+      io.updateCurrentWaypoints(constraints, goalEndState);
     }
 
     Logger.processInputs("LocalADStarAK", io);
 
-    if (io.currentPathPoints.isEmpty()) {
+    if (io.currentWaypoints.isEmpty()) {
       return null;
     }
 
-    return PathPlannerPath.fromPathPoints(io.currentPathPoints, constraints, goalEndState);
+    return new PathPlannerPath(io.currentWaypoints, constraints, null, goalEndState);
   }
 
   /**
@@ -68,7 +81,7 @@ public class LocalADStarAK implements Pathfinder {
   @Override
   public void setStartPosition(Translation2d startPosition) {
     if (!Logger.hasReplaySource()) {
-      io.adStar.setStartPosition(startPosition);
+      io.pathfinder.setStartPosition(startPosition);
     }
   }
 
@@ -81,7 +94,7 @@ public class LocalADStarAK implements Pathfinder {
   @Override
   public void setGoalPosition(Translation2d goalPosition) {
     if (!Logger.hasReplaySource()) {
-      io.adStar.setGoalPosition(goalPosition);
+      io.pathfinder.setGoalPosition(goalPosition);
     }
   }
 
@@ -97,57 +110,98 @@ public class LocalADStarAK implements Pathfinder {
   public void setDynamicObstacles(
       List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
     if (!Logger.hasReplaySource()) {
-      io.adStar.setDynamicObstacles(obs, currentRobotPos);
+      io.pathfinder.setDynamicObstacles(obs, currentRobotPos);
     }
   }
 
+  /**
+   * Logs the pathfinder's output. Paths are logged as their bezier waypoints under an increasing
+   * PathId, and the waypoints are only written on the cycle a different path arrives. The log table
+   * keeps the last written value, so replay reads them back when the ID changes. Both real and
+   * replay build the returned path from the same waypoints, so they follow identical paths.
+   */
   private static class ADStarIO implements LoggableInputs {
-    public LocalADStar adStar = new LocalADStar();
+    private static final int VALUES_PER_WAYPOINT = 6;
+
+    public final Pathfinder pathfinder;
     public boolean isNewPathAvailable = false;
-    public List<PathPoint> currentPathPoints = Collections.emptyList();
+    public long pathId = 0;
+    public List<Waypoint> currentWaypoints = Collections.emptyList();
+    private boolean waypointsChanged = true;
+
+    public ADStarIO(Pathfinder pathfinder) {
+      this.pathfinder = pathfinder;
+    }
 
     @Override
     public void toLog(LogTable table) {
       table.put("IsNewPathAvailable", isNewPathAvailable);
-
-      double[] pointsLogged = new double[currentPathPoints.size() * 2];
-      int idx = 0;
-      for (PathPoint point : currentPathPoints) {
-        pointsLogged[idx] = point.position.getX();
-        pointsLogged[idx + 1] = point.position.getY();
-        idx += 2;
+      table.put("PathId", pathId);
+
+      if (waypointsChanged) {
+        double[] waypointsLogged = new double[currentWaypoints.size() * VALUES_PER_WAYPOINT];
+        int idx = 0;
+        for (Waypoint waypoint : currentWaypoints) {
+          idx = putTranslation(waypointsLogged, idx, waypoint.prevControl());
+          idx = putTranslation(waypointsLogged, idx, waypoint.anchor());
+          idx = putTranslation(waypointsLogged, idx, waypoint.nextControl());
+        }
+        table.put("CurrentPathWaypoints", waypointsLogged);
+        waypointsChanged = false;
       }
-
-      table.put("CurrentPathPoints", pointsLogged);
     }
 
     @Override
     public void fromLog(LogTable table) {
       isNewPathAvailable = table.get("IsNewPathAvailable", false);
 
-      double[] pointsLogged = table.get("CurrentPathPoints", new double[0]);
-
-      List<PathPoint> pathPoints = new ArrayList<>();
-      for (int i = 0; i < pointsLogged.length; i += 2) {
-        pathPoints.add(
-            new PathPoint(new Translation2d(pointsLogged[i], pointsLogged[i + 1]), null));
+      long loggedPathId = table.get("PathId", 0L);
+      if (loggedPathId == pathId) {
+        return;
       }
-
-      currentPathPoints = pathPoints;
+      pathId = loggedPathId;
+
+      double[] waypointsLogged = table.get("CurrentPathWaypoints", new double[0]);
+      List<Waypoint> waypoints = new ArrayList<>();
+      for (int i = 0; i + VALUES_PER_WAYPOINT <= waypointsLogged.length; i += VALUES_PER_WAYPOINT) {
+        waypoints.add(
+            new Waypoint(
+                getTranslation(waypointsLogged, i),
+                getTranslation(waypointsLogged, i + 2),
+                getTranslation(waypointsLogged, i + 4)));
+      }
+      currentWaypoints = waypoints;
     }
 
     public void updateIsNewPathAvailable() {
-      isNewPathAvailable = adStar.isNewPathAvailable();
+      isNewPathAvailable = pathfinder.isNewPathAvailable();
     }
 
-    public void updateCurrentPathPoints(PathConstraints constraints, GoalEndState goalEndState) {
-      PathPlannerPath currentPath = adStar.getCurrentPath(constraints, goalEndState);
+    public void updateCurrentWaypoints(PathConstraints constraints, GoalEndState goalEndState) {
+      PathPlannerPath currentPath = pathfinder.getCurrentPath(constraints, goalEndState);
+      List<Waypoint> waypoints =
+          currentPath != null ? currentPath.getWaypoints() : Collections.emptyList();
+
+      // Pathfinders hand back a fresh path on every call, so only a different path gets an ID
+      if (!waypoints.equals(currentWaypoints)) {
+        currentWaypoints = List.copyOf(waypoints);
+        pathId++;
+        waypointsChanged = true;
+      }
+    }
+
+    /** Writes a translation as two values, using NaN for the missing control points at the ends. */
+    private static int putTranslation(double[] values, int idx, Translation2d translation) {
+      values[idx] = translation != null ? translation.getX() : Double.NaN;
+      values[idx + 1] = translation != null ? translation.getY() : Double.NaN;
+      return idx + 2;
+    }
 
-      if (currentPath != null) {
-        currentPathPoints = currentPath.getAllPathPoints();
-      } else {
-        currentPathPoints = Collections.emptyList();
+    private static Translation2d getTranslation(double[] values, int idx) {
+      if (Double.isNaN(values[idx])) {
+        return null;
       }
+      return new Translation2d(values[idx], values[idx + 1]);
     }
   }
 }
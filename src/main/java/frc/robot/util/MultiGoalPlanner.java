@@ -0,0 +1,117 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.PathConstraints;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.PathGenerationConstants;
+import frc.robot.Constants.ThreadConstants;
+import frc.robot.util.ThreadManager.ThreadSettings;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plans to several candidate goals at once on a small, fixed worker pool and ranks them by
+ * estimated traversal time.
+ */
+public class MultiGoalPlanner {
+  private static final AtomicInteger threadCount = new AtomicInteger();
+  private static final ExecutorService workers =
+      Executors.newFixedThreadPool(
+          PathGenerationConstants.MULTI_GOAL_WORKER_THREADS,
+          runnable -> {
+            String name = "MultiGoalPlanner-" + threadCount.getAndIncrement();
+            Thread thread =
+                new Thread(
+                    () -> {
+                      ThreadManager.register(
+                          name, ThreadSettings.normal(ThreadConstants.PATHFINDING_CPU));
+                      runnable.run();
+                    },
+                    name);
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final FieldPathPlanner planner;
+
+  /** The plan for one candidate goal. */
+  public static record GoalPlan(
+      /** Index of the goal in the candidate list. */
+      int index,
+      /** The candidate goal pose. */
+      Pose2d goal,
+      /** Waypoints from the start to the goal, empty if unreachable. */
+      List<Translation2d> waypoints,
+      /** Estimated time to drive the path (seconds), infinite if unreachable. */
+      double estimatedSeconds) {
+    public boolean isReachable() {
+      return Double.isFinite(estimatedSeconds);
+    }
+  }
+
+  public MultiGoalPlanner(FieldPathPlanner planner) {
+    this.planner = planner;
+  }
+
+  /** Returns the shared worker pool, so other planning utilities don't spawn their own threads. */
+  public static ExecutorService getWorkers() {
+    return workers;
+  }
+
+  /**
+   * Starts planning from the start pose to every candidate. Each candidate is planned on the worker
+   * pool, so this returns immediately.
+   *
+   * @param start The robot pose to plan from.
+   * @param candidates The candidate goal poses.
+   * @param constraints The constraints used to estimate traversal time.
+   * @return One future per candidate, in the same order as the candidates.
+   */
+  public List<CompletableFuture<GoalPlan>> planAll(
+      Pose2d start, List<Pose2d> candidates, PathConstraints constraints) {
+    List<CompletableFuture<GoalPlan>> futures = new ArrayList<>(candidates.size());
+    for (int i = 0; i < candidates.size(); i++) {
+      final int index = i;
+      final Pose2d goal = candidates.get(i);
+      futures.add(
+          CompletableFuture.supplyAsync(() -> plan(index, start, goal, constraints), workers));
+    }
+    return futures;
+  }
+
+  /** Plans a single candidate on the calling thread. */
+  public GoalPlan plan(int index, Pose2d start, Pose2d goal, PathConstraints constraints) {
+    Optional<List<Translation2d>> waypoints =
+        planner.plan(start.getTranslation(), goal.getTranslation());
+    if (waypoints.isEmpty()) {
+      return new GoalPlan(index, goal, List.of(), Double.POSITIVE_INFINITY);
+    }
+    return new GoalPlan(
+        index,
+        goal,
+        waypoints.get(),
+        PathTimeEstimator.estimateSeconds(
+            waypoints.get(), start.getRotation(), goal.getRotation(), constraints));
+  }
+
+  /**
+   * Collects the finished plans, fastest first. Futures that have not completed or that failed are
+   * treated as unreachable.
+   */
+  public static List<GoalPlan> rank(List<CompletableFuture<GoalPlan>> futures) {
+    List<GoalPlan> plans = new ArrayList<>(futures.size());
+    for (var future : futures) {
+      if (future.isDone() && !future.isCompletedExceptionally()) {
+        plans.add(future.join());
+      }
+    }
+    plans.sort(Comparator.comparingDouble(GoalPlan::estimatedSeconds));
+    return plans;
+  }
+}
@@ -0,0 +1,173 @@
+package frc.robot.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants.PathGenerationConstants;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Uniform obstacle grid loaded from the PathPlanner navgrid. Cells are indexed by row (field Y)
+ * and column (field X), and {@code true} marks a cell the robot cannot enter.
+ *
+ * <p>Instances are immutable after loading, so they can be shared freely between planner threads.
+ */
+public class NavGrid {
+  private final double fieldLengthMeters;
+  private final double fieldWidthMeters;
+  private final double nodeSizeMeters;
+  private final int rows;
+  private final int cols;
+  private final boolean[] obstacles; // Row-major, rows * cols
+
+  public NavGrid(
+      double fieldLengthMeters, double fieldWidthMeters, double nodeSizeMeters, boolean[][] grid) {
+    this.fieldLengthMeters = fieldLengthMeters;
+    this.fieldWidthMeters = fieldWidthMeters;
+    this.nodeSizeMeters = nodeSizeMeters;
+    this.rows = grid.length;
+    this.cols = rows > 0 ? grid[0].length : 0;
+    this.obstacles = new boolean[rows * cols];
+    for (int row = 0; row < rows; row++) {
+      System.arraycopy(grid[row], 0, obstacles, row * cols, cols);
+    }
+  }
+
+  /** Returns the navgrid deployed with the robot code, loading it on first use. */
+  public static NavGrid getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  private static class DefaultHolder {
+    private static final NavGrid INSTANCE =
+        fromFile(
+            new File(
+                Filesystem.getDeployDirectory(), PathGenerationConstants.NAVGRID_FILENAME));
+  }
+
+  /**
+   * Parses a PathPlanner navgrid JSON file.
+   *
+   * @param file The navgrid file.
+   * @return The parsed grid.
+   */
+  public static NavGrid fromFile(File file) {
+    try {
+      JsonNode json = new ObjectMapper().readTree(file);
+      JsonNode gridJson = json.get("grid");
+      boolean[][] grid = new boolean[gridJson.size()][];
+      for (int row = 0; row < grid.length; row++) {
+        JsonNode rowJson = gridJson.get(row);
+        grid[row] = new boolean[rowJson.size()];
+        for (int col = 0; col < grid[row].length; col++) {
+          grid[row][col] = rowJson.get(col).asBoolean();
+        }
+      }
+      return new NavGrid(
+          json.get("field_size").get("x").asDouble(),
+          json.get("field_size").get("y").asDouble(),
+          json.get("nodeSizeMeters").asDouble(),
+          grid);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to load navgrid from " + file.getAbsolutePath(), e);
+    }
+  }
+
+  public double getFieldLengthMeters() {
+    return fieldLengthMeters;
+  }
+
+  public double getFieldWidthMeters() {
+    return fieldWidthMeters;
+  }
+
+  public double getNodeSizeMeters() {
+    return nodeSizeMeters;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getCols() {
+    return cols;
+  }
+
+  /** Returns a hash of the grid dimensions and contents, for keying caches derived from it. */
+  public int contentHash() {
+    return Objects.hash(fieldLengthMeters, fieldWidthMeters, nodeSizeMeters, rows, cols)
+        ^ Arrays.hashCode(obstacles);
+  }
+
+  /** Returns true if the cell is outside the grid or blocked. */
+  public boolean isObstacle(int row, int col) {
+    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+      return true;
+    }
+    return obstacles[row * cols + col];
+  }
+
+  /** Returns true if the field position falls outside the grid or in a blocked cell. */
+  public boolean isObstacle(Translation2d position) {
+    return isObstacle(rowOf(position.getY()), colOf(position.getX()));
+  }
+
+  /** Returns the row containing the given field Y coordinate. */
+  public int rowOf(double yMeters) {
+    return (int) Math.floor(yMeters / nodeSizeMeters);
+  }
+
+  /** Returns the column containing the given field X coordinate. */
+  public int colOf(double xMeters) {
+    return (int) Math.floor(xMeters / nodeSizeMeters);
+  }
+
+  /** Returns the field position of the center of a cell. */
+  public Translation2d cellCenter(int row, int col) {
+    return new Translation2d((col + 0.5) * nodeSizeMeters, (row + 0.5) * nodeSizeMeters);
+  }
+
+  /**
+   * Returns true if a straight segment between two field positions stays out of blocked cells. The
+   * segment is sampled at a quarter of the node size.
+   */
+  public boolean hasLineOfSight(Translation2d from, Translation2d to) {
+    double distance = from.getDistance(to);
+    int steps = Math.max(1, (int) Math.ceil(distance / (nodeSizeMeters * 0.25)));
+    for (int i = 0; i <= steps; i++) {
+      double t = (double) i / steps;
+      double x = from.getX() + (to.getX() - from.getX()) * t;
+      double y = from.getY() + (to.getY() - from.getY()) * t;
+      if (isObstacle(rowOf(y), colOf(x))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the closest free cell to the given cell using a breadth-first ring search.
+   *
+   * @return The row-major index of the free cell, or -1 if the grid has no free cells.
+   */
+  public int nearestFreeCell(int row, int col) {
+    int maxRadius = Math.max(rows, cols);
+    for (int radius = 0; radius <= maxRadius; radius++) {
+      for (int dRow = -radius; dRow <= radius; dRow++) {
+        for (int dCol = -radius; dCol <= radius; dCol++) {
+          if (Math.max(Math.abs(dRow), Math.abs(dCol)) != radius) {
+            continue;
+          }
+          if (!isObstacle(row + dRow, col + dCol)) {
+            return (row + dRow) * cols + (col + dCol);
+          }
+        }
+      }
+    }
+    return -1;
+  }
+}
@@ -7,19 +7,56 @@ import com.pathplanner.lib.path.PathPlannerPath;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.Subsystem;
 import frc.robot.Constants.PathGenerationConstants;
 import frc.robot.Constants.PathGenerationConstants.Location;
+import frc.robot.util.MultiGoalPlanner.GoalPlan;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
+import org.littletonrobotics.junction.AutoLog;
+import org.littletonrobotics.junction.Logger;
 
 public class PathGeneration {
+  /** Travel times being planned for a route, and the locations they were planned between. */
+  private static record PreparedRoute(
+      Map<String, Pose2d> locations, CompletableFuture<TravelTimeMatrix> matrix) {}
+
+  /**
+   * The order {@link #pathfindOptimizedRoute} chose. Whether the travel times were ready depends on
+   * timing, so the choice is logged as an input and replayed.
+   */
+  @AutoLog
+  public static class RouteInputs {
+    /** Whether the order was optimized, rather than the order given */
+    public boolean optimized = false;
+    /** Location names in visiting order, starting with the start location */
+    public String[] order = new String[0];
+    /** Estimated time for the route (seconds), NaN if unknown */
+    public double estimatedSeconds = Double.NaN;
+  }
 
   private final Map<String, Pose2d> customLocations = new HashMap<>();
+  private final Subsystem drive;
+  private MultiGoalPlanner multiGoalPlanner = null;
 
-  public PathGeneration() {}
+  /**
+   * @param drive The drive subsystem, required by commands that choose their path at runtime.
+   */
+  public PathGeneration(Subsystem drive) {
+    this.drive = drive;
+  }
 
   /**
    * Generates a command to pathfind to a specific known location.
@@ -188,6 +225,141 @@ public class PathGeneration {
     return Commands.deadline(pathfindTo(targetPose, constraints), parallelCommand);
   }
 
+  /**
+   * Generates a command that drives to whichever of several known locations is fastest to reach.
+   *
+   * @param currentPose Supplier of the current robot pose.
+   * @param locations The candidate locations.
+   * @return The pathfinding command.
+   */
+  public Command pathfindToFastest(Supplier<Pose2d> currentPose, Location... locations) {
+    return pathfindToFastest(
+        currentPose,
+        Arrays.stream(locations).map(Location::getPose).toList(),
+        PathGenerationConstants.DEFAULT_CONSTRAINTS);
+  }
+
+  /**
+   * What {@link #pathfindToFastest} decided from its plans. Which plans finish before the timeout
+   * depends on timing, so the decision is logged as an input and replayed.
+   */
+  @AutoLog
+  public static class MultiGoalInputs {
+    /** Whether planning has finished or timed out */
+    public boolean planned = false;
+    /** Indices of the reachable candidates, fastest first */
+    public int[] rankedIndices = new int[0];
+    /** Estimated time to each ranked candidate (seconds) */
+    public double[] estimatedSeconds = new double[0];
+  }
+
+  /**
+   * Generates a command that plans to every candidate pose in parallel, then drives to the one with
+   * the lowest estimated traversal time. The remaining candidates are kept, fastest first, as
+   * fallbacks if the chosen goal turns out to be unreachable or the robot doesn't arrive there.
+   *
+   * @param currentPose Supplier of the current robot pose.
+   * @param candidates The candidate goal poses.
+   * @param constraints The path constraints to plan and drive with.
+   * @return The pathfinding command.
+   */
+  public Command pathfindToFastest(
+      Supplier<Pose2d> currentPose, List<Pose2d> candidates, PathConstraints constraints) {
+    return Commands.defer(
+        () -> {
+          FastestGoalRun run = new FastestGoalRun(currentPose, candidates, constraints);
+          return Commands.waitUntil(run::pollPlanned)
+              .andThen(Commands.defer(run::driveToNextGoal, Set.of(drive)))
+              .finallyDo(run::cancel);
+        },
+        Set.of(drive));
+  }
+
+  /** One run of {@link #pathfindToFastest}: the plans in flight, then the goals left to try. */
+  private class FastestGoalRun {
+    private final Supplier<Pose2d> currentPose;
+    private final List<Pose2d> candidates;
+    private final PathConstraints constraints;
+    private final Timer planTimer = new Timer();
+    private final List<CompletableFuture<GoalPlan>> futures;
+    private final MultiGoalInputsAutoLogged inputs = new MultiGoalInputsAutoLogged();
+    private final Deque<Integer> remaining = new ArrayDeque<>();
+
+    FastestGoalRun(
+        Supplier<Pose2d> currentPose, List<Pose2d> candidates, PathConstraints constraints) {
+      this.currentPose = currentPose;
+      this.candidates = candidates;
+      this.constraints = constraints;
+      planTimer.start();
+      // Replay reads the decision from the log instead
+      futures =
+          Logger.hasReplaySource()
+              ? List.of()
+              : getMultiGoalPlanner().planAll(currentPose.get(), candidates, constraints);
+    }
+
+    /** @return Whether planning has finished, as logged. Called once a cycle until it has. */
+    boolean pollPlanned() {
+      if (futures.stream().allMatch(CompletableFuture::isDone)
+          || planTimer.hasElapsed(PathGenerationConstants.MULTI_GOAL_PLAN_TIMEOUT_SECONDS)) {
+        List<GoalPlan> ranked =
+            MultiGoalPlanner.rank(futures).stream().filter(GoalPlan::isReachable).toList();
+        inputs.planned = true;
+        inputs.rankedIndices = ranked.stream().mapToInt(GoalPlan::index).toArray();
+        inputs.estimatedSeconds = ranked.stream().mapToDouble(GoalPlan::estimatedSeconds).toArray();
+      }
+      Logger.processInputs("PathGeneration/MultiGoal", inputs);
+      if (inputs.planned) {
+        Logger.recordOutput("PathGeneration/MultiGoal/PlanSeconds", planTimer.get());
+        Arrays.stream(inputs.rankedIndices).forEach(remaining::add);
+      }
+      return inputs.planned;
+    }
+
+    /** Drives to the fastest remaining goal, then on to the next if the robot doesn't arrive. */
+    Command driveToNextGoal() {
+      Integer index = remaining.poll();
+      if (index == null) {
+        Logger.recordOutput("PathGeneration/MultiGoal/ChosenIndex", -1);
+        return Commands.none();
+      }
+      Pose2d goal = candidates.get(index);
+      Logger.recordOutput("PathGeneration/MultiGoal/ChosenIndex", (int) index);
+      Logger.recordOutput("PathGeneration/MultiGoal/ChosenGoal", goal);
+      return pathfindTo(goal, constraints)
+          .andThen(
+              Commands.defer(
+                  () -> {
+                    double missMeters =
+                        currentPose.get().getTranslation().getDistance(goal.getTranslation());
+                    return missMeters > PathGenerationConstants.MULTI_GOAL_ARRIVAL_TOLERANCE_METERS
+                        ? driveToNextGoal()
+                        : Commands.none();
+                  },
+                  Set.of(drive)));
+    }
+
+    void cancel() {
+      futures.forEach(future -> future.cancel(false));
+    }
+  }
+
+  /** Lazily creates the multi-goal planner so the navgrid is only loaded if it's needed. */
+  private MultiGoalPlanner getMultiGoalPlanner() {
+    if (multiGoalPlanner == null) {
+      multiGoalPlanner = new MultiGoalPlanner(createFieldPathPlanner());
+    }
+    return multiGoalPlanner;
+  }
+
+  /** Creates the planner for the configured navgrid representation. */
+  private static FieldPathPlanner createFieldPathPlanner() {
+    if (PathGenerationConstants.USE_QUADTREE_NAVGRID) {
+      return new QuadTreePathPlanner(QuadTreeNavGrid.getDefault());
+    }
+    return new GridPathPlanner(NavGrid.getDefault());
+  }
+
   /**
    * Adds a custom location of interest at runtime.
    *
@@ -207,4 +379,83 @@ public class PathGeneration {
   public Pose2d getCustomLocation(String name) {
     return customLocations.get(name);
   }
+
+  /**
+   * Returns every named location, predefined and custom, keyed by name. Custom locations are
+   * listed after the predefined ones.
+   *
+   * @return An ordered map of name to pose.
+   */
+  public Map<String, Pose2d> getNamedLocations() {
+    Map<String, Pose2d> locations = new LinkedHashMap<>();
+    for (Location location : Location.values()) {
+      locations.put(location.name(), location.getPose());
+    }
+    locations.putAll(customLocations);
+    return locations;
+  }
+
+  /**
+   * Generates a command that visits the given locations in the fastest order that fits in the
+   * autonomous period, starting from a known location.
+   *
+   * <p>The travel times are planned in the background from when this is called, so call it at
+   * startup. If they aren't ready when the command is scheduled, the locations are visited in the
+   * order given instead of waiting for them. The choice is logged as an input, so replay drives
+   * the same route.
+   *
+   * @param start Name of the location the robot starts at.
+   * @param targets Names of the locations to visit.
+   * @param actions Commands to run on arrival at each location, keyed by name.
+   * @return The route command.
+   * @throws IllegalArgumentException If a location isn't known yet, a target is listed twice, or
+   *     the start is also a target.
+   */
+  public Command pathfindOptimizedRoute(
+      String start, List<String> targets, Map<String, Command> actions) {
+    AutoSequencePlanner sequencePlanner =
+        new AutoSequencePlanner(
+            createFieldPathPlanner(), PathGenerationConstants.DEFAULT_CONSTRAINTS);
+    Map<String, Pose2d> initialLocations =
+        AutoSequencePlanner.routeLocations(getNamedLocations(), start, targets);
+    AtomicReference<PreparedRoute> prepared =
+        new AtomicReference<>(
+            new PreparedRoute(initialLocations, sequencePlanner.getMatrixAsync(initialLocations)));
+
+    return Commands.defer(
+        () -> {
+          Map<String, Pose2d> locations =
+              AutoSequencePlanner.routeLocations(getNamedLocations(), start, targets);
+          PreparedRoute route = prepared.get();
+          if (!route.locations().equals(locations)) {
+            // A custom location moved, so plan again for next time
+            route = new PreparedRoute(locations, sequencePlanner.getMatrixAsync(locations));
+            prepared.set(route);
+          }
+
+          RouteInputsAutoLogged inputs = new RouteInputsAutoLogged();
+          if (!Logger.hasReplaySource()) {
+            CompletableFuture<TravelTimeMatrix> matrix = route.matrix();
+            inputs.optimized = matrix.isDone() && !matrix.isCompletedExceptionally();
+            AutoSequencePlanner.Route chosen =
+                inputs.optimized
+                    ? AutoSequencePlanner.solve(
+                        locations,
+                        matrix.join(),
+                        Map.of(),
+                        PathGenerationConstants.AUTO_DURATION_SECONDS)
+                    : AutoSequencePlanner.givenOrder(locations);
+            inputs.order = chosen.order().toArray(String[]::new);
+            inputs.estimatedSeconds = chosen.estimatedSeconds();
+          }
+          Logger.processInputs("PathGeneration/Route", inputs);
+
+          List<String> order = List.of(inputs.order);
+          AutoSequencePlanner.Route solved =
+              new AutoSequencePlanner.Route(
+                  order, order.stream().map(locations::get).toList(), inputs.estimatedSeconds);
+          return sequencePlanner.buildCommand(solved, this, actions);
+        },
+        Set.of(drive));
+  }
 }
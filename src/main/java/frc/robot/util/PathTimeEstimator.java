@@ -0,0 +1,117 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.PathConstraints;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.List;
+
+/**
+ * Estimates how long the robot needs to drive a waypoint path under a set of {@link
+ * PathConstraints}. The estimate slows down for corners and treats rotation as happening in
+ * parallel with translation, so it tracks PathPlanner's generated trajectories closely enough to
+ * rank candidate goals.
+ */
+public final class PathTimeEstimator {
+  private PathTimeEstimator() {}
+
+  /**
+   * Estimates the time to drive through the waypoints, starting and ending at rest.
+   *
+   * @param waypoints The path, including start and goal.
+   * @param startRotation The robot heading at the start.
+   * @param endRotation The robot heading at the goal.
+   * @param constraints The constraints the path will be driven with.
+   * @return The estimated traversal time in seconds.
+   */
+  public static double estimateSeconds(
+      List<Translation2d> waypoints,
+      Rotation2d startRotation,
+      Rotation2d endRotation,
+      PathConstraints constraints) {
+    double translationSeconds =
+        estimateTranslationSeconds(
+            waypoints, constraints.maxVelocityMPS(), constraints.maxAccelerationMPSSq());
+    double rotationSeconds =
+        trapezoidSeconds(
+            Math.abs(endRotation.minus(startRotation).getRadians()),
+            0.0,
+            0.0,
+            constraints.maxAngularVelocityRadPerSec(),
+            constraints.maxAngularAccelerationRadPerSecSq());
+    return Math.max(translationSeconds, rotationSeconds);
+  }
+
+  /** Estimates translation time along a polyline with a forward/backward velocity pass. */
+  public static double estimateTranslationSeconds(
+      List<Translation2d> waypoints, double maxVelocity, double maxAcceleration) {
+    int count = waypoints.size();
+    if (count < 2) {
+      return 0.0;
+    }
+
+    // Cap the speed at each interior waypoint by how sharply the path turns there
+    double[] cornerSpeeds = new double[count];
+    for (int i = 1; i < count - 1; i++) {
+      Translation2d in = waypoints.get(i).minus(waypoints.get(i - 1));
+      Translation2d out = waypoints.get(i + 1).minus(waypoints.get(i));
+      double turnRadians =
+          in.getNorm() < 1e-9 || out.getNorm() < 1e-9
+              ? 0.0
+              : Math.abs(out.getAngle().minus(in.getAngle()).getRadians());
+      cornerSpeeds[i] = maxVelocity * Math.max(0.0, 1.0 - turnRadians / Math.PI);
+    }
+
+    // Forward pass limits speed by acceleration, backward pass by braking distance
+    double[] speeds = cornerSpeeds.clone();
+    for (int i = 1; i < count; i++) {
+      double length = waypoints.get(i).getDistance(waypoints.get(i - 1));
+      double reachable = Math.sqrt(speeds[i - 1] * speeds[i - 1] + 2 * maxAcceleration * length);
+      speeds[i] = Math.min(speeds[i], reachable);
+    }
+    speeds[count - 1] = 0.0;
+    for (int i = count - 2; i >= 0; i--) {
+      double length = waypoints.get(i + 1).getDistance(waypoints.get(i));
+      double stoppable = Math.sqrt(speeds[i + 1] * speeds[i + 1] + 2 * maxAcceleration * length);
+      speeds[i] = Math.min(speeds[i], stoppable);
+    }
+
+    double seconds = 0.0;
+    for (int i = 1; i < count; i++) {
+      seconds +=
+          trapezoidSeconds(
+              waypoints.get(i).getDistance(waypoints.get(i - 1)),
+              speeds[i - 1],
+              speeds[i],
+              maxVelocity,
+              maxAcceleration);
+    }
+    return seconds;
+  }
+
+  /**
+   * Time to cover a distance starting at one speed and ending at another, with a trapezoidal (or
+   * triangular) velocity profile.
+   */
+  public static double trapezoidSeconds(
+      double distance, double startSpeed, double endSpeed, double maxSpeed, double maxAccel) {
+    if (distance <= 0.0) {
+      return 0.0;
+    }
+    if (maxSpeed <= 0.0 || maxAccel <= 0.0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    // Peak speed reachable if we accelerate then immediately decelerate
+    double peak =
+        Math.sqrt(
+            (2 * maxAccel * distance + startSpeed * startSpeed + endSpeed * endSpeed) / 2.0);
+    if (peak <= maxSpeed) {
+      return (peak - startSpeed) / maxAccel + (peak - endSpeed) / maxAccel;
+    }
+    double accelDistance = (maxSpeed * maxSpeed - startSpeed * startSpeed) / (2 * maxAccel);
+    double decelDistance = (maxSpeed * maxSpeed - endSpeed * endSpeed) / (2 * maxAccel);
+    double cruiseDistance = distance - accelDistance - decelDistance;
+    return (maxSpeed - startSpeed) / maxAccel
+        + cruiseDistance / maxSpeed
+        + (maxSpeed - endSpeed) / maxAccel;
+  }
+}
@@ -14,6 +14,13 @@
 package frc.robot.util;
 
 import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.Pigeon2Configuration;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.Pigeon2;
+import com.ctre.phoenix6.hardware.TalonFX;
+import frc.robot.Constants.DeviceConfigConstants;
 import java.util.function.Supplier;
 
 public class PhoenixUtil {
@@ -24,4 +31,76 @@ public class PhoenixUtil {
       if (error.isOK()) break;
     }
   }
+
+  /** Reads a TalonFX's config back and checks the settings this code changes were applied. */
+  public static boolean readBackMatches(TalonFX talon, TalonFXConfiguration expected) {
+    var actual = new TalonFXConfiguration();
+    if (!talon
+        .getConfigurator()
+        .refresh(actual, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+        .isOK()) {
+      return false;
+    }
+    return near(actual.Slot0.kP, expected.Slot0.kP)
+        && near(actual.Slot0.kI, expected.Slot0.kI)
+        && near(actual.Slot0.kD, expected.Slot0.kD)
+        && near(actual.Slot0.kS, expected.Slot0.kS)
+        && near(actual.Slot0.kV, expected.Slot0.kV)
+        && near(actual.Slot0.kA, expected.Slot0.kA)
+        && near(actual.Feedback.SensorToMechanismRatio, expected.Feedback.SensorToMechanismRatio)
+        && near(actual.Feedback.RotorToSensorRatio, expected.Feedback.RotorToSensorRatio)
+        && actual.Feedback.FeedbackSensorSource == expected.Feedback.FeedbackSensorSource
+        && actual.Feedback.FeedbackRemoteSensorID == expected.Feedback.FeedbackRemoteSensorID
+        && actual.MotorOutput.Inverted == expected.MotorOutput.Inverted
+        && actual.MotorOutput.NeutralMode == expected.MotorOutput.NeutralMode
+        && near(
+            actual.CurrentLimits.StatorCurrentLimit, expected.CurrentLimits.StatorCurrentLimit)
+        && actual.CurrentLimits.StatorCurrentLimitEnable
+            == expected.CurrentLimits.StatorCurrentLimitEnable
+        && near(
+            actual.TorqueCurrent.PeakForwardTorqueCurrent,
+            expected.TorqueCurrent.PeakForwardTorqueCurrent)
+        && near(
+            actual.TorqueCurrent.PeakReverseTorqueCurrent,
+            expected.TorqueCurrent.PeakReverseTorqueCurrent)
+        && near(
+            actual.MotionMagic.MotionMagicCruiseVelocity,
+            expected.MotionMagic.MotionMagicCruiseVelocity)
+        && near(
+            actual.MotionMagic.MotionMagicAcceleration,
+            expected.MotionMagic.MotionMagicAcceleration);
+  }
+
+  /** Reads a CANcoder's config back and checks its offset and direction were applied. */
+  public static boolean readBackMatches(CANcoder cancoder, CANcoderConfiguration expected) {
+    var actual = new CANcoderConfiguration();
+    if (!cancoder
+        .getConfigurator()
+        .refresh(actual, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+        .isOK()) {
+      return false;
+    }
+    return near(actual.MagnetSensor.MagnetOffset, expected.MagnetSensor.MagnetOffset)
+        && actual.MagnetSensor.SensorDirection == expected.MagnetSensor.SensorDirection;
+  }
+
+  /** Reads a Pigeon 2's config back and checks its mount pose was applied. */
+  public static boolean readBackMatches(Pigeon2 pigeon, Pigeon2Configuration expected) {
+    var actual = new Pigeon2Configuration();
+    if (!pigeon
+        .getConfigurator()
+        .refresh(actual, DeviceConfigConstants.APPLY_TIMEOUT_SECONDS)
+        .isOK()) {
+      return false;
+    }
+    return near(actual.MountPose.MountPoseYaw, expected.MountPose.MountPoseYaw)
+        && near(actual.MountPose.MountPosePitch, expected.MountPose.MountPosePitch)
+        && near(actual.MountPose.MountPoseRoll, expected.MountPose.MountPoseRoll);
+  }
+
+  /** Devices store some settings at lower precision than they're sent with. */
+  private static boolean near(double actual, double expected) {
+    return Math.abs(actual - expected)
+        <= DeviceConfigConstants.READBACK_TOLERANCE * Math.max(1.0, Math.abs(expected));
+  }
 }
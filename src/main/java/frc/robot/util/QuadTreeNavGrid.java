@@ -0,0 +1,697 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants.PathGenerationConstants;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Navigation grid stored as a region quadtree. Open field collapses into a few large leaves while
+ * the area around field elements keeps the resolution of the source grid, so planners search a few
+ * hundred leaves instead of every cell. Only free leaves take part in planning; leaves are adjacent
+ * when they share part of an edge.
+ *
+ * <p>The tree is serialized as a preorder stream of 2-bit node codes, which loads much faster than
+ * parsing the navgrid JSON. Run {@code ./gradlew convertNavGrid} to regenerate the deployed file
+ * after editing the navgrid. Instances are immutable, so they can be shared between planner
+ * threads.
+ */
+public class QuadTreeNavGrid {
+  private static final int MAGIC = 0x51544E47; // "QTNG"
+  private static final int VERSION = 1;
+
+  private static final int CODE_INTERNAL = 0;
+  private static final int CODE_FREE = 1;
+  private static final int CODE_BLOCKED = 2;
+
+  private final double fieldLengthMeters;
+  private final double fieldWidthMeters;
+  private final double cellSizeMeters;
+  private final int rows;
+  private final int cols;
+  private final long sourceChecksum;
+
+  // Preorder node codes, four per byte
+  private final byte[] encoded;
+  private final int nodeCount;
+
+  // Leaves, indexed in preorder. Positions and sizes are in source cells.
+  private final int[] leafRow;
+  private final int[] leafCol;
+  private final int[] leafSize;
+  private final boolean[] leafBlocked;
+  private final double[] leafCenterX;
+  private final double[] leafCenterY;
+
+  // Leaf containing each source cell, row-major
+  private final int[] cellLeaf;
+
+  // Free leaf adjacency in compressed sparse row form
+  private final int[] adjacencyStart;
+  private final int[] adjacency;
+
+  private QuadTreeNavGrid(
+      double fieldLengthMeters,
+      double fieldWidthMeters,
+      double cellSizeMeters,
+      int rows,
+      int cols,
+      long sourceChecksum,
+      byte[] encoded,
+      int nodeCount) {
+    this.fieldLengthMeters = fieldLengthMeters;
+    this.fieldWidthMeters = fieldWidthMeters;
+    this.cellSizeMeters = cellSizeMeters;
+    this.rows = rows;
+    this.cols = cols;
+    this.sourceChecksum = sourceChecksum;
+    this.encoded = encoded;
+    this.nodeCount = nodeCount;
+
+    // Decode the node stream into leaves
+    List<int[]> leaves = new ArrayList<>();
+    int[] cursor = {0};
+    decode(0, 0, rootSize(rows, cols), cursor, leaves);
+    if (cursor[0] != nodeCount) {
+      throw new IllegalArgumentException(
+          "Quadtree stream has " + nodeCount + " nodes but decoded " + cursor[0]);
+    }
+    int leafCount = leaves.size();
+    leafRow = new int[leafCount];
+    leafCol = new int[leafCount];
+    leafSize = new int[leafCount];
+    leafBlocked = new boolean[leafCount];
+    leafCenterX = new double[leafCount];
+    leafCenterY = new double[leafCount];
+    cellLeaf = new int[rows * cols];
+    for (int leaf = 0; leaf < leafCount; leaf++) {
+      int[] entry = leaves.get(leaf);
+      leafRow[leaf] = entry[0];
+      leafCol[leaf] = entry[1];
+      leafSize[leaf] = entry[2];
+      leafBlocked[leaf] = entry[3] == CODE_BLOCKED;
+      leafCenterX[leaf] = (entry[1] + entry[2] * 0.5) * cellSizeMeters;
+      leafCenterY[leaf] = (entry[0] + entry[2] * 0.5) * cellSizeMeters;
+      for (int row = entry[0]; row < Math.min(rows, entry[0] + entry[2]); row++) {
+        for (int col = entry[1]; col < Math.min(cols, entry[1] + entry[2]); col++) {
+          cellLeaf[row * cols + col] = leaf;
+        }
+      }
+    }
+
+    // Collect each pair of edge-adjacent free leaves once, then build the CSR arrays
+    long[] pairs = new long[2 * rows * cols];
+    int pairCount = 0;
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int leaf = cellLeaf[row * cols + col];
+        if (leafBlocked[leaf]) {
+          continue;
+        }
+        if (col + 1 < cols) {
+          int right = cellLeaf[row * cols + col + 1];
+          if (right != leaf && !leafBlocked[right]) {
+            pairs[pairCount++] = pairKey(leaf, right, leafCount);
+          }
+        }
+        if (row + 1 < rows) {
+          int up = cellLeaf[(row + 1) * cols + col];
+          if (up != leaf && !leafBlocked[up]) {
+            pairs[pairCount++] = pairKey(leaf, up, leafCount);
+          }
+        }
+      }
+    }
+    Arrays.sort(pairs, 0, pairCount);
+    int uniqueCount = 0;
+    for (int i = 0; i < pairCount; i++) {
+      if (i == 0 || pairs[i] != pairs[i - 1]) {
+        pairs[uniqueCount++] = pairs[i];
+      }
+    }
+    adjacencyStart = new int[leafCount + 1];
+    for (int i = 0; i < uniqueCount; i++) {
+      adjacencyStart[(int) (pairs[i] / leafCount) + 1]++;
+      adjacencyStart[(int) (pairs[i] % leafCount) + 1]++;
+    }
+    for (int leaf = 0; leaf < leafCount; leaf++) {
+      adjacencyStart[leaf + 1] += adjacencyStart[leaf];
+    }
+    adjacency = new int[2 * uniqueCount];
+    int[] fill = Arrays.copyOf(adjacencyStart, leafCount);
+    for (int i = 0; i < uniqueCount; i++) {
+      int a = (int) (pairs[i] / leafCount);
+      int b = (int) (pairs[i] % leafCount);
+      adjacency[fill[a]++] = b;
+      adjacency[fill[b]++] = a;
+    }
+  }
+
+  /** Returns the quadtree for the deployed navgrid, loading it on first use. */
+  public static QuadTreeNavGrid getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  private static class DefaultHolder {
+    private static final QuadTreeNavGrid INSTANCE = loadDefault();
+  }
+
+  /**
+   * Loads the deployed binary quadtree if it was built from the current navgrid, and otherwise
+   * builds it from the navgrid JSON. Checksumming the JSON is cheap; parsing it is what's slow.
+   */
+  private static QuadTreeNavGrid loadDefault() {
+    return load(
+        new File(Filesystem.getDeployDirectory(), PathGenerationConstants.NAVGRID_FILENAME),
+        new File(
+            Filesystem.getDeployDirectory(), PathGenerationConstants.QUADTREE_NAVGRID_FILENAME),
+        NavGrid::getDefault);
+  }
+
+  /**
+   * Loads a binary quadtree if it was built from the given navgrid file, and otherwise builds it
+   * from the navgrid.
+   *
+   * @param source The navgrid JSON the tree should have been built from.
+   * @param tree The binary quadtree file.
+   * @param navGrid Supplies the parsed navgrid, only called if the tree is missing or stale.
+   * @return The quadtree.
+   */
+  static QuadTreeNavGrid load(File source, File tree, Supplier<NavGrid> navGrid) {
+    long checksum = checksum(source);
+    if (tree.isFile()) {
+      try {
+        QuadTreeNavGrid grid = read(tree);
+        if (grid.getSourceChecksum() == checksum) {
+          return grid;
+        }
+        DriverStation.reportWarning(
+            "Quadtree navgrid is out of date, rebuilding it from the navgrid JSON", false);
+      } catch (IOException e) {
+        DriverStation.reportWarning("Failed to load quadtree navgrid: " + e.getMessage(), false);
+      }
+    }
+    return fromNavGrid(navGrid.get(), checksum);
+  }
+
+  /**
+   * Builds a quadtree from a uniform grid. The source can be any resolution, so a finer navgrid
+   * than PathPlanner's default only costs detail where there are obstacles.
+   *
+   * @param source The uniform grid.
+   * @param sourceChecksum Checksum of the file the grid was loaded from, or 0 if unknown.
+   * @return The quadtree.
+   */
+  public static QuadTreeNavGrid fromNavGrid(NavGrid source, long sourceChecksum) {
+    int rows = source.getRows();
+    int cols = source.getCols();
+    boolean[] blocked = new boolean[rows * cols];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        blocked[row * cols + col] = source.isObstacle(row, col);
+      }
+    }
+    return fromCells(
+        source.getFieldLengthMeters(),
+        source.getFieldWidthMeters(),
+        source.getNodeSizeMeters(),
+        rows,
+        cols,
+        blocked,
+        sourceChecksum);
+  }
+
+  private static QuadTreeNavGrid fromCells(
+      double fieldLengthMeters,
+      double fieldWidthMeters,
+      double cellSizeMeters,
+      int rows,
+      int cols,
+      boolean[] blocked,
+      long sourceChecksum) {
+    // Summed-area table over the padded square, with everything off the field blocked, so
+    // each node's blocked count is four lookups
+    int size = rootSize(rows, cols);
+    int[] blockedSums = new int[(size + 1) * (size + 1)];
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        boolean cellBlocked = row >= rows || col >= cols || blocked[row * cols + col];
+        blockedSums[(row + 1) * (size + 1) + col + 1] =
+            (cellBlocked ? 1 : 0)
+                + blockedSums[row * (size + 1) + col + 1]
+                + blockedSums[(row + 1) * (size + 1) + col]
+                - blockedSums[row * (size + 1) + col];
+      }
+    }
+    NodeWriter writer = new NodeWriter();
+    encode(0, 0, size, size + 1, blockedSums, writer);
+    return new QuadTreeNavGrid(
+        fieldLengthMeters,
+        fieldWidthMeters,
+        cellSizeMeters,
+        rows,
+        cols,
+        sourceChecksum,
+        writer.toByteArray(),
+        writer.count);
+  }
+
+  private static void encode(
+      int row, int col, int size, int stride, int[] blockedSums, NodeWriter writer) {
+    int blockedCount =
+        blockedSums[(row + size) * stride + col + size]
+            - blockedSums[row * stride + col + size]
+            - blockedSums[(row + size) * stride + col]
+            + blockedSums[row * stride + col];
+    if (blockedCount == 0) {
+      writer.write(CODE_FREE);
+    } else if (blockedCount == size * size) {
+      writer.write(CODE_BLOCKED);
+    } else {
+      writer.write(CODE_INTERNAL);
+      int half = size / 2;
+      encode(row, col, half, stride, blockedSums, writer);
+      encode(row, col + half, half, stride, blockedSums, writer);
+      encode(row + half, col, half, stride, blockedSums, writer);
+      encode(row + half, col + half, half, stride, blockedSums, writer);
+    }
+  }
+
+  private void decode(int row, int col, int size, int[] cursor, List<int[]> leaves) {
+    if (cursor[0] >= nodeCount) {
+      throw new IllegalArgumentException("Quadtree stream ended early");
+    }
+    int index = cursor[0]++;
+    int code = (encoded[index >> 2] >> ((index & 3) * 2)) & 3;
+    if (code == CODE_INTERNAL) {
+      if (size == 1) {
+        throw new IllegalArgumentException("Quadtree splits below the cell size");
+      }
+      int half = size / 2;
+      decode(row, col, half, cursor, leaves);
+      decode(row, col + half, half, cursor, leaves);
+      decode(row + half, col, half, cursor, leaves);
+      decode(row + half, col + half, half, cursor, leaves);
+    } else if (row < rows && col < cols) {
+      // Leaves entirely off the field carry no information, so don't keep them
+      leaves.add(new int[] {row, col, size, code});
+    }
+  }
+
+  /**
+   * Returns a copy of this grid with extra rectangular obstacles, e.g. robots seen by vision.
+   *
+   * @param obstacles Pairs of opposite corners of each obstacle's bounding box.
+   * @return The new grid.
+   */
+  public QuadTreeNavGrid withObstacles(List<Pair<Translation2d, Translation2d>> obstacles) {
+    boolean[] blocked = new boolean[rows * cols];
+    for (int i = 0; i < blocked.length; i++) {
+      blocked[i] = leafBlocked[cellLeaf[i]];
+    }
+    for (var obstacle : obstacles) {
+      Translation2d a = obstacle.getFirst();
+      Translation2d b = obstacle.getSecond();
+      int minRow = Math.max(0, rowOf(Math.min(a.getY(), b.getY())));
+      int maxRow = Math.min(rows - 1, rowOf(Math.max(a.getY(), b.getY())));
+      int minCol = Math.max(0, colOf(Math.min(a.getX(), b.getX())));
+      int maxCol = Math.min(cols - 1, colOf(Math.max(a.getX(), b.getX())));
+      for (int row = minRow; row <= maxRow; row++) {
+        for (int col = minCol; col <= maxCol; col++) {
+          blocked[row * cols + col] = true;
+        }
+      }
+    }
+    return fromCells(
+        fieldLengthMeters, fieldWidthMeters, cellSizeMeters, rows, cols, blocked, sourceChecksum);
+  }
+
+  /**
+   * Reads a quadtree written by {@link #write(File)}.
+   *
+   * @param file The binary quadtree file.
+   * @return The quadtree.
+   * @throws IOException If the file can't be read or isn't a quadtree of this version.
+   */
+  public static QuadTreeNavGrid read(File file) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file.getName() + " is not a quadtree navgrid");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported quadtree navgrid version " + version);
+      }
+      long sourceChecksum = in.readLong();
+      double fieldLengthMeters = in.readDouble();
+      double fieldWidthMeters = in.readDouble();
+      double cellSizeMeters = in.readDouble();
+      int rows = in.readInt();
+      int cols = in.readInt();
+      int nodeCount = in.readInt();
+      byte[] encoded = new byte[(nodeCount + 3) / 4];
+      in.readFully(encoded);
+      try {
+        return new QuadTreeNavGrid(
+            fieldLengthMeters,
+            fieldWidthMeters,
+            cellSizeMeters,
+            rows,
+            cols,
+            sourceChecksum,
+            encoded,
+            nodeCount);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Corrupt quadtree navgrid: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Writes the quadtree in its binary form, creating parent directories as needed.
+   *
+   * @param file The file to write.
+   * @throws IOException If the file can't be written.
+   */
+  public void write(File file) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(sourceChecksum);
+      out.writeDouble(fieldLengthMeters);
+      out.writeDouble(fieldWidthMeters);
+      out.writeDouble(cellSizeMeters);
+      out.writeInt(rows);
+      out.writeInt(cols);
+      out.writeInt(nodeCount);
+      out.write(encoded);
+    }
+  }
+
+  /** Returns the CRC32 of a file's bytes, or 0 if it can't be read. */
+  public static long checksum(File file) {
+    try {
+      CRC32 crc = new CRC32();
+      crc.update(Files.readAllBytes(file.toPath()));
+      return crc.getValue();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  public double getFieldLengthMeters() {
+    return fieldLengthMeters;
+  }
+
+  public double getFieldWidthMeters() {
+    return fieldWidthMeters;
+  }
+
+  public double getCellSizeMeters() {
+    return cellSizeMeters;
+  }
+
+  /** Returns the checksum of the navgrid file this tree was built from, or 0 if unknown. */
+  public long getSourceChecksum() {
+    return sourceChecksum;
+  }
+
+  public int getLeafCount() {
+    return leafRow.length;
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /** Returns a hash of the tree dimensions and contents, for keying caches derived from it. */
+  public int contentHash() {
+    return Objects.hash(fieldLengthMeters, fieldWidthMeters, cellSizeMeters, rows, cols)
+        ^ Arrays.hashCode(encoded);
+  }
+
+  public boolean isLeafBlocked(int leaf) {
+    return leafBlocked[leaf];
+  }
+
+  /** Returns the field X coordinate of a leaf's center. */
+  public double getLeafCenterX(int leaf) {
+    return leafCenterX[leaf];
+  }
+
+  /** Returns the field Y coordinate of a leaf's center. */
+  public double getLeafCenterY(int leaf) {
+    return leafCenterY[leaf];
+  }
+
+  /** Returns the first index into the adjacency list for a leaf, see {@link #getNeighbor(int)}. */
+  public int getNeighborsStart(int leaf) {
+    return adjacencyStart[leaf];
+  }
+
+  /** Returns one past the last index into the adjacency list for a leaf. */
+  public int getNeighborsEnd(int leaf) {
+    return adjacencyStart[leaf + 1];
+  }
+
+  /** Returns the free leaf at an index in the adjacency list. */
+  public int getNeighbor(int index) {
+    return adjacency[index];
+  }
+
+  /** Returns the leaf containing a field position, or -1 if the position is off the grid. */
+  public int leafAt(double xMeters, double yMeters) {
+    int row = rowOf(yMeters);
+    int col = colOf(xMeters);
+    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+      return -1;
+    }
+    return cellLeaf[row * cols + col];
+  }
+
+  /** Returns true if the field position falls outside the grid or in a blocked leaf. */
+  public boolean isObstacle(Translation2d position) {
+    int leaf = leafAt(position.getX(), position.getY());
+    return leaf < 0 || leafBlocked[leaf];
+  }
+
+  /**
+   * Finds the free source cell closest to a field position using a ring search.
+   *
+   * @return The center of the free cell, or null if the grid has no free cells.
+   */
+  public Translation2d nearestFreeCellCenter(Translation2d position) {
+    int row = Math.max(0, Math.min(rows - 1, rowOf(position.getY())));
+    int col = Math.max(0, Math.min(cols - 1, colOf(position.getX())));
+    int maxRadius = Math.max(rows, cols);
+    for (int radius = 0; radius <= maxRadius; radius++) {
+      for (int dRow = -radius; dRow <= radius; dRow++) {
+        for (int dCol = -radius; dCol <= radius; dCol++) {
+          if (Math.max(Math.abs(dRow), Math.abs(dCol)) != radius) {
+            continue;
+          }
+          int r = row + dRow;
+          int c = col + dCol;
+          if (r >= 0 && r < rows && c >= 0 && c < cols && !leafBlocked[cellLeaf[r * cols + c]]) {
+            return new Translation2d((c + 0.5) * cellSizeMeters, (r + 0.5) * cellSizeMeters);
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns true if a straight segment between two field positions stays in free leaves. The
+   * segment is walked leaf by leaf, so crossing open field costs a handful of steps regardless of
+   * the source resolution.
+   */
+  public boolean hasLineOfSight(Translation2d from, Translation2d to) {
+    return hasLineOfSight(from.getX(), from.getY(), to.getX(), to.getY());
+  }
+
+  /** Same as {@link #hasLineOfSight(Translation2d, Translation2d)} without allocating. */
+  public boolean hasLineOfSight(double x, double y, double toX, double toY) {
+    double dx = toX - x;
+    double dy = toY - y;
+    double length = Math.hypot(dx, dy);
+    // Step just past each leaf boundary so the next lookup lands in the neighbor
+    double nudge = length > 0 ? cellSizeMeters * 1e-6 / length : 1.0;
+    double t = 0.0;
+    while (true) {
+      int leaf = leafAt(x + dx * t, y + dy * t);
+      if (leaf < 0 || leafBlocked[leaf]) {
+        return false;
+      }
+      double minX = leafCol[leaf] * cellSizeMeters;
+      double minY = leafRow[leaf] * cellSizeMeters;
+      double maxX = minX + leafSize[leaf] * cellSizeMeters;
+      double maxY = minY + leafSize[leaf] * cellSizeMeters;
+      double exitX =
+          dx > 0 ? (maxX - x) / dx : dx < 0 ? (minX - x) / dx : Double.POSITIVE_INFINITY;
+      double exitY =
+          dy > 0 ? (maxY - y) / dy : dy < 0 ? (minY - y) / dy : Double.POSITIVE_INFINITY;
+      double exit = Math.min(exitX, exitY);
+      if (exit >= 1.0) {
+        return true;
+      }
+      if (Math.abs(exitX - exitY) < nudge) {
+        // Leaving through a corner, so don't squeeze diagonally between two blocked cells
+        double cornerX = x + dx * exit;
+        double cornerY = y + dy * exit;
+        double stepX = Math.copySign(cellSizeMeters * 1e-6, dx);
+        double stepY = Math.copySign(cellSizeMeters * 1e-6, dy);
+        int side1 = leafAt(cornerX + stepX, cornerY - stepY);
+        int side2 = leafAt(cornerX - stepX, cornerY + stepY);
+        if (side1 < 0 || leafBlocked[side1] || side2 < 0 || leafBlocked[side2]) {
+          return false;
+        }
+      }
+      t = Math.max(exit, t) + nudge;
+    }
+  }
+
+  private int rowOf(double yMeters) {
+    return (int) Math.floor(yMeters / cellSizeMeters);
+  }
+
+  private int colOf(double xMeters) {
+    return (int) Math.floor(xMeters / cellSizeMeters);
+  }
+
+  /** Side length of the smallest power-of-two square that covers the grid, in cells. */
+  private static int rootSize(int rows, int cols) {
+    int size = 1;
+    while (size < Math.max(rows, cols)) {
+      size *= 2;
+    }
+    return size;
+  }
+
+  private static long pairKey(int a, int b, int leafCount) {
+    return (long) Math.min(a, b) * leafCount + Math.max(a, b);
+  }
+
+  /** Packs node codes four to a byte. */
+  private static class NodeWriter {
+    private byte[] bytes = new byte[64];
+    private int count = 0;
+
+    void write(int code) {
+      if (count / 4 == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      bytes[count / 4] |= (byte) (code << ((count % 4) * 2));
+      count++;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, (count + 3) / 4);
+    }
+  }
+
+  /**
+   * Converts a navgrid JSON file to the binary quadtree and compares it against the uniform grid
+   * planner. Usage: {@code QuadTreeNavGrid <navgrid.json> <output.qtree> [benchmark pairs]}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: QuadTreeNavGrid <navgrid.json> <output.qtree> [benchmark pairs]");
+      System.exit(1);
+    }
+    File source = new File(args[0]);
+    File output = new File(args[1]);
+    int pairs = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+    long jsonStart = System.nanoTime();
+    NavGrid navGrid = NavGrid.fromFile(source);
+    double jsonMs = (System.nanoTime() - jsonStart) / 1e6;
+    QuadTreeNavGrid tree = fromNavGrid(navGrid, checksum(source));
+    tree.write(output);
+    long binaryStart = System.nanoTime();
+    tree = read(output);
+    double binaryMs = (System.nanoTime() - binaryStart) / 1e6;
+
+    System.out.printf(
+        "Wrote %s: %d cells -> %d leaves (%d nodes), %d bytes vs %d bytes of JSON%n",
+        output,
+        navGrid.getRows() * navGrid.getCols(),
+        tree.getLeafCount(),
+        tree.getNodeCount(),
+        output.length(),
+        source.length());
+    System.out.printf("First load: JSON %.2f ms, binary %.2f ms%n", jsonMs, binaryMs);
+
+    // Plan the same random free pairs with both planners
+    GridPathPlanner gridPlanner = new GridPathPlanner(navGrid);
+    QuadTreePathPlanner treePlanner = new QuadTreePathPlanner(tree);
+    Random random = new Random(0);
+    List<Translation2d[]> endpoints = new ArrayList<>();
+    while (endpoints.size() < pairs) {
+      Translation2d a = randomFree(tree, random);
+      Translation2d b = randomFree(tree, random);
+      endpoints.add(new Translation2d[] {a, b});
+    }
+    for (int warmup = 0; warmup < 5; warmup++) {
+      for (Translation2d[] pair : endpoints) {
+        gridPlanner.plan(pair[0], pair[1]);
+        treePlanner.plan(pair[0], pair[1]);
+      }
+    }
+    double[] gridResult = benchmark(gridPlanner, endpoints);
+    double[] treeResult = benchmark(treePlanner, endpoints);
+    System.out.printf(
+        "Uniform A*:    %.3f ms/plan, %.2f m average path%n", gridResult[0], gridResult[1]);
+    System.out.printf(
+        "Quadtree:      %.3f ms/plan, %.2f m average path%n", treeResult[0], treeResult[1]);
+  }
+
+  private static Translation2d randomFree(QuadTreeNavGrid tree, Random random) {
+    while (true) {
+      Translation2d point =
+          new Translation2d(
+              random.nextDouble() * tree.getFieldLengthMeters(),
+              random.nextDouble() * tree.getFieldWidthMeters());
+      if (!tree.isObstacle(point)) {
+        return point;
+      }
+    }
+  }
+
+  /** Returns the mean plan time in milliseconds and the mean path length in meters. */
+  private static double[] benchmark(FieldPathPlanner planner, List<Translation2d[]> endpoints) {
+    double totalLength = 0.0;
+    long start = System.nanoTime();
+    for (Translation2d[] pair : endpoints) {
+      List<Translation2d> path = planner.plan(pair[0], pair[1]).orElse(List.of());
+      for (int i = 1; i < path.size(); i++) {
+        totalLength += path.get(i - 1).getDistance(path.get(i));
+      }
+    }
+    double elapsedMs = (System.nanoTime() - start) / 1e6;
+    return new double[] {elapsedMs / endpoints.size(), totalLength / endpoints.size()};
+  }
+}
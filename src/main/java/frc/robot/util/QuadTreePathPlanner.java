@@ -0,0 +1,201 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Synchronous Theta* planner over a {@link QuadTreeNavGrid}. Searching leaves rather than cells
+ * keeps the open field cheap, and checking line of sight to the parent while searching gives
+ * any-angle paths without a separate smoothing search. Holds no state between calls, so any number
+ * of plans can run at once on different threads.
+ */
+public class QuadTreePathPlanner implements FieldPathPlanner {
+  private static final int TIGHTEN_ITERATIONS = 8;
+
+  private final QuadTreeNavGrid grid;
+
+  public QuadTreePathPlanner(QuadTreeNavGrid grid) {
+    this.grid = grid;
+  }
+
+  public QuadTreeNavGrid getGrid() {
+    return grid;
+  }
+
+  @Override
+  public int contentHash() {
+    return grid.contentHash();
+  }
+
+  /**
+   * Plans a path between two field positions. Endpoints inside obstacles are moved to the nearest
+   * free cell.
+   *
+   * @param start The start position on the field.
+   * @param goal The goal position on the field.
+   * @return The waypoints from start to goal, or empty if the goal cannot be reached.
+   */
+  @Override
+  public Optional<List<Translation2d>> plan(Translation2d start, Translation2d goal) {
+    Translation2d startPosition =
+        grid.isObstacle(start) ? grid.nearestFreeCellCenter(start) : start;
+    Translation2d goalPosition = grid.isObstacle(goal) ? grid.nearestFreeCellCenter(goal) : goal;
+    if (startPosition == null || goalPosition == null) {
+      return Optional.empty();
+    }
+    int startLeaf = grid.leafAt(startPosition.getX(), startPosition.getY());
+    int goalLeaf = grid.leafAt(goalPosition.getX(), goalPosition.getY());
+
+    // Leaves are convex, so the endpoints can always reach their own leaf's center
+    List<Translation2d> points = new ArrayList<>();
+    if (startLeaf == goalLeaf) {
+      points.add(startPosition);
+      points.add(goalPosition);
+      return Optional.of(points);
+    }
+
+    int leafCount = grid.getLeafCount();
+    double[] gScore = new double[leafCount];
+    int[] parent = new int[leafCount];
+    boolean[] closed = new boolean[leafCount];
+    Arrays.fill(gScore, Double.POSITIVE_INFINITY);
+    Arrays.fill(parent, -1);
+
+    double goalX = grid.getLeafCenterX(goalLeaf);
+    double goalY = grid.getLeafCenterY(goalLeaf);
+    IndexMinHeap open = new IndexMinHeap(64);
+    gScore[startLeaf] = 0.0;
+    parent[startLeaf] = startLeaf;
+    open.push(startLeaf, distance(startLeaf, goalX, goalY));
+
+    boolean found = false;
+    while (!open.isEmpty()) {
+      int current = open.pop();
+      if (closed[current]) {
+        continue;
+      }
+      if (current == goalLeaf) {
+        found = true;
+        break;
+      }
+      closed[current] = true;
+
+      int currentParent = parent[current];
+      for (int i = grid.getNeighborsStart(current); i < grid.getNeighborsEnd(current); i++) {
+        int neighbor = grid.getNeighbor(i);
+        if (closed[neighbor]) {
+          continue;
+        }
+        // Path 2: connect straight to the grandparent when it's visible
+        int via = current;
+        if (currentParent != current && hasLineOfSight(currentParent, neighbor)) {
+          via = currentParent;
+        }
+        double tentative = gScore[via] + distance(via, neighbor);
+        if (tentative < gScore[neighbor]) {
+          gScore[neighbor] = tentative;
+          parent[neighbor] = via;
+          open.push(neighbor, tentative + distance(neighbor, goalX, goalY));
+        }
+      }
+    }
+
+    if (!found) {
+      return Optional.empty();
+    }
+
+    // Walk back through the leaf centers, then attach the real endpoints
+    points.add(goalPosition);
+    for (int leaf = goalLeaf; ; leaf = parent[leaf]) {
+      points.add(new Translation2d(grid.getLeafCenterX(leaf), grid.getLeafCenterY(leaf)));
+      if (leaf == startLeaf) {
+        break;
+      }
+    }
+    points.add(startPosition);
+    Collections.reverse(points);
+
+    return Optional.of(tighten(smooth(points)));
+  }
+
+  /** Removes intermediate waypoints that can be skipped without entering an obstacle. */
+  private List<Translation2d> smooth(List<Translation2d> points) {
+    List<Translation2d> smoothed = new ArrayList<>();
+    smoothed.add(points.get(0));
+    int anchor = 0;
+    for (int i = 2; i < points.size(); i++) {
+      if (!grid.hasLineOfSight(points.get(anchor), points.get(i))) {
+        anchor = i - 1;
+        smoothed.add(points.get(anchor));
+      }
+    }
+    smoothed.add(points.get(points.size() - 1));
+    return smoothed;
+  }
+
+  /**
+   * Pulls each bend toward the straight line between its neighbors for as long as both legs stay
+   * clear. Bends sit at leaf centers, which can be half a leaf away from the obstacle corner the
+   * path actually wraps around, so this recovers the length a uniform grid would have.
+   */
+  private List<Translation2d> tighten(List<Translation2d> points) {
+    for (int i = 1; i < points.size() - 1; i++) {
+      Translation2d before = points.get(i - 1);
+      Translation2d bend = points.get(i);
+      Translation2d after = points.get(i + 1);
+
+      // Closest point to the bend on the segment between its neighbors
+      double segmentX = after.getX() - before.getX();
+      double segmentY = after.getY() - before.getY();
+      double offsetX = bend.getX() - before.getX();
+      double offsetY = bend.getY() - before.getY();
+      double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+      double projection =
+          lengthSquared > 0 ? (offsetX * segmentX + offsetY * segmentY) / lengthSquared : 0.0;
+      projection = Math.max(0.0, Math.min(1.0, projection));
+      double targetX = before.getX() + segmentX * projection;
+      double targetY = before.getY() + segmentY * projection;
+
+      // Bisect for the furthest clear fraction of the way to the target
+      double clear = 0.0;
+      double blocked = 1.0;
+      for (int iteration = 0; iteration < TIGHTEN_ITERATIONS; iteration++) {
+        double fraction = (clear + blocked) / 2.0;
+        double x = bend.getX() + (targetX - bend.getX()) * fraction;
+        double y = bend.getY() + (targetY - bend.getY()) * fraction;
+        if (grid.hasLineOfSight(before.getX(), before.getY(), x, y)
+            && grid.hasLineOfSight(x, y, after.getX(), after.getY())) {
+          clear = fraction;
+        } else {
+          blocked = fraction;
+        }
+      }
+      points.set(
+          i,
+          new Translation2d(
+              bend.getX() + (targetX - bend.getX()) * clear,
+              bend.getY() + (targetY - bend.getY()) * clear));
+    }
+    return points;
+  }
+
+  private boolean hasLineOfSight(int fromLeaf, int toLeaf) {
+    return grid.hasLineOfSight(
+        grid.getLeafCenterX(fromLeaf),
+        grid.getLeafCenterY(fromLeaf),
+        grid.getLeafCenterX(toLeaf),
+        grid.getLeafCenterY(toLeaf));
+  }
+
+  private double distance(int fromLeaf, int toLeaf) {
+    return distance(fromLeaf, grid.getLeafCenterX(toLeaf), grid.getLeafCenterY(toLeaf));
+  }
+
+  private double distance(int leaf, double x, double y) {
+    return Math.hypot(grid.getLeafCenterX(leaf) - x, grid.getLeafCenterY(leaf) - y);
+  }
+}
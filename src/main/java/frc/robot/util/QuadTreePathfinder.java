@@ -0,0 +1,238 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.Waypoint;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.ThreadConstants;
+import frc.robot.util.ThreadManager.ManagedThread;
+import frc.robot.util.ThreadManager.ThreadSettings;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PathPlanner {@link Pathfinder} backed by {@link QuadTreePathPlanner}. Like LocalADStar it plans
+ * on a background thread, so on-the-fly pathfinding commands never wait on the search. Wrap it in
+ * {@link LocalADStarAK} to keep its output in the log for replay.
+ */
+public class QuadTreePathfinder implements Pathfinder {
+  // Corners are first cut from the midpoints of the segments either side, then by half as much
+  // each time the curve would leave free space
+  private static final double MAX_CORNER_CUT_FRACTION = 0.5;
+  private static final int CORNER_CUT_ATTEMPTS = 4;
+  private static final int CORNER_CHECK_SAMPLES = 8;
+
+  private final QuadTreeNavGrid staticGrid;
+  private final Object lock = new Object();
+
+  // Guarded by lock
+  private Translation2d startPosition = new Translation2d();
+  private Translation2d goalPosition = new Translation2d();
+  private List<Pair<Translation2d, Translation2d>> dynamicObstacles = List.of();
+  private boolean obstaclesChanged = false;
+  private boolean replanRequested = false;
+  private boolean newPathAvailable = false;
+  private List<Waypoint> currentWaypoints = List.of();
+
+  public QuadTreePathfinder() {
+    this(QuadTreeNavGrid.getDefault());
+  }
+
+  public QuadTreePathfinder(QuadTreeNavGrid grid) {
+    this.staticGrid = grid;
+
+    Thread thread = new Thread(this::runThread, "QuadTreePathfinder");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public boolean isNewPathAvailable() {
+    synchronized (lock) {
+      return newPathAvailable;
+    }
+  }
+
+  @Override
+  public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
+    List<Waypoint> waypoints;
+    synchronized (lock) {
+      newPathAvailable = false;
+      waypoints = currentWaypoints;
+    }
+    if (waypoints.isEmpty()) {
+      return null;
+    }
+    return new PathPlannerPath(waypoints, constraints, null, goalEndState);
+  }
+
+  @Override
+  public void setStartPosition(Translation2d startPosition) {
+    synchronized (lock) {
+      // Like LocalADStar, only replan once the start has moved by at least a cell
+      if (startPosition.getDistance(this.startPosition) < staticGrid.getCellSizeMeters()
+          && !currentWaypoints.isEmpty()) {
+        return;
+      }
+      this.startPosition = startPosition;
+      replanRequested = true;
+      lock.notifyAll();
+    }
+  }
+
+  @Override
+  public void setGoalPosition(Translation2d goalPosition) {
+    synchronized (lock) {
+      this.goalPosition = goalPosition;
+      replanRequested = true;
+      lock.notifyAll();
+    }
+  }
+
+  @Override
+  public void setDynamicObstacles(
+      List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
+    synchronized (lock) {
+      dynamicObstacles = List.copyOf(obs);
+      obstaclesChanged = true;
+      startPosition = currentRobotPos;
+      replanRequested = true;
+      lock.notifyAll();
+    }
+  }
+
+  private void runThread() {
+    ManagedThread managedThread =
+        ThreadManager.register(
+            "QuadTreePathfinder", ThreadSettings.normal(ThreadConstants.PATHFINDING_CPU));
+    QuadTreePathPlanner planner = new QuadTreePathPlanner(staticGrid);
+    while (true) {
+      Translation2d start;
+      Translation2d goal;
+      List<Pair<Translation2d, Translation2d>> obstacles = null;
+      synchronized (lock) {
+        while (!replanRequested) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        replanRequested = false;
+        start = startPosition;
+        goal = goalPosition;
+        if (obstaclesChanged) {
+          obstaclesChanged = false;
+          obstacles = dynamicObstacles;
+        }
+      }
+      // Replans are requested whenever, so there's no time they're due
+      managedThread.startWork(Double.NaN);
+
+      if (obstacles != null) {
+        planner =
+            new QuadTreePathPlanner(
+                obstacles.isEmpty() ? staticGrid : staticGrid.withObstacles(obstacles));
+      }
+      List<Waypoint> waypoints =
+          createWaypoints(planner.plan(start, goal).orElse(List.of()), planner.getGrid());
+
+      synchronized (lock) {
+        currentWaypoints = waypoints;
+        newPathAvailable = true;
+      }
+      managedThread.finishWork();
+    }
+  }
+
+  /**
+   * Smooths the planned corners into bezier waypoints. Like LocalADStar, the path stays on its
+   * straight segments and each corner is rounded between an anchor on the segment before it and one
+   * on the segment after, here starting from the segment midpoints. Each corner's curve is a
+   * quadratic with the corner as its control point, so it stays in the triangle it cuts off, and
+   * the cut is made smaller until that curve is clear on the grid.
+   *
+   * @param points The planned path, start and goal included.
+   * @param grid The grid the path was planned on.
+   * @return The waypoints, or an empty list if there's no path.
+   */
+  static List<Waypoint> createWaypoints(List<Translation2d> points, QuadTreeNavGrid grid) {
+    if (points.size() < 2) {
+      return List.of();
+    }
+
+    // Cubic bezier points: anchor, control, control, anchor, ...
+    List<Translation2d> bezier = new ArrayList<>();
+    bezier.add(points.get(0));
+    for (int i = 1; i < points.size() - 1; i++) {
+      Translation2d previous = points.get(i - 1);
+      Translation2d corner = points.get(i);
+      Translation2d next = points.get(i + 1);
+
+      Translation2d entry = corner;
+      Translation2d exit = corner;
+      double fraction = MAX_CORNER_CUT_FRACTION;
+      for (int attempt = 0; attempt < CORNER_CUT_ATTEMPTS; attempt++) {
+        entry = corner.interpolate(previous, fraction);
+        exit = corner.interpolate(next, fraction);
+        if (isCurveClear(entry, corner, exit, grid)) {
+          break;
+        }
+        fraction /= 2.0;
+      }
+
+      addStraight(bezier, entry);
+      // The quadratic through the corner, written as a cubic
+      bezier.add(entry.interpolate(corner, 2.0 / 3.0));
+      bezier.add(exit.interpolate(corner, 2.0 / 3.0));
+      bezier.add(exit);
+    }
+    addStraight(bezier, points.get(points.size() - 1));
+    if (bezier.size() < 4) {
+      return List.of();
+    }
+
+    List<Waypoint> waypoints = new ArrayList<>();
+    for (int i = 0; i < bezier.size(); i += 3) {
+      waypoints.add(
+          new Waypoint(
+              i > 0 ? bezier.get(i - 1) : null,
+              bezier.get(i),
+              i + 1 < bezier.size() ? bezier.get(i + 1) : null));
+    }
+    return waypoints;
+  }
+
+  /** Continues the bezier in a straight line to a point, unless it's already there. */
+  private static void addStraight(List<Translation2d> bezier, Translation2d to) {
+    Translation2d from = bezier.get(bezier.size() - 1);
+    if (from.getDistance(to) < 1e-6) {
+      return;
+    }
+    bezier.add(from.interpolate(to, 1.0 / 3.0));
+    bezier.add(from.interpolate(to, 2.0 / 3.0));
+    bezier.add(to);
+  }
+
+  /** @return Whether the quadratic from entry to exit around the corner stays in free leaves. */
+  private static boolean isCurveClear(
+      Translation2d entry, Translation2d corner, Translation2d exit, QuadTreeNavGrid grid) {
+    Translation2d last = entry;
+    for (int i = 1; i <= CORNER_CHECK_SAMPLES; i++) {
+      double t = (double) i / CORNER_CHECK_SAMPLES;
+      Translation2d point =
+          entry
+              .times((1 - t) * (1 - t))
+              .plus(corner.times(2 * t * (1 - t)))
+              .plus(exit.times(t * t));
+      if (!grid.hasLineOfSight(last, point)) {
+        return false;
+      }
+      last = point;
+    }
+    return true;
+  }
+}
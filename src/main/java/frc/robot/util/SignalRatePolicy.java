@@ -0,0 +1,117 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants.CanConstants;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Changes the rate of non-critical status signals with what the robot is doing, so CAN bandwidth
+ * goes where it buys accuracy. Signals are put in groups named after the subsystem using them, and
+ * each group is sent at one of three rates:
+ *
+ * <ul>
+ *   <li>Idle while disabled, or in teleop while its subsystem isn't in use
+ *   <li>Active in auto, or while its subsystem is in use
+ *   <li>Boosted while a characterization routine that needs them runs
+ * </ul>
+ *
+ * <p>Signals that feed control or odometry every loop, e.g. positions, should stay at a fixed rate
+ * through {@link CanSignalRegistry} instead. Subsystems report whether they're in use with {@link
+ * #setActive} from their periodic, and {@link #periodic} applies rate changes after the scheduler
+ * has run.
+ */
+public class SignalRatePolicy {
+  public enum Rate {
+    IDLE(CanConstants.SIGNAL_IDLE_HZ),
+    ACTIVE(CanConstants.SIGNAL_ACTIVE_HZ),
+    BOOSTED(CanConstants.SIGNAL_BOOSTED_HZ);
+
+    public final double frequencyHz;
+
+    Rate(double frequencyHz) {
+      this.frequencyHz = frequencyHz;
+    }
+  }
+
+  private static class Group {
+    final List<Member> members = new ArrayList<>();
+    boolean active = false;
+    boolean boosted = false;
+    Rate rate = Rate.IDLE;
+  }
+
+  private static record Member(CANBus bus, String owner, BaseStatusSignal[] signals) {}
+
+  private static final Map<String, Group> groups = new LinkedHashMap<>();
+
+  private SignalRatePolicy() {}
+
+  /**
+   * Adds signals to a group and sets them to the group's current rate. Should be called from IO
+   * constructors.
+   *
+   * @param bus The bus the device is on.
+   * @param group The group, named after the subsystem using the signals, e.g. "Indexer".
+   * @param owner A name for the device, unique on the robot, as given to {@link CanSignalRegistry}.
+   * @param signals The device's signals.
+   */
+  public static synchronized void register(
+      CANBus bus, String group, String owner, BaseStatusSignal... signals) {
+    Group signalGroup = groups.computeIfAbsent(group, name -> new Group());
+    signalGroup.members.add(new Member(bus, owner, signals));
+    CanSignalRegistry.register(bus, owner, signalGroup.rate.frequencyHz, signals);
+  }
+
+  /** Sets whether the subsystem using a group's signals is in use. */
+  public static synchronized void setActive(String group, boolean active) {
+    groups.computeIfAbsent(group, name -> new Group()).active = active;
+  }
+
+  /** Sets whether a group's signals are boosted, e.g. for SysId. */
+  public static synchronized void setBoosted(String group, boolean boosted) {
+    groups.computeIfAbsent(group, name -> new Group()).boosted = boosted;
+  }
+
+  /** @return The command, with a group's signals boosted while it runs. */
+  public static Command boostWhile(String group, Command command) {
+    return command
+        .beforeStarting(() -> setBoosted(group, true))
+        .finallyDo(() -> setBoosted(group, false));
+  }
+
+  /** Applies rate changes from the mode and subsystem activity. Call once a loop. */
+  public static synchronized void periodic() {
+    boolean enabled = DriverStation.isEnabled();
+    boolean autonomous = DriverStation.isAutonomous();
+    for (Map.Entry<String, Group> entry : groups.entrySet()) {
+      Group group = entry.getValue();
+      Rate rate;
+      if (!enabled) {
+        rate = Rate.IDLE;
+      } else if (group.boosted) {
+        rate = Rate.BOOSTED;
+      } else if (autonomous || group.active) {
+        rate = Rate.ACTIVE;
+      } else {
+        rate = Rate.IDLE;
+      }
+
+      if (rate != group.rate) {
+        group.rate = rate;
+        // Don't hold up the loop waiting for devices to acknowledge
+        for (Member member : group.members) {
+          CanSignalRegistry.register(
+              member.bus(), member.owner(), rate.frequencyHz, 0.0, member.signals());
+        }
+      }
+      Logger.recordOutput("CAN/SignalRates/" + entry.getKey(), rate);
+    }
+  }
+}
@@ -0,0 +1,307 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Threads;
+import frc.robot.Constants.ThreadConstants;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Sets the scheduling of the robot's own threads and measures how late they wake. Each thread
+ * registers itself once it's running, with a real-time priority if it wakes on a schedule and
+ * optionally a CPU core to stay on, and reports when it starts and finishes each unit of work.
+ *
+ * <p>A real-time thread that keeps staying busy longer than its spin timeout would starve
+ * everything below it, including NetworkTables and the logger, so a watchdog thread flags it after
+ * repeated overruns and the thread drops itself back to normal scheduling when it next reports
+ * work. A one-off slow loop, e.g. a garbage collection, doesn't count. Once the thread's work has
+ * fit in the timeout for a while it's promoted back.
+ *
+ * <p>CPU affinity is set once per thread when it registers, by a separate normal priority thread,
+ * since there's no way to set it without starting a process. Failures are reported by an alert.
+ *
+ * <p>Priorities and affinity are only applied on the real robot. Wake latency is measured
+ * everywhere, so it can be compared with real-time priorities on and off.
+ */
+public class ThreadManager {
+  /**
+   * How a thread should be scheduled.
+   *
+   * @param priority Real-time priority from 1 to 99, higher running first, or 0 for normal
+   *     scheduling.
+   * @param cpu The core to keep the thread on, or -1 for any.
+   * @param spinTimeoutSeconds How long each unit of the thread's work should take at most. Running
+   *     past it repeatedly gets the thread demoted.
+   */
+  public static record ThreadSettings(int priority, int cpu, double spinTimeoutSeconds) {
+    /** Normal scheduling, which is never demoted, optionally kept on one core. */
+    public static ThreadSettings normal(int cpu) {
+      return new ThreadSettings(0, cpu, Double.POSITIVE_INFINITY);
+    }
+
+    public boolean isRealTime() {
+      return priority > 0;
+    }
+  }
+
+  /** A registered thread, for reporting its work. */
+  public static class ManagedThread {
+    private final String name;
+    private final ThreadSettings settings;
+    private final int tid;
+    private volatile boolean affinityApplied = false;
+    private volatile boolean realTime;
+    private volatile boolean demoted = false;
+    // When the current work started, or 0 while idle
+    private volatile long workStartNanos = 0;
+    // Units of work in a row that ran past the spin timeout
+    private volatile int overruns = 0;
+    // When the last overrun finished, for promoting back once the thread recovers
+    private volatile long lastOverrunNanos = 0;
+
+    // Read and reset by the main loop for logging
+    private int wakes = 0;
+    private double wakeLatencyTotalSeconds = 0.0;
+    private double wakeLatencyMaxSeconds = 0.0;
+    private double busyMaxSeconds = 0.0;
+
+    private ManagedThread(String name, ThreadSettings settings, int tid, boolean realTime) {
+      this.name = name;
+      this.settings = settings;
+      this.tid = tid;
+      this.realTime = realTime;
+    }
+
+    /**
+     * Records that the thread woke to start work. Must be called from the thread.
+     *
+     * @param expectedWakeSeconds When it should have woken, in real FPGA seconds, or NaN if there
+     *     was no expected time.
+     */
+    public void startWork(double expectedWakeSeconds) {
+      startWork(expectedWakeSeconds, RobotController.getFPGATime() / 1e6);
+    }
+
+    /**
+     * Records that the thread woke to start work. Must be called from the thread.
+     *
+     * @param expectedWakeSeconds When it should have woken, in real FPGA seconds, or NaN if there
+     *     was no expected time.
+     * @param wakeSeconds When it actually woke, if that was measured earlier.
+     */
+    public void startWork(double expectedWakeSeconds, double wakeSeconds) {
+      workStartNanos = System.nanoTime();
+      if (demoted && realTime) {
+        // Flagged by the watchdog while this thread was waiting
+        Threads.setCurrentThreadPriority(false, 0);
+        realTime = false;
+      }
+      if (Double.isNaN(expectedWakeSeconds)) {
+        return;
+      }
+      double latency = Math.max(0.0, wakeSeconds - expectedWakeSeconds);
+      synchronized (this) {
+        wakes++;
+        wakeLatencyTotalSeconds += latency;
+        wakeLatencyMaxSeconds = Math.max(wakeLatencyMaxSeconds, latency);
+      }
+    }
+
+    /** Records that the thread finished its work. Must be called from the thread. */
+    public void finishWork() {
+      long now = System.nanoTime();
+      double busy = (now - workStartNanos) / 1e9;
+      workStartNanos = 0;
+      synchronized (this) {
+        busyMaxSeconds = Math.max(busyMaxSeconds, busy);
+      }
+      if (busy > settings.spinTimeoutSeconds()) {
+        overruns++;
+        lastOverrunNanos = now;
+      } else {
+        overruns = 0;
+      }
+
+      if (demoted && realTime) {
+        // Flagged by the watchdog during this work
+        Threads.setCurrentThreadPriority(false, 0);
+        realTime = false;
+      } else if (demoted
+          && overruns == 0
+          && (now - lastOverrunNanos) / 1e9 > ThreadConstants.PROMOTE_RECOVERY_SECONDS) {
+        realTime = Threads.setCurrentThreadPriority(true, settings.priority());
+        demoted = false;
+      }
+    }
+
+    /** @return Spin timeouts in a row, including each one the current work has run past. */
+    private int overrunsIncludingCurrent(long now) {
+      long workStart = workStartNanos;
+      int current =
+          workStart != 0 ? (int) ((now - workStart) / 1e9 / settings.spinTimeoutSeconds()) : 0;
+      return overruns + current;
+    }
+
+    private synchronized void log() {
+      String prefix = "Threads/" + name + "/";
+      Logger.recordOutput(prefix + "RealTime", realTime);
+      Logger.recordOutput(prefix + "Demoted", demoted);
+      Logger.recordOutput(prefix + "Cpu", affinityApplied ? settings.cpu() : -1);
+      Logger.recordOutput(prefix + "Wakes", wakes);
+      Logger.recordOutput(
+          prefix + "WakeLatencyMeanMs",
+          wakes > 0 ? wakeLatencyTotalSeconds / wakes * 1000.0 : 0.0);
+      Logger.recordOutput(prefix + "WakeLatencyMaxMs", wakeLatencyMaxSeconds * 1000.0);
+      Logger.recordOutput(prefix + "BusyMaxMs", busyMaxSeconds * 1000.0);
+      wakes = 0;
+      wakeLatencyTotalSeconds = 0.0;
+      wakeLatencyMaxSeconds = 0.0;
+      busyMaxSeconds = 0.0;
+    }
+  }
+
+  private static final List<ManagedThread> threads = new ArrayList<>();
+  private static final List<String> affinityFailures = new ArrayList<>();
+  private static final Alert demotedAlert = new Alert("", AlertType.kWarning);
+  private static final Alert affinityAlert = new Alert("", AlertType.kWarning);
+  private static Thread watchdog = null;
+  private static ExecutorService affinityExecutor = null;
+
+  private ThreadManager() {}
+
+  /**
+   * Applies scheduling settings to the current thread and starts tracking it. Should be called by
+   * each thread once, when it starts running.
+   *
+   * @param name A name for the thread, used in the logs.
+   * @param settings How it should be scheduled.
+   * @return A handle for reporting the thread's work.
+   */
+  public static ManagedThread register(String name, ThreadSettings settings) {
+    boolean apply = RobotBase.isReal();
+    int tid = apply ? getCurrentTid() : -1;
+    boolean realTime =
+        apply
+            && settings.isRealTime()
+            && Threads.setCurrentThreadPriority(true, settings.priority());
+
+    ManagedThread thread = new ManagedThread(name, settings, tid, realTime);
+    synchronized (ThreadManager.class) {
+      threads.add(thread);
+      if (realTime && watchdog == null) {
+        watchdog = new Thread(ThreadManager::runWatchdog, "ThreadManagerWatchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+      }
+      if (apply && settings.cpu() >= 0) {
+        if (affinityExecutor == null) {
+          affinityExecutor =
+              Executors.newSingleThreadExecutor(
+                  runnable -> {
+                    Thread affinityThread = new Thread(runnable, "ThreadManagerAffinity");
+                    affinityThread.setDaemon(true);
+                    return affinityThread;
+                  });
+        }
+        affinityExecutor.execute(() -> applyAffinity(thread));
+      }
+    }
+    return thread;
+  }
+
+  /** Pins a thread to its core. Runs on the affinity thread, so the thread itself never waits. */
+  private static void applyAffinity(ManagedThread thread) {
+    String error =
+        thread.tid < 0
+            ? "thread ID unknown"
+            : runCommand(
+                "taskset", "-p", "-c", Integer.toString(thread.settings.cpu()), "" + thread.tid);
+    if (error == null) {
+      thread.affinityApplied = true;
+      return;
+    }
+    synchronized (ThreadManager.class) {
+      affinityFailures.add(thread.name + " (" + error + ")");
+    }
+  }
+
+  /** Logs each thread's scheduling and wake latency since the last call. Call once a loop. */
+  public static synchronized void periodic() {
+    List<String> demoted = new ArrayList<>();
+    for (ManagedThread thread : threads) {
+      thread.log();
+      if (thread.demoted) {
+        demoted.add(thread.name);
+      }
+    }
+    demotedAlert.setText("Threads demoted for spinning: " + String.join(", ", demoted));
+    demotedAlert.set(!demoted.isEmpty());
+    affinityAlert.setText(
+        "Failed to pin threads to their CPU: " + String.join(", ", affinityFailures));
+    affinityAlert.set(!affinityFailures.isEmpty());
+  }
+
+  private static void runWatchdog() {
+    // Above every managed thread, so it still runs while one of them spins
+    Threads.setCurrentThreadPriority(true, ThreadConstants.WATCHDOG_PRIORITY);
+    while (true) {
+      try {
+        Thread.sleep((long) (ThreadConstants.WATCHDOG_PERIOD_SECONDS * 1000));
+      } catch (InterruptedException e) {
+        return;
+      }
+      long now = System.nanoTime();
+      List<ManagedThread> snapshot;
+      synchronized (ThreadManager.class) {
+        snapshot = new ArrayList<>(threads);
+      }
+      for (ManagedThread thread : snapshot) {
+        if (thread.realTime
+            && !thread.demoted
+            && thread.overrunsIncludingCurrent(now) >= ThreadConstants.DEMOTE_OVERRUNS) {
+          // The thread drops its own priority as soon as it next reports work
+          thread.lastOverrunNanos = now;
+          thread.demoted = true;
+        }
+      }
+    }
+  }
+
+  /** @return The kernel's ID for the current thread, or -1 if it can't be read. */
+  private static int getCurrentTid() {
+    try {
+      // Links to "<pid>/task/<tid>"
+      return Integer.parseInt(
+          Files.readSymbolicLink(Path.of("/proc/thread-self")).getFileName().toString());
+    } catch (IOException | UnsupportedOperationException | NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /** @return Null if the command ran and succeeded, and otherwise why it failed. */
+  private static String runCommand(String... command) {
+    try {
+      int exitCode =
+          new ProcessBuilder(command)
+              .redirectErrorStream(true)
+              .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+              .start()
+              .waitFor();
+      return exitCode == 0 ? null : command[0] + " exited with " + exitCode;
+    } catch (IOException e) {
+      return e.getMessage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "interrupted";
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package frc.robot.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pairwise travel times between named field locations. Entry {@code [i][j]} is the estimated time
+ * in seconds to drive from location i to location j, or infinity if j can't be reached from i.
+ *
+ * <p>Matrices are saved as plain CSV with a key line at the top. The key identifies the inputs the
+ * matrix was computed from (poses, navgrid, constraints) so a stale cache is never reused.
+ */
+public class TravelTimeMatrix {
+  private final String key;
+  private final List<String> names;
+  private final double[][] seconds;
+
+  public TravelTimeMatrix(String key, List<String> names, double[][] seconds) {
+    this.key = key;
+    this.names = List.copyOf(names);
+    this.seconds = seconds;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public List<String> getNames() {
+    return names;
+  }
+
+  public int size() {
+    return names.size();
+  }
+
+  /** Returns the travel time between two locations by index. */
+  public double get(int from, int to) {
+    return seconds[from][to];
+  }
+
+  /** Returns the travel time between two locations by name. */
+  public double get(String from, String to) {
+    return seconds[names.indexOf(from)][names.indexOf(to)];
+  }
+
+  /** Writes the matrix to a CSV file, creating parent directories as needed. */
+  public void save(File file) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+      writer.println("# key=" + key);
+      writer.println(String.join(",", names));
+      for (double[] row : seconds) {
+        StringBuilder line = new StringBuilder();
+        for (int j = 0; j < row.length; j++) {
+          if (j > 0) {
+            line.append(',');
+          }
+          line.append(Double.isFinite(row[j]) ? Double.toString(row[j]) : "inf");
+        }
+        writer.println(line);
+      }
+    }
+  }
+
+  /**
+   * Loads a matrix from a CSV file written by {@link #save(File)}.
+   *
+   * @param file The cache file.
+   * @param expectedKey The key of the inputs the caller needs.
+   * @return The matrix, or empty if the file is missing, unreadable, or was computed from different
+   *     inputs.
+   */
+  public static Optional<TravelTimeMatrix> load(File file, String expectedKey) {
+    if (!file.isFile()) {
+      return Optional.empty();
+    }
+    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      String keyLine = reader.readLine();
+      if (keyLine == null || !keyLine.equals("# key=" + expectedKey)) {
+        return Optional.empty();
+      }
+      List<String> names = List.of(reader.readLine().split(","));
+      double[][] seconds = new double[names.size()][names.size()];
+      for (int i = 0; i < names.size(); i++) {
+        String[] values = reader.readLine().split(",");
+        for (int j = 0; j < names.size(); j++) {
+          seconds[i][j] =
+              values[j].equals("inf") ? Double.POSITIVE_INFINITY : Double.parseDouble(values[j]);
+        }
+      }
+      return Optional.of(new TravelTimeMatrix(expectedKey, names, seconds));
+    } catch (IOException | RuntimeException e) {
+      // A corrupt cache is just a cache miss
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package frc.robot.subsystems.Indexer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.IndexerConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The detector debounces against the real clock, so these run it in real time, passing
+ * timestamps from the same clock.
+ */
+class IndexerJamDetectorTest {
+    private static final double TARGET_RPS = 30.0;
+    private static final double STALL_AMPS = IndexerConstants.JAM_CURRENT_AMPS + 20.0;
+    // Long enough to be sure the debounce has passed
+    private static final double DEBOUNCED_SECONDS = IndexerConstants.JAM_DEBOUNCE_SECONDS + 0.05;
+
+    private final long startNanos = System.nanoTime();
+    private IndexerJamDetector detector;
+
+    private double now() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * Updates the detector every few milliseconds with the same readings, as the robot loop
+     * would.
+     *
+     * @return Whether the detector reported a jam on the last update.
+     */
+    private boolean run(double seconds, double targetRps, double velocityRps, double currentAmps)
+        throws InterruptedException {
+        double end = now() + seconds;
+        boolean jammed;
+        do {
+            jammed = detector.update(now(), targetRps, velocityRps, currentAmps);
+            Thread.sleep(5);
+        } while (now() < end);
+        return jammed;
+    }
+
+    @BeforeEach
+    void start() {
+        detector = new IndexerJamDetector();
+        detector.reset(now());
+    }
+
+    /** Runs normally until the startup window has passed. */
+    private void spinUp() throws InterruptedException {
+        assertFalse(
+            run(IndexerConstants.JAM_STARTUP_IGNORE_SECONDS + 0.05, TARGET_RPS, TARGET_RPS, 5.0));
+    }
+
+    @Test
+    void detectsAStall() throws InterruptedException {
+        spinUp();
+
+        assertTrue(run(DEBOUNCED_SECONDS, TARGET_RPS, 0.0, STALL_AMPS));
+    }
+
+    @Test
+    void ignoresSpinUp() throws InterruptedException {
+        // Spin-up draws the same current at low speed
+        assertFalse(
+            run(IndexerConstants.JAM_STARTUP_IGNORE_SECONDS * 0.75, TARGET_RPS, 0.0, STALL_AMPS));
+
+        // Still stalled well after starting, so it's a real jam
+        assertTrue(run(DEBOUNCED_SECONDS + 0.1, TARGET_RPS, 0.0, STALL_AMPS));
+    }
+
+    @Test
+    void ignoresABallPassingThrough() throws InterruptedException {
+        spinUp();
+
+        assertFalse(detector.update(now(), TARGET_RPS, 0.0, STALL_AMPS));
+        assertFalse(run(DEBOUNCED_SECONDS, TARGET_RPS, TARGET_RPS, 5.0));
+    }
+
+    @Test
+    void needsTheVelocityToCollapse() throws InterruptedException {
+        spinUp();
+
+        assertFalse(run(DEBOUNCED_SECONDS, TARGET_RPS, TARGET_RPS * 0.5, STALL_AMPS));
+    }
+
+    @Test
+    void detectsAStallInReverse() throws InterruptedException {
+        spinUp();
+
+        assertFalse(run(DEBOUNCED_SECONDS, -TARGET_RPS, -TARGET_RPS, STALL_AMPS));
+        assertTrue(run(DEBOUNCED_SECONDS, -TARGET_RPS, 0.0, STALL_AMPS));
+    }
+
+    @Test
+    void watchesSpinUpAgainAfterReset() throws InterruptedException {
+        spinUp();
+        detector.reset(now());
+
+        assertFalse(
+            run(IndexerConstants.JAM_STARTUP_IGNORE_SECONDS * 0.75, TARGET_RPS, 0.0, STALL_AMPS));
+    }
+}
@@ -0,0 +1,111 @@
+package frc.robot.subsystems.outtake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.OuttakeConstants;
+import org.junit.jupiter.api.Test;
+
+/** The detector debounces against the real clock, so these run it in real time. */
+class FlywheelShotDetectorTest {
+  // Long enough to be sure the at-speed debounce has passed
+  private static final double SETTLE_SECONDS =
+      OuttakeConstants.FLYWHEEL_AT_SPEED_DEBOUNCE_SECONDS + 0.05;
+  private static final double DIP_RPS = OuttakeConstants.FLYWHEEL_SHOT_DIP_RPS + 1.0;
+
+  private final FlywheelShotDetector detector = new FlywheelShotDetector();
+
+  /** Updates the detector every few milliseconds with the same readings, as the loop would. */
+  private void run(double seconds, boolean running, double targetRps, double velocityRps)
+      throws InterruptedException {
+    long end = System.nanoTime() + (long) (seconds * 1e9);
+    do {
+      detector.update(running, targetRps, velocityRps);
+      Thread.sleep(5);
+    } while (System.nanoTime() < end);
+  }
+
+  @Test
+  void countsEachDipAfterReachingSpeed() throws InterruptedException {
+    run(SETTLE_SECONDS, true, 50.0, 50.0);
+    assertTrue(detector.isAtSpeed());
+
+    detector.update(true, 50.0, 50.0 - DIP_RPS);
+    assertFalse(detector.isAtSpeed());
+    assertEquals(1, detector.getShotCount());
+
+    // Still recovering, so not another shot
+    run(0.02, true, 50.0, 50.0 - DIP_RPS);
+    assertEquals(1, detector.getShotCount());
+
+    run(SETTLE_SECONDS, true, 50.0, 50.0);
+    detector.update(true, 50.0, 50.0 - DIP_RPS);
+    assertEquals(2, detector.getShotCount());
+  }
+
+  @Test
+  void doesntCountSpinningUp() throws InterruptedException {
+    for (double velocity = 0.0; velocity <= 50.0; velocity += 5.0) {
+      run(0.01, true, 50.0, velocity);
+    }
+
+    assertEquals(0, detector.getShotCount());
+  }
+
+  @Test
+  void doesntCountStopping() throws InterruptedException {
+    run(SETTLE_SECONDS, true, 50.0, 50.0);
+
+    for (double velocity = 50.0; velocity >= 0.0; velocity -= 5.0) {
+      run(0.01, false, 0.0, velocity);
+    }
+
+    assertFalse(detector.isAtSpeed());
+    assertEquals(0, detector.getShotCount());
+  }
+
+  @Test
+  void rearmsWhenTheTargetRises() throws InterruptedException {
+    run(SETTLE_SECONDS, true, 40.0, 40.0);
+    assertTrue(detector.isAtSpeed());
+
+    // Well below the new target, but only because it hasn't got there yet
+    detector.update(true, 60.0, 40.0);
+    run(0.02, true, 60.0, 45.0);
+    assertFalse(detector.isAtSpeed());
+    assertEquals(0, detector.getShotCount());
+
+    run(SETTLE_SECONDS, true, 60.0, 60.0);
+    assertTrue(detector.isAtSpeed());
+    detector.update(true, 60.0, 60.0 - DIP_RPS);
+    assertEquals(1, detector.getShotCount());
+  }
+
+  @Test
+  void rearmsWhenTheTargetFalls() throws InterruptedException {
+    run(SETTLE_SECONDS, true, 60.0, 60.0);
+
+    // Coasting down through the new target
+    detector.update(true, 40.0, 60.0);
+    run(0.02, true, 40.0, 41.0);
+    detector.update(true, 40.0, 40.0 - DIP_RPS);
+    assertEquals(0, detector.getShotCount());
+
+    run(SETTLE_SECONDS, true, 40.0, 40.0);
+    detector.update(true, 40.0, 40.0 - DIP_RPS);
+    assertEquals(1, detector.getShotCount());
+  }
+
+  @Test
+  void staysArmedThroughSmallTargetChanges() throws InterruptedException {
+    run(SETTLE_SECONDS, true, 50.0, 50.0);
+
+    // Within tolerance of the old target, as from a moving-shot correction
+    double nudged = 50.0 + OuttakeConstants.FLYWHEEL_AT_SPEED_TOLERANCE_RPS * 0.5;
+    detector.update(true, nudged, 50.0);
+    detector.update(true, nudged, nudged - DIP_RPS);
+
+    assertEquals(1, detector.getShotCount());
+  }
+}
@@ -0,0 +1,114 @@
+package frc.robot.subsystems.outtake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.Constants.OuttakeConstants;
+import frc.robot.subsystems.outtake.MovingShotSolver.ShotSolution;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class MovingShotSolverTest {
+  private static final double EPSILON = 1e-9;
+  private static final double LATENCY = OuttakeConstants.SHOT_RELEASE_LATENCY_SECONDS;
+
+  // 1 to 5 meters, with the same 1 second time of flight everywhere so the solver settles at once
+  private static final ShotMap FIXED_FLIGHT_MAP =
+      new ShotMap(
+          1.0,
+          1.0,
+          new double[] {60.0, 55.0, 50.0, 45.0, 40.0},
+          new double[] {40.0, 45.0, 50.0, 55.0, 60.0},
+          new double[] {1.0, 1.0, 1.0, 1.0, 1.0});
+
+  private static Rotation2d aimedHeading(Translation2d launch, Translation2d virtualTarget) {
+    return virtualTarget.minus(launch).getAngle().minus(OuttakeConstants.SHOOTER_HEADING_OFFSET);
+  }
+
+  private static void assertHeading(Rotation2d expected, Rotation2d actual) {
+    assertEquals(0.0, expected.minus(actual).getRadians(), EPSILON);
+  }
+
+  @Test
+  void aimsAtTheTargetWhenStationary() {
+    MovingShotSolver solver = new MovingShotSolver(FIXED_FLIGHT_MAP);
+    Translation2d target = new Translation2d(3.0, 0.0);
+
+    ShotSolution solution = solver.solve(Pose2d.kZero, new ChassisSpeeds(), target).orElseThrow();
+
+    assertEquals(target.getX(), solution.virtualTarget().getX(), EPSILON);
+    assertEquals(target.getY(), solution.virtualTarget().getY(), EPSILON);
+    assertEquals(3.0, solution.distanceMeters(), EPSILON);
+    assertEquals(50.0, solution.hoodAngleDegrees(), EPSILON);
+    assertEquals(50.0, solution.flywheelRps(), EPSILON);
+    assertEquals(1.0, solution.timeOfFlightSeconds(), EPSILON);
+    assertTrue(solution.converged());
+    assertHeading(aimedHeading(Translation2d.kZero, target), solution.robotHeading());
+  }
+
+  @Test
+  void leadsTheTargetWhenMoving() {
+    MovingShotSolver solver = new MovingShotSolver(FIXED_FLIGHT_MAP);
+    Translation2d target = new Translation2d(3.0, 0.0);
+    ChassisSpeeds speeds = new ChassisSpeeds(0.0, 1.0, 0.0);
+
+    ShotSolution solution = solver.solve(Pose2d.kZero, speeds, target).orElseThrow();
+
+    // The ball keeps the robot's 1 m/s sideways for the 1 second flight
+    Translation2d launch = new Translation2d(0.0, LATENCY);
+    Translation2d virtualTarget = new Translation2d(3.0, -1.0);
+    assertEquals(virtualTarget.getX(), solution.virtualTarget().getX(), EPSILON);
+    assertEquals(virtualTarget.getY(), solution.virtualTarget().getY(), EPSILON);
+    assertEquals(launch.getDistance(virtualTarget), solution.distanceMeters(), EPSILON);
+    assertTrue(solution.converged());
+    assertHeading(aimedHeading(launch, virtualTarget), solution.robotHeading());
+  }
+
+  @Test
+  void reportsWhenTheFlightTimeDoesNotSettle() {
+    // Time of flight equal to distance, so driving at the target at 0.9 m/s only settles slowly
+    double[] timeOfFlight = {0.0, 1.0, 2.0, 3.0, 4.0, 5.0};
+    ShotMap map = new ShotMap(0.0, 1.0, new double[6], new double[6], timeOfFlight);
+    MovingShotSolver solver = new MovingShotSolver(map);
+
+    Optional<ShotSolution> solution =
+        solver.solve(Pose2d.kZero, new ChassisSpeeds(0.9, 0.0, 0.0), new Translation2d(3.0, 0.0));
+
+    assertTrue(solution.isPresent());
+    assertFalse(solution.get().converged());
+  }
+
+  @Test
+  void hasNoShotOutOfRange() {
+    MovingShotSolver solver = new MovingShotSolver(FIXED_FLIGHT_MAP);
+
+    // Too far, and too close
+    assertTrue(
+        solver.solve(Pose2d.kZero, new ChassisSpeeds(), new Translation2d(6.0, 0.0)).isEmpty());
+    assertTrue(
+        solver.solve(Pose2d.kZero, new ChassisSpeeds(), new Translation2d(0.5, 0.0)).isEmpty());
+    // In range standing still, but driving away pushes the virtual target past the map
+    Translation2d target = new Translation2d(4.5, 0.0);
+    assertTrue(solver.solve(Pose2d.kZero, new ChassisSpeeds(), target).isPresent());
+    assertTrue(solver.solve(Pose2d.kZero, new ChassisSpeeds(-2.0, 0.0, 0.0), target).isEmpty());
+  }
+
+  @Test
+  void turnsBackByTheShooterOffset() {
+    MovingShotSolver solver = new MovingShotSolver(FIXED_FLIGHT_MAP);
+    // Facing away from the target shouldn't matter, only where the target is
+    Pose2d pose = new Pose2d(1.0, 1.0, Rotation2d.k180deg);
+
+    ShotSolution solution =
+        solver.solve(pose, new ChassisSpeeds(), new Translation2d(1.0, 4.0)).orElseThrow();
+
+    assertHeading(
+        Rotation2d.kCCW_90deg.minus(OuttakeConstants.SHOOTER_HEADING_OFFSET),
+        solution.robotHeading());
+  }
+}
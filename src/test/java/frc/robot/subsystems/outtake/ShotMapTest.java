@@ -0,0 +1,150 @@
+package frc.robot.subsystems.outtake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.OuttakeConstants;
+import frc.robot.subsystems.outtake.ShotMap.Shot;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShotMapTest {
+  private static final double EPSILON = 1e-9;
+
+  @TempDir Path directory;
+
+  private static void assertShot(
+      double hood, double flywheel, double timeOfFlight, Optional<Shot> shot, double tolerance) {
+    assertTrue(shot.isPresent());
+    assertEquals(hood, shot.get().hoodAngleDegrees(), tolerance);
+    assertEquals(flywheel, shot.get().flywheelRps(), tolerance);
+    assertEquals(timeOfFlight, shot.get().timeOfFlightSeconds(), tolerance);
+  }
+
+  @Test
+  void interpolatesBetweenEntries() {
+    ShotMap map =
+        new ShotMap(
+            1.0,
+            1.0,
+            new double[] {60.0, 50.0, 40.0},
+            new double[] {40.0, 50.0, 60.0},
+            new double[] {1.0, 2.0, 3.0});
+
+    assertShot(60.0, 40.0, 1.0, map.get(1.0), EPSILON);
+    assertShot(55.0, 45.0, 1.5, map.get(1.5), EPSILON);
+    assertShot(42.5, 57.5, 2.75, map.get(2.75), EPSILON);
+    assertShot(40.0, 60.0, 3.0, map.get(3.0), EPSILON);
+    assertEquals(1.0, map.getMinDistanceMeters());
+    assertEquals(3.0, map.getMaxDistanceMeters());
+  }
+
+  @Test
+  void hasNoShotOffTheMap() {
+    ShotMap map =
+        new ShotMap(1.0, 1.0, new double[] {60.0, 50.0}, new double[2], new double[2]);
+
+    assertTrue(map.get(0.99).isEmpty());
+    assertTrue(map.get(2.01).isEmpty());
+  }
+
+  @Test
+  void hasNoShotNextToAMissingEntry() {
+    ShotMap map =
+        new ShotMap(
+            1.0, 1.0, new double[] {60.0, Double.NaN, 40.0}, new double[3], new double[3]);
+
+    assertTrue(map.get(1.5).isEmpty());
+    assertTrue(map.get(2.5).isEmpty());
+    assertTrue(map.get(3.0).isPresent());
+  }
+
+  @Test
+  void roundTripsThroughCsv() throws IOException {
+    // On the grid read() resamples to, with the closest entry unreachable
+    double step = OuttakeConstants.SHOT_MAP_STEP_METERS;
+    int count = 11;
+    double[] hood = new double[count];
+    double[] flywheel = new double[count];
+    double[] timeOfFlight = new double[count];
+    for (int i = 0; i < count; i++) {
+      hood[i] = 70.0 - i;
+      flywheel[i] = 40.0 + 0.5 * i;
+      timeOfFlight[i] = 0.8 + 0.01 * i;
+    }
+    hood[0] = Double.NaN;
+    ShotMap map = new ShotMap(2.0, step, hood, flywheel, timeOfFlight);
+    File file = directory.resolve("nested/shotmap.csv").toFile();
+
+    map.write(file);
+    ShotMap loaded = ShotMap.read(file);
+
+    assertEquals(2.0 + step, loaded.getMinDistanceMeters(), 1e-6);
+    assertEquals(map.getMaxDistanceMeters(), loaded.getMaxDistanceMeters(), 1e-6);
+    for (int i = 1; i < count; i++) {
+      double distance = 2.0 + i * step;
+      Shot expected = map.get(distance).orElseThrow();
+      assertShot(
+          expected.hoodAngleDegrees(),
+          expected.flywheelRps(),
+          expected.timeOfFlightSeconds(),
+          loaded.get(distance),
+          1e-3);
+    }
+  }
+
+  @Test
+  void resamplesTunedPointsOntoTheGrid() throws IOException {
+    File file = directory.resolve("shotmap.csv").toFile();
+    Files.writeString(
+        file.toPath(),
+        String.join(
+            "\n",
+            "distance_m,hood_deg,flywheel_rps,tof_s",
+            "# tuned on the practice field",
+            "3.0, 50.0, 60.0, 1.2",
+            "",
+            "2.0, 60.0, 50.0, 1.0"));
+
+    ShotMap map = ShotMap.read(file);
+
+    assertEquals(2.0, map.getMinDistanceMeters(), 1e-6);
+    assertEquals(3.0, map.getMaxDistanceMeters(), 1e-6);
+    assertShot(55.0, 55.0, 1.1, map.get(2.5), 1e-6);
+  }
+
+  @Test
+  void rejectsMalformedFiles() throws IOException {
+    File onePoint = directory.resolve("one.csv").toFile();
+    Files.writeString(onePoint.toPath(), "2.0,60.0,50.0,1.0\n");
+    File missingValue = directory.resolve("missing.csv").toFile();
+    Files.writeString(missingValue.toPath(), "2.0,60.0,50.0,1.0\n3.0,50.0,60.0\n");
+
+    assertThrows(IOException.class, () -> ShotMap.read(onePoint));
+    assertThrows(IOException.class, () -> ShotMap.read(missingValue));
+  }
+
+  @Test
+  void matchesTheModelAtGridEntries() {
+    ShotModel model = new ShotModel();
+
+    ShotMap map = ShotMap.fromModel(model, 2.0, 4.0, 0.5);
+
+    assertEquals(4.0, map.getMaxDistanceMeters(), EPSILON);
+    for (double distance = 2.0; distance <= 4.0; distance += 0.5) {
+      Shot expected = model.solve(distance).orElseThrow();
+      assertShot(
+          expected.hoodAngleDegrees(),
+          expected.flywheelRps(),
+          expected.timeOfFlightSeconds(),
+          map.get(distance),
+          1e-6);
+    }
+  }
+}
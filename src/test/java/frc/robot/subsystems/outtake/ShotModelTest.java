@@ -0,0 +1,82 @@
+package frc.robot.subsystems.outtake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.OuttakeConstants;
+import frc.robot.subsystems.outtake.ShotModel.Landing;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ShotModelTest {
+  private static final double G = OuttakeConstants.GRAVITATIONAL_CONSTANT_MPS2;
+
+  /** A ball with no drag or lift, aimed at the launch height. */
+  private static ShotModel vacuumModel() {
+    return new ShotModel(0.2, 0.15, 0.0, 0.0, 0.0);
+  }
+
+  @Test
+  void matchesProjectileMotionWithoutAir() {
+    ShotModel model = vacuumModel();
+    for (double angle : new double[] {30.0, 45.0, 60.0}) {
+      double speed = 10.0;
+      double radians = Math.toRadians(angle);
+
+      Landing landing = model.simulate(speed, angle).orElseThrow();
+
+      assertEquals(speed * speed * Math.sin(2.0 * radians) / G, landing.distanceMeters(), 1e-3);
+      assertEquals(2.0 * speed * Math.sin(radians) / G, landing.timeOfFlightSeconds(), 1e-3);
+    }
+  }
+
+  @Test
+  void dragShortensTheShot() {
+    ShotModel dragOnly = new ShotModel(0.2, 0.15, 0.5, 0.0, 0.0);
+
+    double vacuum = vacuumModel().simulate(10.0, 45.0).orElseThrow().distanceMeters();
+    double withDrag = dragOnly.simulate(10.0, 45.0).orElseThrow().distanceMeters();
+
+    assertTrue(withDrag < vacuum);
+  }
+
+  @Test
+  void missesTargetsAboveTheArc() {
+    // Peaks at v^2 sin^2(angle) / 2g, about 2.55 m
+    ShotModel model = vacuumModel();
+
+    assertTrue(model.simulate(10.0, 45.0, 2.4).isPresent());
+    assertTrue(model.simulate(10.0, 45.0, 2.7).isEmpty());
+  }
+
+  @Test
+  void convertsBetweenFlywheelAndExitSpeed() {
+    double exitSpeed = ShotModel.flywheelRpsToExitSpeed(50.0);
+
+    assertTrue(exitSpeed > 0.0);
+    assertEquals(50.0, ShotModel.exitSpeedToFlywheelRps(exitSpeed), 1e-9);
+  }
+
+  @Test
+  void solvedShotsLandAtTheirDistance() {
+    ShotModel model = new ShotModel();
+    for (double distance : new double[] {2.0, 3.5, 5.0}) {
+      ShotMap.Shot shot = model.solve(distance).orElseThrow();
+
+      assertTrue(shot.hoodAngleDegrees() >= OuttakeConstants.MINIMUM_SHOT_ANGLE_DEG);
+      assertTrue(shot.hoodAngleDegrees() <= OuttakeConstants.MAXIMUM_SHOT_ANGLE_DEG);
+      double exitSpeed = ShotModel.flywheelRpsToExitSpeed(shot.flywheelRps());
+      Landing landing = model.simulate(exitSpeed, shot.hoodAngleDegrees()).orElseThrow();
+      assertEquals(
+          distance, landing.distanceMeters(), OuttakeConstants.SHOT_SOLVE_TOLERANCE_METERS);
+      assertEquals(landing.timeOfFlightSeconds(), shot.timeOfFlightSeconds(), 1e-6);
+    }
+  }
+
+  @Test
+  void cantSolveOutOfReach() {
+    Optional<ShotMap.Shot> shot = new ShotModel().solve(40.0);
+
+    assertTrue(shot.isEmpty());
+  }
+}
@@ -0,0 +1,170 @@
+package frc.robot.subsystems.superstructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.IndexerConstants;
+import frc.robot.Constants.SuperstructureConstants;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The tracker debounces the indexer current against the real clock, so these run it in real time,
+ * passing timestamps from the same clock.
+ */
+class GamePieceTrackerTest {
+  private static final double BALL_AMPS = SuperstructureConstants.INDEXER_BALL_CURRENT_AMPS + 15.0;
+  private static final double IDLE_AMPS = 5.0;
+  // Long enough to be sure the current debounce has passed
+  private static final double BALL_SECONDS =
+      SuperstructureConstants.INDEXER_BALL_DEBOUNCE_SECONDS + 0.05;
+  private static final int PRELOAD = SuperstructureConstants.PRELOAD_BALLS;
+
+  private final long startNanos = System.nanoTime();
+  private final GamePieceTracker tracker = new GamePieceTracker();
+  private final BeamBreakIOInputsAutoLogged beamBreaks = new BeamBreakIOInputsAutoLogged();
+  private int shotCount = 0;
+
+  private double now() {
+    return (System.nanoTime() - startNanos) / 1e9;
+  }
+
+  private void update(boolean indexerRunning, double indexerCurrentAmps) {
+    tracker.update(now(), indexerRunning, indexerCurrentAmps, beamBreaks, shotCount);
+  }
+
+  /** Updates the tracker every few milliseconds with the same readings, as the loop would. */
+  private void run(double seconds, boolean indexerRunning, double indexerCurrentAmps)
+      throws InterruptedException {
+    double end = now() + seconds;
+    do {
+      update(indexerRunning, indexerCurrentAmps);
+      Thread.sleep(5);
+    } while (now() < end);
+  }
+
+  /** Starts the indexer and runs it until the startup window has passed. */
+  private void startIndexer() throws InterruptedException {
+    run(IndexerConstants.JAM_STARTUP_IGNORE_SECONDS + 0.05, true, IDLE_AMPS);
+  }
+
+  @Test
+  void countsABallEnteringTheIndexer() throws InterruptedException {
+    update(false, 0.0);
+    startIndexer();
+
+    run(BALL_SECONDS, true, BALL_AMPS);
+
+    assertEquals(PRELOAD - 1, tracker.getHopperCount());
+    assertTrue(tracker.isIndexerOccupied());
+    assertEquals(PRELOAD, tracker.getBallCount());
+  }
+
+  @Test
+  void ignoresSpinUpCurrentEachTimeTheIndexerStarts() throws InterruptedException {
+    update(false, 0.0);
+
+    // The spin-up spike lasts longer than the ball debounce, but is inside the startup window
+    double spike = IndexerConstants.JAM_STARTUP_IGNORE_SECONDS * 0.75;
+    run(spike, true, BALL_AMPS);
+    run(0.05, true, IDLE_AMPS);
+    run(0.05, false, 0.0);
+    run(spike, true, BALL_AMPS);
+    run(0.05, true, IDLE_AMPS);
+
+    assertEquals(PRELOAD, tracker.getHopperCount());
+    assertFalse(tracker.isIndexerOccupied());
+    assertEquals(PRELOAD, tracker.getBallCount());
+  }
+
+  @Test
+  void movesTheBallToTheFeederAfterTransit() throws InterruptedException {
+    update(false, 0.0);
+    startIndexer();
+    run(BALL_SECONDS, true, BALL_AMPS);
+
+    run(SuperstructureConstants.INDEXER_TRANSIT_SECONDS + 0.05, true, IDLE_AMPS);
+
+    assertFalse(tracker.isIndexerOccupied());
+    assertTrue(tracker.isFeederOccupied());
+    assertEquals(PRELOAD, tracker.getBallCount());
+  }
+
+  @Test
+  void shotsLeaveFromTheFurthestStage() throws InterruptedException {
+    update(false, 0.0);
+    startIndexer();
+    run(BALL_SECONDS, true, BALL_AMPS);
+    run(SuperstructureConstants.INDEXER_TRANSIT_SECONDS + 0.05, true, IDLE_AMPS);
+
+    shotCount++;
+    update(false, 0.0);
+    assertFalse(tracker.isFeederOccupied());
+    assertEquals(PRELOAD - 1, tracker.getHopperCount());
+
+    // Two shots seen in one loop
+    shotCount += 2;
+    update(false, 0.0);
+    assertEquals(PRELOAD - 3, tracker.getBallCount());
+  }
+
+  @Test
+  void startsCountingShotsFromTheFirstUpdate() {
+    // The flywheel may have counted shots before the tracker was created
+    shotCount = 5;
+    update(false, 0.0);
+    assertEquals(PRELOAD, tracker.getBallCount());
+
+    shotCount++;
+    update(false, 0.0);
+    assertEquals(PRELOAD - 1, tracker.getBallCount());
+  }
+
+  @Test
+  void neverCountsBelowEmpty() {
+    update(false, 0.0);
+    shotCount = PRELOAD + 2;
+    update(false, 0.0);
+
+    assertEquals(0, tracker.getBallCount());
+
+    tracker.setHopperCount(-1);
+    assertEquals(0, tracker.getHopperCount());
+  }
+
+  @Test
+  void measuresThroughputOverTheWindow() {
+    update(false, 0.0);
+    shotCount = 3;
+    update(false, 0.0);
+
+    double window = SuperstructureConstants.THROUGHPUT_WINDOW_SECONDS;
+    assertEquals(3 / window, tracker.getThroughput(now()), 1e-9);
+    assertEquals(0.0, tracker.getThroughput(now() + window + 1.0), 1e-9);
+  }
+
+  @Test
+  void usesBeamBreaksWhereFitted() {
+    beamBreaks.hasIndexerSensor = true;
+    beamBreaks.hasFeederSensor = true;
+    update(true, 0.0);
+
+    beamBreaks.indexerBlocked = true;
+    update(true, 0.0);
+    assertEquals(PRELOAD - 1, tracker.getHopperCount());
+    assertTrue(tracker.isIndexerOccupied());
+
+    beamBreaks.indexerBlocked = false;
+    beamBreaks.feederBlocked = true;
+    update(true, 0.0);
+    assertFalse(tracker.isIndexerOccupied());
+    assertTrue(tracker.isFeederOccupied());
+
+    // The feeder beam break clears as the ball leaves, rather than the shot count clearing it
+    shotCount++;
+    beamBreaks.feederBlocked = false;
+    update(false, 0.0);
+    assertFalse(tracker.isFeederOccupied());
+    assertEquals(PRELOAD - 1, tracker.getBallCount());
+  }
+}
@@ -0,0 +1,219 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.util.AutoSequencePlanner.Route;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AutoSequencePlannerTest {
+  private static final double EPSILON = 1e-9;
+
+  /** Locations on a line, one meter apart, with travel times equal to the distance. */
+  private static Map<String, Pose2d> lineLocations(String... names) {
+    Map<String, Pose2d> locations = new LinkedHashMap<>();
+    for (int i = 0; i < names.length; i++) {
+      locations.put(names[i], new Pose2d(i, 0.0, Rotation2d.kZero));
+    }
+    return locations;
+  }
+
+  private static TravelTimeMatrix distanceMatrix(Map<String, Pose2d> routeLocations) {
+    List<String> names = List.copyOf(routeLocations.keySet());
+    List<Pose2d> poses = List.copyOf(routeLocations.values());
+    double[][] seconds = new double[names.size()][names.size()];
+    for (int i = 0; i < names.size(); i++) {
+      for (int j = 0; j < names.size(); j++) {
+        seconds[i][j] = poses.get(i).getTranslation().getDistance(poses.get(j).getTranslation());
+      }
+    }
+    return new TravelTimeMatrix("test", names, seconds);
+  }
+
+  @Test
+  void visitsEveryTargetInShortestOrder() {
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(
+            lineLocations("S", "A", "B", "C"), "S", List.of("C", "A", "B"));
+
+    Route result =
+        AutoSequencePlanner.solve(route, distanceMatrix(route), Map.of(), Double.MAX_VALUE);
+
+    assertEquals(List.of("S", "A", "B", "C"), result.order());
+    assertEquals(List.of("S", "A", "B", "C").stream().map(route::get).toList(), result.poses());
+    assertEquals(3.0, result.estimatedSeconds(), EPSILON);
+  }
+
+  @Test
+  void includesStopTimes() {
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(lineLocations("S", "A", "B"), "S", List.of("A", "B"));
+
+    Route result =
+        AutoSequencePlanner.solve(
+            route, distanceMatrix(route), Map.of("A", 1.5, "B", 0.5), Double.MAX_VALUE);
+
+    assertEquals(List.of("S", "A", "B"), result.order());
+    assertEquals(4.0, result.estimatedSeconds(), EPSILON);
+  }
+
+  @Test
+  void visitsAsManyTargetsAsFitInTheBudget() {
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(
+            lineLocations("S", "A", "B", "C"), "S", List.of("A", "B", "C"));
+    TravelTimeMatrix matrix = distanceMatrix(route);
+
+    Route twoStops = AutoSequencePlanner.solve(route, matrix, Map.of(), 2.5);
+    assertEquals(List.of("S", "A", "B"), twoStops.order());
+    assertEquals(2.0, twoStops.estimatedSeconds(), EPSILON);
+
+    Route noStops = AutoSequencePlanner.solve(route, matrix, Map.of(), 0.5);
+    assertEquals(List.of("S"), noStops.order());
+    assertEquals(0.0, noStops.estimatedSeconds(), EPSILON);
+  }
+
+  @Test
+  void skipsUnreachableTargets() {
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(lineLocations("S", "A", "B"), "S", List.of("A", "B"));
+    double inf = Double.POSITIVE_INFINITY;
+    TravelTimeMatrix matrix =
+        new TravelTimeMatrix(
+            "test",
+            List.of("S", "A", "B"),
+            new double[][] {{0.0, 1.0, inf}, {1.0, 0.0, inf}, {inf, inf, 0.0}});
+
+    Route result = AutoSequencePlanner.solve(route, matrix, Map.of(), 100.0);
+
+    assertEquals(List.of("S", "A"), result.order());
+    assertEquals(1.0, result.estimatedSeconds(), EPSILON);
+  }
+
+  @Test
+  void matchesBruteForceOnAsymmetricTimes() {
+    List<String> names = List.of("S", "A", "B", "C", "D", "E", "F");
+    Map<String, Pose2d> locations = lineLocations(names.toArray(String[]::new));
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(locations, "S", names.subList(1, names.size()));
+    Random random = new Random(2471);
+
+    for (int trial = 0; trial < 20; trial++) {
+      double[][] seconds = new double[names.size()][names.size()];
+      for (int i = 0; i < names.size(); i++) {
+        for (int j = 0; j < names.size(); j++) {
+          seconds[i][j] = i == j ? 0.0 : 0.5 + 5.0 * random.nextDouble();
+        }
+      }
+      TravelTimeMatrix matrix = new TravelTimeMatrix("test", names, seconds);
+
+      Route result = AutoSequencePlanner.solve(route, matrix, Map.of(), Double.MAX_VALUE);
+
+      assertEquals(names.size(), result.order().size());
+      assertEquals(bruteForceSeconds(seconds), result.estimatedSeconds(), EPSILON);
+      assertEquals(routeSeconds(matrix, result.order()), result.estimatedSeconds(), EPSILON);
+    }
+  }
+
+  @Test
+  void rejectsInvalidRoutes() {
+    Map<String, Pose2d> locations = lineLocations("S", "A", "B");
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AutoSequencePlanner.routeLocations(locations, "S", List.of("A", "X")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AutoSequencePlanner.routeLocations(locations, "X", List.of("A")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AutoSequencePlanner.routeLocations(locations, "S", List.of("A", "S")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AutoSequencePlanner.routeLocations(locations, "S", List.of("A", "A")));
+
+    List<String> tooMany = new ArrayList<>();
+    for (int i = 0; i <= AutoSequencePlanner.MAX_TARGETS; i++) {
+      tooMany.add("A");
+    }
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AutoSequencePlanner.routeLocations(locations, "S", tooMany));
+  }
+
+  @Test
+  void rejectsMatrixForOtherLocations() {
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(lineLocations("S", "A", "B"), "S", List.of("B", "A"));
+    TravelTimeMatrix matrix =
+        distanceMatrix(
+            AutoSequencePlanner.routeLocations(
+                lineLocations("S", "A", "B"), "S", List.of("A", "B")));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AutoSequencePlanner.solve(route, matrix, Map.of(), Double.MAX_VALUE));
+  }
+
+  @Test
+  void givenOrderKeepsTheRouteAsListed() {
+    Map<String, Pose2d> route =
+        AutoSequencePlanner.routeLocations(
+            lineLocations("S", "A", "B", "C"), "S", List.of("C", "A", "B"));
+
+    Route result = AutoSequencePlanner.givenOrder(route);
+
+    assertEquals(List.of("S", "C", "A", "B"), result.order());
+    assertEquals(List.copyOf(route.values()), result.poses());
+    assertTrue(Double.isNaN(result.estimatedSeconds()));
+  }
+
+  private static double routeSeconds(TravelTimeMatrix matrix, List<String> order) {
+    double total = 0.0;
+    for (int i = 1; i < order.size(); i++) {
+      total += matrix.get(order.get(i - 1), order.get(i));
+    }
+    return total;
+  }
+
+  /** @return The fastest time through every target, trying each order from the start (index 0). */
+  private static double bruteForceSeconds(double[][] seconds) {
+    int n = seconds.length - 1;
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i + 1;
+    }
+    return bruteForce(seconds, order, 0);
+  }
+
+  private static double bruteForce(double[][] seconds, int[] order, int fixed) {
+    if (fixed == order.length) {
+      double total = seconds[0][order[0]];
+      for (int i = 1; i < order.length; i++) {
+        total += seconds[order[i - 1]][order[i]];
+      }
+      return total;
+    }
+    double best = Double.POSITIVE_INFINITY;
+    for (int i = fixed; i < order.length; i++) {
+      swap(order, fixed, i);
+      best = Math.min(best, bruteForce(seconds, order, fixed + 1));
+      swap(order, fixed, i);
+    }
+    return best;
+  }
+
+  private static void swap(int[] values, int i, int j) {
+    int value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+}
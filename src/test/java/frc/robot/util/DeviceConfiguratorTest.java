@@ -0,0 +1,98 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.Constants.DeviceConfigConstants;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class DeviceConfiguratorTest {
+  @BeforeAll
+  static void initializeHal() {
+    // Failures are reported through an alert
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  @Test
+  void retriesUntilTheConfigVerifies() {
+    AtomicInteger applies = new AtomicInteger();
+    AtomicInteger verifies = new AtomicInteger();
+    AtomicInteger afterApplies = new AtomicInteger();
+
+    DeviceConfigurator.submit(
+        "Test/Flaky",
+        () -> applies.incrementAndGet() > 0,
+        () -> verifies.incrementAndGet() > 2,
+        afterApplies::incrementAndGet);
+
+    assertTrue(DeviceConfigurator.awaitAll(5.0));
+    assertEquals(3, applies.get());
+    assertEquals(3, verifies.get());
+    assertEquals(1, afterApplies.get());
+  }
+
+  @Test
+  void givesUpAfterTheLastAttempt() {
+    AtomicInteger verifies = new AtomicInteger();
+    AtomicInteger afterApplies = new AtomicInteger();
+
+    DeviceConfigurator.submit(
+        "Test/Broken",
+        () -> true,
+        () -> {
+          verifies.incrementAndGet();
+          return false;
+        },
+        afterApplies::incrementAndGet);
+
+    assertFalse(DeviceConfigurator.awaitAll(5.0));
+    assertEquals(DeviceConfigConstants.MAX_ATTEMPTS, verifies.get());
+    // Later steps still run, so the device is usable with whatever config it has
+    assertEquals(1, afterApplies.get());
+  }
+
+  @Test
+  void stopsWaitingAtTheTimeout() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    DeviceConfigurator.submit("Test/Fine", () -> true, () -> true);
+    DeviceConfigurator.submit(
+        "Test/Hung",
+        () -> true,
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return true;
+        });
+
+    long start = System.nanoTime();
+    try {
+      assertFalse(DeviceConfigurator.awaitAll(0.2));
+      assertTrue((System.nanoTime() - start) / 1e9 < 1.0);
+    } finally {
+      release.countDown();
+    }
+    // Nothing is left pending for the next wait
+    assertTrue(DeviceConfigurator.awaitAll(0.2));
+  }
+
+  @Test
+  void failsAConfigThatThrows() {
+    DeviceConfigurator.submit(
+        "Test/Throws",
+        () -> {
+          throw new IllegalStateException("Device not found");
+        },
+        () -> true);
+
+    assertFalse(DeviceConfigurator.awaitAll(5.0));
+    assertTrue(DeviceConfigurator.awaitAll(0.0));
+  }
+}
@@ -0,0 +1,73 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IndexMinHeapTest {
+  @Test
+  void popsInKeyOrder() {
+    IndexMinHeap heap = new IndexMinHeap(4);
+    heap.push(0, 3.0);
+    heap.push(1, 1.0);
+    heap.push(2, 2.0);
+
+    assertEquals(1, heap.pop());
+    assertEquals(2, heap.pop());
+    assertEquals(0, heap.pop());
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  void growsPastItsInitialCapacity() {
+    // Pushes far more than the minimum capacity, in a shuffled key order
+    int count = 1000;
+    double[] keys = new double[count];
+    Random random = new Random(7);
+    IndexMinHeap heap = new IndexMinHeap(1);
+    for (int node = 0; node < count; node++) {
+      keys[node] = random.nextDouble();
+      heap.push(node, keys[node]);
+    }
+
+    double[] sorted = keys.clone();
+    Arrays.sort(sorted);
+    for (double expected : sorted) {
+      assertFalse(heap.isEmpty());
+      assertEquals(expected, keys[heap.pop()]);
+    }
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  void keepsDuplicateNodes() {
+    // Planners push a node again when they find it a shorter path, and skip the stale entry
+    IndexMinHeap heap = new IndexMinHeap(16);
+    heap.push(5, 4.0);
+    heap.push(6, 3.0);
+    heap.push(5, 1.0);
+
+    assertEquals(5, heap.pop());
+    assertEquals(6, heap.pop());
+    assertEquals(5, heap.pop());
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  void interleavesPushAndPop() {
+    IndexMinHeap heap = new IndexMinHeap(16);
+    heap.push(0, 5.0);
+    heap.push(1, 2.0);
+    assertEquals(1, heap.pop());
+    heap.push(2, 1.0);
+    heap.push(3, 6.0);
+    assertEquals(2, heap.pop());
+    assertEquals(0, heap.pop());
+    assertEquals(3, heap.pop());
+    assertTrue(heap.isEmpty());
+  }
+}
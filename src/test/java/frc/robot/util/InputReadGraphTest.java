@@ -0,0 +1,94 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InputReadGraphTest {
+  private static final long READ_MILLIS = 50;
+
+  @BeforeAll
+  static void initializeHal() {
+    // Reads are timed against the FPGA clock
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  @BeforeEach
+  void clearGraph() {
+    InputReadGraph.clear();
+  }
+
+  /** A read that takes a while, then counts that it finished. */
+  private static Runnable slowRead(AtomicInteger finished) {
+    return () -> {
+      try {
+        Thread.sleep(READ_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      finished.incrementAndGet();
+    };
+  }
+
+  @Test
+  void returnsOnceEveryReadFinishes() {
+    AtomicInteger finished = new AtomicInteger();
+    for (int i = 0; i < 4; i++) {
+      InputReadGraph.register("Slow" + i, slowRead(finished));
+    }
+
+    InputReadGraph.readAll();
+
+    assertEquals(4, finished.get());
+    // Each loop runs every read again
+    InputReadGraph.readAll();
+    assertEquals(8, finished.get());
+  }
+
+  @Test
+  void runsDependenciesFirst() {
+    AtomicInteger finished = new AtomicInteger();
+    AtomicBoolean dependencyDone = new AtomicBoolean(false);
+    InputReadGraph.register("Dependency", slowRead(finished));
+    InputReadGraph.register(
+        "Dependent", () -> dependencyDone.set(finished.get() == 1), "Dependency");
+
+    InputReadGraph.readAll();
+
+    assertTrue(dependencyDone.get());
+  }
+
+  @Test
+  void rethrowsAFailedRead() {
+    AtomicInteger finished = new AtomicInteger();
+    InputReadGraph.register("Slow", slowRead(finished));
+    InputReadGraph.register(
+        "Broken",
+        () -> {
+          throw new IllegalStateException("Device unplugged");
+        });
+
+    IllegalStateException thrown =
+        assertThrows(IllegalStateException.class, InputReadGraph::readAll);
+
+    assertEquals("Device unplugged", thrown.getMessage());
+    // The other reads still finish before it fails
+    assertEquals(1, finished.get());
+  }
+
+  @Test
+  void rejectsBadRegistrations() {
+    InputReadGraph.register("Drive", () -> {});
+
+    assertThrows(IllegalArgumentException.class, () -> InputReadGraph.register("Drive", () -> {}));
+    assertThrows(
+        IllegalArgumentException.class, () -> InputReadGraph.register("Vision", () -> {}, "Pose"));
+  }
+}
@@ -0,0 +1,188 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class QuadTreeNavGridTest {
+  private static final double CELL_SIZE = 0.5;
+  private static final int SIZE = 8;
+
+  @TempDir Path directory;
+
+  @BeforeAll
+  static void initializeHal() {
+    // Stale trees are reported through the driver station
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  /** A 4 m square field with a 1 m block at rows 2-3, columns 4-5. */
+  private static NavGrid testNavGrid() {
+    boolean[][] grid = new boolean[SIZE][SIZE];
+    for (int row = 2; row <= 3; row++) {
+      for (int col = 4; col <= 5; col++) {
+        grid[row][col] = true;
+      }
+    }
+    return new NavGrid(SIZE * CELL_SIZE, SIZE * CELL_SIZE, CELL_SIZE, grid);
+  }
+
+  private static Translation2d cellCenter(int row, int col) {
+    return new Translation2d((col + 0.5) * CELL_SIZE, (row + 0.5) * CELL_SIZE);
+  }
+
+  private static void assertSameCells(NavGrid expected, QuadTreeNavGrid actual) {
+    for (int row = 0; row < SIZE; row++) {
+      for (int col = 0; col < SIZE; col++) {
+        assertEquals(
+            expected.isObstacle(row, col),
+            actual.isObstacle(cellCenter(row, col)),
+            "cell " + row + ", " + col);
+      }
+    }
+  }
+
+  @Test
+  void matchesTheSourceGrid() {
+    NavGrid source = testNavGrid();
+    QuadTreeNavGrid tree = QuadTreeNavGrid.fromNavGrid(source, 42);
+
+    assertSameCells(source, tree);
+    assertTrue(tree.getLeafCount() < SIZE * SIZE);
+    assertTrue(tree.isObstacle(new Translation2d(-0.1, 1.0)));
+    assertEquals(-1, tree.leafAt(SIZE * CELL_SIZE + 0.1, 1.0));
+  }
+
+  @Test
+  void checksLineOfSightAroundObstacles() {
+    QuadTreeNavGrid tree = QuadTreeNavGrid.fromNavGrid(testNavGrid(), 0);
+
+    assertFalse(tree.hasLineOfSight(cellCenter(2, 0), cellCenter(2, 7)));
+    assertTrue(tree.hasLineOfSight(cellCenter(0, 0), cellCenter(0, 7)));
+    assertTrue(tree.hasLineOfSight(cellCenter(0, 0), cellCenter(7, 0)));
+  }
+
+  @Test
+  void roundTripsThroughItsBinaryForm() throws IOException {
+    NavGrid source = testNavGrid();
+    QuadTreeNavGrid tree = QuadTreeNavGrid.fromNavGrid(source, 0x1234_5678_9ABCL);
+    File file = directory.resolve("nested/navgrid.qtree").toFile();
+
+    tree.write(file);
+    QuadTreeNavGrid loaded = QuadTreeNavGrid.read(file);
+
+    assertEquals(tree.getSourceChecksum(), loaded.getSourceChecksum());
+    assertEquals(tree.getLeafCount(), loaded.getLeafCount());
+    assertEquals(tree.getNodeCount(), loaded.getNodeCount());
+    assertEquals(tree.contentHash(), loaded.contentHash());
+    assertEquals(tree.getCellSizeMeters(), loaded.getCellSizeMeters());
+    assertSameCells(source, loaded);
+  }
+
+  @Test
+  void rejectsFilesThatArentQuadtrees() throws IOException {
+    File file = directory.resolve("navgrid.qtree").toFile();
+    Files.writeString(file.toPath(), "{\"grid\": []}");
+
+    assertThrows(IOException.class, () -> QuadTreeNavGrid.read(file));
+  }
+
+  @Test
+  void rejectsTruncatedFiles() throws IOException {
+    File file = directory.resolve("navgrid.qtree").toFile();
+    QuadTreeNavGrid.fromNavGrid(testNavGrid(), 0).write(file);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+
+    assertThrows(IOException.class, () -> QuadTreeNavGrid.read(file));
+  }
+
+  @Test
+  void checksumsFileContents() throws IOException {
+    File file = directory.resolve("navgrid.json").toFile();
+    Files.writeString(file.toPath(), "first");
+    long first = QuadTreeNavGrid.checksum(file);
+    Files.writeString(file.toPath(), "second");
+
+    assertNotEquals(first, QuadTreeNavGrid.checksum(file));
+    assertEquals(0, QuadTreeNavGrid.checksum(directory.resolve("missing.json").toFile()));
+  }
+
+  @Test
+  void loadsTheTreeBuiltFromTheCurrentNavGrid() throws IOException {
+    File source = directory.resolve("navgrid.json").toFile();
+    File treeFile = directory.resolve("navgrid.qtree").toFile();
+    Files.writeString(source.toPath(), "navgrid");
+    QuadTreeNavGrid tree =
+        QuadTreeNavGrid.fromNavGrid(testNavGrid(), QuadTreeNavGrid.checksum(source));
+    tree.write(treeFile);
+    CountingSupplier navGrid = new CountingSupplier();
+
+    QuadTreeNavGrid loaded = QuadTreeNavGrid.load(source, treeFile, navGrid);
+
+    assertEquals(0, navGrid.calls.get());
+    assertEquals(tree.contentHash(), loaded.contentHash());
+  }
+
+  @Test
+  void rebuildsAStaleTree() throws IOException {
+    File source = directory.resolve("navgrid.json").toFile();
+    File treeFile = directory.resolve("navgrid.qtree").toFile();
+    Files.writeString(source.toPath(), "old navgrid");
+    // Built from an open field, before the navgrid gained its obstacle
+    QuadTreeNavGrid.fromNavGrid(
+            new NavGrid(SIZE * CELL_SIZE, SIZE * CELL_SIZE, CELL_SIZE, new boolean[SIZE][SIZE]),
+            QuadTreeNavGrid.checksum(source))
+        .write(treeFile);
+    Files.writeString(source.toPath(), "new navgrid");
+    CountingSupplier navGrid = new CountingSupplier();
+
+    QuadTreeNavGrid loaded = QuadTreeNavGrid.load(source, treeFile, navGrid);
+
+    assertEquals(1, navGrid.calls.get());
+    assertEquals(QuadTreeNavGrid.checksum(source), loaded.getSourceChecksum());
+    assertSameCells(navGrid.grid, loaded);
+  }
+
+  @Test
+  void rebuildsAMissingOrCorruptTree() throws IOException {
+    File source = directory.resolve("navgrid.json").toFile();
+    File treeFile = directory.resolve("navgrid.qtree").toFile();
+    Files.writeString(source.toPath(), "navgrid");
+    CountingSupplier navGrid = new CountingSupplier();
+
+    QuadTreeNavGrid missing = QuadTreeNavGrid.load(source, treeFile, navGrid);
+    Files.writeString(treeFile.toPath(), "not a quadtree");
+    QuadTreeNavGrid corrupt = QuadTreeNavGrid.load(source, treeFile, navGrid);
+
+    assertEquals(2, navGrid.calls.get());
+    assertSameCells(navGrid.grid, missing);
+    assertSameCells(navGrid.grid, corrupt);
+  }
+
+  private static class CountingSupplier implements Supplier<NavGrid> {
+    final NavGrid grid = testNavGrid();
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public NavGrid get() {
+      calls.incrementAndGet();
+      return grid;
+    }
+  }
+}